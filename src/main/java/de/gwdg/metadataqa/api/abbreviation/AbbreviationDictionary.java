@@ -0,0 +1,232 @@
+package de.gwdg.metadataqa.api.abbreviation;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Append-only, thread-safe dictionary between texts and their numeric
+ * abbreviations. Both directions are O(1): the texts are looked up in a
+ * concurrent hash map without locking, the ids index an array. Only adding
+ * new entries is synchronized.
+ *
+ * <p>The dictionary can be persisted in a compact binary file: an 8 byte
+ * header followed by (id, length, UTF-8 bytes) records. The file is read
+ * through a memory mapping, and new entries are appended in batches, so the
+ * existing part of the file is never rewritten.</p>
+ */
+public class AbbreviationDictionary implements Serializable {
+
+  private static final long serialVersionUID = -3620447211069474618L;
+  private static final byte[] MAGIC = "MQAABBR1".getBytes(StandardCharsets.US_ASCII);
+
+  private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+  private volatile String[] values = new String[16];
+  // the entries in the order they were added; a text occurs more than once
+  // only if its id changed after its previous entry was persisted
+  private int[] orderIds = new int[16];
+  private String[] orderTexts = new String[16];
+  private int entries = 0;
+  private int maxId = 0;
+  private int persisted = 0;
+
+  /**
+   * Returns the id of a text.
+   * @param text The text
+   * @return The id or null if the text is not in the dictionary
+   */
+  public Integer get(String text) {
+    return ids.get(text);
+  }
+
+  /**
+   * Returns the text of an id.
+   * @param id The id
+   * @return The text or null
+   */
+  public String getText(int id) {
+    String[] current = values;
+    return id >= 0 && id < current.length ? current[id] : null;
+  }
+
+  /**
+   * Returns the id of a text, and adds it with a new id if it is not yet in
+   * the dictionary. The new id is size + 1, or the largest id + 1 if that
+   * is already taken.
+   * @param text The text
+   * @return The id
+   */
+  public int add(String text) {
+    Integer id = ids.get(text);
+    if (id != null)
+      return id;
+    synchronized (this) {
+      id = ids.get(text);
+      if (id != null)
+        return id;
+      int newId = ids.size() + 1;
+      if (getText(newId) != null)
+        newId = maxId + 1;
+      store(text, newId);
+      return newId;
+    }
+  }
+
+  /**
+   * Set the id of a text. If the text had another id, its old entry is
+   * removed, unless it is already persisted: then the file keeps both, and
+   * the later one wins when it is loaded.
+   * @param text The text
+   * @param id The id (not negative)
+   */
+  public synchronized void put(String text, int id) {
+    if (id < 0)
+      throw new IllegalArgumentException("The id should not be negative: " + id);
+    Integer old = ids.get(text);
+    if (old != null) {
+      if (old == id)
+        return;
+      if (text.equals(values[old]))
+        values[old] = null;
+      removePending(text, old);
+    }
+    store(text, id);
+  }
+
+  /**
+   * Remove the not yet persisted entry of a text from the entries in order.
+   */
+  private void removePending(String text, int id) {
+    for (int i = entries - 1; i >= persisted; i--) {
+      if (orderIds[i] == id && text.equals(orderTexts[i])) {
+        System.arraycopy(orderIds, i + 1, orderIds, i, entries - i - 1);
+        System.arraycopy(orderTexts, i + 1, orderTexts, i, entries - i - 1);
+        entries--;
+        orderTexts[entries] = null;
+        return;
+      }
+    }
+  }
+
+  private void store(String text, int id) {
+    if (id >= values.length)
+      values = Arrays.copyOf(values, Math.max(values.length * 2, id + 1));
+    if (entries == orderIds.length) {
+      orderIds = Arrays.copyOf(orderIds, entries * 2);
+      orderTexts = Arrays.copyOf(orderTexts, entries * 2);
+    }
+    values[id] = text;
+    orderIds[entries] = id;
+    orderTexts[entries] = text;
+    entries++;
+    maxId = Math.max(maxId, id);
+    ids.put(text, id);
+  }
+
+  public int size() {
+    return ids.size();
+  }
+
+  /**
+   * Unmodifiable text to id view.
+   * @return The map
+   */
+  public Map<String, Integer> asMap() {
+    return Collections.unmodifiableMap(ids);
+  }
+
+  /**
+   * Visit the entries in the order they were added.
+   * @param consumer The consumer of text and id
+   */
+  public synchronized void forEach(ObjIntConsumer<String> consumer) {
+    for (var i = 0; i < entries; i++)
+      if (ids.get(orderTexts[i]) == orderIds[i])
+        consumer.accept(orderTexts[i], orderIds[i]);
+  }
+
+  /**
+   * Load a binary dictionary file. The loaded entries count as persisted.
+   * @param file The file
+   * @throws IOException If the file can not be read or it is not a dictionary file
+   */
+  public synchronized void load(Path file) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE)
+        throw new IOException("Dictionary file is too large: " + file);
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      var header = new byte[MAGIC.length];
+      if (buffer.remaining() >= MAGIC.length)
+        buffer.get(header);
+      if (!Arrays.equals(MAGIC, header))
+        throw new IOException("Not an abbreviation dictionary file: " + file);
+      while (buffer.remaining() >= 2 * Integer.BYTES) {
+        int id = buffer.getInt();
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining())
+          throw new IOException("Truncated abbreviation dictionary file: " + file);
+        var bytes = new byte[length];
+        buffer.get(bytes);
+        put(new String(bytes, StandardCharsets.UTF_8), id);
+      }
+    }
+    persisted = entries;
+  }
+
+  /**
+   * Append the entries added since the last load or flush to a binary
+   * dictionary file in one write. If the file does not exist, it is created
+   * with all the entries.
+   * @param file The file
+   * @throws IOException If the file can not be written
+   */
+  public synchronized void flush(Path file) throws IOException {
+    boolean isNew = !Files.exists(file) || Files.size(file) == 0;
+    int from = isNew ? 0 : persisted;
+    if (!isNew && from == entries)
+      return;
+
+    var length = isNew ? MAGIC.length : 0;
+    var encoded = new byte[entries - from][];
+    for (int i = from; i < entries; i++) {
+      encoded[i - from] = orderTexts[i].getBytes(StandardCharsets.UTF_8);
+      length += 2 * Integer.BYTES + encoded[i - from].length;
+    }
+
+    var buffer = ByteBuffer.allocate(length);
+    if (isNew)
+      buffer.put(MAGIC);
+    for (int i = from; i < entries; i++) {
+      buffer.putInt(orderIds[i]);
+      buffer.putInt(encoded[i - from].length);
+      buffer.put(encoded[i - from]);
+    }
+    buffer.flip();
+
+    try (var channel = FileChannel.open(file,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      while (buffer.hasRemaining())
+        channel.write(buffer);
+    }
+    persisted = entries;
+  }
+
+  /**
+   * The number of entries which are not yet flushed.
+   * @return The number of entries
+   */
+  public synchronized int getPendingSize() {
+    return entries - persisted;
+  }
+}
@@ -15,9 +15,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -46,18 +46,26 @@ import java.util.logging.Logger;
  * 3;National Library of the Netherlands
  * </pre>
  *
+ * <p>The manager is thread-safe. The lookups in both directions are O(1),
+ * see AbbreviationDictionary. New entries can be appended to a binary store
+ * file in batches (see setStore()) instead of rewriting a text file with
+ * save().</p>
+ *
  * @author Péter Király <peter.kiraly at gwdg.de>
  */
 public class AbbreviationManager implements Serializable {
 
   private static final Logger LOGGER = Logger.getLogger(AbbreviationManager.class.getCanonicalName());
   private static final long serialVersionUID = 8680703008286808252L;
-  private Map<String, Integer> data;
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+  private AbbreviationDictionary data;
   private static FileSystem fs;
   private String fileName;
+  private String storeFileName;
+  private int batchSize = DEFAULT_BATCH_SIZE;
 
   public AbbreviationManager() {
-    data = new LinkedHashMap<>();
+    data = new AbbreviationDictionary();
   }
 
   protected void initialize(String pFileName) {
@@ -101,19 +109,60 @@ public class AbbreviationManager implements Serializable {
    * @return The abbreviated value
    */
   public Integer lookup(String entry) {
-    if (!data.containsKey(entry)) {
+    Integer id = data.get(entry);
+    if (id == null) {
       var oldsize = data.size();
-      data.put(entry, data.size() + 1);
-      var msg = String.format(
-        "new entry: %s (size: %d -> %d)",
-        entry, oldsize, data.size()
-      );
-      if (fileName != null) {
-        msg += " " + fileName;
+      id = data.add(entry);
+      if (LOGGER.isLoggable(Level.INFO)) {
+        var msg = String.format(
+          "new entry: %s (size: %d -> %d)",
+          entry, oldsize, data.size()
+        );
+        if (fileName != null) {
+          msg += " " + fileName;
+        }
+        LOGGER.info(msg);
       }
-      LOGGER.info(msg);
+      if (storeFileName != null && data.getPendingSize() >= batchSize)
+        flush();
+    }
+    return id;
+  }
+
+  /**
+   * Use a binary dictionary file (see AbbreviationDictionary) as persistent
+   * store. The existing entries of the file are loaded, and the new entries
+   * are appended to it in batches.
+   *
+   * @param storeFileName The name of the binary file
+   * @throws IOException
+   */
+  public void setStore(String storeFileName) throws IOException {
+    this.storeFileName = storeFileName;
+    var path = Paths.get(storeFileName);
+    if (Files.exists(path) && Files.size(path) > 0)
+      data.load(path);
+  }
+
+  /**
+   * Set the number of new entries which triggers appending them to the store.
+   * @param batchSize The batch size
+   */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Append the new entries to the store file.
+   */
+  public void flush() {
+    if (storeFileName == null)
+      return;
+    try {
+      data.flush(Paths.get(storeFileName));
+    } catch (IOException ex) {
+      LOGGER.severe(String.format("Error with file: %s: %s", storeFileName, ex.getLocalizedMessage()));
     }
-    return data.get(entry);
   }
 
   /**
@@ -127,19 +176,13 @@ public class AbbreviationManager implements Serializable {
   public void save(String fileName)
       throws FileNotFoundException, UnsupportedEncodingException {
     try (var writer = new PrintWriter(fileName, "UTF-8")) {
-      for (Map.Entry<String, Integer> entry : data.entrySet())
-        writer.println(String.format("%d;%s", entry.getValue(), entry.getKey()));
+      data.forEach((key, value) -> writer.println(String.format("%d;%s", value, key)));
       writer.flush();
     }
   }
 
   public String searchById(Integer id) {
-    if (data.containsValue(id))
-      for (Map.Entry<String, Integer> entry : data.entrySet())
-        if (entry.getValue().equals(id))
-          return entry.getKey();
-
-    return null;
+    return id == null ? null : data.getText(id);
   }
 
   /**
@@ -170,6 +213,10 @@ public class AbbreviationManager implements Serializable {
   }
 
   public Map<String, Integer> getData() {
+    return data.asMap();
+  }
+
+  public AbbreviationDictionary getDictionary() {
     return data;
   }
 
@@ -180,6 +227,7 @@ public class AbbreviationManager implements Serializable {
    * @return
    */
   public Integer getOrDefault(String key, Integer defaultValue) {
-    return data.getOrDefault(key, defaultValue);
+    Integer id = data.get(key);
+    return id != null ? id : defaultValue;
   }
 }
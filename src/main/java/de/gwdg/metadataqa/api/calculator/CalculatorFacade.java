@@ -6,17 +6,27 @@ import de.gwdg.metadataqa.api.calculator.output.OutputFactory;
 import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
 import de.gwdg.metadataqa.api.interfaces.Calculator;
 import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.interfaces.Preparable;
 import de.gwdg.metadataqa.api.model.pathcache.CsvPathCache;
+import de.gwdg.metadataqa.api.model.pathcache.JsonPathCache;
+import de.gwdg.metadataqa.api.model.pathcache.JsonPathTrie;
+import de.gwdg.metadataqa.api.model.pathcache.MarcJsonPathCache;
 import de.gwdg.metadataqa.api.model.pathcache.PathCache;
 import de.gwdg.metadataqa.api.model.PathCacheFactory;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.MarcJsonSchema;
 import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.similarity.PatternCollector;
 import de.gwdg.metadataqa.api.uniqueness.TfIdf;
 import de.gwdg.metadataqa.api.util.CompressionLevel;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
@@ -30,7 +40,7 @@ import de.gwdg.metadataqa.api.util.CsvReader;
  * subsystems.
  * @author Péter Király <peter.kiraly at gwdg.de>
  */
-public class CalculatorFacade implements Serializable {
+public class CalculatorFacade implements Closeable, Serializable {
 
   private static final Logger LOGGER = Logger.getLogger(
       CalculatorFacade.class.getCanonicalName()
@@ -71,6 +81,11 @@ public class CalculatorFacade implements Serializable {
   protected Schema schema;
   protected CsvReader csvReader;
 
+  /**
+   * The root level JSON paths of the schema, evaluated together per record.
+   */
+  protected JsonPathTrie pathTrie;
+
   /**
    * Create calculator facade with the default configuration.
    */
@@ -94,7 +109,15 @@ public class CalculatorFacade implements Serializable {
    */
   public void configure() {
     LOGGER.info("configure()");
+    closeCalculators();
     calculators = CalculatorFactory.create(configuration, schema);
+    if (schema == null || schema.getFormat() != Format.JSON)
+      pathTrie = null;
+    else if (schema instanceof MarcJsonSchema)
+      // the MARC path cache answers most of the schema's paths from its tag index
+      pathTrie = MarcJsonPathCache.compilePathTrie(schema);
+    else
+      pathTrie = JsonPathTrie.compile(schema);
   }
 
   /**
@@ -154,6 +177,99 @@ public class CalculatorFacade implements Serializable {
     return (Map<String, List<MetricResult>>) this.<XmlFieldInstance>measureCsvWithGenerics(inputRecord, OutputCollector.TYPE.METRIC);
   }
 
+  /**
+   * Run the measurements on a record given as bytes. The bytes are parsed
+   * directly (JSON and CSV as UTF-8, XML in its declared encoding), they are
+   * not decoded into a String first.
+   * @param inputRecord
+   *   The record
+   * @return
+   *   The result of measurements as a CSV string
+   * @throws InvalidJsonException
+   *   Invalid Json exception
+   */
+  public String measure(byte[] inputRecord) throws InvalidJsonException {
+    return measure(ByteBuffer.wrap(inputRecord));
+  }
+
+  /**
+   * Run the measurements on a record between the position and the limit of
+   * a buffer, e.g. a slice of a memory-mapped file.
+   * @param inputRecord
+   *   The record
+   * @return
+   *   The result of measurements as a CSV string
+   * @throws InvalidJsonException
+   *   Invalid Json exception
+   */
+  public String measure(ByteBuffer inputRecord) throws InvalidJsonException {
+    return (String) measureBytes(inputRecord, OutputCollector.TYPE.STRING);
+  }
+
+  public String measure(InputStream inputRecord) throws IOException {
+    return (String) measureStream(inputRecord, OutputCollector.TYPE.STRING);
+  }
+
+  public List<String> measureAsList(ByteBuffer inputRecord) throws InvalidJsonException {
+    return (List<String>) measureBytes(inputRecord, OutputCollector.TYPE.STRING_LIST);
+  }
+
+  public List<String> measureAsList(InputStream inputRecord) throws IOException {
+    return (List<String>) measureStream(inputRecord, OutputCollector.TYPE.STRING_LIST);
+  }
+
+  public List<Object> measureAsListOfObjects(ByteBuffer inputRecord) throws InvalidJsonException {
+    return (List<Object>) measureBytes(inputRecord, OutputCollector.TYPE.OBJECT_LIST);
+  }
+
+  public List<Object> measureAsListOfObjects(InputStream inputRecord) throws IOException {
+    return (List<Object>) measureStream(inputRecord, OutputCollector.TYPE.OBJECT_LIST);
+  }
+
+  public Map<String, Object> measureAsMap(ByteBuffer inputRecord) throws InvalidJsonException {
+    return (Map<String, Object>) measureBytes(inputRecord, OutputCollector.TYPE.MAP);
+  }
+
+  public Map<String, Object> measureAsMap(InputStream inputRecord) throws IOException {
+    return (Map<String, Object>) measureStream(inputRecord, OutputCollector.TYPE.MAP);
+  }
+
+  public String measureAsJson(ByteBuffer inputRecord) throws InvalidJsonException {
+    return (String) measureBytes(inputRecord, OutputCollector.TYPE.JSON);
+  }
+
+  public String measureAsJson(InputStream inputRecord) throws IOException {
+    return (String) measureStream(inputRecord, OutputCollector.TYPE.JSON);
+  }
+
+  public Map<String, List<MetricResult>> measureAsMetricResult(ByteBuffer inputRecord) throws InvalidJsonException {
+    return (Map<String, List<MetricResult>>) measureBytes(inputRecord, OutputCollector.TYPE.METRIC);
+  }
+
+  public Map<String, List<MetricResult>> measureAsMetricResult(InputStream inputRecord) throws IOException {
+    return (Map<String, List<MetricResult>>) measureStream(inputRecord, OutputCollector.TYPE.METRIC);
+  }
+
+  /**
+   * Run the measurements and pass the results to the collector, e.g. to a
+   * SummaryCollector, which collects the results of many records.
+   * @param inputRecord
+   *   The record
+   * @param collector
+   *   The collector of the results
+   * @return
+   *   The results of the collector
+   * @throws InvalidJsonException
+   *   Invalid Json exception
+   */
+  public Object measure(String inputRecord, OutputCollector collector) throws InvalidJsonException {
+    return this.<XmlFieldInstance>measureWithGenerics(inputRecord, collector);
+  }
+
+  public Object measure(ByteBuffer inputRecord, OutputCollector collector) throws InvalidJsonException {
+    return measureBytes(inputRecord, collector);
+  }
+
   /**
    * The generic version of measure.
    *
@@ -178,16 +294,22 @@ public class CalculatorFacade implements Serializable {
   protected <T extends XmlFieldInstance> Object measureWithGenerics(String content,
                                                                     OutputCollector.TYPE type)
       throws InvalidJsonException {
-    conditionalConfiguration();
+    return measureWithGenerics(content, OutputFactory.createOutput(type));
+  }
 
-    OutputCollector collector = OutputFactory.createOutput(type);
+  protected <T extends XmlFieldInstance> Object measureWithGenerics(String content,
+                                                                    OutputCollector collector)
+      throws InvalidJsonException {
+    conditionalConfiguration();
 
     if (schema == null) {
       throw new IllegalStateException("schema is missing");
     } else {
       var format = schema.getFormat();
       if (format != null && content != null) {
-        cache = PathCacheFactory.getInstance(schema.getFormat(), content);
+        cache = PathCacheFactory.getInstanceForSchema(schema, content);
+        if (pathTrie != null && cache instanceof JsonPathCache)
+          ((JsonPathCache) cache).setPathTrie(pathTrie);
         if (schema.getFormat().equals(Format.CSV))
           initializeCsvCache(content);
 
@@ -203,6 +325,44 @@ public class CalculatorFacade implements Serializable {
     return collector.getResults();
   }
 
+  protected Object measureBytes(ByteBuffer content, OutputCollector.TYPE type) throws InvalidJsonException {
+    return measureBytes(content, OutputFactory.createOutput(type));
+  }
+
+  protected Object measureBytes(ByteBuffer content, OutputCollector collector) throws InvalidJsonException {
+    if (schema == null)
+      throw new IllegalStateException("schema is missing");
+    // the CSV reader works on strings, and the first line might be the header
+    if (schema.getFormat() == Format.CSV)
+      return measureWithGenerics(content == null ? null : StandardCharsets.UTF_8.decode(content.duplicate()).toString(), collector);
+
+    conditionalConfiguration();
+    if (schema.getFormat() == null || content == null)
+      return collector.getResults();
+    return measureCache(PathCacheFactory.getInstanceForSchema(schema, content), collector);
+  }
+
+  protected Object measureStream(InputStream content, OutputCollector.TYPE type) throws IOException {
+    if (schema == null)
+      throw new IllegalStateException("schema is missing");
+    if (schema.getFormat() == Format.CSV)
+      return measureWithGenerics(content == null ? null : new String(content.readAllBytes(), StandardCharsets.UTF_8), type);
+
+    conditionalConfiguration();
+    if (schema.getFormat() == null || content == null)
+      return OutputFactory.createOutput(type).getResults();
+    return measureCache(PathCacheFactory.getInstanceForSchema(schema, content), OutputFactory.createOutput(type));
+  }
+
+  private Object measureCache(PathCache<? extends XmlFieldInstance> recordCache, OutputCollector collector) {
+    cache = recordCache;
+    if (pathTrie != null && cache instanceof JsonPathCache)
+      ((JsonPathCache) cache).setPathTrie(pathTrie);
+    runMeasurements(collector);
+    isFirstRecord = false;
+    return collector.getResults();
+  }
+
   private void initializeCsvCache(String content) {
     if (isFirstRecord && csvReader.isHeaderAware())
       try {
@@ -237,6 +397,11 @@ public class CalculatorFacade implements Serializable {
   }
 
   private void runMeasurements(OutputCollector collector) {
+    collector.startRecord();
+    for (Calculator calculator : getCalculators())
+      if (calculator instanceof Preparable)
+        ((Preparable) calculator).prepare(cache);
+
     for (Calculator calculator : getCalculators()) {
       List<MetricResult> result = calculator.measure(cache);
       collector.addResult(calculator, result, compressionLevel);
@@ -253,6 +418,40 @@ public class CalculatorFacade implements Serializable {
     return calculators;
   }
 
+  /**
+   * Release the resources of the calculators, e.g. the thread pool of the
+   * language detection.
+   */
+  @Override
+  public void close() {
+    closeCalculators();
+  }
+
+  private void closeCalculators() {
+    for (Calculator calculator : calculators) {
+      if (calculator instanceof Closeable) {
+        try {
+          ((Closeable) calculator).close();
+        } catch (IOException e) {
+          LOGGER.log(Level.WARNING, "closing " + calculator.getCalculatorName() + " failed", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the collector of the field existence patterns, if it is enabled.
+   *
+   * @return
+   *   The pattern collector or null
+   */
+  public PatternCollector getPatternCollector() {
+    for (Calculator calculator : getCalculators())
+      if (calculator instanceof CompletenessCalculator)
+        return ((CompletenessCalculator) calculator).getPatternCollector();
+    return null;
+  }
+
   /**
    * Returns the list of existing fields.
    *
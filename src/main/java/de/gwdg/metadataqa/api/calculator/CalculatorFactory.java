@@ -9,6 +9,7 @@ import de.gwdg.metadataqa.api.problemcatalog.TitleAndDescriptionAreSame;
 import de.gwdg.metadataqa.api.rule.RuleCatalog;
 import de.gwdg.metadataqa.api.schema.Schema;
 import de.gwdg.metadataqa.api.schema.edm.EdmSchema;
+import de.gwdg.metadataqa.api.similarity.PatternCollector;
 import de.gwdg.metadataqa.api.uniqueness.DefaultSolrClient;
 import de.gwdg.metadataqa.api.uniqueness.SolrConfiguration;
 import org.apache.commons.lang3.StringUtils;
@@ -42,6 +43,7 @@ public class CalculatorFactory {
     addProblemCatalogMeasurement();
     addRuleCatalogMeasurement();
     addLanguageMeasurement();
+    addLanguageDetection();
     addMultilingualSaturationMeasurement();
     addUniquenessMeasurement();
   }
@@ -57,6 +59,8 @@ public class CalculatorFactory {
       completenessCalculator.collectFields(configuration.isCompletenessFieldCollectingEnabled());
       completenessCalculator.setExistence(configuration.isFieldExistenceMeasurementEnabled());
       completenessCalculator.setCardinality(configuration.isFieldCardinalityMeasurementEnabled());
+      if (configuration.isFieldPatternCollectingEnabled())
+        completenessCalculator.setPatternCollector(new PatternCollector(schema));
       calculators.add(completenessCalculator);
     }
   }
@@ -97,6 +101,16 @@ public class CalculatorFactory {
       calculators.add(new LanguageCalculator(schema));
   }
 
+  private void addLanguageDetection() {
+    if (configuration.isLanguageDetectionEnabled())
+      calculators.add(
+        new LanguageDetectionCalculator(schema)
+          .setLanguages(configuration.getLanguageDetectionLanguages())
+          .setLowAccuracy(configuration.isLanguageDetectionLowAccuracy())
+          .setMinTextLength(configuration.getLanguageDetectionMinTextLength())
+      );
+  }
+
   private void addMultilingualSaturationMeasurement() {
     if (configuration.isMultilingualSaturationMeasurementEnabled()) {
       MultilingualitySaturationCalculator multilingualSaturationCalculator = new MultilingualitySaturationCalculator(schema);
@@ -11,6 +11,7 @@ import de.gwdg.metadataqa.api.model.pathcache.PathCache;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.problemcatalog.FieldCounterBasedResult;
 import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.similarity.PatternCollector;
 import de.gwdg.metadataqa.api.util.CompressionLevel;
 import de.gwdg.metadataqa.api.util.Converter;
 import de.gwdg.metadataqa.api.util.SkippedEntitySelector;
@@ -58,6 +59,7 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
   private boolean cardinality = true;
   private SkippedEntryChecker skippedEntryChecker = null;
   private SkippedEntitySelector skippedEntitySelector = new SkippedEntitySelector();
+  private PatternCollector patternCollector = null;
 
   public CompletenessCalculator() {
     // this.recordID = null;
@@ -78,7 +80,7 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
     initializeCounters();
 
     List<String> skippableIds = skippedEntryChecker != null
-          ? skippedEntryChecker.getSkippableCollectionIds(cache)
+          ? skippedEntryChecker.getSharedSkippableCollectionIds(cache)
           : new ArrayList<>();
 
     if (schema.getCollectionPaths() == null || schema.getCollectionPaths().isEmpty()) {
@@ -93,8 +95,7 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
         if (!collection.isActive()) {
           continue;
         }
-        Object rawJsonFragment = cache.getFragment(collection.getJsonPath());
-        List<Object> jsonFragments = Converter.jsonObjectToList(rawJsonFragment, schema);
+        List<Object> jsonFragments = Converter.getFragmentList(cache, collection.getJsonPath(), schema);
         if (jsonFragments.isEmpty()) {
           handleEmptyFragment(collection);
         } else {
@@ -107,7 +108,7 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
                 if (!child.isActive()) {
                   continue;
                 }
-                var address = String.format("%s/%d/%s", collection.getJsonPath(), i, child.getJsonPath());
+                var address = child.getAddress(collection, i);
                 evaluateJsonBranch(child, cache, completenessCounter, address, jsonFragment);
               }
             }
@@ -129,6 +130,9 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
       }
     }
 
+    if (existence && patternCollector != null)
+      patternCollector.add(existenceCounter.getMap());
+
     List<MetricResult> list = new ArrayList<>();
     list.add(new FieldCounterBasedResult("completeness", completenessCounter.getFieldCounter()));
     list.add(new FieldCounterBasedResult("existence", existenceCounter));
@@ -415,4 +419,17 @@ public class CompletenessCalculator<T extends XmlFieldInstance>
     this.skippedEntryChecker = skippedEntryChecker;
     skippedEntitySelector.setSkippedEntryChecker(skippedEntryChecker);
   }
+
+  public PatternCollector getPatternCollector() {
+    return patternCollector;
+  }
+
+  /**
+   * Set the collector of the field existence patterns. The collector is fed with
+   * the existence vector of every measured record if existence is measured.
+   * @param patternCollector The collector, it might be shared between calculators
+   */
+  public void setPatternCollector(PatternCollector patternCollector) {
+    this.patternCollector = patternCollector;
+  }
 }
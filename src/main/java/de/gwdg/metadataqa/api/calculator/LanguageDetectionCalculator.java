@@ -0,0 +1,430 @@
+package de.gwdg.metadataqa.api.calculator;
+
+import com.github.pemistahl.lingua.api.Language;
+import de.gwdg.metadataqa.api.counter.FieldCounter;
+import de.gwdg.metadataqa.api.interfaces.Calculator;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.interfaces.Preparable;
+import de.gwdg.metadataqa.api.json.JsonBranch;
+import de.gwdg.metadataqa.api.model.XmlFieldInstance;
+import de.gwdg.metadataqa.api.model.pathcache.PathCache;
+import de.gwdg.metadataqa.api.problemcatalog.FieldCounterBasedResult;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.util.Converter;
+import de.gwdg.metadataqa.api.util.QALanguageDetector;
+
+import java.io.Closeable;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Detects the language of the text values with Lingua, and compares the
+ * result with the declared language tag of the values.
+ *
+ * The distinct texts of a record are split into batches, one per thread of a
+ * dedicated thread pool, so the detection of a record runs in parallel. When
+ * the calculator is run by the CalculatorFacade the batches are submitted in
+ * {@link #prepare(PathCache)}, so the detection overlaps with the other
+ * calculators. A thread has at most one prepared record: preparing another
+ * one cancels it.
+ *
+ * The calculator can be shared between threads. Its thread pool and the
+ * prepared records of the threads should be released with {@link #close()}.
+ *
+ * For every field it returns the detected languages and their frequency
+ * (e.g. "de:1;en:2", "_0" means that the language was not detected, because
+ * the text is too short or ambiguous, "_1" means that the field is missing).
+ * At the end it returns the number of values where the detected language
+ * matches the declared one, where it does not match, and where there was no
+ * declared language.
+ */
+public class LanguageDetectionCalculator implements Calculator, Preparable, Closeable, Serializable {
+
+  private static final long serialVersionUID = -5184388243275124217L;
+  private static final Logger LOGGER = Logger.getLogger(LanguageDetectionCalculator.class.getCanonicalName());
+
+  public static final String CALCULATOR_NAME = "languageDetection";
+  public static final int DEFAULT_MIN_TEXT_LENGTH = 20;
+  public static final String MATCH = "match";
+  public static final String MISMATCH = "mismatch";
+  public static final String UNDECLARED = "undeclared";
+
+  private static final String NOT_DETECTED = "_0";
+  private static final String MISSING = "_1";
+
+  private final Schema schema;
+  private List<String> languages = Collections.emptyList();
+  private boolean lowAccuracy = false;
+  private int minTextLength = DEFAULT_MIN_TEXT_LENGTH;
+  private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+  private List<String> noLanguageFields;
+
+  private transient ExecutorService executor;
+  private transient boolean externalExecutor = false;
+  private transient volatile Map<Thread, Detection> prepared;
+
+  public LanguageDetectionCalculator(Schema schema) {
+    this.schema = schema;
+  }
+
+  @Override
+  public String getCalculatorName() {
+    return CALCULATOR_NAME;
+  }
+
+  @Override
+  public List<String> getHeader() {
+    List<String> headers = new ArrayList<>();
+    for (String label : getLabels())
+      headers.add("detectedLanguage:" + label);
+    headers.add("detectedLanguage:" + MATCH);
+    headers.add("detectedLanguage:" + MISMATCH);
+    headers.add("detectedLanguage:" + UNDECLARED);
+    return headers;
+  }
+
+  @Override
+  public void prepare(PathCache cache) {
+    Detection previous = getPrepared().put(Thread.currentThread(), submit(cache, collect(cache)));
+    if (previous != null)
+      previous.cancel();
+  }
+
+  /**
+   * If the language detection fails, the texts are reported as not detected.
+   */
+  @Override
+  public List<MetricResult> measure(PathCache cache) {
+    Detection detection = getPrepared().remove(Thread.currentThread());
+    if (detection == null || detection.cache != cache) {
+      if (detection != null)
+        detection.cancel();
+      detection = submit(cache, collect(cache));
+    }
+    List<TextValue> values = detection.values;
+    Map<String, Language> detected = detection.await();
+
+    Map<String, SortedMap<String, Integer>> fields = new LinkedHashMap<>();
+    for (String label : getLabels())
+      fields.put(label, new TreeMap<>());
+
+    int match = 0;
+    int mismatch = 0;
+    int undeclared = 0;
+    for (TextValue value : values) {
+      SortedMap<String, Integer> counts = fields.get(value.label);
+      if (value.text == null) {
+        counts.put(MISSING, 1);
+        continue;
+      }
+      Language language = detected.get(value.text);
+      if (language == null || language.equals(Language.UNKNOWN)) {
+        counts.merge(NOT_DETECTED, 1, Integer::sum);
+        continue;
+      }
+      counts.merge(language.getIsoCode639_1().toString(), 1, Integer::sum);
+      if (value.declared == null)
+        undeclared++;
+      else if (isSameLanguage(value.declared, language))
+        match++;
+      else
+        mismatch++;
+    }
+
+    FieldCounter<Object> resultMap = new FieldCounter<>();
+    for (Map.Entry<String, SortedMap<String, Integer>> field : fields.entrySet())
+      resultMap.put(field.getKey(), format(field.getValue()));
+    resultMap.put(MATCH, match);
+    resultMap.put(MISMATCH, mismatch);
+    resultMap.put(UNDECLARED, undeclared);
+    return List.of(new FieldCounterBasedResult<>(getCalculatorName(), resultMap).withNoCompression());
+  }
+
+  private List<String> getLabels() {
+    List<String> labels = new ArrayList<>();
+    for (JsonBranch jsonBranch : schema.getPaths())
+      if (isMeasurable(jsonBranch))
+        labels.add(jsonBranch.getLabel());
+    return labels;
+  }
+
+  private boolean isMeasurable(JsonBranch jsonBranch) {
+    return jsonBranch.isActive()
+      && !jsonBranch.isCollection()
+      && !getNoLanguageFields().contains(jsonBranch.getLabel());
+  }
+
+  private List<String> getNoLanguageFields() {
+    if (noLanguageFields == null) {
+      try {
+        noLanguageFields = schema.getNoLanguageFields();
+      } catch (UnsupportedOperationException e) {
+        noLanguageFields = Collections.emptyList();
+      }
+    }
+    return noLanguageFields;
+  }
+
+  private List<TextValue> collect(PathCache cache) {
+    List<TextValue> values = new ArrayList<>();
+    if (schema.getCollectionPaths().isEmpty()) {
+      for (JsonBranch jsonBranch : schema.getPaths())
+        if (isMeasurable(jsonBranch))
+          collect(cache, values, null, jsonBranch, jsonBranch.getJsonPath());
+    } else {
+      for (JsonBranch collection : schema.getCollectionPaths()) {
+        Object rawJsonFragment = cache.getFragment(collection.getJsonPath());
+        if (rawJsonFragment == null) {
+          for (JsonBranch child : collection.getChildren())
+            if (isMeasurable(child))
+              values.add(new TextValue(child.getLabel(), null, null));
+        } else {
+          List<Object> jsonFragments = Converter.getFragmentList(cache, collection.getJsonPath(), schema);
+          for (int i = 0, len = jsonFragments.size(); i < len; i++) {
+            Object jsonFragment = jsonFragments.get(i);
+            for (JsonBranch child : collection.getChildren()) {
+              if (isMeasurable(child)) {
+                var address = child.getAddress(collection, i);
+                collect(cache, values, jsonFragment, child, address);
+              }
+            }
+          }
+        }
+      }
+    }
+    return values;
+  }
+
+  private void collect(PathCache cache, List<TextValue> values, Object jsonFragment,
+                       JsonBranch jsonBranch, String address) {
+    List<XmlFieldInstance> instances = cache.get(address, jsonBranch.getJsonPath(), jsonFragment);
+    var hasValue = false;
+    if (instances != null) {
+      for (XmlFieldInstance instance : instances) {
+        if (instance.hasValue()) {
+          hasValue = true;
+          values.add(new TextValue(jsonBranch.getLabel(), instance.getValue().trim(), instance.getLanguage()));
+        }
+      }
+    }
+    if (!hasValue)
+      values.add(new TextValue(jsonBranch.getLabel(), null, null));
+  }
+
+  /**
+   * Submit the distinct detectable texts of the record in batches, one per
+   * thread of the pool.
+   */
+  private Detection submit(PathCache cache, List<TextValue> values) {
+    Set<String> distinct = new LinkedHashSet<>();
+    for (TextValue value : values)
+      if (value.text != null && value.text.length() >= minTextLength)
+        distinct.add(value.text);
+
+    var detection = new Detection(cache, values);
+    if (distinct.isEmpty())
+      return detection;
+
+    List<String> texts = new ArrayList<>(distinct);
+    QALanguageDetector detector = QALanguageDetector.getInstance(languages, lowAccuracy);
+    ExecutorService service = getExecutor();
+    int batches = Math.min(threads, texts.size());
+    for (var i = 0; i < batches; i++) {
+      List<String> batch = texts.subList(i * texts.size() / batches, (i + 1) * texts.size() / batches);
+      detection.batches.add(service.submit(() -> {
+        Map<String, Language> detected = new HashMap<>();
+        for (String text : batch)
+          detected.put(text, detector.detect(text));
+        return detected;
+      }));
+    }
+    return detection;
+  }
+
+  private synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(threads, runnable -> {
+        var thread = new Thread(runnable, "language-detection");
+        thread.setDaemon(true);
+        return thread;
+      });
+      externalExecutor = false;
+    }
+    return executor;
+  }
+
+  private Map<Thread, Detection> getPrepared() {
+    Map<Thread, Detection> records = prepared;
+    if (records == null) {
+      synchronized (this) {
+        if (prepared == null)
+          prepared = new ConcurrentHashMap<>();
+        records = prepared;
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Shut down the thread pool of the calculator, and drop the prepared
+   * records of all the threads. An external pool set by setExecutor() is
+   * left running. If the calculator is used again, it creates a new pool.
+   */
+  @Override
+  public synchronized void close() {
+    if (prepared != null) {
+      for (Detection detection : prepared.values())
+        detection.cancel();
+      prepared.clear();
+    }
+    if (executor != null && !externalExecutor)
+      executor.shutdownNow();
+    executor = null;
+  }
+
+  private static boolean isSameLanguage(String declared, Language detected) {
+    var code = declared.trim().toLowerCase();
+    int separator = Math.max(code.indexOf('-'), code.indexOf('_'));
+    if (separator > -1)
+      code = code.substring(0, separator);
+
+    if (code.length() == 3)
+      return code.equals(detected.getIsoCode639_3().toString());
+    return code.equals(detected.getIsoCode639_1().toString());
+  }
+
+  private static String format(SortedMap<String, Integer> counts) {
+    var result = new StringBuilder();
+    for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+      if (result.length() > 0)
+        result.append(";");
+      result.append(entry.getKey()).append(":").append(entry.getValue());
+    }
+    return result.toString();
+  }
+
+  /**
+   * Restrict the detection to a set of languages.
+   * @param languages ISO 639-1 codes
+   * @return this calculator
+   */
+  public LanguageDetectionCalculator setLanguages(List<String> languages) {
+    this.languages = languages == null ? Collections.emptyList() : languages;
+    return this;
+  }
+
+  public LanguageDetectionCalculator setLowAccuracy(boolean lowAccuracy) {
+    this.lowAccuracy = lowAccuracy;
+    return this;
+  }
+
+  /**
+   * Texts shorter than this are not sent to the detector.
+   * @param minTextLength The minimal length
+   * @return this calculator
+   */
+  public LanguageDetectionCalculator setMinTextLength(int minTextLength) {
+    this.minTextLength = minTextLength;
+    return this;
+  }
+
+  public int getMinTextLength() {
+    return minTextLength;
+  }
+
+  /**
+   * Set the size of the detection thread pool, and the number of batches the
+   * texts of a record are split into. It should be called before the first
+   * measurement.
+   * @param threads Number of threads
+   * @return this calculator
+   */
+  public LanguageDetectionCalculator setThreads(int threads) {
+    this.threads = threads;
+    return this;
+  }
+
+  /**
+   * Use an external thread pool, e.g. one shared between several calculators.
+   * The calculator does not shut it down.
+   * @param executor The executor
+   * @return this calculator
+   */
+  public synchronized LanguageDetectionCalculator setExecutor(ExecutorService executor) {
+    if (this.executor != null && !externalExecutor)
+      this.executor.shutdown();
+    this.executor = executor;
+    this.externalExecutor = executor != null;
+    return this;
+  }
+
+  /**
+   * The running detection of a record.
+   */
+  private static class Detection {
+    private final PathCache cache;
+    private final List<TextValue> values;
+    private final List<Future<Map<String, Language>>> batches = new ArrayList<>();
+
+    Detection(PathCache cache, List<TextValue> values) {
+      this.cache = cache;
+      this.values = values;
+    }
+
+    Map<String, Language> await() {
+      if (batches.isEmpty())
+        return Collections.emptyMap();
+
+      Map<String, Language> detected = new HashMap<>();
+      try {
+        for (Future<Map<String, Language>> batch : batches)
+          detected.putAll(batch.get());
+      } catch (InterruptedException e) {
+        cancel();
+        Thread.currentThread().interrupt();
+        LOGGER.log(Level.WARNING, "language detection was interrupted", e);
+        return Collections.emptyMap();
+      } catch (ExecutionException | CancellationException e) {
+        cancel();
+        LOGGER.log(Level.WARNING, "language detection failed", e);
+        return Collections.emptyMap();
+      }
+      return detected;
+    }
+
+    void cancel() {
+      for (Future<Map<String, Language>> batch : batches)
+        batch.cancel(true);
+    }
+  }
+
+  private static class TextValue {
+    private final String label;
+    private final String text;
+    private final String declared;
+
+    TextValue(String label, String text, String declared) {
+      this.label = label;
+      this.text = text;
+      this.declared = declared;
+    }
+  }
+}
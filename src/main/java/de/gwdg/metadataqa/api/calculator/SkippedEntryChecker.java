@@ -5,12 +5,27 @@ import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.function.BiFunction;
 
 /**
  *
  * @author Péter Király <peter.kiraly at gwdg.de>
  */
 public interface SkippedEntryChecker extends Serializable {
+
+  BiFunction<PathCache, SkippedEntryChecker, List<String>> SKIPPABLE_COLLECTION_IDS =
+    (cache, checker) -> checker.getSkippableCollectionIds(cache);
+
   List<String> getSkippableCollectionIds(PathCache cache);
   <T extends XmlFieldInstance> String extractId(T value);
+
+  /**
+   * The skippable ids computed once per record, and shared by all the
+   * calculators using this checker. The list should not be modified.
+   * @param cache The record
+   * @return The ids
+   */
+  default List<String> getSharedSkippableCollectionIds(PathCache cache) {
+    return (List<String>) cache.memo(SKIPPABLE_COLLECTION_IDS, this);
+  }
 }
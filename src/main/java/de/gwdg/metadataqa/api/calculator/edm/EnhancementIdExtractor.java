@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 /**
  *
@@ -41,7 +42,20 @@ public final class EnhancementIdExtractor implements Serializable {
   private EnhancementIdExtractor() {
   }
 
+  private static final BiFunction<PathCache, Schema, List<String>> EXTRACT_IDS = EnhancementIdExtractor::computeIds;
+
+  /**
+   * Extract the ids of the enhancements. They are computed once per record and
+   * schema, and shared by the callers, so the list should not be modified.
+   * @param cache The record
+   * @param schema The schema
+   * @return The ids
+   */
   public static List<String> extractIds(PathCache cache, Schema schema) {
+    return (List<String>) cache.memo(EXTRACT_IDS, schema);
+  }
+
+  private static List<String> computeIds(PathCache cache, Schema schema) {
     List<String> enhancementIds = new ArrayList<>();
     String path = schema.getPathByLabel("Proxy").getJsonPath().replace("false", "true");
     Object rawJsonFragment = cache.getFragment(path);
@@ -1,6 +1,5 @@
 package de.gwdg.metadataqa.api.calculator.language;
 
-import de.gwdg.metadataqa.api.counter.BasicCounter;
 import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.json.JsonBranch;
 import de.gwdg.metadataqa.api.model.EdmFieldInstance;
@@ -8,17 +7,20 @@ import de.gwdg.metadataqa.api.model.pathcache.PathCache;
 import de.gwdg.metadataqa.api.schema.Schema;
 import de.gwdg.metadataqa.api.util.Converter;
 
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 public class Language {
+  static final String NO_LANGUAGE = "_0";
+  static final String MISSING = "_1";
+  static final String LINK = "_2";
+
   private final PathCache cache;
   private final Schema schema;
   FieldCounter<String> languageMap;
-  Map<String, SortedMap<String, Integer>> rawLanguageMap;
+  Map<String, LanguageCounter> rawLanguageMap;
 
   public Language(Schema schema, PathCache cache) {
     this.schema = schema;
@@ -41,19 +43,16 @@ public class Language {
         if (rawJsonFragment == null) {
           for (JsonBranch child : collection.getChildren()) {
             if (child.isActive() && !schema.getNoLanguageFields().contains(child.getLabel())) {
-              Map<String, BasicCounter> languages = new TreeMap<>();
-              increase(languages, "_1");
-              updateMaps(child.getLabel(), transformLanguages(languages));
+              getCounter(child.getLabel()).markMissing();
             }
           }
         } else {
-          List<Object> jsonFragments = Converter.jsonObjectToList(rawJsonFragment, schema);
+          List<Object> jsonFragments = Converter.getFragmentList(cache, collection.getJsonPath(), schema);
           for (int i = 0, len = jsonFragments.size(); i < len; i++) {
             Object jsonFragment = jsonFragments.get(i);
             for (JsonBranch child : collection.getChildren()) {
               if (child.isActive() && !schema.getNoLanguageFields().contains(child.getLabel())) {
-                var address = String.format("%s/%d/%s",
-                  collection.getJsonPath(), i, child.getJsonPath());
+                var address = child.getAddress(collection, i);
                 extractLanguageTags(jsonFragment, child, address);
               }
             }
@@ -61,6 +60,10 @@ public class Language {
         }
       }
     }
+
+    for (Map.Entry<String, LanguageCounter> entry : rawLanguageMap.entrySet())
+      languageMap.put(entry.getKey(), entry.getValue().toString());
+
     return languageMap;
   }
 
@@ -68,50 +71,31 @@ public class Language {
                                    JsonBranch jsonBranch,
                                    String address) {
     List<EdmFieldInstance> values = cache.get(address, jsonBranch.getJsonPath(), jsonFragment);
-    Map<String, BasicCounter> languages = new TreeMap<>();
+    LanguageCounter counter = getCounter(jsonBranch.getLabel());
     if (values != null && !values.isEmpty()) {
       for (EdmFieldInstance field : values) {
         if (field.hasValue()) {
           if (field.hasLanguage()) {
-            increase(languages, field.getLanguage());
+            counter.increase(LanguageCodes.intern(field.getLanguage()));
           } else {
-            increase(languages, "_0");
+            counter.increase(NO_LANGUAGE);
           }
         } else {
-          increase(languages, "_2");
+          counter.increase(LINK);
         }
       }
     } else {
-      increase(languages, "_1");
+      counter.markMissing();
     }
-    updateMaps(jsonBranch.getLabel(), transformLanguages(languages));
   }
 
-  private void increase(Map<String, BasicCounter> languages, String key) {
-    if (!languages.containsKey(key)) {
-      languages.put(key, new BasicCounter(1));
-    } else {
-      languages.get(key).increaseTotal();
+  private LanguageCounter getCounter(String label) {
+    LanguageCounter counter = rawLanguageMap.get(label);
+    if (counter == null) {
+      counter = new LanguageCounter();
+      rawLanguageMap.put(label, counter);
     }
-  }
-
-  private void updateMaps(String label,
-                          SortedMap<String, Integer> instance) {
-    if (!rawLanguageMap.containsKey(label)) {
-      rawLanguageMap.put(label, instance);
-    } else {
-      Map<String, Integer> existing = rawLanguageMap.get(label);
-      for (Map.Entry<String, Integer> entry : instance.entrySet()) {
-        if (!existing.containsKey(entry.getKey())) {
-          existing.put(entry.getKey(), entry.getValue());
-        } else {
-          if (entry.getKey() != null && !entry.getKey().equals("_1")) {
-            existing.put(entry.getKey(), existing.get(entry.getKey()) + entry.getValue());
-          }
-        }
-      }
-    }
-    languageMap.put(label, extractLanguagesFromRaw(rawLanguageMap.get(label)));
+    return counter;
   }
 
   protected String extractLanguagesFromRaw(Map<String, Integer> languages) {
@@ -124,11 +108,70 @@ public class Language {
     return result.toString();
   }
 
-  private SortedMap<String, Integer> transformLanguages(Map<String, BasicCounter> languages) {
-    SortedMap<String, Integer> result = new TreeMap<>();
-    for (Map.Entry<String, BasicCounter> lang : languages.entrySet()) {
-      result.put(lang.getKey(), ((Double) lang.getValue().getTotal()).intValue());
+  /**
+   * Counts the language codes of a field in parallel arrays. A field usually
+   * has only a few distinct codes, so a linear scan is cheaper than a map.
+   * The codes are pooled, so most comparisons are identity checks.
+   */
+  static class LanguageCounter {
+    private String[] codes = new String[4];
+    private int[] counts = new int[4];
+    private int size = 0;
+
+    void increase(String code) {
+      int index = indexOf(code);
+      if (index == -1)
+        add(code);
+      else
+        counts[index]++;
+    }
+
+    /**
+     * The missing field is counted only once, no matter how many entities miss it.
+     */
+    void markMissing() {
+      if (indexOf(MISSING) == -1)
+        add(MISSING);
+    }
+
+    int get(String code) {
+      int index = indexOf(code);
+      return index == -1 ? 0 : counts[index];
+    }
+
+    private int indexOf(String code) {
+      for (var i = 0; i < size; i++)
+        if (codes[i] == code || codes[i].equals(code))
+          return i;
+      return -1;
+    }
+
+    private void add(String code) {
+      if (size == codes.length) {
+        codes = Arrays.copyOf(codes, size * 2);
+        counts = Arrays.copyOf(counts, size * 2);
+      }
+      // keep the codes sorted, so the output does not need a sorted map
+      int position = size;
+      while (position > 0 && codes[position - 1].compareTo(code) > 0) {
+        codes[position] = codes[position - 1];
+        counts[position] = counts[position - 1];
+        position--;
+      }
+      codes[position] = code;
+      counts[position] = 1;
+      size++;
+    }
+
+    @Override
+    public String toString() {
+      var result = new StringBuilder();
+      for (var i = 0; i < size; i++) {
+        if (i > 0)
+          result.append(';');
+        result.append(codes[i]).append(':').append(counts[i]);
+      }
+      return result.toString();
     }
-    return result;
   }
 }
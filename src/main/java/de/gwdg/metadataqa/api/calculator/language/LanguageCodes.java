@@ -0,0 +1,45 @@
+package de.gwdg.metadataqa.api.calculator.language;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared pool of language codes. The same handful of language tags appears
+ * in millions of field instances, so the calculators compare and store the
+ * pooled instance instead of the string created by the parser.
+ */
+public final class LanguageCodes {
+
+  /**
+   * Upper limit of the pool, to protect against records with random tags.
+   */
+  static final int MAX_SIZE = 10_000;
+
+  private static final Map<String, String> POOL = new ConcurrentHashMap<>();
+
+  private LanguageCodes() {}
+
+  /**
+   * Returns the canonical instance of a language code.
+   * @param code The language code
+   * @return The pooled instance, or the code itself if the pool is full
+   */
+  public static String intern(String code) {
+    if (code == null)
+      return null;
+
+    String pooled = POOL.get(code);
+    if (pooled != null)
+      return pooled;
+
+    if (POOL.size() >= MAX_SIZE)
+      return code;
+
+    pooled = POOL.putIfAbsent(code, code);
+    return pooled != null ? pooled : code;
+  }
+
+  static int size() {
+    return POOL.size();
+  }
+}
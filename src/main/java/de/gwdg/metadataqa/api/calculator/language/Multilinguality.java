@@ -2,7 +2,6 @@ package de.gwdg.metadataqa.api.calculator.language;
 
 import de.gwdg.metadataqa.api.calculator.MultilingualitySaturationCalculator;
 import de.gwdg.metadataqa.api.calculator.SkippedEntryChecker;
-import de.gwdg.metadataqa.api.counter.BasicCounter;
 import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.json.JsonBranch;
 import de.gwdg.metadataqa.api.model.EdmFieldInstance;
@@ -13,12 +12,11 @@ import de.gwdg.metadataqa.api.util.Converter;
 import de.gwdg.metadataqa.api.util.SkippedEntitySelector;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -42,8 +40,17 @@ public class Multilinguality {
   private SkippedEntryChecker skippedEntryChecker;
   private SkippedEntitySelector skippedEntitySelector;
 
-  Map<String, List<SortedMap<LanguageSaturationType, Double>>> rawLanguageMap = new LinkedHashMap<>();
-  Map<String, Map<String, Double>> rawScoreMap = new LinkedHashMap<>();
+  private static final LanguageSaturationType[] TYPES = LanguageSaturationType.values();
+
+  private final Map<String, FieldScore> fieldScores = new LinkedHashMap<>();
+
+  // scratch buffers reused for every field instance
+  private final int[] typeCounts = new int[TYPES.length];
+  private String[] languages = new String[8];
+  private int languageCount = 0;
+
+  Map<String, List<SortedMap<LanguageSaturationType, Double>>> rawLanguageMap;
+  Map<String, Map<String, Double>> rawScoreMap;
 
   public Multilinguality(Schema schema,
                          PathCache cache,
@@ -63,14 +70,27 @@ public class Multilinguality {
     } else {
       measureHierarchicalSchema();
     }
-    FieldCounter<Double> saturationMap = calculateScore();
-    Map<String, Map<String, Object>> mergedMap = mergeMaps(rawLanguageMap, rawScoreMap);
-    return saturationMap;
+    return calculateScore();
+  }
+
+  private boolean isExtended() {
+    return resultType.equals(MultilingualitySaturationCalculator.ResultTypes.EXTENDED);
+  }
+
+  /**
+   * Returns the instance level saturation values and the scores of the fields.
+   * It is available only for extended result type, after measure() is called.
+   * @return The merged map, or null
+   */
+  public Map<String, Map<String, Object>> getExtendedResult() {
+    if (rawLanguageMap == null)
+      return null;
+    return mergeMaps(rawLanguageMap, rawScoreMap);
   }
 
   private List<String> getSkippableIds() {
     return skippedEntryChecker != null
-      ? skippedEntryChecker.getSkippableCollectionIds(cache)
+      ? skippedEntryChecker.getSharedSkippableCollectionIds(cache)
       : new ArrayList<>();
   }
 
@@ -93,7 +113,7 @@ public class Multilinguality {
       if (rawJsonFragment == null) {
         measureMissingCollection(collection);
       } else {
-        measureExistingCollection(rawJsonFragment, collection, skippableIds);
+        measureExistingCollection(collection, skippableIds);
       }
     }
   }
@@ -101,17 +121,14 @@ public class Multilinguality {
   private void measureMissingCollection(JsonBranch collection) {
     for (JsonBranch child : collection.getChildren()) {
       if (child.isActive() && !schema.getNoLanguageFields().contains(child.getLabel())) {
-        Map<LanguageSaturationType, BasicCounter> languages = new TreeMap<>();
-        increase(languages, LanguageSaturationType.NA);
-        updateMaps(child.getLabel(), transformLanguages(languages, 0));
+        updateMaps(child.getLabel(), LanguageSaturationType.NA, 0.0);
       }
     }
   }
 
-  private void measureExistingCollection(Object rawJsonFragment,
-                                         JsonBranch collection,
+  private void measureExistingCollection(JsonBranch collection,
                                          List<String> skippableIds) {
-    List<Object> jsonFragments = Converter.jsonObjectToList(rawJsonFragment, schema);
+    List<Object> jsonFragments = Converter.getFragmentList(cache, collection.getJsonPath(), schema);
     if (jsonFragments.isEmpty()) {
       measureMissingCollection(collection);
     } else {
@@ -126,10 +143,7 @@ public class Multilinguality {
           for (JsonBranch child : collection.getChildren()) {
             if (child.isActive()
               && !schema.getNoLanguageFields().contains(child.getLabel())) {
-              var address = String.format(
-                "%s/%d/%s",
-                collection.getJsonPath(), i, child.getJsonPath()
-              );
+              var address = child.getAddress(collection, i);
               extractLanguageTags(jsonFragment, child, address);
             }
           }
@@ -142,58 +156,86 @@ public class Multilinguality {
                                    JsonBranch jsonBranch,
                                    String address) {
     List<EdmFieldInstance> values = cache.get(address, jsonBranch.getJsonPath(), jsonFragment);
-    Map<LanguageSaturationType, BasicCounter> languages = new TreeMap<>();
-    Set<String> individualLanguages = new HashSet<>();
+    Arrays.fill(typeCounts, 0);
+    languageCount = 0;
     if (values != null && !values.isEmpty()) {
       for (EdmFieldInstance field : values) {
         if (field.hasValue()) {
           if (field.hasLanguage()) {
-            individualLanguages.add(field.getLanguage());
-            increase(languages, LanguageSaturationType.LANGUAGE);
+            addLanguage(LanguageCodes.intern(field.getLanguage()));
+            typeCounts[LanguageSaturationType.LANGUAGE.ordinal()]++;
           } else {
-            increase(languages, LanguageSaturationType.STRING);
+            typeCounts[LanguageSaturationType.STRING.ordinal()]++;
           }
         } else {
-          increase(languages, LanguageSaturationType.LINK);
+          typeCounts[LanguageSaturationType.LINK.ordinal()]++;
         }
       }
     } else {
-      increase(languages, LanguageSaturationType.NA);
+      typeCounts[LanguageSaturationType.NA.ordinal()]++;
     }
 
-    updateMaps(jsonBranch.getLabel(), transformLanguages(languages, individualLanguages.size()));
+    evaluateInstance(jsonBranch.getLabel());
   }
 
-  private void updateMaps(String label,
-                          SortedMap<LanguageSaturationType, Double> instance) {
-    rawLanguageMap.computeIfAbsent(label, s -> new ArrayList<>());
-    rawLanguageMap.get(label).add(instance);
+  private void addLanguage(String language) {
+    for (var i = 0; i < languageCount; i++)
+      if (languages[i] == language || languages[i].equals(language))
+        return;
+    if (languageCount == languages.length)
+      languages = Arrays.copyOf(languages, languageCount * 2);
+    languages[languageCount++] = language;
   }
 
-  private void increase(Map<LanguageSaturationType, BasicCounter> languages, LanguageSaturationType key) {
-    if (!languages.containsKey(key)) {
-      languages.put(key, new BasicCounter(1));
+  /**
+   * Reduce the counts of an instance to its decisive saturation type and weight.
+   * Multiple language tags count as translation, unless there is a link, and
+   * a translation mixed with untagged strings is penalized.
+   */
+  private void evaluateInstance(String label) {
+    if (typeCounts[LanguageSaturationType.NA.ordinal()] > 0) {
+      updateMaps(label, LanguageSaturationType.NA, typeCounts[LanguageSaturationType.NA.ordinal()]);
+    } else if (languageCount > 1) {
+      if (typeCounts[LanguageSaturationType.LINK.ordinal()] > 0) {
+        updateMaps(label, LanguageSaturationType.LINK, typeCounts[LanguageSaturationType.LINK.ordinal()]);
+      } else {
+        double weight = normalizeTranslationCount(languageCount);
+        if (typeCounts[LanguageSaturationType.STRING.ordinal()] > 0)
+          weight += TRANSLATION_MODIFIER;
+        updateMaps(label, LanguageSaturationType.TRANSLATION, weight);
+      }
     } else {
-      languages.get(key).increaseTotal();
+      for (LanguageSaturationType type : TYPES) {
+        if (typeCounts[type.ordinal()] > 0) {
+          updateMaps(label, type, typeCounts[type.ordinal()]);
+          break;
+        }
+      }
     }
   }
 
-  private SortedMap<LanguageSaturationType, Double> transformLanguages(Map<LanguageSaturationType, BasicCounter> languages,
-                                                                       int languageCount) {
-    SortedMap<LanguageSaturationType, Double> result = new TreeMap<>();
-    for (Map.Entry<LanguageSaturationType, BasicCounter> lang : languages.entrySet())
-      result.put(lang.getKey(), lang.getValue().getTotal());
-
-    if (result.containsKey(LanguageSaturationType.LANGUAGE)
-      && result.get(LanguageSaturationType.LANGUAGE) > 1
-      && languageCount > 1) {
-      result.remove(LanguageSaturationType.LANGUAGE);
-      result.put(LanguageSaturationType.TRANSLATION, normalizeTranslationCount(languageCount));
+  private void updateMaps(String label, LanguageSaturationType type, double weight) {
+    FieldScore score = fieldScores.get(label);
+    if (score == null) {
+      score = new FieldScore();
+      fieldScores.put(label, score);
+    }
+    score.instances++;
+    double saturation = type.value();
+    if (type != LanguageSaturationType.NA) {
+      if (type == LanguageSaturationType.TRANSLATION)
+        saturation += weight;
+      score.sum += saturation;
+      score.isSet = true;
     }
-    if (languageCount > 1) {
-      result = keepOnlyTheBest(result);
+
+    if (isExtended()) {
+      if (rawLanguageMap == null)
+        rawLanguageMap = new LinkedHashMap<>();
+      SortedMap<LanguageSaturationType, Double> instance = new TreeMap<>();
+      instance.put(type, weight);
+      rawLanguageMap.computeIfAbsent(label, s -> new ArrayList<>()).add(instance);
     }
-    return result;
   }
 
   private double normalizeTranslationCount(double count) {
@@ -228,66 +270,37 @@ public class Multilinguality {
     return map;
   }
 
-  private SortedMap<LanguageSaturationType, Double> keepOnlyTheBest(SortedMap<LanguageSaturationType, Double> result) {
-    if (result.size() > 1) {
-      LanguageSaturationType best = LanguageSaturationType.NA;
-      for (LanguageSaturationType key : result.keySet()) {
-        if (key.value() > best.value()) {
-          best = key;
-        }
-      }
-
-      if (best != LanguageSaturationType.NA) {
-        var modifier = 0.0;
-        if (best == LanguageSaturationType.TRANSLATION
-          && result.containsKey(LanguageSaturationType.STRING)) {
-          modifier = TRANSLATION_MODIFIER;
-        }
-        SortedMap<LanguageSaturationType, Double> replacement = new TreeMap<>();
-        replacement.put(best, result.get(best) + modifier);
-        result = replacement;
-      }
-    }
-    return result;
-  }
-
   private FieldCounter<Double> calculateScore() {
     double sum;
     double average;
     double normalized;
-    List<Double> sums = new ArrayList<>();
+    double total = 0.0;
+    var setFields = 0;
+    var extended = isExtended();
+    if (extended)
+      rawScoreMap = new LinkedHashMap<>();
     FieldCounter<Double> languageMap = new FieldCounter<>();
-    for (Map.Entry<String, List<SortedMap<LanguageSaturationType, Double>>> field : rawLanguageMap.entrySet()) {
-      Map<String, Double> fieldMap = new LinkedHashMap<>();
-      List<SortedMap<LanguageSaturationType, Double>> values = field.getValue();
-      sum = 0.0;
-      var isSet = false;
-      for (SortedMap<LanguageSaturationType, Double> value : values) {
-        double saturation = value.firstKey().value();
-        if (saturation == -1.0) {
-          continue;
-        }
-        double weight = value.get(value.firstKey());
-        if (value.firstKey() == LanguageSaturationType.TRANSLATION) {
-          saturation += weight;
-        }
-        sum += saturation;
-        isSet = true;
-      }
-      if (!isSet) {
+    for (Map.Entry<String, FieldScore> field : fieldScores.entrySet()) {
+      FieldScore score = field.getValue();
+      if (!score.isSet) {
         average = LanguageSaturationType.NA.value();
         normalized = LanguageSaturationType.NA.value();
         sum = LanguageSaturationType.NA.value();
       } else {
-        average = sum / (double) values.size();
+        sum = score.sum;
+        average = sum / (double) score.instances;
         normalized = normalize(average);
-        sums.add(sum);
+        total += sum;
+        setFields++;
       }
 
-      fieldMap.put("sum", sum);
-      fieldMap.put("average", average);
-      fieldMap.put("normalized", normalized);
-      rawScoreMap.put(field.getKey(), fieldMap);
+      if (extended) {
+        Map<String, Double> fieldMap = new LinkedHashMap<>();
+        fieldMap.put("sum", sum);
+        fieldMap.put("average", average);
+        fieldMap.put("normalized", normalized);
+        rawScoreMap.put(field.getKey(), fieldMap);
+      }
 
       if (resultType.equals(MultilingualitySaturationCalculator.ResultTypes.NORMAL)) {
         languageMap.put(field.getKey(), normalized);
@@ -297,10 +310,10 @@ public class Multilinguality {
         languageMap.put(field.getKey() + ":normalized", normalized);
       }
     }
-    sum = summarize(sums);
-    average = sum / (double) sums.size();
+    sum = total;
+    average = sum / (double) setFields;
     normalized = normalize(average);
-    if (resultType.equals(MultilingualitySaturationCalculator.ResultTypes.EXTENDED)) {
+    if (extended) {
       languageMap.put(SUM, sum);
       languageMap.put(AVERAGE, average);
     }
@@ -309,15 +322,6 @@ public class Multilinguality {
     return languageMap;
   }
 
-  private double summarize(List<Double> sums) {
-    double sum;
-    sum = 0.0;
-    for (Double item : sums) {
-      sum += item;
-    }
-    return sum;
-  }
-
   private static double normalize(double average) {
     return 1.0 - (1.0 / (average + 1.0));
   }
@@ -336,4 +340,13 @@ public class Multilinguality {
     }
     return normalized;
   }
+
+  /**
+   * The accumulated saturation of a field over all its instances.
+   */
+  private static class FieldScore {
+    private double sum = 0.0;
+    private int instances = 0;
+    private boolean isSet = false;
+  }
 }
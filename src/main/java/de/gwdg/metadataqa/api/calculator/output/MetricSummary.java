@@ -0,0 +1,124 @@
+package de.gwdg.metadataqa.api.calculator.output;
+
+import de.gwdg.metadataqa.api.columnar.ColumnSummary;
+import de.gwdg.metadataqa.api.columnar.Histogram;
+import de.gwdg.metadataqa.api.columnar.QuantileSketch;
+
+import java.io.Serializable;
+
+/**
+ * The summary of a metric over the measured records: count, mean, variance,
+ * minimum, maximum, a histogram and a quantile sketch of the values. The
+ * booleans count as 0 and 1, the NA values and the texts as missing values.
+ */
+public class MetricSummary implements Serializable {
+
+  private static final long serialVersionUID = 1820807739239857429L;
+
+  private final ColumnSummary summary = new ColumnSummary();
+  private final Histogram histogram = new Histogram();
+  private final QuantileSketch sketch = new QuantileSketch();
+
+  public void add(Object value) {
+    add(toDouble(value));
+  }
+
+  public void add(double value) {
+    summary.add(value);
+    histogram.add(value);
+    sketch.add(value);
+  }
+
+  static double toDouble(Object value) {
+    if (value instanceof Number)
+      return ((Number) value).doubleValue();
+    if (value instanceof Boolean)
+      return ((Boolean) value) ? 1.0 : 0.0;
+    return Double.NaN;
+  }
+
+  /**
+   * Adds the values of the other summary to this one.
+   * @return This summary
+   */
+  public MetricSummary merge(MetricSummary other) {
+    summary.merge(other.summary);
+    histogram.merge(other.histogram);
+    sketch.merge(other.sketch);
+    return this;
+  }
+
+  /**
+   * @return The number of numeric values
+   */
+  public long getCount() {
+    return summary.getCount();
+  }
+
+  /**
+   * @return The number of missing (null, NA or not numeric) values
+   */
+  public long getMissingCount() {
+    return summary.getNullCount();
+  }
+
+  public double getSum() {
+    return summary.getSum();
+  }
+
+  public double getMean() {
+    return summary.getMean();
+  }
+
+  /**
+   * @return The sample variance, or NaN if there are less than two values
+   */
+  public double getVariance() {
+    return summary.getVariance();
+  }
+
+  public double getStandardDeviation() {
+    return summary.getStandardDeviation();
+  }
+
+  public double getMin() {
+    return summary.getMin();
+  }
+
+  public double getMax() {
+    return summary.getMax();
+  }
+
+  public Histogram getHistogram() {
+    return histogram;
+  }
+
+  public QuantileSketch getSketch() {
+    return sketch;
+  }
+
+  /**
+   * @param fraction The fraction of the values, e.g. 0.25 for the first quartile
+   * @return The approximate quantile
+   */
+  public double getQuantile(double fraction) {
+    return sketch.getQuantile(fraction);
+  }
+
+  public double getMedian() {
+    return sketch.getMedian();
+  }
+
+  @Override
+  public String toString() {
+    return "MetricSummary{"
+      + "count=" + getCount()
+      + ", missing=" + getMissingCount()
+      + ", mean=" + getMean()
+      + ", variance=" + getVariance()
+      + ", min=" + getMin()
+      + ", max=" + getMax()
+      + ", median=" + getMedian()
+      + '}';
+  }
+}
@@ -16,6 +16,12 @@ public interface OutputCollector {
     JSON
   }
 
+  /**
+   * Called once for each measured record, before the results of its calculators.
+   */
+  default void startRecord() {
+  }
+
   void addResult(Calculator calculator, List<MetricResult> metricResults, CompressionLevel compressionLevel);
   Object getResults();
 }
@@ -0,0 +1,227 @@
+package de.gwdg.metadataqa.api.calculator.output;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the measurement results (e.g. the CSV lines of
+ * CalculatorFacade.measure()) on a dedicated I/O thread, so a slow disk does
+ * not stop the measurement threads.
+ *
+ * The results go into a preallocated ring buffer of slots. A measurement
+ * thread claims the next sequence number, stores its result in the slot of
+ * the sequence and publishes it. The I/O thread is the single writer of the
+ * output: it takes the published results in sequence order, writes them in
+ * batches into a buffered writer, and frees their slots. If all the slots
+ * are taken, publish() waits until the I/O thread frees one (backpressure),
+ * and the time spent waiting is measured.
+ *
+ * The results of a thread are written in the order they were published.
+ */
+public class RingBufferOutputSink implements Closeable {
+
+  private static final int DEFAULT_CAPACITY = 1 << 14;
+  private static final int DEFAULT_BATCH_SIZE = 1 << 10;
+  private static final int WRITER_BUFFER_SIZE = 1 << 16;
+  private static final long PARK_NANOS = 100_000;
+
+  private final Writer writer;
+  private final String[] slots;
+  private final AtomicLongArray published;
+  private final int mask;
+  private final int batchSize;
+  private final AtomicLong claimed = new AtomicLong(-1);
+  private volatile long consumed = -1;
+  private volatile boolean closed = false;
+  private volatile IOException failure;
+  private final Thread ioThread;
+
+  private final LongAdder blockedNanos = new LongAdder();
+  private final LongAdder blockedPublishes = new LongAdder();
+  private volatile long writtenRecords = 0;
+  private volatile long batches = 0;
+  private volatile long writeNanos = 0;
+
+  public RingBufferOutputSink(Writer writer) {
+    this(writer, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * @param writer The output, it is closed by close()
+   * @param capacity The number of slots, it is rounded up to a power of 2
+   * @param batchSize The maximal number of results written at once
+   */
+  public RingBufferOutputSink(Writer writer, int capacity, int batchSize) {
+    if (capacity < 1 || batchSize < 1)
+      throw new IllegalArgumentException("The capacity and the batch size should be positive");
+    this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer, WRITER_BUFFER_SIZE);
+    int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+    this.slots = new String[size];
+    this.published = new AtomicLongArray(size);
+    for (var i = 0; i < size; i++)
+      published.set(i, -1);
+    this.mask = size - 1;
+    this.batchSize = batchSize;
+    this.ioThread = new Thread(this::drain, "output-sink");
+    ioThread.setDaemon(true);
+    ioThread.start();
+  }
+
+  /**
+   * @param file The output file, it is written in UTF-8
+   * @return The sink
+   * @throws IOException If the file can not be created
+   */
+  public static RingBufferOutputSink open(Path file) throws IOException {
+    return new RingBufferOutputSink(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Adds a result, which will be written as a line. It can be called from
+   * several threads, but not after close().
+   * @param result The result, not null
+   * @throws IOException If the output failed
+   */
+  public void publish(String result) throws IOException {
+    Objects.requireNonNull(result, "The result should not be null");
+    if (closed)
+      throw new IllegalStateException("The output sink is closed");
+    checkFailure();
+    long sequence = claimed.incrementAndGet();
+    long wrapPoint = sequence - slots.length;
+    if (wrapPoint > consumed) {
+      long start = System.nanoTime();
+      blockedPublishes.increment();
+      try {
+        while (wrapPoint > consumed) {
+          checkFailure();
+          // the sequence is claimed, so it should be published, even if the thread is interrupted
+          LockSupport.parkNanos(this, PARK_NANOS);
+        }
+      } finally {
+        blockedNanos.add(System.nanoTime() - start);
+      }
+    }
+    int index = (int) sequence & mask;
+    slots[index] = result;
+    published.set(index, sequence);
+  }
+
+  private void checkFailure() throws IOException {
+    if (failure != null)
+      throw new IOException("Failed to write the output: " + failure.getMessage(), failure);
+  }
+
+  /**
+   * The loop of the I/O thread.
+   */
+  private void drain() {
+    long next = 0;
+    var dirty = false;
+    try {
+      while (true) {
+        long available = next - 1;
+        while (available - next + 1 < batchSize
+               && published.get((int) (available + 1) & mask) == available + 1)
+          available++;
+
+        if (available >= next) {
+          long start = System.nanoTime();
+          for (long sequence = next; sequence <= available; sequence++) {
+            int index = (int) sequence & mask;
+            writer.write(slots[index]);
+            writer.write('\n');
+            slots[index] = null;
+          }
+          writeNanos += System.nanoTime() - start;
+          writtenRecords += available - next + 1;
+          batches++;
+          consumed = available;
+          next = available + 1;
+          dirty = true;
+        } else if (closed && next > claimed.get()) {
+          break;
+        } else {
+          if (dirty) {
+            long start = System.nanoTime();
+            writer.flush();
+            writeNanos += System.nanoTime() - start;
+            dirty = false;
+          }
+          LockSupport.parkNanos(this, PARK_NANOS);
+        }
+      }
+      writer.flush();
+    } catch (IOException e) {
+      failure = e;
+    } catch (RuntimeException | Error e) {
+      failure = new IOException(e.toString(), e);
+    }
+  }
+
+  /**
+   * Writes the remaining results and closes the output. It should be called
+   * after the measurement threads published their last results.
+   * @throws IOException If the output failed
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed)
+      return;
+    closed = true;
+    LockSupport.unpark(ioThread);
+    try {
+      ioThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while closing the output");
+    } finally {
+      writer.close();
+    }
+    checkFailure();
+  }
+
+  /**
+   * @return The total time the measurement threads waited for a free slot, in nanoseconds
+   */
+  public long getBlockedNanos() {
+    return blockedNanos.sum();
+  }
+
+  /**
+   * @return The number of publish() calls which had to wait for a free slot
+   */
+  public long getBlockedPublishes() {
+    return blockedPublishes.sum();
+  }
+
+  public long getWrittenRecords() {
+    return writtenRecords;
+  }
+
+  public long getBatches() {
+    return batches;
+  }
+
+  /**
+   * @return The time the I/O thread spent in writing and flushing, in nanoseconds
+   */
+  public long getWriteNanos() {
+    return writeNanos;
+  }
+
+  public int getCapacity() {
+    return slots.length;
+  }
+}
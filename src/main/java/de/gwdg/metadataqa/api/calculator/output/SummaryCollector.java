@@ -0,0 +1,84 @@
+package de.gwdg.metadataqa.api.calculator.output;
+
+import de.gwdg.metadataqa.api.interfaces.Calculator;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.util.CompressionLevel;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the dataset level summaries of the metrics, instead of the results
+ * of the individual records. It can be passed to
+ * CalculatorFacade.measure(record, collector) for all the records of a
+ * dataset. The metrics are named as in CalculatorFacade.measureAsMap()
+ * (result name:metric).
+ *
+ * A collector is not thread-safe: each thread (or partition, or process)
+ * should have its own, and the partial collectors can be merged. The
+ * collector is serializable, so it can be sent to the process merging them.
+ */
+public class SummaryCollector implements OutputCollector, Serializable {
+
+  private static final long serialVersionUID = 4163480879041901863L;
+
+  private final Map<String, MetricSummary> summaries = new LinkedHashMap<>();
+  private long recordCount = 0;
+
+  @Override
+  public void startRecord() {
+    recordCount++;
+  }
+
+  @Override
+  public void addResult(Calculator calculator, List<MetricResult> metricResults, CompressionLevel compressionLevel) {
+    for (MetricResult metricResult : metricResults) {
+      String prefix = metricResult.getName() + ":";
+      for (Map.Entry<String, ?> entry : metricResult.getResultMap().entrySet())
+        summaries.computeIfAbsent(prefix + entry.getKey(), name -> new MetricSummary()).add(entry.getValue());
+    }
+  }
+
+  /**
+   * Adds the summaries of the other collector to this one.
+   * @return This collector
+   */
+  public SummaryCollector merge(SummaryCollector other) {
+    for (Map.Entry<String, MetricSummary> entry : other.summaries.entrySet()) {
+      MetricSummary summary = summaries.get(entry.getKey());
+      if (summary == null) {
+        summary = new MetricSummary();
+        summaries.put(entry.getKey(), summary);
+      }
+      summary.merge(entry.getValue());
+    }
+    recordCount += other.recordCount;
+    return this;
+  }
+
+  /**
+   * @return The summaries by metric name
+   */
+  @Override
+  public Object getResults() {
+    return getSummaries();
+  }
+
+  public Map<String, MetricSummary> getSummaries() {
+    return Collections.unmodifiableMap(summaries);
+  }
+
+  /**
+   * @return The summary of a metric, or null if it has not been measured
+   */
+  public MetricSummary getSummary(String metric) {
+    return summaries.get(metric);
+  }
+
+  public long getRecordCount() {
+    return recordCount;
+  }
+}
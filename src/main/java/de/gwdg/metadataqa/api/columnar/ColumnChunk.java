@@ -0,0 +1,247 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes the values of a column in a row group:
+ * <ul>
+ *   <li>the nulls (if there are any) as a bitmap,</li>
+ *   <li>the booleans (1 bit) and the rule outcomes (2 bits) bit-packed, or
+ *   run length encoded, whichever is shorter,</li>
+ *   <li>the integers as the bit-packed differences from the minimum,</li>
+ *   <li>the doubles as they are,</li>
+ *   <li>the texts as a dictionary and the bit-packed indices.</li>
+ * </ul>
+ */
+final class ColumnChunk {
+
+  private static final int BIT_PACKED = 0;
+  private static final int RUN_LENGTH = 1;
+
+  private ColumnChunk() {
+  }
+
+  static byte[] encode(ResultColumn column) throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    var out = new DataOutputStream(bytes);
+    int count = column.size();
+    BitSet nulls = column.getNulls();
+    if (column.getNullCount() > 0) {
+      var bits = new long[count];
+      for (var i = 0; i < count; i++)
+        bits[i] = nulls.get(i) ? 1 : 0;
+      Encoding.pack(out, bits, count, 1);
+    }
+    if (column.getType() != null) {
+      switch (column.getType()) {
+        case BOOLEAN: encodeBooleans(out, column, count); break;
+        case RULE_OUTCOME: encodeOutcomes(out, column, count); break;
+        case INT: encodeInts(out, column, count); break;
+        case DOUBLE: encodeDoubles(out, column, count); break;
+        default: encodeStrings(out, column, count); break;
+      }
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static void encodeBooleans(DataOutput out, ResultColumn column, int count) throws IOException {
+    boolean[] values = column.getBooleanArray();
+    var codes = new long[count];
+    for (var i = 0; i < count; i++)
+      codes[i] = !column.isNull(i) && values[i] ? 1 : 0;
+    encodeCodes(out, codes, count, 1);
+  }
+
+  private static void encodeOutcomes(DataOutput out, ResultColumn column, int count) throws IOException {
+    byte[] values = column.getOutcomeArray();
+    var codes = new long[count];
+    for (var i = 0; i < count; i++)
+      codes[i] = column.isNull(i) ? ResultColumn.NA_CODE : values[i];
+    encodeCodes(out, codes, count, 2);
+  }
+
+  /**
+   * Writes the codes as runs of the same code if it takes less space than
+   * bit packing them.
+   */
+  private static void encodeCodes(DataOutput out, long[] codes, int count, int width) throws IOException {
+    var runs = 0;
+    for (var i = 0; i < count; i++)
+      if (i == 0 || codes[i] != codes[i - 1])
+        runs++;
+    long packedSize = ((long) count * width + 7) / 8;
+    // a run takes at least two bytes: its length and its code
+    if (runs * 2L < packedSize) {
+      out.writeByte(RUN_LENGTH);
+      Encoding.writeVarInt(out, runs);
+      var start = 0;
+      for (var i = 1; i <= count; i++) {
+        if (i == count || codes[i] != codes[start]) {
+          Encoding.writeVarInt(out, i - start);
+          out.writeByte((int) codes[start]);
+          start = i;
+        }
+      }
+    } else {
+      out.writeByte(BIT_PACKED);
+      Encoding.pack(out, codes, count, width);
+    }
+  }
+
+  private static void encodeInts(DataOutput out, ResultColumn column, int count) throws IOException {
+    int[] values = column.getIntArray();
+    var min = Integer.MAX_VALUE;
+    var max = Integer.MIN_VALUE;
+    for (var i = 0; i < count; i++) {
+      if (!column.isNull(i)) {
+        min = Math.min(min, values[i]);
+        max = Math.max(max, values[i]);
+      }
+    }
+    var differences = new long[count];
+    for (var i = 0; i < count; i++)
+      differences[i] = column.isNull(i) ? 0 : (long) values[i] - min;
+    int width = Encoding.bitWidth((long) max - min);
+    out.writeInt(min);
+    out.writeByte(width);
+    Encoding.pack(out, differences, count, width);
+  }
+
+  private static void encodeDoubles(DataOutput out, ResultColumn column, int count) throws IOException {
+    double[] values = column.getDoubleArray();
+    for (var i = 0; i < count; i++)
+      out.writeDouble(column.isNull(i) ? 0.0 : values[i]);
+  }
+
+  private static void encodeStrings(DataOutput out, ResultColumn column, int count) throws IOException {
+    String[] values = column.getStringArray();
+    Map<String, Integer> dictionary = new HashMap<>();
+    var indices = new long[count];
+    var entries = new ByteArrayOutputStream();
+    var entryOut = new DataOutputStream(entries);
+    for (var i = 0; i < count; i++) {
+      if (column.isNull(i))
+        continue;
+      Integer index = dictionary.get(values[i]);
+      if (index == null) {
+        index = dictionary.size();
+        dictionary.put(values[i], index);
+        byte[] text = values[i].getBytes(StandardCharsets.UTF_8);
+        Encoding.writeVarInt(entryOut, text.length);
+        entryOut.write(text);
+      }
+      indices[i] = index;
+    }
+    Encoding.writeVarInt(out, dictionary.size());
+    entryOut.flush();
+    out.write(entries.toByteArray());
+    int width = Encoding.bitWidth(Math.max(0, dictionary.size() - 1));
+    out.writeByte(width);
+    Encoding.pack(out, indices, count, width);
+  }
+
+  static ResultColumn decode(byte[] chunk, String name, ColumnType type, int count, boolean hasNulls)
+      throws IOException {
+    var in = new DataInputStream(new ByteArrayInputStream(chunk));
+    var nulls = new BitSet(count);
+    if (hasNulls) {
+      long[] bits = Encoding.unpack(in, count, 1);
+      for (var i = 0; i < count; i++)
+        if (bits[i] == 1)
+          nulls.set(i);
+    }
+    Object values = null;
+    if (type != null) {
+      switch (type) {
+        case BOOLEAN: values = decodeBooleans(in, count); break;
+        case RULE_OUTCOME: values = decodeOutcomes(in, count); break;
+        case INT: values = decodeInts(in, count); break;
+        case DOUBLE: values = decodeDoubles(in, count); break;
+        default: values = decodeStrings(in, count); break;
+      }
+    }
+    return new ResultColumn(name, type, count, values, nulls);
+  }
+
+  private static boolean[] decodeBooleans(DataInput in, int count) throws IOException {
+    long[] codes = decodeCodes(in, count, 1);
+    var values = new boolean[count];
+    for (var i = 0; i < count; i++)
+      values[i] = codes[i] == 1;
+    return values;
+  }
+
+  private static byte[] decodeOutcomes(DataInput in, int count) throws IOException {
+    long[] codes = decodeCodes(in, count, 2);
+    var values = new byte[count];
+    for (var i = 0; i < count; i++)
+      values[i] = (byte) codes[i];
+    return values;
+  }
+
+  private static long[] decodeCodes(DataInput in, int count, int width) throws IOException {
+    int mode = in.readUnsignedByte();
+    if (mode == BIT_PACKED)
+      return Encoding.unpack(in, count, width);
+    if (mode != RUN_LENGTH)
+      throw new IOException("Unknown encoding: " + mode);
+    var codes = new long[count];
+    int runs = Encoding.readVarInt(in);
+    var position = 0;
+    for (var run = 0; run < runs; run++) {
+      int length = Encoding.readVarInt(in);
+      int code = in.readUnsignedByte();
+      if (position + length > count)
+        throw new IOException("The runs are longer than the chunk");
+      Arrays.fill(codes, position, position + length, code);
+      position += length;
+    }
+    return codes;
+  }
+
+  private static int[] decodeInts(DataInput in, int count) throws IOException {
+    int min = in.readInt();
+    int width = in.readUnsignedByte();
+    long[] differences = Encoding.unpack(in, count, width);
+    var values = new int[count];
+    for (var i = 0; i < count; i++)
+      values[i] = (int) (min + differences[i]);
+    return values;
+  }
+
+  private static double[] decodeDoubles(DataInput in, int count) throws IOException {
+    var values = new double[count];
+    for (var i = 0; i < count; i++)
+      values[i] = in.readDouble();
+    return values;
+  }
+
+  private static String[] decodeStrings(DataInput in, int count) throws IOException {
+    int size = Encoding.readVarInt(in);
+    var dictionary = new String[size];
+    for (var i = 0; i < size; i++) {
+      var text = new byte[Encoding.readVarInt(in)];
+      in.readFully(text);
+      dictionary[i] = new String(text, StandardCharsets.UTF_8);
+    }
+    int width = in.readUnsignedByte();
+    long[] indices = Encoding.unpack(in, count, width);
+    var values = new String[count];
+    if (size > 0)
+      for (var i = 0; i < count; i++)
+        values[i] = dictionary[(int) indices[i]];
+    return values;
+  }
+}
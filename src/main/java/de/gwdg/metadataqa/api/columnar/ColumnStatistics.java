@@ -0,0 +1,129 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import java.io.Serializable;
+
+/**
+ * The statistics of a column chunk, or of a whole column, stored in the
+ * footer of the columnar files: the number of values and nulls, and the
+ * minimum and maximum of the numeric values (booleans and rule outcomes count
+ * as 0 and 1, the NA outcomes are skipped). A reader can skip the row groups
+ * which can not match a filter without reading them.
+ */
+public class ColumnStatistics implements Serializable {
+
+  private static final long serialVersionUID = 3186390512817339204L;
+
+  private final ColumnType type;
+  private final int rowCount;
+  private final int nullCount;
+  private final double min;
+  private final double max;
+
+  public ColumnStatistics(ColumnType type, int rowCount, int nullCount, double min, double max) {
+    this.type = type;
+    this.rowCount = rowCount;
+    this.nullCount = nullCount;
+    this.min = min;
+    this.max = max;
+  }
+
+  /**
+   * Calculates the statistics of the first rows of a column.
+   */
+  static ColumnStatistics of(ResultColumn column) {
+    var min = Double.NaN;
+    var max = Double.NaN;
+    if (column.getType() != null && column.getType().isNumeric()) {
+      for (var i = 0; i < column.size(); i++) {
+        double value = column.getDouble(i);
+        if (Double.isNaN(value))
+          continue;
+        if (Double.isNaN(min) || value < min)
+          min = value;
+        if (Double.isNaN(max) || value > max)
+          max = value;
+      }
+    }
+    return new ColumnStatistics(column.getType(), column.size(), column.getNullCount(), min, max);
+  }
+
+  /**
+   * @return The statistics of the two chunks together
+   */
+  public ColumnStatistics merge(ColumnStatistics other) {
+    boolean intsAreOutcomes = type == ColumnType.INT ? isOutcomeRange() : other.isOutcomeRange();
+    return new ColumnStatistics(ColumnType.widen(type, other.type, intsAreOutcomes),
+      rowCount + other.rowCount,
+      nullCount + other.nullCount,
+      minOf(min, other.min),
+      maxOf(max, other.max));
+  }
+
+  /**
+   * @return If the numeric values are all 0 or 1 (or there is none)
+   */
+  private boolean isOutcomeRange() {
+    return Double.isNaN(min) || (min >= 0 && max <= 1);
+  }
+
+  private static double minOf(double a, double b) {
+    if (Double.isNaN(a))
+      return b;
+    return Double.isNaN(b) ? a : Math.min(a, b);
+  }
+
+  private static double maxOf(double a, double b) {
+    if (Double.isNaN(a))
+      return b;
+    return Double.isNaN(b) ? a : Math.max(a, b);
+  }
+
+  /**
+   * @return The type, or null if the chunk has only nulls
+   */
+  public ColumnType getType() {
+    return type;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public int getNullCount() {
+    return nullCount;
+  }
+
+  /**
+   * @return The minimum, or NaN if there are no numeric values
+   */
+  public double getMin() {
+    return min;
+  }
+
+  /**
+   * @return The maximum, or NaN if there are no numeric values
+   */
+  public double getMax() {
+    return max;
+  }
+
+  /**
+   * @return If some values might be in the range
+   */
+  public boolean mightContain(double from, double to) {
+    if (Double.isNaN(min))
+      return false;
+    return max >= from && min <= to;
+  }
+
+  @Override
+  public String toString() {
+    return "ColumnStatistics{"
+      + "type=" + type
+      + ", rowCount=" + rowCount
+      + ", nullCount=" + nullCount
+      + ", min=" + min
+      + ", max=" + max
+      + '}';
+  }
+}
@@ -0,0 +1,139 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import java.io.Serializable;
+
+/**
+ * The summary statistics of the numeric values of a column: count, sum,
+ * mean, variance, minimum and maximum. The mean and the variance are updated
+ * with Welford's algorithm, and two summaries are merged with the formula of
+ * Chan et al., so the summaries of the parts of a column (calculated in
+ * parallel) can be combined.
+ */
+public class ColumnSummary implements Serializable {
+
+  private static final long serialVersionUID = 5412893106547321095L;
+
+  private long count = 0;
+  private long nullCount = 0;
+  private double sum = 0.0;
+  private double mean = 0.0;
+  private double m2 = 0.0;
+  private double min = Double.NaN;
+  private double max = Double.NaN;
+
+  /**
+   * @param value A value, NaN counts as missing
+   */
+  public void add(double value) {
+    if (Double.isNaN(value)) {
+      nullCount++;
+      return;
+    }
+    count++;
+    sum += value;
+    double delta = value - mean;
+    mean += delta / count;
+    m2 += delta * (value - mean);
+    if (count == 1) {
+      min = value;
+      max = value;
+    } else {
+      if (value < min)
+        min = value;
+      if (value > max)
+        max = value;
+    }
+  }
+
+  public void addMissing() {
+    nullCount++;
+  }
+
+  /**
+   * Adds the values of the other summary to this one.
+   * @return This summary
+   */
+  public ColumnSummary merge(ColumnSummary other) {
+    if (other.count > 0) {
+      if (count == 0) {
+        mean = other.mean;
+        m2 = other.m2;
+        min = other.min;
+        max = other.max;
+      } else {
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+      }
+      count += other.count;
+      sum += other.sum;
+    }
+    nullCount += other.nullCount;
+    return this;
+  }
+
+  /**
+   * @return The number of values
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return The number of nulls and NA values
+   */
+  public long getNullCount() {
+    return nullCount;
+  }
+
+  public double getSum() {
+    return sum;
+  }
+
+  /**
+   * @return The mean, or NaN if there are no values
+   */
+  public double getMean() {
+    return count == 0 ? Double.NaN : mean;
+  }
+
+  /**
+   * @return The sample variance (as in R), or NaN if there are less than two values
+   */
+  public double getVariance() {
+    return count < 2 ? Double.NaN : m2 / (count - 1);
+  }
+
+  public double getStandardDeviation() {
+    return Math.sqrt(getVariance());
+  }
+
+  /**
+   * @return The minimum, or NaN if there are no values
+   */
+  public double getMin() {
+    return min;
+  }
+
+  /**
+   * @return The maximum, or NaN if there are no values
+   */
+  public double getMax() {
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return "ColumnSummary{"
+      + "count=" + count
+      + ", nullCount=" + nullCount
+      + ", mean=" + getMean()
+      + ", variance=" + getVariance()
+      + ", min=" + min
+      + ", max=" + max
+      + '}';
+  }
+}
@@ -0,0 +1,60 @@
+package de.gwdg.metadataqa.api.columnar;
+
+/**
+ * The types of result columns. The type of a column is inferred from the
+ * values the calculators return for the metric: Boolean (existence), Integer
+ * (cardinality), Double (completeness, saturation), "NA", 0 or 1 (rule
+ * outcomes), and anything else is stored as text.
+ */
+public enum ColumnType {
+  BOOLEAN,
+  RULE_OUTCOME,
+  INT,
+  DOUBLE,
+  STRING;
+
+  static final String NA = "NA";
+
+  /**
+   * @param value A metric value, which is not null
+   * @return The narrowest type which can hold the value
+   */
+  public static ColumnType of(Object value) {
+    if (value instanceof Boolean)
+      return BOOLEAN;
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+      return INT;
+    if (value instanceof Long) {
+      long number = (Long) value;
+      return number == (int) number ? INT : DOUBLE;
+    }
+    if (value instanceof Number)
+      return DOUBLE;
+    if (NA.equals(value))
+      return RULE_OUTCOME;
+    return STRING;
+  }
+
+  /**
+   * The type which can hold the values of both types. ResultColumn.append()
+   * and appendAll() widen a column by the same rules.
+   * @param intsAreOutcomes If the values of the INT type are all 0 or 1: only
+   *   then can INT and RULE_OUTCOME be widened to RULE_OUTCOME
+   * @return The type, or null if both are null
+   */
+  public static ColumnType widen(ColumnType a, ColumnType b, boolean intsAreOutcomes) {
+    if (a == null || a == b)
+      return b;
+    if (b == null)
+      return a;
+    if ((a == INT && b == DOUBLE) || (a == DOUBLE && b == INT))
+      return DOUBLE;
+    if ((a == INT && b == RULE_OUTCOME) || (a == RULE_OUTCOME && b == INT))
+      return intsAreOutcomes ? RULE_OUTCOME : STRING;
+    return STRING;
+  }
+
+  public boolean isNumeric() {
+    return this != STRING;
+  }
+}
@@ -0,0 +1,244 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the columnar files written by ColumnarResultWriter. Opening the file
+ * reads the footer only. The columns are read on request, only the chunks of
+ * the requested columns (and row groups) are read from the file.
+ * @see ColumnarResultWriter
+ */
+public class ColumnarResultReader implements Closeable {
+
+  private static final int TRAILER_LENGTH = Long.BYTES + Integer.BYTES;
+
+  private final FileChannel channel;
+  private final List<String> header;
+  private final Map<String, Integer> indices = new HashMap<>();
+  private final List<RowGroup> rowGroups;
+  private final long rowCount;
+
+  public ColumnarResultReader(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      if (size < 2 * Integer.BYTES + TRAILER_LENGTH)
+        throw new IOException("Not a columnar result file");
+      DataInputStream start = read(0, 2 * Integer.BYTES);
+      if (start.readInt() != ColumnarResultWriter.MAGIC)
+        throw new IOException("Not a columnar result file");
+      var version = start.readInt();
+      if (version != ColumnarResultWriter.VERSION)
+        throw new IOException("Unsupported columnar result file version: " + version);
+
+      DataInputStream trailer = read(size - TRAILER_LENGTH, TRAILER_LENGTH);
+      long footerPosition = trailer.readLong();
+      if (trailer.readInt() != ColumnarResultWriter.MAGIC || footerPosition < 0
+          || footerPosition > size - TRAILER_LENGTH)
+        throw new IOException("The columnar result file is incomplete");
+
+      DataInputStream footer = read(footerPosition, (int) (size - TRAILER_LENGTH - footerPosition));
+      var columnCount = footer.readInt();
+      header = new ArrayList<>(columnCount);
+      for (var i = 0; i < columnCount; i++) {
+        String name = footer.readUTF();
+        header.add(name);
+        indices.putIfAbsent(name, i);
+      }
+      var rowGroupCount = footer.readInt();
+      rowGroups = new ArrayList<>(rowGroupCount);
+      long rows = 0;
+      for (var i = 0; i < rowGroupCount; i++) {
+        var rowGroup = RowGroup.read(footer, columnCount);
+        rowGroups.add(rowGroup);
+        rows += rowGroup.rowCount;
+      }
+      rowCount = rows;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * The position and the statistics of the column chunks of a row group.
+   */
+  private static class RowGroup {
+    private int rowCount;
+    private long[] offsets;
+    private int[] lengths;
+    private int[] rawLengths;
+    private int[] flags;
+    private ColumnStatistics[] statistics;
+
+    private static RowGroup read(DataInputStream footer, int columnCount) throws IOException {
+      var rowGroup = new RowGroup();
+      rowGroup.rowCount = footer.readInt();
+      rowGroup.offsets = new long[columnCount];
+      rowGroup.lengths = new int[columnCount];
+      rowGroup.rawLengths = new int[columnCount];
+      rowGroup.flags = new int[columnCount];
+      rowGroup.statistics = new ColumnStatistics[columnCount];
+      for (var i = 0; i < columnCount; i++) {
+        rowGroup.offsets[i] = footer.readLong();
+        rowGroup.lengths[i] = footer.readInt();
+        rowGroup.rawLengths[i] = footer.readInt();
+        byte type = footer.readByte();
+        rowGroup.flags[i] = footer.readUnsignedByte();
+        int nullCount = footer.readInt();
+        double min = footer.readDouble();
+        double max = footer.readDouble();
+        if (type >= ColumnType.values().length)
+          throw new IOException("Unknown column type: " + type);
+        rowGroup.statistics[i] = new ColumnStatistics(type < 0 ? null : ColumnType.values()[type],
+          rowGroup.rowCount, nullCount, min, max);
+      }
+      return rowGroup;
+    }
+  }
+
+  private DataInputStream read(long position, int length) throws IOException {
+    return new DataInputStream(new ByteArrayInputStream(readBytes(position, length)));
+  }
+
+  private byte[] readBytes(long position, int length) throws IOException {
+    var buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0)
+        throw new EOFException("Unexpected end of the columnar result file");
+    }
+    return buffer.array();
+  }
+
+  public List<String> getHeader() {
+    return Collections.unmodifiableList(header);
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public int getRowGroupCount() {
+    return rowGroups.size();
+  }
+
+  public int getRowCount(int rowGroup) {
+    return rowGroups.get(rowGroup).rowCount;
+  }
+
+  public boolean hasColumn(String name) {
+    return indices.containsKey(name);
+  }
+
+  /**
+   * @return The type the column has when it is read, or null if it has only nulls
+   */
+  public ColumnType getColumnType(String name) {
+    return getStatistics(name).getType();
+  }
+
+  /**
+   * @return The statistics of the whole column
+   */
+  public ColumnStatistics getStatistics(String name) {
+    int index = getIndex(name);
+    var statistics = new ColumnStatistics(null, 0, 0, Double.NaN, Double.NaN);
+    for (RowGroup rowGroup : rowGroups)
+      statistics = statistics.merge(rowGroup.statistics[index]);
+    return statistics;
+  }
+
+  public ColumnStatistics getStatistics(String name, int rowGroup) {
+    return rowGroups.get(rowGroup).statistics[getIndex(name)];
+  }
+
+  /**
+   * Reads a column of all the row groups.
+   */
+  public ResultColumn readColumn(String name) throws IOException {
+    int index = getIndex(name);
+    var column = new ResultColumn(name);
+    for (RowGroup rowGroup : rowGroups)
+      column.appendAll(readChunk(rowGroup, index, name));
+    return column;
+  }
+
+  /**
+   * Reads a column of a row group.
+   */
+  public ResultColumn readColumn(String name, int rowGroup) throws IOException {
+    return readChunk(rowGroups.get(rowGroup), getIndex(name), name);
+  }
+
+  /**
+   * @param names The names of the columns
+   * @return The columns by name, in the order of the names
+   */
+  public Map<String, ResultColumn> readColumns(Collection<String> names) throws IOException {
+    Map<String, ResultColumn> columns = new LinkedHashMap<>();
+    for (String name : names)
+      columns.put(name, readColumn(name));
+    return columns;
+  }
+
+  private ResultColumn readChunk(RowGroup rowGroup, int index, String name) throws IOException {
+    byte[] chunk = readBytes(rowGroup.offsets[index], rowGroup.lengths[index]);
+    int flags = rowGroup.flags[index];
+    if ((flags & ColumnarResultWriter.DEFLATED) != 0)
+      chunk = inflate(chunk, rowGroup.rawLengths[index]);
+    return ColumnChunk.decode(chunk, name, rowGroup.statistics[index].getType(), rowGroup.rowCount,
+      (flags & ColumnarResultWriter.HAS_NULLS) != 0);
+  }
+
+  private static byte[] inflate(byte[] chunk, int rawLength) throws IOException {
+    var inflater = new Inflater();
+    try {
+      inflater.setInput(chunk);
+      var raw = new byte[rawLength];
+      var length = 0;
+      while (length < rawLength && !inflater.finished()) {
+        int inflated = inflater.inflate(raw, length, rawLength - length);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+          break;
+        length += inflated;
+      }
+      if (length != rawLength)
+        throw new IOException("Corrupt column chunk");
+      return raw;
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupt column chunk: " + e.getMessage(), e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private int getIndex(String name) {
+    Integer index = indices.get(name);
+    if (index == null)
+      throw new IllegalArgumentException("There is no column " + name);
+    return index;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,236 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.interfaces.Calculator;
+import de.gwdg.metadataqa.api.rule.RuleCatalog;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Writes measurement results into a columnar binary file. The columns are
+ * the metrics of the calculators (CalculatorFacade.getHeader()), the rows are
+ * the records, as returned by CalculatorFacade.measureAsListOfObjects().
+ *
+ * The rows are buffered into row groups. When a row group is full, each
+ * column of it is written as a chunk in a typed encoding (see ColumnChunk),
+ * and deflated if it makes it at least 10% smaller. The file ends with a
+ * footer: the column names and, for each row group, the position, type and
+ * statistics of its column chunks, so a reader can read the selected columns
+ * only.
+ *
+ * The file layout: magic number, version, the chunks, the footer, the
+ * position of the footer (long) and the magic number again.
+ *
+ * The type of a column is declared (e.g. RULE_OUTCOME for the rules of the
+ * RuleCatalog, see open(Path, CalculatorFacade)) or inferred from the values.
+ * It is kept for the next row groups, and only widened if a value does not
+ * fit, so the row groups of a column have the same type unless it changes.
+ * @see ColumnarResultReader
+ */
+public class ColumnarResultWriter implements Closeable {
+
+  static final int MAGIC = 0x4D514352;
+  static final int VERSION = 1;
+  static final int DEFLATED = 1;
+  static final int HAS_NULLS = 2;
+
+  private static final int DEFAULT_ROW_GROUP_SIZE = 1 << 14;
+  private static final double MIN_COMPRESSION = 0.9;
+
+  private final DataOutputStream out;
+  private final List<String> header;
+  private final ColumnType[] types;
+  private final int rowGroupSize;
+  private final ByteArrayOutputStream footer = new ByteArrayOutputStream();
+  private final DataOutputStream footerOut = new DataOutputStream(footer);
+  private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+  private List<ResultColumn> columns;
+  private long position = 0;
+  private int rowGroupCount = 0;
+  private long rowCount = 0;
+  private boolean closed = false;
+
+  public ColumnarResultWriter(OutputStream outputStream, List<String> header) throws IOException {
+    this(outputStream, header, DEFAULT_ROW_GROUP_SIZE);
+  }
+
+  /**
+   * @param outputStream The target stream, it is closed by close()
+   * @param header The names of the columns
+   * @param rowGroupSize The number of rows buffered before they are written
+   * @throws IOException If the stream can not be written
+   */
+  public ColumnarResultWriter(OutputStream outputStream, List<String> header, int rowGroupSize) throws IOException {
+    this(outputStream, header, Collections.emptyMap(), rowGroupSize);
+  }
+
+  /**
+   * @param outputStream The target stream, it is closed by close()
+   * @param header The names of the columns
+   * @param types The declared types of some columns, by name
+   * @param rowGroupSize The number of rows buffered before they are written
+   * @throws IOException If the stream can not be written
+   */
+  public ColumnarResultWriter(OutputStream outputStream, List<String> header,
+                              Map<String, ColumnType> types, int rowGroupSize) throws IOException {
+    if (rowGroupSize < 1)
+      throw new IllegalArgumentException("The row group size should be positive");
+    this.out = new DataOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+    this.header = new ArrayList<>(header);
+    this.types = new ColumnType[header.size()];
+    for (var i = 0; i < header.size(); i++)
+      this.types[i] = types.get(header.get(i));
+    this.rowGroupSize = rowGroupSize;
+    this.columns = createColumns();
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    position = out.size();
+  }
+
+  public static ColumnarResultWriter open(Path file, List<String> header) throws IOException {
+    return new ColumnarResultWriter(Files.newOutputStream(file), header);
+  }
+
+  /**
+   * Opens a file for the results of a facade. The rule columns are declared
+   * as RULE_OUTCOME, so they are stored as outcomes even if a row group has
+   * no NA value.
+   */
+  public static ColumnarResultWriter open(Path file, CalculatorFacade facade) throws IOException {
+    return new ColumnarResultWriter(Files.newOutputStream(file), facade.getHeader(),
+      getColumnTypes(facade), DEFAULT_ROW_GROUP_SIZE);
+  }
+
+  /**
+   * @return The types of the columns known from the calculators: the rules
+   */
+  public static Map<String, ColumnType> getColumnTypes(CalculatorFacade facade) {
+    Map<String, ColumnType> types = new HashMap<>();
+    for (Calculator calculator : facade.getCalculators())
+      if (calculator instanceof RuleCatalog)
+        for (String rule : ((RuleCatalog) calculator).getRuleHeaders())
+          types.put(rule, ColumnType.RULE_OUTCOME);
+    return types;
+  }
+
+  private List<ResultColumn> createColumns() {
+    List<ResultColumn> newColumns = new ArrayList<>(header.size());
+    for (var i = 0; i < header.size(); i++)
+      newColumns.add(new ResultColumn(header.get(i), types[i]));
+    return newColumns;
+  }
+
+  /**
+   * @param row The values of a record, in the order of the header
+   * @throws IOException If the file can not be written
+   */
+  public void write(List<?> row) throws IOException {
+    if (closed)
+      throw new IllegalStateException("The writer is closed");
+    if (row.size() != header.size())
+      throw new IllegalArgumentException("The row has " + row.size() + " values instead of " + header.size());
+    for (var i = 0; i < row.size(); i++)
+      columns.get(i).append(row.get(i));
+    rowCount++;
+    if (!columns.isEmpty() && columns.get(0).size() == rowGroupSize)
+      writeRowGroup();
+  }
+
+  private void writeRowGroup() throws IOException {
+    int size = header.isEmpty() ? 0 : columns.get(0).size();
+    if (size == 0)
+      return;
+    footerOut.writeInt(size);
+    for (var c = 0; c < columns.size(); c++) {
+      ResultColumn column = columns.get(c);
+      if (column.getType() != null)
+        types[c] = column.getType();
+      byte[] chunk = ColumnChunk.encode(column);
+      int rawLength = chunk.length;
+      var flags = 0;
+      byte[] compressed = deflate(chunk);
+      if (compressed.length < rawLength * MIN_COMPRESSION) {
+        chunk = compressed;
+        flags |= DEFLATED;
+      }
+      if (column.getNullCount() > 0)
+        flags |= HAS_NULLS;
+      out.write(chunk);
+
+      ColumnStatistics statistics = ColumnStatistics.of(column);
+      footerOut.writeLong(position);
+      footerOut.writeInt(chunk.length);
+      footerOut.writeInt(rawLength);
+      footerOut.writeByte(column.getType() == null ? -1 : column.getType().ordinal());
+      footerOut.writeByte(flags);
+      footerOut.writeInt(statistics.getNullCount());
+      footerOut.writeDouble(statistics.getMin());
+      footerOut.writeDouble(statistics.getMax());
+      position += chunk.length;
+    }
+    rowGroupCount++;
+    columns = createColumns();
+  }
+
+  private byte[] deflate(byte[] chunk) {
+    deflater.reset();
+    deflater.setInput(chunk);
+    deflater.finish();
+    var compressed = new ByteArrayOutputStream(chunk.length / 2 + 16);
+    var buffer = new byte[1 << 13];
+    while (!deflater.finished()) {
+      int length = deflater.deflate(buffer);
+      compressed.write(buffer, 0, length);
+    }
+    return compressed.toByteArray();
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * @return The number of row groups written so far
+   */
+  public int getRowGroupCount() {
+    return rowGroupCount;
+  }
+
+  /**
+   * Writes the buffered rows and the footer, and closes the stream.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed)
+      return;
+    closed = true;
+    try {
+      writeRowGroup();
+      long footerPosition = position;
+      out.writeInt(header.size());
+      for (String name : header)
+        out.writeUTF(name);
+      out.writeInt(rowGroupCount);
+      footerOut.flush();
+      footer.writeTo(out);
+      out.writeLong(footerPosition);
+      out.writeInt(MAGIC);
+    } finally {
+      deflater.end();
+      out.close();
+    }
+  }
+}
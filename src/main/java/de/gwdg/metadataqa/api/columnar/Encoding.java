@@ -0,0 +1,79 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Bit packing and variable length integers of the columnar format. The
+ * packed values are written from the least significant bit.
+ */
+final class Encoding {
+
+  private Encoding() {
+  }
+
+  static int bitWidth(long maxValue) {
+    return 64 - Long.numberOfLeadingZeros(maxValue);
+  }
+
+  /**
+   * @param width The number of bits of each value, at most 32
+   */
+  static void pack(DataOutput out, long[] values, int count, int width) throws IOException {
+    if (width == 0)
+      return;
+    long mask = (1L << width) - 1;
+    long buffer = 0;
+    var bits = 0;
+    for (var i = 0; i < count; i++) {
+      buffer |= (values[i] & mask) << bits;
+      bits += width;
+      while (bits >= 8) {
+        out.writeByte((int) buffer);
+        buffer >>>= 8;
+        bits -= 8;
+      }
+    }
+    if (bits > 0)
+      out.writeByte((int) buffer);
+  }
+
+  static long[] unpack(DataInput in, int count, int width) throws IOException {
+    var values = new long[count];
+    if (width == 0)
+      return values;
+    long mask = (1L << width) - 1;
+    long buffer = 0;
+    var bits = 0;
+    for (var i = 0; i < count; i++) {
+      while (bits < width) {
+        buffer |= ((long) in.readUnsignedByte()) << bits;
+        bits += 8;
+      }
+      values[i] = buffer & mask;
+      buffer >>>= width;
+      bits -= width;
+    }
+    return values;
+  }
+
+  static void writeVarInt(DataOutput out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  static int readVarInt(DataInput in) throws IOException {
+    var value = 0;
+    for (var shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0)
+        return value;
+    }
+    throw new IOException("Invalid variable length integer");
+  }
+}
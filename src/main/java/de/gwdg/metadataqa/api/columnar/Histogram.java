@@ -0,0 +1,150 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A histogram with a fixed bin layout, which fits the values of the metrics:
+ * <ul>
+ *   <li>one bin for the negative values,</li>
+ *   <li>20 bins of 0.05 in [0, 1) (completeness, saturation),</li>
+ *   <li>one bin for 1 (the booleans, passed rules and complete records),</li>
+ *   <li>above 1 four bins in each power of 2 interval (cardinalities):
+ *   (1, 1.25), [1.25, 1.5) ... [2, 2.5), [2.5, 3) ...</li>
+ * </ul>
+ * Since every histogram has the same bins, the histograms of the parts of a
+ * dataset can be merged exactly, by adding up the counts.
+ */
+public class Histogram implements Serializable {
+
+  private static final long serialVersionUID = -2286741270925183318L;
+
+  static final int LINEAR_BINS = 20;
+  static final int SUB_BINS = 4;
+  private static final int OCTAVES = 63;
+  private static final int NEGATIVE_BIN = 0;
+  private static final int FIRST_LINEAR_BIN = 1;
+  private static final int ONE_BIN = FIRST_LINEAR_BIN + LINEAR_BINS;
+  private static final int FIRST_OCTAVE_BIN = ONE_BIN + 1;
+  static final int SIZE = FIRST_OCTAVE_BIN + OCTAVES * SUB_BINS;
+
+  private final long[] counts = new long[SIZE];
+  private long totalCount = 0;
+
+  /**
+   * @param value The value, NaN is skipped
+   */
+  public void add(double value) {
+    if (Double.isNaN(value))
+      return;
+    counts[binOf(value)]++;
+    totalCount++;
+  }
+
+  /**
+   * Adds the counts of the other histogram to this one.
+   * @return This histogram
+   */
+  public Histogram merge(Histogram other) {
+    for (var i = 0; i < SIZE; i++)
+      counts[i] += other.counts[i];
+    totalCount += other.totalCount;
+    return this;
+  }
+
+  /**
+   * @return The index of the bin of the value
+   */
+  public static int binOf(double value) {
+    if (value < 0)
+      return NEGATIVE_BIN;
+    if (value < 1)
+      return FIRST_LINEAR_BIN + Math.min(LINEAR_BINS - 1, (int) (value * LINEAR_BINS));
+    if (value == 1)
+      return ONE_BIN;
+    int exponent = Math.min(OCTAVES - 1, Math.getExponent(value));
+    double octaveStart = Math.scalb(1.0, exponent);
+    int sub = Math.min(SUB_BINS - 1, (int) ((value - octaveStart) / octaveStart * SUB_BINS));
+    return FIRST_OCTAVE_BIN + exponent * SUB_BINS + sub;
+  }
+
+  /**
+   * @return The inclusive lower bound of the bin (exclusive for the bin after 1)
+   */
+  public static double getLowerBound(int bin) {
+    if (bin == NEGATIVE_BIN)
+      return Double.NEGATIVE_INFINITY;
+    if (bin < ONE_BIN)
+      return (double) (bin - FIRST_LINEAR_BIN) / LINEAR_BINS;
+    if (bin == ONE_BIN)
+      return 1.0;
+    int octave = (bin - FIRST_OCTAVE_BIN) / SUB_BINS;
+    int sub = (bin - FIRST_OCTAVE_BIN) % SUB_BINS;
+    double octaveStart = Math.scalb(1.0, octave);
+    return octaveStart + octaveStart * sub / SUB_BINS;
+  }
+
+  /**
+   * @return The exclusive upper bound of the bin (inclusive for the bin of 1)
+   */
+  public static double getUpperBound(int bin) {
+    if (bin == NEGATIVE_BIN)
+      return 0.0;
+    if (bin == ONE_BIN)
+      return 1.0;
+    if (bin == SIZE - 1)
+      return Double.POSITIVE_INFINITY;
+    return getLowerBound(bin + 1);
+  }
+
+  /**
+   * @return The number of bins
+   */
+  public int size() {
+    return SIZE;
+  }
+
+  public long getCount(int bin) {
+    return counts[bin];
+  }
+
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  /**
+   * @return The counts of the bins, as a copy
+   */
+  public long[] getCounts() {
+    return Arrays.copyOf(counts, SIZE);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o)
+      return true;
+    if (!(o instanceof Histogram))
+      return false;
+    return Arrays.equals(counts, ((Histogram) o).counts);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(counts);
+  }
+
+  @Override
+  public String toString() {
+    var text = new StringBuilder("Histogram{");
+    var first = true;
+    for (var i = 0; i < SIZE; i++) {
+      if (counts[i] == 0)
+        continue;
+      if (!first)
+        text.append(", ");
+      text.append('[').append(getLowerBound(i)).append(", ").append(getUpperBound(i)).append("): ").append(counts[i]);
+      first = false;
+    }
+    return text.append('}').toString();
+  }
+}
@@ -0,0 +1,313 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * An approximate quantile sketch (the KLL sketch of Karnin, Lang and
+ * Liberty), for the medians, quartiles and percentiles of the metrics over
+ * large datasets without sorting the values.
+ *
+ * The values are kept in levels of compactors. An item of level h stands for
+ * 2^h values. When a level is full, it is sorted and every second item is
+ * promoted to the next level, the others are dropped. The capacity of the
+ * levels decreases geometrically downwards from k, so the sketch keeps about
+ * 3k items, whatever the number of values is. The rank error is about
+ * 1.7 / k (1% with the default k). Until k values the quantiles are exact.
+ *
+ * Sketches of the same k can be merged, e.g. the sketches of workers. The
+ * compaction alternates between the odd and even items instead of choosing
+ * them randomly, so the results are reproducible.
+ */
+public class QuantileSketch implements Serializable {
+
+  private static final long serialVersionUID = 2870147624319032754L;
+
+  public static final int DEFAULT_K = 200;
+  private static final int MIN_WIDTH = 8;
+  private static final double CAPACITY_RATIO = 2.0 / 3.0;
+
+  private final int k;
+  private double[][] levels = new double[1][];
+  private int[] sizes = new int[1];
+  private long parities = 0;
+  private int retained = 0;
+  private int capacity;
+  private long count = 0;
+  private double min = Double.NaN;
+  private double max = Double.NaN;
+
+  private transient double[] sortedValues;
+  private transient long[] cumulativeWeights;
+
+  public QuantileSketch() {
+    this(DEFAULT_K);
+  }
+
+  /**
+   * @param k The accuracy parameter, the size of the top level
+   */
+  public QuantileSketch(int k) {
+    if (k < MIN_WIDTH)
+      throw new IllegalArgumentException("k should be at least " + MIN_WIDTH);
+    this.k = k;
+    levels[0] = new double[k];
+    capacity = getLevelCapacity(0);
+  }
+
+  /**
+   * @param value The value, NaN is skipped
+   */
+  public void add(double value) {
+    if (Double.isNaN(value))
+      return;
+    if (count == 0) {
+      min = value;
+      max = value;
+    } else {
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    count++;
+    append(0, value);
+    sortedValues = null;
+    if (retained > capacity)
+      compress();
+  }
+
+  /**
+   * Adds the values of the other sketch to this one. The other sketch can be
+   * this one, then every value counts twice.
+   * @return This sketch
+   */
+  public QuantileSketch merge(QuantileSketch other) {
+    if (other.k != k)
+      throw new IllegalArgumentException("The sketches have different k: " + k + ", " + other.k);
+    if (other.count == 0)
+      return this;
+    if (count == 0) {
+      min = other.min;
+      max = other.max;
+    } else {
+      min = Math.min(min, other.min);
+      max = Math.max(max, other.max);
+    }
+    count += other.count;
+    // the items appended to a level grow the level, so the other sketch
+    // (which might be this one) is taken as it was before the merge
+    double[][] otherLevels = other.levels.clone();
+    int[] otherSizes = other.sizes.clone();
+    while (levels.length < otherLevels.length)
+      addLevel();
+    for (var h = 0; h < otherLevels.length; h++)
+      for (var i = 0; i < otherSizes[h]; i++)
+        append(h, otherLevels[h][i]);
+    sortedValues = null;
+    compress();
+    return this;
+  }
+
+  private void append(int level, double value) {
+    if (sizes[level] == levels[level].length)
+      levels[level] = Arrays.copyOf(levels[level], Math.max(MIN_WIDTH, levels[level].length * 2));
+    levels[level][sizes[level]++] = value;
+    retained++;
+  }
+
+  private void addLevel() {
+    int height = levels.length;
+    levels = Arrays.copyOf(levels, height + 1);
+    sizes = Arrays.copyOf(sizes, height + 1);
+    levels[height] = new double[MIN_WIDTH];
+    capacity = 0;
+    for (var h = 0; h <= height; h++)
+      capacity += getLevelCapacity(h);
+  }
+
+  private int getLevelCapacity(int level) {
+    int depth = levels.length - 1 - level;
+    return Math.max(MIN_WIDTH, (int) Math.ceil(k * Math.pow(CAPACITY_RATIO, depth)));
+  }
+
+  private void compress() {
+    while (retained > capacity) {
+      for (var h = 0; h < levels.length; h++) {
+        if (sizes[h] >= getLevelCapacity(h)) {
+          compact(h);
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Promotes every second item of the level to the next level. If the level
+   * has an odd number of items, the largest stays.
+   */
+  private void compact(int level) {
+    if (level == levels.length - 1)
+      addLevel();
+    double[] items = levels[level];
+    int size = sizes[level];
+    Arrays.sort(items, 0, size);
+    int compacted = size & ~1;
+    int offset = (int) ((parities >>> level) & 1);
+    parities ^= 1L << level;
+    for (int i = offset; i < compacted; i += 2)
+      append(level + 1, items[i]);
+    retained -= size;
+    if (compacted < size) {
+      items[0] = items[size - 1];
+      sizes[level] = 1;
+      retained++;
+    } else {
+      sizes[level] = 0;
+    }
+  }
+
+  private void prepare() {
+    if (sortedValues != null)
+      return;
+    var values = new double[retained];
+    var weights = new long[retained];
+    var index = 0;
+    for (var h = 0; h < levels.length; h++) {
+      for (var i = 0; i < sizes[h]; i++) {
+        values[index] = levels[h][i];
+        weights[index] = 1L << h;
+        index++;
+      }
+    }
+    // sort the values with their weights
+    Integer[] order = new Integer[retained];
+    for (var i = 0; i < retained; i++)
+      order[i] = i;
+    Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+    var sorted = new double[retained];
+    var cumulative = new long[retained];
+    long total = 0;
+    for (var i = 0; i < retained; i++) {
+      sorted[i] = values[order[i]];
+      total += weights[order[i]];
+      cumulative[i] = total;
+    }
+    cumulativeWeights = cumulative;
+    sortedValues = sorted;
+  }
+
+  /**
+   * @param fraction The fraction of the values, between 0 and 1, e.g. 0.5 for the median
+   * @return The approximate quantile, or NaN if the sketch is empty
+   */
+  public double getQuantile(double fraction) {
+    if (fraction < 0 || fraction > 1)
+      throw new IllegalArgumentException("The fraction should be between 0 and 1: " + fraction);
+    if (count == 0)
+      return Double.NaN;
+    if (fraction == 0)
+      return min;
+    if (fraction == 1)
+      return max;
+    prepare();
+    long total = cumulativeWeights[cumulativeWeights.length - 1];
+    double rank = fraction * total;
+    var low = 0;
+    int high = cumulativeWeights.length - 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (cumulativeWeights[middle] < rank)
+        low = middle + 1;
+      else
+        high = middle;
+    }
+    return sortedValues[low];
+  }
+
+  /**
+   * @return The approximate quantiles of the fractions
+   */
+  public double[] getQuantiles(double... fractions) {
+    var quantiles = new double[fractions.length];
+    for (var i = 0; i < fractions.length; i++)
+      quantiles[i] = getQuantile(fractions[i]);
+    return quantiles;
+  }
+
+  public double getMedian() {
+    return getQuantile(0.5);
+  }
+
+  /**
+   * @return The approximate fraction of the values which are less than or
+   *   equal to the value (the cumulative distribution function), or NaN if
+   *   the sketch is empty
+   */
+  public double getCdf(double value) {
+    if (count == 0)
+      return Double.NaN;
+    if (value < min)
+      return 0.0;
+    if (value >= max)
+      return 1.0;
+    prepare();
+    // the last item not greater than the value
+    var low = 0;
+    int high = sortedValues.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (sortedValues[middle] <= value)
+        low = middle + 1;
+      else
+        high = middle;
+    }
+    long total = cumulativeWeights[cumulativeWeights.length - 1];
+    return low == 0 ? 0.0 : (double) cumulativeWeights[low - 1] / total;
+  }
+
+  /**
+   * @return The approximate cumulative distribution at the values
+   */
+  public double[] getCdf(double... values) {
+    var cdf = new double[values.length];
+    for (var i = 0; i < values.length; i++)
+      cdf[i] = getCdf(values[i]);
+    return cdf;
+  }
+
+  public int getK() {
+    return k;
+  }
+
+  /**
+   * @return The number of values added
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return The number of items kept in the sketch
+   */
+  public int getRetainedItems() {
+    return retained;
+  }
+
+  public double getMin() {
+    return min;
+  }
+
+  public double getMax() {
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return "QuantileSketch{"
+      + "k=" + k
+      + ", count=" + count
+      + ", retained=" + getRetainedItems()
+      + ", min=" + min
+      + ", max=" + max
+      + '}';
+  }
+}
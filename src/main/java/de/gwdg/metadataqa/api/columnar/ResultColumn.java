@@ -0,0 +1,349 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import de.gwdg.metadataqa.api.rule.RuleCheckingOutputType;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The values of one metric for a sequence of records, in a primitive array
+ * of the column's type. The type is inferred from the appended values, and
+ * widened if a value does not fit: INT to DOUBLE, INT (of 0 and 1 values) to
+ * RULE_OUTCOME, anything else to STRING. Nulls are kept in a bit set.
+ *
+ * The rule outcomes are stored as the codes of RuleOutcomeVector: 0 for NA,
+ * 1 for failed and 2 for passed.
+ */
+public class ResultColumn implements Serializable {
+
+  private static final long serialVersionUID = -6527201857014633817L;
+  private static final int INITIAL_CAPACITY = 16;
+
+  static final byte NA_CODE = 0;
+  static final byte FAILED_CODE = 1;
+  static final byte PASSED_CODE = 2;
+
+  private final String name;
+  private ColumnType type;
+  private int size = 0;
+  private final BitSet nulls;
+  private boolean[] booleans;
+  private byte[] outcomes;
+  private int[] ints;
+  private double[] doubles;
+  private String[] strings;
+
+  public ResultColumn(String name) {
+    this.name = name;
+    this.nulls = new BitSet();
+  }
+
+  /**
+   * Creates a column of a declared type, e.g. RULE_OUTCOME for the rules,
+   * which might have only 0 and 1 values. The type is still widened if a
+   * value does not fit.
+   * @param type The type, or null to infer it from the values
+   */
+  public ResultColumn(String name, ColumnType type) {
+    this(name);
+    if (type != null)
+      allocate(type, INITIAL_CAPACITY);
+  }
+
+  /**
+   * Creates a column from decoded values.
+   * @param values The array of the type
+   */
+  ResultColumn(String name, ColumnType type, int size, Object values, BitSet nulls) {
+    this.name = name;
+    this.type = type;
+    this.size = size;
+    this.nulls = nulls;
+    if (type != null)
+      setArray(type, values);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return The type, or null if the column has only nulls
+   */
+  public ColumnType getType() {
+    return type;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int getNullCount() {
+    return nulls.cardinality();
+  }
+
+  public boolean isNull(int index) {
+    return nulls.get(index);
+  }
+
+  public void append(Object value) {
+    if (value == null) {
+      nulls.set(size);
+      if (type != null)
+        ensureCapacity(size + 1);
+      size++;
+      return;
+    }
+    if (type == null) {
+      allocate(ColumnType.of(value), Math.max(INITIAL_CAPACITY, size + 1));
+    } else if (!fits(value)) {
+      widen(getWidenedType(value));
+    }
+    ensureCapacity(size + 1);
+    set(size, value);
+    size++;
+  }
+
+  /**
+   * Appends the values of another column.
+   */
+  public void appendAll(ResultColumn other) {
+    if (other.type != null && (type == null || type == other.type)) {
+      if (type == null)
+        allocate(other.type, Math.max(INITIAL_CAPACITY, size + other.size));
+      ensureCapacity(size + other.size);
+      System.arraycopy(other.getArray(), 0, getArray(), size, other.size);
+      for (int i = other.nulls.nextSetBit(0); i >= 0 && i < other.size; i = other.nulls.nextSetBit(i + 1))
+        nulls.set(size + i);
+      size += other.size;
+    } else {
+      for (var i = 0; i < other.size; i++)
+        append(other.getValue(i));
+    }
+  }
+
+  private boolean fits(Object value) {
+    switch (type) {
+      case STRING: return true;
+      case DOUBLE: return value instanceof Number;
+      case INT: return ColumnType.of(value) == ColumnType.INT;
+      case BOOLEAN: return value instanceof Boolean;
+      case RULE_OUTCOME: return isOutcome(value);
+      default: return false;
+    }
+  }
+
+  private static boolean isOutcome(Object value) {
+    if (ColumnType.NA.equals(value))
+      return true;
+    if (ColumnType.of(value) != ColumnType.INT)
+      return false;
+    int number = ((Number) value).intValue();
+    return number == 0 || number == 1;
+  }
+
+  private ColumnType getWidenedType(Object value) {
+    ColumnType valueType = ColumnType.of(value);
+    boolean intsAreOutcomes = type == ColumnType.INT ? intsAreOutcomes() : isOutcome(value);
+    return ColumnType.widen(type, valueType, intsAreOutcomes);
+  }
+
+  private boolean intsAreOutcomes() {
+    for (var i = 0; i < size; i++)
+      if (!nulls.get(i) && ints[i] != 0 && ints[i] != 1)
+        return false;
+    return true;
+  }
+
+  private void widen(ColumnType target) {
+    var values = new Object[size];
+    for (var i = 0; i < size; i++)
+      values[i] = getValue(i);
+    allocate(target, Math.max(INITIAL_CAPACITY, size + 1));
+    for (var i = 0; i < size; i++)
+      if (values[i] != null)
+        set(i, values[i]);
+  }
+
+  private void allocate(ColumnType newType, int capacity) {
+    type = newType;
+    booleans = null;
+    outcomes = null;
+    ints = null;
+    doubles = null;
+    strings = null;
+    switch (newType) {
+      case BOOLEAN: booleans = new boolean[capacity]; break;
+      case RULE_OUTCOME: outcomes = new byte[capacity]; break;
+      case INT: ints = new int[capacity]; break;
+      case DOUBLE: doubles = new double[capacity]; break;
+      default: strings = new String[capacity]; break;
+    }
+  }
+
+  private void ensureCapacity(int capacity) {
+    int length = java.lang.reflect.Array.getLength(getArray());
+    if (capacity <= length)
+      return;
+    int newLength = Math.max(capacity, length + (length >> 1));
+    switch (type) {
+      case BOOLEAN: booleans = Arrays.copyOf(booleans, newLength); break;
+      case RULE_OUTCOME: outcomes = Arrays.copyOf(outcomes, newLength); break;
+      case INT: ints = Arrays.copyOf(ints, newLength); break;
+      case DOUBLE: doubles = Arrays.copyOf(doubles, newLength); break;
+      default: strings = Arrays.copyOf(strings, newLength); break;
+    }
+  }
+
+  private void set(int index, Object value) {
+    switch (type) {
+      case BOOLEAN: booleans[index] = (Boolean) value; break;
+      case RULE_OUTCOME: outcomes[index] = toOutcomeCode(value); break;
+      case INT: ints[index] = ((Number) value).intValue(); break;
+      case DOUBLE: doubles[index] = ((Number) value).doubleValue(); break;
+      default: strings[index] = value.toString(); break;
+    }
+  }
+
+  private static byte toOutcomeCode(Object value) {
+    if (ColumnType.NA.equals(value))
+      return NA_CODE;
+    return ((Number) value).intValue() == 1 ? PASSED_CODE : FAILED_CODE;
+  }
+
+  private Object getArray() {
+    switch (type) {
+      case BOOLEAN: return booleans;
+      case RULE_OUTCOME: return outcomes;
+      case INT: return ints;
+      case DOUBLE: return doubles;
+      default: return strings;
+    }
+  }
+
+  private void setArray(ColumnType arrayType, Object values) {
+    switch (arrayType) {
+      case BOOLEAN: booleans = (boolean[]) values; break;
+      case RULE_OUTCOME: outcomes = (byte[]) values; break;
+      case INT: ints = (int[]) values; break;
+      case DOUBLE: doubles = (double[]) values; break;
+      default: strings = (String[]) values; break;
+    }
+  }
+
+  /**
+   * @return The value in the form the calculators return it: Boolean,
+   *   Integer, Double, String, or "NA", 0 or 1 for the rule outcomes
+   */
+  public Object getValue(int index) {
+    checkIndex(index);
+    if (nulls.get(index))
+      return null;
+    switch (type) {
+      case BOOLEAN: return booleans[index];
+      case RULE_OUTCOME: return getOutcome(index).value();
+      case INT: return ints[index];
+      case DOUBLE: return doubles[index];
+      default: return strings[index];
+    }
+  }
+
+  /**
+   * @return The value as a number: booleans and rule outcomes are 0 or 1,
+   *   nulls, NA outcomes and texts are NaN
+   */
+  public double getDouble(int index) {
+    checkIndex(index);
+    if (nulls.get(index))
+      return Double.NaN;
+    switch (type) {
+      case BOOLEAN: return booleans[index] ? 1.0 : 0.0;
+      case RULE_OUTCOME:
+        return outcomes[index] == NA_CODE ? Double.NaN : (outcomes[index] == PASSED_CODE ? 1.0 : 0.0);
+      case INT: return ints[index];
+      case DOUBLE: return doubles[index];
+      default: return Double.NaN;
+    }
+  }
+
+  public int getInt(int index) {
+    checkType(ColumnType.INT);
+    checkIndex(index);
+    return ints[index];
+  }
+
+  public boolean getBoolean(int index) {
+    checkType(ColumnType.BOOLEAN);
+    checkIndex(index);
+    return booleans[index];
+  }
+
+  public String getString(int index) {
+    Object value = getValue(index);
+    return value == null ? null : value.toString();
+  }
+
+  public RuleCheckingOutputType getOutcome(int index) {
+    checkType(ColumnType.RULE_OUTCOME);
+    checkIndex(index);
+    switch (outcomes[index]) {
+      case PASSED_CODE: return RuleCheckingOutputType.PASSED;
+      case FAILED_CODE: return RuleCheckingOutputType.FAILED;
+      default: return RuleCheckingOutputType.NA;
+    }
+  }
+
+  /**
+   * The backing arrays of the typed columns, for loops over the values. The
+   * arrays might be longer than the column, only the first size() elements
+   * are values, and the elements of the nulls are undefined.
+   */
+  public boolean[] getBooleanArray() {
+    checkType(ColumnType.BOOLEAN);
+    return booleans;
+  }
+
+  public byte[] getOutcomeArray() {
+    checkType(ColumnType.RULE_OUTCOME);
+    return outcomes;
+  }
+
+  public int[] getIntArray() {
+    checkType(ColumnType.INT);
+    return ints;
+  }
+
+  public double[] getDoubleArray() {
+    checkType(ColumnType.DOUBLE);
+    return doubles;
+  }
+
+  public String[] getStringArray() {
+    checkType(ColumnType.STRING);
+    return strings;
+  }
+
+  BitSet getNulls() {
+    return nulls;
+  }
+
+  private void checkType(ColumnType expected) {
+    if (type != expected)
+      throw new IllegalStateException(String.format("The column %s is %s, not %s", name, type, expected));
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+  }
+
+  @Override
+  public String toString() {
+    return "ResultColumn{"
+      + "name=" + name
+      + ", type=" + type
+      + ", size=" + size
+      + '}';
+  }
+}
@@ -0,0 +1,494 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.util.CsvReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoublePredicate;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The measurement results of a dataset in memory, one ResultColumn (a
+ * primitive array) per metric. The summaries, quantile sketches, filters and
+ * group-bys are loops over the arrays of the columns. The rows are scanned in segments, which
+ * are processed by a fork-join pool, and the results of the segments are
+ * merged in segment order.
+ *
+ * The table can be filled row by row (CalculatorFacade.measureAsListOfObjects()
+ * or measureAsMetricResult()), or read from a columnar result file or a CSV
+ * file with a header.
+ */
+public class ResultTable {
+
+  public static final int DEFAULT_SEGMENT_SIZE = 1 << 16;
+
+  private static final Pattern INTEGER = Pattern.compile("^-?\\d{1,9}$");
+
+  private final Map<String, ResultColumn> columns = new LinkedHashMap<>();
+  private final List<ResultColumn> columnList = new ArrayList<>();
+  private int rowCount = 0;
+  private ForkJoinPool pool = ForkJoinPool.commonPool();
+  private int segmentSize = DEFAULT_SEGMENT_SIZE;
+
+  /**
+   * @param header The names of the columns, e.g. CalculatorFacade.getHeader()
+   */
+  public ResultTable(List<String> header) {
+    for (String name : header) {
+      if (columns.containsKey(name))
+        throw new IllegalArgumentException("Duplicated column: " + name);
+      var column = new ResultColumn(name);
+      columns.put(name, column);
+      columnList.add(column);
+    }
+  }
+
+  private ResultTable(Collection<ResultColumn> loaded) {
+    for (ResultColumn column : loaded) {
+      if (!columnList.isEmpty() && column.size() != rowCount)
+        throw new IllegalArgumentException("The columns have different sizes");
+      columns.put(column.getName(), column);
+      columnList.add(column);
+      rowCount = column.size();
+    }
+  }
+
+  /**
+   * Reads all the columns of a columnar result file.
+   */
+  public static ResultTable read(ColumnarResultReader reader) throws IOException {
+    return read(reader, reader.getHeader());
+  }
+
+  /**
+   * Reads the selected columns of a columnar result file.
+   */
+  public static ResultTable read(ColumnarResultReader reader, Collection<String> names) throws IOException {
+    return new ResultTable(reader.readColumns(names).values());
+  }
+
+  /**
+   * Reads a CSV file, which has a header line. The values are typed the same
+   * way as the values of the calculators: integers, doubles, NA, true and
+   * false, the empty values are nulls.
+   */
+  public static ResultTable readCsv(Path file) throws IOException {
+    try (BufferedReader input = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      var csvReader = new CsvReader();
+      String line = input.readLine();
+      if (line == null)
+        return new ResultTable(Collections.<String>emptyList());
+      var table = new ResultTable(Arrays.asList(csvReader.asArray(line)));
+      List<Object> row = new ArrayList<>();
+      while ((line = input.readLine()) != null) {
+        if (line.isEmpty())
+          continue;
+        row.clear();
+        for (String value : csvReader.asArray(line))
+          row.add(parse(value));
+        table.addRow(row);
+      }
+      return table;
+    }
+  }
+
+  private static Object parse(String value) {
+    if (value.isEmpty())
+      return null;
+    if (value.equals(ColumnType.NA))
+      return value;
+    if (value.equals("true") || value.equals("false"))
+      return Boolean.valueOf(value);
+    if (INTEGER.matcher(value).matches())
+      return Integer.valueOf(value);
+    try {
+      return Double.valueOf(value);
+    } catch (NumberFormatException e) {
+      return value;
+    }
+  }
+
+  /**
+   * Sets the pool which scans the columns.
+   * @return The table
+   */
+  public ResultTable setPool(ForkJoinPool pool) {
+    this.pool = pool;
+    return this;
+  }
+
+  /**
+   * @param segmentSize The number of rows scanned by a task, it is rounded up to a multiple of 64
+   * @return The table
+   */
+  public ResultTable setSegmentSize(int segmentSize) {
+    if (segmentSize < 1)
+      throw new IllegalArgumentException("The segment size should be positive");
+    this.segmentSize = (segmentSize + 63) & ~63;
+    return this;
+  }
+
+  /**
+   * @param row The values of a record, in the order of the columns
+   */
+  public void addRow(List<?> row) {
+    if (row.size() != columnList.size())
+      throw new IllegalArgumentException("The row has " + row.size() + " values instead of " + columnList.size());
+    for (var i = 0; i < row.size(); i++)
+      columnList.get(i).append(row.get(i));
+    rowCount++;
+  }
+
+  /**
+   * Adds the results of a record, as returned by
+   * CalculatorFacade.measureAsMetricResult(). The values are taken in the
+   * order of the calculators and their metrics, as in the header.
+   */
+  public void addRecord(Map<String, List<MetricResult>> results) {
+    List<Object> row = new ArrayList<>(columnList.size());
+    for (List<MetricResult> metricResults : results.values())
+      for (MetricResult metricResult : metricResults)
+        row.addAll(metricResult.getCsv());
+    addRow(row);
+  }
+
+  public List<String> getHeader() {
+    return new ArrayList<>(columns.keySet());
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public ResultColumn getColumn(String name) {
+    ResultColumn column = columns.get(name);
+    if (column == null)
+      throw new IllegalArgumentException("There is no column " + name);
+    return column;
+  }
+
+  /**
+   * @return The summary of the numeric values of the column
+   */
+  public ColumnSummary summarize(String name) {
+    return summarize(name, null);
+  }
+
+  /**
+   * @param rows The selected rows, or null for all the rows
+   * @return The summary of the numeric values of the column in the selected rows
+   */
+  public ColumnSummary summarize(String name, BitSet rows) {
+    ResultColumn column = getColumn(name);
+    return scan(rowCount, segmentSize,
+      (from, to) -> summarize(column, from, to, rows),
+      ColumnSummary::merge);
+  }
+
+  /**
+   * Summarizes all the columns, the columns are scanned in parallel.
+   * @return The summaries by column name
+   */
+  public Map<String, ColumnSummary> summarizeAll() {
+    ColumnSummary[] summaries = scan(columnList.size(), 1,
+      (from, to) -> {
+        var part = new ColumnSummary[columnList.size()];
+        for (int i = from; i < to; i++)
+          part[i] = summarize(columnList.get(i), 0, rowCount, null);
+        return part;
+      },
+      (first, second) -> {
+        for (var i = 0; i < first.length; i++)
+          if (first[i] == null)
+            first[i] = second[i];
+        return first;
+      });
+    Map<String, ColumnSummary> result = new LinkedHashMap<>();
+    for (var i = 0; i < columnList.size(); i++)
+      result.put(columnList.get(i).getName(), summaries[i]);
+    return result;
+  }
+
+  private static ColumnSummary summarize(ResultColumn column, int from, int to, BitSet rows) {
+    var summary = new ColumnSummary();
+    scanValues(column, from, to, rows, summary::add);
+    return summary;
+  }
+
+  /**
+   * @return The quantile sketch of the numeric values of the column
+   */
+  public QuantileSketch sketch(String name) {
+    return sketch(name, null);
+  }
+
+  /**
+   * @param rows The selected rows, or null for all the rows
+   * @return The quantile sketch of the numeric values of the column in the selected rows
+   */
+  public QuantileSketch sketch(String name, BitSet rows) {
+    ResultColumn column = getColumn(name);
+    return scan(rowCount, segmentSize,
+      (from, to) -> {
+        var sketch = new QuantileSketch();
+        scanValues(column, from, to, rows, sketch::add);
+        return sketch;
+      },
+      QuantileSketch::merge);
+  }
+
+  /**
+   * Passes the numeric values of the selected rows in the range to the
+   * consumer, NaN for the nulls, NA outcomes and texts.
+   */
+  private static void scanValues(ResultColumn column, int from, int to, BitSet rows, DoubleConsumer consumer) {
+    BitSet nulls = column.getNulls();
+    ColumnType type = column.getType() == null ? ColumnType.STRING : column.getType();
+    switch (type) {
+      case DOUBLE:
+        double[] doubles = column.getDoubleArray();
+        for (int i = nextRow(rows, from, to); i < to; i = nextRow(rows, i + 1, to))
+          consumer.accept(nulls.get(i) ? Double.NaN : doubles[i]);
+        break;
+      case INT:
+        int[] ints = column.getIntArray();
+        for (int i = nextRow(rows, from, to); i < to; i = nextRow(rows, i + 1, to))
+          consumer.accept(nulls.get(i) ? Double.NaN : ints[i]);
+        break;
+      case BOOLEAN:
+        boolean[] booleans = column.getBooleanArray();
+        for (int i = nextRow(rows, from, to); i < to; i = nextRow(rows, i + 1, to))
+          consumer.accept(nulls.get(i) ? Double.NaN : (booleans[i] ? 1.0 : 0.0));
+        break;
+      case RULE_OUTCOME:
+        byte[] outcomes = column.getOutcomeArray();
+        for (int i = nextRow(rows, from, to); i < to; i = nextRow(rows, i + 1, to))
+          if (nulls.get(i) || outcomes[i] == ResultColumn.NA_CODE)
+            consumer.accept(Double.NaN);
+          else
+            consumer.accept(outcomes[i] == ResultColumn.PASSED_CODE ? 1.0 : 0.0);
+        break;
+      default:
+        for (int i = nextRow(rows, from, to); i < to; i = nextRow(rows, i + 1, to))
+          consumer.accept(Double.NaN);
+        break;
+    }
+  }
+
+  /**
+   * Selects the rows in which the numeric value of the column matches the
+   * predicate, e.g. filter("completeness:TOTAL", v -&gt; v &lt; 0.3). The
+   * booleans and the rule outcomes are 0 or 1, the nulls, NA outcomes and
+   * texts never match.
+   * @return The indices of the matching rows
+   */
+  public BitSet filter(String name, DoublePredicate predicate) {
+    ResultColumn column = getColumn(name);
+    return scan(rowCount, segmentSize,
+      (from, to) -> filter(column, from, to, predicate),
+      (first, second) -> {
+        first.or(second);
+        return first;
+      });
+  }
+
+  private static BitSet filter(ResultColumn column, int from, int to, DoublePredicate predicate) {
+    var selected = new BitSet();
+    if (column.getType() == null)
+      return selected;
+    BitSet nulls = column.getNulls();
+    switch (column.getType()) {
+      case DOUBLE:
+        double[] doubles = column.getDoubleArray();
+        for (int i = from; i < to; i++)
+          if (!nulls.get(i) && predicate.test(doubles[i]))
+            selected.set(i);
+        break;
+      case INT:
+        int[] ints = column.getIntArray();
+        for (int i = from; i < to; i++)
+          if (!nulls.get(i) && predicate.test(ints[i]))
+            selected.set(i);
+        break;
+      case BOOLEAN:
+        boolean[] booleans = column.getBooleanArray();
+        boolean trueMatches = predicate.test(1.0);
+        boolean falseMatches = predicate.test(0.0);
+        for (int i = from; i < to; i++)
+          if (!nulls.get(i) && (booleans[i] ? trueMatches : falseMatches))
+            selected.set(i);
+        break;
+      case RULE_OUTCOME:
+        byte[] outcomes = column.getOutcomeArray();
+        boolean passedMatches = predicate.test(1.0);
+        boolean failedMatches = predicate.test(0.0);
+        for (int i = from; i < to; i++)
+          if (!nulls.get(i) && outcomes[i] != ResultColumn.NA_CODE
+              && (outcomes[i] == ResultColumn.PASSED_CODE ? passedMatches : failedMatches))
+            selected.set(i);
+        break;
+      default:
+        break;
+    }
+    return selected;
+  }
+
+  /**
+   * Selects the rows in which the value of the column (as returned by
+   * ResultColumn.getValue()) matches the predicate, e.g. the rows of a provider.
+   * @return The indices of the matching rows
+   */
+  public BitSet filterValues(String name, Predicate<Object> predicate) {
+    ResultColumn column = getColumn(name);
+    return scan(rowCount, segmentSize,
+      (from, to) -> {
+        var selected = new BitSet();
+        for (int i = from; i < to; i++)
+          if (predicate.test(column.getValue(i)))
+            selected.set(i);
+        return selected;
+      },
+      (first, second) -> {
+        first.or(second);
+        return first;
+      });
+  }
+
+  /**
+   * Summarizes a column by the values of another column, e.g. the
+   * completeness by provider.
+   * @param keyName The column of the groups
+   * @param valueName The summarized column
+   * @return The summaries by the group values, in the order of their first rows
+   */
+  public Map<Object, ColumnSummary> groupBy(String keyName, String valueName) {
+    return groupBy(keyName, valueName, null);
+  }
+
+  /**
+   * @param rows The selected rows, or null for all the rows
+   */
+  public Map<Object, ColumnSummary> groupBy(String keyName, String valueName, BitSet rows) {
+    return group(keyName, valueName, rows, ColumnSummary::new, ColumnSummary::add, ColumnSummary::merge);
+  }
+
+  /**
+   * The quantile sketches of a column by the values of another column, e.g.
+   * the medians and quartiles of the completeness by provider.
+   * @param rows The selected rows, or null for all the rows
+   * @return The sketches by the group values, in the order of their first rows
+   */
+  public Map<Object, QuantileSketch> groupSketches(String keyName, String valueName, BitSet rows) {
+    return group(keyName, valueName, rows, QuantileSketch::new, QuantileSketch::add, QuantileSketch::merge);
+  }
+
+  private <T> Map<Object, T> group(String keyName, String valueName, BitSet rows, Supplier<T> factory,
+                                   ObjDoubleConsumer<T> accumulator, BinaryOperator<T> merger) {
+    ResultColumn keys = getColumn(keyName);
+    ResultColumn values = getColumn(valueName);
+    return scan(rowCount, segmentSize,
+      (from, to) -> group(keys, values, from, to, rows, factory, accumulator),
+      (first, second) -> {
+        for (Map.Entry<Object, T> entry : second.entrySet())
+          first.merge(entry.getKey(), entry.getValue(), merger);
+        return first;
+      });
+  }
+
+  private static <T> Map<Object, T> group(ResultColumn keys, ResultColumn values, int from, int to, BitSet rows,
+                                          Supplier<T> factory, ObjDoubleConsumer<T> accumulator) {
+    // the groups of the rows, then the values of the groups
+    List<Object> groupKeys = new ArrayList<>();
+    Map<Object, Integer> groupIndices = new HashMap<>();
+    var groups = new int[to - from];
+    for (int i = nextRow(rows, from, to); i < to; i = nextRow(rows, i + 1, to)) {
+      Object key = keys.getValue(i);
+      Integer index = groupIndices.get(key);
+      if (index == null) {
+        index = groupKeys.size();
+        groupIndices.put(key, index);
+        groupKeys.add(key);
+      }
+      groups[i - from] = index + 1;
+    }
+
+    List<T> accumulators = new ArrayList<>(groupKeys.size());
+    for (var i = 0; i < groupKeys.size(); i++)
+      accumulators.add(factory.get());
+    for (int i = from; i < to; i++)
+      if (groups[i - from] != 0)
+        accumulator.accept(accumulators.get(groups[i - from] - 1), values.getDouble(i));
+
+    Map<Object, T> result = new LinkedHashMap<>();
+    for (var i = 0; i < groupKeys.size(); i++)
+      result.put(groupKeys.get(i), accumulators.get(i));
+    return result;
+  }
+
+  private static int nextRow(BitSet rows, int index, int to) {
+    if (rows == null)
+      return index;
+    int next = rows.nextSetBit(index);
+    return next < 0 ? to : next;
+  }
+
+  private <T> T scan(int size, int granularity, BiFunction<Integer, Integer, T> scanner, BinaryOperator<T> merger) {
+    return pool.invoke(new ScanTask<>(0, size, granularity, scanner, merger));
+  }
+
+  /**
+   * Scans a range of rows (or columns), splitting it into segments of the
+   * granularity, which start at a multiple of the granularity.
+   */
+  private static class ScanTask<T> extends RecursiveTask<T> {
+    private static final long serialVersionUID = 8950989076306477213L;
+
+    private final int from;
+    private final int to;
+    private final int granularity;
+    private final transient BiFunction<Integer, Integer, T> scanner;
+    private final transient BinaryOperator<T> merger;
+
+    ScanTask(int from, int to, int granularity, BiFunction<Integer, Integer, T> scanner, BinaryOperator<T> merger) {
+      this.from = from;
+      this.to = to;
+      this.granularity = granularity;
+      this.scanner = scanner;
+      this.merger = merger;
+    }
+
+    @Override
+    protected T compute() {
+      if (to - from <= granularity)
+        return scanner.apply(from, to);
+
+      int middle = from + Math.max(granularity, (to - from) / 2 / granularity * granularity);
+      var first = new ScanTask<>(from, middle, granularity, scanner, merger);
+      var second = new ScanTask<>(middle, to, granularity, scanner, merger);
+      first.fork();
+      T secondResult = second.compute();
+      return merger.apply(first.join(), secondResult);
+    }
+  }
+}
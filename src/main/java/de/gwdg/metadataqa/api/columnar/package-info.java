@@ -0,0 +1,5 @@
+/**
+ * Columnar storage of measurement results: a binary file format written in
+ * row groups with typed, compressed columns, and typed columns in memory.
+ */
+package de.gwdg.metadataqa.api.columnar;
@@ -1,9 +1,13 @@
 package de.gwdg.metadataqa.api.configuration;
 
+import de.gwdg.metadataqa.api.calculator.LanguageDetectionCalculator;
 import de.gwdg.metadataqa.api.uniqueness.SolrClient;
 import de.gwdg.metadataqa.api.uniqueness.SolrConfiguration;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class MeasurementConfiguration {
 
   /**
@@ -23,6 +27,12 @@ public class MeasurementConfiguration {
    */
   protected boolean fieldCardinalityMeasurementEnabled = true;
 
+  /**
+   * Flag whether or not collect the distinct field existence patterns
+   * (default: false).
+   */
+  protected boolean fieldPatternCollectingEnabled = false;
+
   /**
    * Flag whether or not run the completeness measurement
    * (default: true).
@@ -53,6 +63,28 @@ public class MeasurementConfiguration {
    */
   protected boolean languageMeasurementEnabled = false;
 
+  /**
+   * Flag whether or not compare the detected language of the texts with the
+   * declared one (default: false).
+   */
+  protected boolean languageDetectionEnabled = false;
+
+  /**
+   * The ISO 639-1 codes of the languages the detector should consider
+   * (default: all spoken languages).
+   */
+  protected List<String> languageDetectionLanguages = new ArrayList<>();
+
+  /**
+   * Flag whether or not trade detection accuracy for speed (default: false).
+   */
+  protected boolean languageDetectionLowAccuracy = false;
+
+  /**
+   * Texts shorter than this are not sent to the language detector (default: 20).
+   */
+  protected int languageDetectionMinTextLength = LanguageDetectionCalculator.DEFAULT_MIN_TEXT_LENGTH;
+
   /**
    * Flag whether or not run the multilingual saturation measurement
    * (default: false).
@@ -218,6 +250,38 @@ public class MeasurementConfiguration {
     return this;
   }
 
+  /**
+   * Returns whether or not to collect the field existence patterns.
+   * @return
+   *   Flag to collect the field existence patterns
+   */
+  public boolean isFieldPatternCollectingEnabled() {
+    return fieldPatternCollectingEnabled;
+  }
+
+  public void setFieldPatternCollectingEnabled(boolean fieldPatternCollectingEnabled) {
+    this.fieldPatternCollectingEnabled = fieldPatternCollectingEnabled;
+  }
+
+  public MeasurementConfiguration enableFieldPatternCollecting() {
+    return enableFieldPatternCollecting(true);
+  }
+
+  public MeasurementConfiguration disableFieldPatternCollecting() {
+    return enableFieldPatternCollecting(false);
+  }
+
+  /**
+   * Configure to collect the field existence patterns.
+   * @param collectFieldPatterns
+   *    field pattern collecting flag
+   * @return
+   */
+  public MeasurementConfiguration enableFieldPatternCollecting(boolean collectFieldPatterns) {
+    this.fieldPatternCollectingEnabled = collectFieldPatterns;
+    return this;
+  }
+
   /**
    * Returns the flag whether or not run the completeness measurement.
    * @return
@@ -283,6 +347,78 @@ public class MeasurementConfiguration {
     return this;
   }
 
+  /**
+   * Returns the flag whether or not compare the detected and declared languages.
+   *
+   * @return
+   *   language detection flag
+   */
+  public boolean isLanguageDetectionEnabled() {
+    return languageDetectionEnabled;
+  }
+
+  public void setLanguageDetectionEnabled(boolean languageDetectionEnabled) {
+    this.languageDetectionEnabled = languageDetectionEnabled;
+  }
+
+  public MeasurementConfiguration enableLanguageDetection() {
+    return enableLanguageDetection(true);
+  }
+
+  public MeasurementConfiguration disableLanguageDetection() {
+    return enableLanguageDetection(false);
+  }
+
+  /**
+   * Configure whether or not compare the detected and declared languages.
+   *
+   * @param runLanguageDetection
+   * @return
+   */
+  public MeasurementConfiguration enableLanguageDetection(boolean runLanguageDetection) {
+    this.languageDetectionEnabled = runLanguageDetection;
+    return this;
+  }
+
+  public List<String> getLanguageDetectionLanguages() {
+    return languageDetectionLanguages;
+  }
+
+  public void setLanguageDetectionLanguages(List<String> languageDetectionLanguages) {
+    this.languageDetectionLanguages = languageDetectionLanguages;
+  }
+
+  public MeasurementConfiguration withLanguageDetectionLanguages(List<String> languageDetectionLanguages) {
+    this.languageDetectionLanguages = languageDetectionLanguages;
+    return this;
+  }
+
+  public boolean isLanguageDetectionLowAccuracy() {
+    return languageDetectionLowAccuracy;
+  }
+
+  public void setLanguageDetectionLowAccuracy(boolean languageDetectionLowAccuracy) {
+    this.languageDetectionLowAccuracy = languageDetectionLowAccuracy;
+  }
+
+  public MeasurementConfiguration enableLanguageDetectionLowAccuracy(boolean languageDetectionLowAccuracy) {
+    this.languageDetectionLowAccuracy = languageDetectionLowAccuracy;
+    return this;
+  }
+
+  public int getLanguageDetectionMinTextLength() {
+    return languageDetectionMinTextLength;
+  }
+
+  public void setLanguageDetectionMinTextLength(int languageDetectionMinTextLength) {
+    this.languageDetectionMinTextLength = languageDetectionMinTextLength;
+  }
+
+  public MeasurementConfiguration withLanguageDetectionMinTextLength(int languageDetectionMinTextLength) {
+    this.languageDetectionMinTextLength = languageDetectionMinTextLength;
+    return this;
+  }
+
   /**
    * Returns the flag whether or not run the language detector.
    *
@@ -0,0 +1,90 @@
+package de.gwdg.metadataqa.api.counter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Uniform random sample of bounded size from a stream of values
+ * (Vitter's Algorithm R).
+ * @param <T> the type of the sampled values
+ */
+public class ReservoirSample<T extends Serializable> implements Serializable {
+
+  private static final long serialVersionUID = 6037465390316617335L;
+
+  private final int capacity;
+  private final List<T> sample;
+  private final Random random;
+  private long seen = 0;
+
+  public ReservoirSample(int capacity) {
+    this(capacity, new Random());
+  }
+
+  public ReservoirSample(int capacity, Random random) {
+    if (capacity < 1)
+      throw new IllegalArgumentException("capacity should be a positive number");
+    this.capacity = capacity;
+    this.sample = new ArrayList<>(capacity);
+    this.random = random;
+  }
+
+  public void add(T value) {
+    seen++;
+    if (sample.size() < capacity) {
+      sample.add(value);
+    } else {
+      long position = (long) (random.nextDouble() * seen);
+      if (position < capacity)
+        sample.set((int) position, value);
+    }
+  }
+
+  /**
+   * Merge the other sample into this one. Each element of the result is drawn
+   * from one of the samples with a probability proportional to the number of
+   * values the sample has seen, so the result remains a uniform sample of
+   * the union of both streams.
+   * @param other The other sample
+   */
+  public void merge(ReservoirSample<T> other) {
+    List<T> mine = new ArrayList<>(sample);
+    List<T> theirs = new ArrayList<>(other.sample);
+    Collections.shuffle(mine, random);
+    Collections.shuffle(theirs, random);
+
+    long remainingMine = seen;
+    long remainingTheirs = other.seen;
+    int size = Math.min(capacity, mine.size() + theirs.size());
+    sample.clear();
+    while (sample.size() < size) {
+      boolean fromMine;
+      if (mine.isEmpty())
+        fromMine = false;
+      else if (theirs.isEmpty())
+        fromMine = true;
+      else
+        fromMine = random.nextDouble() * (remainingMine + remainingTheirs) < remainingMine;
+
+      if (fromMine) {
+        sample.add(mine.remove(mine.size() - 1));
+        remainingMine--;
+      } else {
+        sample.add(theirs.remove(theirs.size() - 1));
+        remainingTheirs--;
+      }
+    }
+    seen += other.seen;
+  }
+
+  public List<T> getSample() {
+    return Collections.unmodifiableList(sample);
+  }
+
+  public long getSeen() {
+    return seen;
+  }
+}
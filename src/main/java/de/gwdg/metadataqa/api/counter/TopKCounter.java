@@ -0,0 +1,191 @@
+package de.gwdg.metadataqa.api.counter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded counter of the most frequent values, based on the Space-Saving
+ * algorithm (Metwally, Agrawal and El Abbadi: Efficient computation of frequent
+ * and top-k elements in data streams, 2005).
+ *
+ * It keeps at most <code>capacity</code> values. The reported count of a value
+ * is an upper bound of its real frequency, the difference is at most the
+ * error of the entry. The entries are also kept in a binary min-heap by count,
+ * so finding the entry to replace, and updating a count, take O(log capacity)
+ * steps.
+ */
+public class TopKCounter implements Serializable {
+
+  private static final long serialVersionUID = 7585870225718672829L;
+  private static final Comparator<Entry> BY_COUNT_DESC =
+    Comparator.comparingLong(Entry::getCount).reversed().thenComparing(Entry::getValue);
+
+  private final int capacity;
+  private final Map<String, Entry> entries;
+  private final Entry[] heap;
+
+  public TopKCounter(int capacity) {
+    if (capacity < 1)
+      throw new IllegalArgumentException("capacity should be a positive number");
+    this.capacity = capacity;
+    this.entries = new HashMap<>(capacity * 2);
+    this.heap = new Entry[capacity];
+  }
+
+  public void add(String value) {
+    add(value, 1);
+  }
+
+  public void add(String value, long increment) {
+    var entry = entries.get(value);
+    if (entry != null) {
+      entry.count += increment;
+      siftDown(entry.position);
+    } else if (entries.size() < capacity) {
+      entry = new Entry(value, increment, 0);
+      entries.put(value, entry);
+      entry.position = entries.size() - 1;
+      heap[entry.position] = entry;
+      siftUp(entry.position);
+    } else {
+      var minimum = heap[0];
+      entries.remove(minimum.value);
+      entry = new Entry(value, minimum.count + increment, minimum.count);
+      entries.put(value, entry);
+      entry.position = 0;
+      heap[0] = entry;
+      siftDown(0);
+    }
+  }
+
+  /**
+   * Merge the other counter into this one. For values missing from one of the
+   * summaries the minimum count of that summary is used as an upper bound.
+   * @param other The other counter
+   */
+  public void merge(TopKCounter other) {
+    long minimum = isFull() ? heap[0].count : 0;
+    long otherMinimum = other.isFull() ? other.heap[0].count : 0;
+
+    Map<String, Entry> merged = new HashMap<>(entries.size() + other.entries.size());
+    for (Entry entry : entries.values()) {
+      var otherEntry = other.entries.get(entry.value);
+      if (otherEntry != null)
+        merged.put(entry.value, new Entry(entry.value, entry.count + otherEntry.count, entry.error + otherEntry.error));
+      else
+        merged.put(entry.value, new Entry(entry.value, entry.count + otherMinimum, entry.error + otherMinimum));
+    }
+    for (Entry otherEntry : other.entries.values())
+      if (!merged.containsKey(otherEntry.value))
+        merged.put(otherEntry.value, new Entry(otherEntry.value, otherEntry.count + minimum, otherEntry.error + minimum));
+
+    List<Entry> sorted = new ArrayList<>(merged.values());
+    sorted.sort(BY_COUNT_DESC);
+    entries.clear();
+    Arrays.fill(heap, null);
+    // the descending order is a valid min-heap in reverse
+    int size = Math.min(capacity, sorted.size());
+    for (var i = 0; i < size; i++) {
+      Entry entry = sorted.get(size - 1 - i);
+      entry.position = i;
+      heap[i] = entry;
+      entries.put(entry.value, entry);
+    }
+  }
+
+  /**
+   * Get the entries ordered by descending count.
+   * @return The list of entries
+   */
+  public List<Entry> getTop() {
+    List<Entry> top = new ArrayList<>(entries.values());
+    top.sort(BY_COUNT_DESC);
+    return top;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  private boolean isFull() {
+    return entries.size() >= capacity;
+  }
+
+  private void siftUp(int position) {
+    Entry entry = heap[position];
+    while (position > 0) {
+      int parent = (position - 1) / 2;
+      if (heap[parent].count <= entry.count)
+        break;
+      move(heap[parent], position);
+      position = parent;
+    }
+    move(entry, position);
+  }
+
+  private void siftDown(int position) {
+    Entry entry = heap[position];
+    int size = entries.size();
+    while (true) {
+      int child = 2 * position + 1;
+      if (child >= size)
+        break;
+      if (child + 1 < size && heap[child + 1].count < heap[child].count)
+        child++;
+      if (entry.count <= heap[child].count)
+        break;
+      move(heap[child], position);
+      position = child;
+    }
+    move(entry, position);
+  }
+
+  private void move(Entry entry, int position) {
+    heap[position] = entry;
+    entry.position = position;
+  }
+
+  public static class Entry implements Serializable {
+    private static final long serialVersionUID = 5477081319077352071L;
+    private final String value;
+    private long count;
+    private long error;
+    private int position;
+
+    Entry(String value, long count, long error) {
+      this.value = value;
+      this.count = count;
+      this.error = error;
+    }
+
+    public String getValue() {
+      return value;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getError() {
+      return error;
+    }
+
+    @Override
+    public String toString() {
+      return "Entry{"
+        + "value=" + value
+        + ", count=" + count
+        + ", error=" + error
+        + '}';
+    }
+  }
+}
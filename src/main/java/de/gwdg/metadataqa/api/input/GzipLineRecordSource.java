@@ -0,0 +1,203 @@
+package de.gwdg.metadataqa.api.input;
+
+import de.gwdg.metadataqa.api.util.CountingInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the lines of a gzip compressed file as records. A gzip stream can
+ * only be decompressed sequentially, so a dedicated thread decompresses the
+ * file into large chunks, and puts the lines of each chunk into a bounded
+ * queue. The records are slices of the chunks. next() can be called from
+ * several threads, so the decompressed records can be measured in parallel.
+ * If the decompression fails, next() throws an IOException after the records
+ * read before the failure.
+ *
+ * The empty lines are skipped, and a carriage return before the line feed is
+ * not part of the record.
+ */
+public class GzipLineRecordSource implements RecordSource {
+
+  static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+  private static final int DEFAULT_QUEUE_CAPACITY = 16;
+  private static final int INPUT_BUFFER_SIZE = 1 << 16;
+  private static final List<ByteBuffer> END = Collections.unmodifiableList(new ArrayList<>());
+
+  private final Path file;
+  private final long length;
+  private final int chunkSize;
+  private final BlockingQueue<List<ByteBuffer>> queue;
+  private final Thread decompressor;
+  private volatile CountingInputStream compressed;
+  private volatile Throwable failure;
+  private Iterator<ByteBuffer> batch = Collections.emptyIterator();
+  private boolean finished = false;
+
+  public GzipLineRecordSource(Path file) throws IOException {
+    this(file, DEFAULT_CHUNK_SIZE, DEFAULT_QUEUE_CAPACITY);
+  }
+
+  /**
+   * @param file The gzip file
+   * @param chunkSize The size of the decompressed chunks
+   * @param queueCapacity The maximal number of decompressed chunks waiting to be read
+   * @throws IOException If the file can not be read
+   */
+  public GzipLineRecordSource(Path file, int chunkSize, int queueCapacity) throws IOException {
+    if (chunkSize < 1)
+      throw new IllegalArgumentException("The chunk size should be positive: " + chunkSize);
+    this.file = file;
+    this.length = Files.size(file);
+    this.chunkSize = chunkSize;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.decompressor = new Thread(this::decompress, "gzip-decompressor-" + file.getFileName());
+    decompressor.setDaemon(true);
+    decompressor.start();
+  }
+
+  private void decompress() {
+    try (InputStream input = openDecompressed()) {
+      var chunk = new byte[chunkSize];
+      var filled = 0;
+      while (true) {
+        if (filled == chunk.length) {
+          int lastLineEnd = lastIndexOfLineFeed(chunk, filled);
+          if (lastLineEnd < 0) {
+            chunk = Arrays.copyOf(chunk, chunk.length * 2);
+          } else {
+            queue.put(lines(chunk, lastLineEnd + 1));
+            var next = new byte[Math.max(chunkSize, filled - lastLineEnd - 1)];
+            System.arraycopy(chunk, lastLineEnd + 1, next, 0, filled - lastLineEnd - 1);
+            filled -= lastLineEnd + 1;
+            chunk = next;
+          }
+        }
+        int read = input.read(chunk, filled, chunk.length - filled);
+        if (read < 0)
+          break;
+        filled += read;
+      }
+      if (filled > 0)
+        queue.put(lines(chunk, filled));
+    } catch (IOException | RuntimeException | Error e) {
+      // e.g. a corrupt stream, or a line which does not fit into the memory
+      failure = e;
+    } catch (InterruptedException e) {
+      // closed
+      Thread.currentThread().interrupt();
+    } finally {
+      end();
+    }
+  }
+
+  InputStream openDecompressed() throws IOException {
+    return new GZIPInputStream(compressed = new CountingInputStream(Files.newInputStream(file)), INPUT_BUFFER_SIZE);
+  }
+
+  /**
+   * Queues the end marker, so no reader waits forever.
+   */
+  private void end() {
+    if (Thread.interrupted()) {
+      // closed: the readers should not wait for the chunks still in the queue
+      queue.clear();
+      queue.offer(END);
+      return;
+    }
+    try {
+      queue.put(END);
+    } catch (InterruptedException e) {
+      queue.clear();
+      queue.offer(END);
+    }
+  }
+
+  private static int lastIndexOfLineFeed(byte[] chunk, int length) {
+    for (int i = length - 1; i >= 0; i--)
+      if (chunk[i] == '\n')
+        return i;
+    return -1;
+  }
+
+  private static List<ByteBuffer> lines(byte[] chunk, int length) {
+    List<ByteBuffer> lines = new ArrayList<>();
+    var lineStart = 0;
+    while (lineStart < length) {
+      int lineEnd = lineStart;
+      while (lineEnd < length && chunk[lineEnd] != '\n')
+        lineEnd++;
+      int next = lineEnd + 1;
+      if (lineEnd > lineStart && chunk[lineEnd - 1] == '\r')
+        lineEnd--;
+      if (lineEnd > lineStart)
+        lines.add(ByteBuffer.wrap(chunk, lineStart, lineEnd - lineStart).slice());
+      lineStart = next;
+    }
+    return lines;
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public synchronized ByteBuffer next() throws IOException {
+    while (!batch.hasNext()) {
+      if (finished)
+        return finish();
+      List<ByteBuffer> next;
+      try {
+        next = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the decompressor");
+      }
+      if (next == END)
+        finished = true;
+      else
+        batch = next.iterator();
+    }
+    return batch.next();
+  }
+
+  private ByteBuffer finish() throws IOException {
+    Throwable cause = failure;
+    if (cause != null)
+      throw new IOException("Failed to decompress " + file + ": " + cause, cause);
+    return null;
+  }
+
+  /**
+   * @return The number of compressed bytes consumed by the decompressor
+   */
+  @Override
+  public long getBytesRead() {
+    CountingInputStream stream = compressed;
+    return stream == null ? 0 : stream.getCount();
+  }
+
+  @Override
+  public long getLength() {
+    return length;
+  }
+
+  @Override
+  public void close() {
+    decompressor.interrupt();
+    queue.clear();
+  }
+}
@@ -0,0 +1,214 @@
+package de.gwdg.metadataqa.api.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the lines of a file (e.g. NDJSON) as records through memory mapping.
+ * The records are slices of the mapped buffer, they are not copied. The
+ * empty lines are skipped, and a carriage return before the line feed is
+ * not part of the record.
+ *
+ * The file is mapped in windows which end at a line end, so a source can
+ * read files larger than 2 GB. A source reads a line-aligned segment of the
+ * file, and split() creates one source for each part of a file, which can be
+ * read by parallel workers. A source itself should be read by one thread.
+ */
+public class MappedLineRecordSource implements RecordSource {
+
+  static final int DEFAULT_WINDOW_SIZE = 1 << 28;
+  private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE;
+  private static final int ALIGNMENT_BUFFER_SIZE = 1 << 13;
+
+  private final FileChannel channel;
+  private final long start;
+  private final long end;
+  private final int windowSize;
+  private MappedByteBuffer window;
+  private long windowStart;
+  private int windowEnd;
+  private int position;
+  private volatile long bytesRead;
+
+  /**
+   * Reads the whole file.
+   * @param file The file
+   * @throws IOException If the file can not be opened
+   */
+  public MappedLineRecordSource(Path file) throws IOException {
+    this(file, 0, -1, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Reads a segment of the file.
+   * @param file The file
+   * @param start The offset of the first byte of the segment, which should be the start of a line
+   * @param end The offset after the last byte of the segment
+   * @throws IOException If the file can not be opened
+   */
+  public MappedLineRecordSource(Path file, long start, long end) throws IOException {
+    this(file, start, end, DEFAULT_WINDOW_SIZE);
+  }
+
+  MappedLineRecordSource(Path file, long start, long end, int windowSize) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    this.start = start;
+    this.end = end < 0 ? channel.size() : end;
+    this.windowSize = windowSize;
+    if (start < 0 || start > this.end) {
+      channel.close();
+      throw new IllegalArgumentException(String.format("Invalid segment: %d-%d", start, end));
+    }
+  }
+
+  /**
+   * Splits a file into line-aligned segments of about the same size.
+   * @param file The file
+   * @param parts The number of parts
+   * @return The sources of the segments, less than the parts if the file has not enough lines
+   * @throws IOException If the file can not be read
+   */
+  public static List<MappedLineRecordSource> split(Path file, int parts) throws IOException {
+    if (parts < 1)
+      throw new IllegalArgumentException("The number of parts should be positive: " + parts);
+    List<Long> boundaries = new ArrayList<>();
+    long size;
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      size = channel.size();
+      boundaries.add(0L);
+      for (var i = 1; i < parts; i++) {
+        long boundary = alignToLine(channel, size * i / parts, size);
+        if (boundary > boundaries.get(boundaries.size() - 1) && boundary < size)
+          boundaries.add(boundary);
+      }
+    }
+    boundaries.add(size);
+
+    List<MappedLineRecordSource> sources = new ArrayList<>();
+    try {
+      for (var i = 0; i < boundaries.size() - 1; i++)
+        sources.add(new MappedLineRecordSource(file, boundaries.get(i), boundaries.get(i + 1)));
+    } catch (IOException e) {
+      for (MappedLineRecordSource source : sources)
+        source.close();
+      throw e;
+    }
+    return sources;
+  }
+
+  /**
+   * The start of the line which contains the byte before the offset's.
+   */
+  private static long alignToLine(FileChannel channel, long offset, long size) throws IOException {
+    if (offset == 0)
+      return 0;
+    var buffer = ByteBuffer.allocate(ALIGNMENT_BUFFER_SIZE);
+    long position = offset - 1;
+    while (position < size) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if (read < 0)
+        break;
+      for (var i = 0; i < read; i++)
+        if (buffer.get(i) == '\n')
+          return position + i + 1;
+      position += read;
+    }
+    return size;
+  }
+
+  @Override
+  public ByteBuffer next() throws IOException {
+    while (true) {
+      if (window == null || position >= windowEnd) {
+        if (!mapNextWindow())
+          return null;
+      }
+      int lineStart = position;
+      int lineEnd = indexOfLineFeed(lineStart);
+      position = lineEnd < windowEnd ? lineEnd + 1 : windowEnd;
+      bytesRead = windowStart + position - start;
+      if (lineEnd > lineStart && window.get(lineEnd - 1) == '\r')
+        lineEnd--;
+      if (lineEnd > lineStart)
+        return slice(lineStart, lineEnd);
+    }
+  }
+
+  private int indexOfLineFeed(int from) {
+    for (int i = from; i < windowEnd; i++)
+      if (window.get(i) == '\n')
+        return i;
+    return windowEnd;
+  }
+
+  private ByteBuffer slice(int from, int to) {
+    ByteBuffer slice = window.duplicate();
+    slice.position(from);
+    slice.limit(to);
+    return slice.slice();
+  }
+
+  /**
+   * Maps the next part of the segment, up to the end of its last complete
+   * line. If a line does not fit into the window, the window is enlarged.
+   */
+  private boolean mapNextWindow() throws IOException {
+    long offset = window == null ? start : windowStart + windowEnd;
+    if (offset >= end)
+      return false;
+
+    long size = Math.min(end - offset, windowSize);
+    while (true) {
+      window = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+      windowStart = offset;
+      position = 0;
+      if (offset + size == end) {
+        windowEnd = (int) size;
+        return true;
+      }
+      for (int i = (int) size - 1; i >= 0; i--) {
+        if (window.get(i) == '\n') {
+          windowEnd = i + 1;
+          return true;
+        }
+      }
+      if (size == MAX_WINDOW_SIZE)
+        throw new IOException(String.format("The line at %d is longer than %d bytes", offset, MAX_WINDOW_SIZE));
+      size = Math.min(end - offset, Math.min((long) MAX_WINDOW_SIZE, size * 2));
+    }
+  }
+
+  public long getStart() {
+    return start;
+  }
+
+  public long getEnd() {
+    return end;
+  }
+
+  @Override
+  public long getBytesRead() {
+    return bytesRead;
+  }
+
+  @Override
+  public long getLength() {
+    return end - start;
+  }
+
+  /**
+   * Closes the file. The records already returned stay readable, the mapping
+   * is released when they are garbage collected.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
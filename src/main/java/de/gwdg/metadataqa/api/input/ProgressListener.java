@@ -0,0 +1,15 @@
+package de.gwdg.metadataqa.api.input;
+
+/**
+ * Receives the progress of reading a record source.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+  /**
+   * @param bytesRead The number of input bytes consumed so far
+   * @param length The number of input bytes
+   * @param records The number of records processed so far
+   */
+  void onProgress(long bytesRead, long length, long records);
+}
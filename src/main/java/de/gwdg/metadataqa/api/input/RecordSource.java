@@ -0,0 +1,44 @@
+package de.gwdg.metadataqa.api.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A sequence of records as byte buffers. The buffers can be passed to
+ * CalculatorFacade.measure(ByteBuffer) directly.
+ */
+public interface RecordSource extends Closeable {
+
+  /**
+   * @return The next record, or null if there are no more records
+   * @throws IOException If the input can not be read
+   */
+  ByteBuffer next() throws IOException;
+
+  /**
+   * @return true if next() can be called from several threads
+   */
+  default boolean isThreadSafe() {
+    return false;
+  }
+
+  /**
+   * @return The number of input bytes consumed so far
+   */
+  long getBytesRead();
+
+  /**
+   * @return The number of input bytes of this source, or -1 if it is not known
+   */
+  long getLength();
+
+  /**
+   * @return The ratio of the consumed input, between 0 and 1, or NaN if the length is not known
+   */
+  default double getProgress() {
+    if (getLength() < 0)
+      return Double.NaN;
+    return getLength() == 0 ? 1.0 : (double) getBytesRead() / getLength();
+  }
+}
@@ -0,0 +1,151 @@
+package de.gwdg.metadataqa.api.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Opening and parallel reading of line-oriented record files. The gzip
+ * compressed files (recognized by their magic number) are read by
+ * GzipLineRecordSource, the others by MappedLineRecordSource.
+ */
+public final class RecordSources {
+
+  static final long PROGRESS_INTERVAL = 10_000;
+
+  private RecordSources() {
+  }
+
+  public static boolean isGzip(Path file) throws IOException {
+    try (InputStream input = Files.newInputStream(file)) {
+      return input.read() == 0x1f && input.read() == 0x8b;
+    }
+  }
+
+  public static RecordSource open(Path file) throws IOException {
+    return isGzip(file) ? new GzipLineRecordSource(file) : new MappedLineRecordSource(file);
+  }
+
+  /**
+   * Opens the sources for the parallel workers: the line-aligned segments of
+   * an uncompressed file, or one shared source of a gzip file.
+   * @param file The file
+   * @param parts The number of workers
+   * @return The sources
+   * @throws IOException If the file can not be read
+   */
+  public static List<RecordSource> split(Path file, int parts) throws IOException {
+    if (isGzip(file))
+      return Collections.singletonList(new GzipLineRecordSource(file));
+    return new ArrayList<>(MappedLineRecordSource.split(file, parts));
+  }
+
+  /**
+   * Processes all the records of a file with parallel workers. Each segment
+   * of an uncompressed file is read by its own worker, so there might be less
+   * workers than threads, e.g. for a file with less lines than threads. The
+   * workers share the thread safe source of a gzip file. Each worker
+   * thread creates its own consumer with the factory, so a consumer might
+   * hold a CalculatorFacade, which is not thread safe:
+   * <pre>
+   * RecordSources.forEach(file, 4, () -&gt; {
+   *   var facade = new CalculatorFacade(configuration).setSchema(schema);
+   *   return record -&gt; output.add(facade.measure(record));
+   * }, listener);
+   * </pre>
+   * The record buffers should not be kept after the consumer returns. The
+   * listener is called from the worker threads.
+   *
+   * @param file The file
+   * @param threads The number of workers
+   * @param consumerFactory Creates the consumer of a worker
+   * @param listener Receives the progress after every 10000 records and at the end, it might be null
+   * @return The number of processed records
+   * @throws IOException If the file can not be read
+   */
+  public static long forEach(Path file,
+                             int threads,
+                             Supplier<Consumer<ByteBuffer>> consumerFactory,
+                             ProgressListener listener) throws IOException {
+    List<RecordSource> sources = split(file, threads);
+    boolean shared = sources.stream().allMatch(RecordSource::isThreadSafe);
+    int workerCount = shared ? threads : sources.size();
+    var records = new AtomicLong();
+    var failed = new AtomicBoolean(false);
+    ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+    CompletionService<Void> workers = new ExecutorCompletionService<>(executor);
+    try {
+      for (var i = 0; i < workerCount; i++) {
+        RecordSource source = sources.get(i % sources.size());
+        workers.submit(() -> {
+          Consumer<ByteBuffer> consumer = consumerFactory.get();
+          ByteBuffer record;
+          while (!failed.get() && (record = source.next()) != null) {
+            consumer.accept(record);
+            long count = records.incrementAndGet();
+            if (listener != null && count % PROGRESS_INTERVAL == 0)
+              report(sources, count, listener);
+          }
+          return null;
+        });
+      }
+      for (var i = 0; i < workerCount; i++)
+        await(workers, failed);
+    } finally {
+      executor.shutdownNow();
+      for (RecordSource source : sources)
+        source.close();
+    }
+    if (listener != null)
+      report(sources, records.get(), listener);
+    return records.get();
+  }
+
+  /**
+   * Waits for the next worker to finish, and stops the others if it failed.
+   */
+  private static void await(CompletionService<Void> workers, AtomicBoolean failed) throws IOException {
+    try {
+      workers.take().get();
+    } catch (InterruptedException e) {
+      failed.set(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while processing records");
+    } catch (ExecutionException e) {
+      failed.set(true);
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new IOException(cause);
+    }
+  }
+
+  private static void report(List<RecordSource> sources, long records, ProgressListener listener) {
+    long bytesRead = 0;
+    long length = 0;
+    for (RecordSource source : sources) {
+      bytesRead += source.getBytesRead();
+      length += source.getLength();
+    }
+    listener.onProgress(bytesRead, length, records);
+  }
+}
@@ -0,0 +1,5 @@
+/**
+ * Sources of records to measure: line-oriented (NDJSON) files read through
+ * memory mapping or gzip decompression.
+ */
+package de.gwdg.metadataqa.api.input;
@@ -0,0 +1,19 @@
+package de.gwdg.metadataqa.api.interfaces;
+
+import de.gwdg.metadataqa.api.model.pathcache.PathCache;
+
+/**
+ * A calculator which can start its work in the background before the
+ * measurement. The facade calls prepare() for every such calculator before
+ * running the measurements of the record, so the slow work overlaps with the
+ * other calculators.
+ */
+public interface Preparable {
+
+  /**
+   * Start the work for a record.
+   * @param cache
+   *   The JSON cache object of the record which will be measured next
+   */
+  void prepare(PathCache cache);
+}
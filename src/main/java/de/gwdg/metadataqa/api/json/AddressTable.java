@@ -0,0 +1,73 @@
+package de.gwdg.metadataqa.api.json;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The cache addresses of a branch within the entities of a collection
+ * ("collectionPath/index/branchPath"). The addresses are created once per
+ * index and shared by all the records, so they are not formatted again for
+ * every entity. The table grows on demand up to MAX_SIZE entries; the
+ * addresses of the larger indices are formatted on every call, so a single
+ * record with a huge collection does not keep its addresses forever. The
+ * table is safe to read from more threads.
+ */
+public final class AddressTable implements Serializable {
+
+  private static final long serialVersionUID = 3270813297342745571L;
+  private static final int INITIAL_SIZE = 8;
+  public static final int MAX_SIZE = 256;
+
+  private final String collectionPath;
+  private final String branchPath;
+  private volatile String[] addresses;
+
+  public AddressTable(String collectionPath, String branchPath) {
+    this.collectionPath = collectionPath;
+    this.branchPath = branchPath;
+    this.addresses = create(new String[0], INITIAL_SIZE);
+  }
+
+  /**
+   * Returns the address of the branch in the index-th entity.
+   * @param index The index of the entity
+   * @return The address
+   */
+  public String get(int index) {
+    String[] current = addresses;
+    if (index >= 0 && index < current.length)
+      return current[index];
+    if (index < 0 || index >= MAX_SIZE)
+      return format(index);
+    return extend(index);
+  }
+
+  /**
+   * @param collectionPath The path of the collection
+   * @param branchPath The path of the branch
+   * @return True if the table holds the addresses of these paths
+   */
+  public boolean isFor(String collectionPath, String branchPath) {
+    return this.collectionPath.equals(collectionPath) && this.branchPath.equals(branchPath);
+  }
+
+  private synchronized String extend(int index) {
+    String[] current = addresses;
+    if (index >= current.length) {
+      current = create(current, Math.min(Math.max(index + 1, current.length * 2), MAX_SIZE));
+      addresses = current;
+    }
+    return current[index];
+  }
+
+  private String[] create(String[] existing, int size) {
+    String[] extended = Arrays.copyOf(existing, size);
+    for (int i = existing.length; i < size; i++)
+      extended[i] = format(i);
+    return extended;
+  }
+
+  private String format(int index) {
+    return collectionPath + '/' + index + '/' + branchPath;
+  }
+}
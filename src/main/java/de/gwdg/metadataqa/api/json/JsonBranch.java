@@ -32,6 +32,7 @@ public class JsonBranch implements Cloneable, Serializable {
   private List<Rule> rules;
   private Schema schema;
   private String indexField;
+  private transient AddressTable addressTable;
 
   public JsonBranch(String label, String jsonPath, String solrFieldName) {
     this.label = label;
@@ -73,9 +74,28 @@ public class JsonBranch implements Cloneable, Serializable {
 
   public JsonBranch setJsonPath(String jsonPath) {
     this.jsonPath = jsonPath;
+    this.addressTable = null;
     return this;
   }
 
+  /**
+   * Returns the cache address of this branch in the index-th entity of a
+   * collection ("collectionPath/index/jsonPath"). The addresses are kept in
+   * an AddressTable, so they are created only once.
+   *
+   * @param collection The collection
+   * @param index The index of the entity
+   * @return The address
+   */
+  public String getAddress(JsonBranch collection, int index) {
+    AddressTable table = addressTable;
+    if (table == null || !table.isFor(collection.getJsonPath(), jsonPath)) {
+      table = new AddressTable(collection.getJsonPath(), jsonPath);
+      addressTable = table;
+    }
+    return table.get(index);
+  }
+
   public String getAbsoluteJsonPath() {
     Format format = hasFormat() ? schema.getFormat() : Format.JSON;
     return getAbsoluteJsonPath(format);
@@ -87,7 +107,7 @@ public class JsonBranch implements Cloneable, Serializable {
 
   public String getAbsoluteJsonPath(Format format) {
     if (getParent() != null) {
-      if (format.equals(Format.JSON)) {
+      if (format.equals(Format.JSON) || format.equals(Format.ISO_2709) || format.equals(Format.MARCXML)) {
         return getParent().getJsonPath() + getJsonPath().replace("$.", "[*]");
       } else if (format.equals(Format.XML)) {
         return getParent().getJsonPath() + "/" + getJsonPath();
@@ -1,10 +1,21 @@
 package de.gwdg.metadataqa.api.model;
 
 import de.gwdg.metadataqa.api.model.pathcache.CsvPathCache;
+import de.gwdg.metadataqa.api.model.pathcache.Iso2709PathCache;
 import de.gwdg.metadataqa.api.model.pathcache.JsonPathCache;
+import de.gwdg.metadataqa.api.model.pathcache.MarcJsonPathCache;
+import de.gwdg.metadataqa.api.model.pathcache.MarcXmlPathCache;
 import de.gwdg.metadataqa.api.model.pathcache.PathCache;
 import de.gwdg.metadataqa.api.model.pathcache.XmlPathCache;
 import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.MarcJsonSchema;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.util.ByteBufferInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 public class PathCacheFactory {
 
@@ -19,9 +30,81 @@ public class PathCacheFactory {
       cache = new XmlPathCache<>(content);
     } else if (format == Format.CSV) {
       cache = new CsvPathCache<>(content);
+    } else if (format == Format.ISO_2709) {
+      cache = new Iso2709PathCache<>(content);
+    } else if (format == Format.MARCXML) {
+      cache = new MarcXmlPathCache<>(content);
     } else {
       throw new IllegalArgumentException("Unrecognized format: " + format);
     }
     return cache;
   }
+
+  /**
+   * Create the path cache of a record of the schema. MARC JSON records get
+   * a cache indexing the fields by tag.
+   * @param schema The schema
+   * @param content The record
+   * @return The path cache
+   */
+  public static PathCache<? extends XmlFieldInstance> getInstanceForSchema(Schema schema,
+                                                                           String content) {
+    if (schema instanceof MarcJsonSchema && schema.getFormat() == Format.JSON)
+      return new MarcJsonPathCache<>(content);
+    return getInstance(schema.getFormat(), content);
+  }
+
+  /**
+   * Create the path cache of a record given as bytes: UTF-8 for JSON and CSV,
+   * the declared encoding for XML. The bytes are passed to the parsers
+   * without decoding them into a String first, so the content of the cache
+   * is not set.
+   * @param schema The schema
+   * @param content The record, from the position to the limit of the buffer
+   * @return The path cache
+   */
+  public static PathCache<? extends XmlFieldInstance> getInstanceForSchema(Schema schema,
+                                                                           ByteBuffer content) {
+    Format format = schema.getFormat();
+    if (format == Format.JSON)
+      return createJsonCache(schema, JsonPathCache.parseDocument(content));
+    if (format == Format.XML)
+      return new XmlPathCache<>(new ByteBufferInputStream(content));
+    if (format == Format.ISO_2709)
+      return new Iso2709PathCache<>(ByteBufferInputStream.toByteArray(content));
+    if (format == Format.MARCXML)
+      return new MarcXmlPathCache<>(new ByteBufferInputStream(content));
+    if (format == Format.CSV)
+      return new CsvPathCache<>(StandardCharsets.UTF_8.decode(content.duplicate()).toString());
+    throw new IllegalArgumentException("Unrecognized format: " + format);
+  }
+
+  /**
+   * Create the path cache of a record read from a stream.
+   * @see #getInstanceForSchema(Schema, ByteBuffer)
+   * @param schema The schema
+   * @param content The record
+   * @return The path cache
+   * @throws IOException If the stream can not be read
+   */
+  public static PathCache<? extends XmlFieldInstance> getInstanceForSchema(Schema schema,
+                                                                           InputStream content)
+      throws IOException {
+    Format format = schema.getFormat();
+    if (format == Format.JSON)
+      return createJsonCache(schema, JsonPathCache.parseDocument(content));
+    if (format == Format.XML)
+      return new XmlPathCache<>(content);
+    if (format == Format.MARCXML)
+      return new MarcXmlPathCache<>(content);
+    if (format == Format.ISO_2709 || format == Format.CSV)
+      return getInstanceForSchema(schema, ByteBuffer.wrap(content.readAllBytes()));
+    throw new IllegalArgumentException("Unrecognized format: " + format);
+  }
+
+  private static PathCache<? extends XmlFieldInstance> createJsonCache(Schema schema, Object document) {
+    return schema instanceof MarcJsonSchema
+      ? new MarcJsonPathCache<>(document)
+      : new JsonPathCache<>(document);
+  }
 }
@@ -3,10 +3,13 @@ package de.gwdg.metadataqa.api.model.pathcache;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
-public abstract class BasePathCache<T extends XmlFieldInstance> implements PathCache {
+public abstract class BasePathCache<T extends XmlFieldInstance> implements PathCache<T> {
 
   protected String recordId;
   protected String content;
@@ -14,6 +17,9 @@ public abstract class BasePathCache<T extends XmlFieldInstance> implements PathC
   protected final Map<String, List<T>> cache = new HashMap<>();
   protected final Map<String, Object> typedCache = new HashMap<>();
   protected final Map<String, Object> fragmentCache = new HashMap<>();
+  // derived values, they are not serialized
+  private transient Map<Object, Object> memos;
+  private transient Map<Object, Map<Object, Object>> argumentMemos;
 
   abstract void set(String address, String jsonPath, Object jsonFragment, Class clazz);
 
@@ -60,6 +66,33 @@ public abstract class BasePathCache<T extends XmlFieldInstance> implements PathC
     return jsonFragment2;
   }
 
+  @Override
+  public <V> V memo(Function<PathCache, V> function) {
+    if (memos == null)
+      memos = new IdentityHashMap<>();
+    else if (memos.containsKey(function))
+      return (V) memos.get(function);
+    V value = function.apply(this);
+    memos.put(function, value);
+    return value;
+  }
+
+  @Override
+  public <A, V> V memo(BiFunction<PathCache, A, V> function, A argument) {
+    if (argumentMemos == null)
+      argumentMemos = new IdentityHashMap<>();
+    Map<Object, Object> values = argumentMemos.get(function);
+    if (values == null) {
+      values = new HashMap<>();
+      argumentMemos.put(function, values);
+    } else if (values.containsKey(argument)) {
+      return (V) values.get(argument);
+    }
+    V value = function.apply(this, argument);
+    values.put(argument, value);
+    return value;
+  }
+
   /**
    * Gets the record identifier.
    *
@@ -0,0 +1,165 @@
+package de.gwdg.metadataqa.api.model.pathcache;
+
+import de.gwdg.metadataqa.api.model.XmlFieldInstance;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Path cache of a MARC21 record in the binary ISO 2709 format. Only the
+ * leader and the directory are parsed when the record is created, the
+ * fields are decoded from the bytes at their directory offsets when their
+ * tag is first requested.
+ *
+ * The records with 'a' in leader/09 are decoded as UTF-8. MARC-8 is not
+ * supported, those records are decoded as ISO-8859-1, so ASCII text is
+ * correct, but the other characters are not converted.
+ *
+ * @param <T> the type of elements held in this object.
+ */
+public class Iso2709PathCache<T extends XmlFieldInstance> extends MarcPathCache<T> {
+
+  private static final long serialVersionUID = -2371385271052651624L;
+
+  public static final byte FIELD_TERMINATOR = 0x1E;
+  public static final byte RECORD_TERMINATOR = 0x1D;
+  public static final byte SUBFIELD_DELIMITER = 0x1F;
+  private static final int LEADER_LENGTH = 24;
+  private static final int DIRECTORY_ENTRY_LENGTH = 12;
+
+  private final byte[] record;
+  private final Charset charset;
+  private final String leader;
+  private final Map<String, int[]> entriesByTag = new HashMap<>();
+  private final int[] starts;
+  private final int[] lengths;
+  private final String[] tags;
+  private final MarcField[] fields;
+
+  /**
+   * @param record The bytes of one record
+   * @throws IllegalArgumentException If the leader or the directory is invalid
+   */
+  public Iso2709PathCache(byte[] record) {
+    this.record = record;
+    if (record.length < LEADER_LENGTH)
+      throw new IllegalArgumentException("Invalid ISO 2709 record: it is shorter than the leader");
+    this.leader = new String(record, 0, LEADER_LENGTH, StandardCharsets.US_ASCII);
+    this.charset = leader.charAt(9) == 'a' ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+
+    int baseAddress = parseNumber(12, 5);
+    if (baseAddress <= LEADER_LENGTH || baseAddress > record.length)
+      throw new IllegalArgumentException("Invalid ISO 2709 record: wrong base address " + baseAddress);
+    int directoryEnd = baseAddress - 1;
+    while (directoryEnd > LEADER_LENGTH && record[directoryEnd] != FIELD_TERMINATOR)
+      directoryEnd--;
+    int size = (directoryEnd - LEADER_LENGTH) / DIRECTORY_ENTRY_LENGTH;
+
+    starts = new int[size];
+    lengths = new int[size];
+    tags = new String[size];
+    fields = new MarcField[size];
+    Map<String, List<Integer>> positions = new HashMap<>();
+    for (var i = 0; i < size; i++) {
+      int entry = LEADER_LENGTH + i * DIRECTORY_ENTRY_LENGTH;
+      tags[i] = new String(record, entry, 3, StandardCharsets.US_ASCII);
+      lengths[i] = parseNumber(entry + 3, 4);
+      starts[i] = baseAddress + parseNumber(entry + 7, 5);
+      if (starts[i] > record.length)
+        throw new IllegalArgumentException("Invalid ISO 2709 record: field " + tags[i] + " is out of the record");
+      lengths[i] = Math.min(lengths[i], record.length - starts[i]);
+      positions.computeIfAbsent(tags[i], tag -> new ArrayList<>(1)).add(i);
+    }
+    for (Map.Entry<String, List<Integer>> entry : positions.entrySet())
+      entriesByTag.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+  }
+
+  /**
+   * Create the cache from a record read into a String. The characters are
+   * encoded back to bytes: as UTF-8 if the leader says so, otherwise as
+   * ISO-8859-1, which gives back the bytes if the record was decoded with it.
+   * @param content The record
+   */
+  public Iso2709PathCache(String content) {
+    this(content.getBytes(content.length() > 9 && content.charAt(9) == 'a'
+      ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1));
+    this.content = content;
+  }
+
+  private int parseNumber(int offset, int length) {
+    var value = 0;
+    for (int i = offset; i < offset + length; i++) {
+      int digit = record[i] - '0';
+      if (digit < 0 || digit > 9)
+        throw new IllegalArgumentException("Invalid ISO 2709 record: not a number at position " + offset);
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  @Override
+  public String getLeader() {
+    return leader;
+  }
+
+  @Override
+  public List<MarcField> getFields(String tag) {
+    int[] entries = entriesByTag.get(tag);
+    if (entries == null)
+      return Collections.emptyList();
+    List<MarcField> result = new ArrayList<>(entries.length);
+    for (int entry : entries) {
+      if (fields[entry] == null)
+        fields[entry] = decode(entry);
+      result.add(fields[entry]);
+    }
+    return result;
+  }
+
+  /**
+   * @return The number of fields in the directory
+   */
+  public int size() {
+    return tags.length;
+  }
+
+  private MarcField decode(int entry) {
+    int start = starts[entry];
+    int end = start + lengths[entry];
+    if (end > start && (record[end - 1] == FIELD_TERMINATOR || record[end - 1] == RECORD_TERMINATOR))
+      end--;
+
+    String tag = tags[entry];
+    if (tag.startsWith("00"))
+      return MarcField.controlField(tag, new String(record, start, end - start, charset));
+
+    String ind1 = end > start ? indicator(record[start]) : " ";
+    String ind2 = end > start + 1 ? indicator(record[start + 1]) : " ";
+    List<String> codes = new ArrayList<>();
+    List<String> values = new ArrayList<>();
+    int position = start + 2;
+    while (position < end && record[position] != SUBFIELD_DELIMITER)
+      position++;
+    while (position < end) {
+      int valueStart = position + 2;
+      int valueEnd = valueStart;
+      while (valueEnd < end && record[valueEnd] != SUBFIELD_DELIMITER)
+        valueEnd++;
+      if (position + 1 < end) {
+        codes.add(new String(record, position + 1, 1, StandardCharsets.ISO_8859_1));
+        values.add(new String(record, Math.min(valueStart, end), Math.max(0, valueEnd - valueStart), charset));
+      }
+      position = valueEnd;
+    }
+    return MarcField.dataField(tag, ind1, ind2, codes, values);
+  }
+
+  private static String indicator(byte b) {
+    return String.valueOf((char) (b & 0xFF));
+  }
+}
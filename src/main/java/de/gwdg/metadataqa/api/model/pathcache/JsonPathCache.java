@@ -2,6 +2,7 @@ package de.gwdg.metadataqa.api.model.pathcache;
 
 import de.gwdg.metadataqa.api.json.JsonUtils;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
+import de.gwdg.metadataqa.api.util.ByteBufferInputStream;
 import de.gwdg.metadataqa.api.util.ExceptionUtils;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.InvalidJsonException;
@@ -10,8 +11,17 @@ import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
 import com.jayway.jsonpath.spi.json.JsonProvider;
 import net.minidev.json.JSONArray;
+import net.minidev.json.JSONValue;
+import net.minidev.json.parser.JSONParser;
+import net.minidev.json.parser.ParseException;
 
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -30,6 +40,13 @@ public class JsonPathCache<T extends XmlFieldInstance> extends BasePathCache<T>
 
   private final Object document;
   private static final JsonProvider JSON_PROVIDER = Configuration.defaultConfiguration().jsonProvider();
+  private JsonPathTrie pathTrie;
+  // the values of the root level paths, read in one walk along the trie
+  private transient Map<String, Object> trieValues;
+  // the trie of the collection of each entity, registered when the collection is read
+  private transient Map<Object, JsonPathTrie> entityTries;
+  // the values of the child paths of each entity, read in one walk per entity
+  private transient Map<Object, Map<String, Object>> entityValues;
 
   public JsonPathCache(String content) throws InvalidJsonException {
     this.content = content;
@@ -40,6 +57,44 @@ public class JsonPathCache<T extends XmlFieldInstance> extends BasePathCache<T>
     this.document = jsonDocument;
   }
 
+  /**
+   * Parse a JSON document from UTF-8 bytes into the same structure as the
+   * default JsonPath provider creates from a String.
+   * @param content The bytes of the document
+   * @return The parsed document
+   * @throws InvalidJsonException If the content is not valid JSON
+   */
+  public static Object parseDocument(ByteBuffer content) throws InvalidJsonException {
+    if (content.hasArray())
+      return parseDocument(content.array(), content.arrayOffset() + content.position(), content.remaining());
+    return parseDocument(new ByteBufferInputStream(content));
+  }
+
+  public static Object parseDocument(byte[] content) throws InvalidJsonException {
+    return parseDocument(content, 0, content.length);
+  }
+
+  /**
+   * The byte array parser of json-smart decodes with the platform's default
+   * charset, so the bytes are decoded here explicitly as UTF-8.
+   */
+  public static Object parseDocument(byte[] content, int offset, int length) throws InvalidJsonException {
+    try {
+      return new JSONParser(JSONParser.MODE_PERMISSIVE).parse(
+        new String(content, offset, length, StandardCharsets.UTF_8), JSONValue.defaultReader.DEFAULT_ORDERED);
+    } catch (ParseException e) {
+      throw new InvalidJsonException(e);
+    }
+  }
+
+  public static Object parseDocument(InputStream content) throws InvalidJsonException {
+    try {
+      return new JSONParser(JSONParser.MODE_PERMISSIVE).parse(content, JSONValue.defaultReader.DEFAULT_ORDERED);
+    } catch (ParseException | UnsupportedEncodingException e) {
+      throw new InvalidJsonException(e);
+    }
+  }
+
   @Override
   protected void set(String address, String jsonPath, Object jsonFragment, Class clazz) {
     List<T> instances = null;
@@ -62,7 +117,14 @@ public class JsonPathCache<T extends XmlFieldInstance> extends BasePathCache<T>
     Object value = null;
     try {
       if (jsonFragment != null) {
-        value = JsonPath.read(jsonFragment, jsonPath);
+        value = readEntity(jsonPath, jsonFragment);
+      } else if (pathTrie != null && pathTrie.contains(jsonPath)) {
+        if (trieValues == null)
+          trieValues = pathTrie.read(document);
+        if (trieValues.containsKey(jsonPath))
+          value = trieValues.get(jsonPath);
+        else
+          value = JsonPath.read(document, jsonPath);
       } else {
         value = JsonPath.read(document, jsonPath);
       }
@@ -73,9 +135,64 @@ public class JsonPathCache<T extends XmlFieldInstance> extends BasePathCache<T>
         jsonPath, e.getLocalizedMessage(), ExceptionUtils.extractRelevantPath(e)
       });
     }
+    if (value != null && pathTrie != null)
+      registerEntities(jsonPath, value);
     return value;
   }
 
+  private Object readEntity(String jsonPath, Object entity) {
+    JsonPathTrie collectionTrie = entityTries == null ? null : entityTries.get(entity);
+    if (collectionTrie != null && collectionTrie.contains(jsonPath)) {
+      Map<String, Object> values = entityValues.computeIfAbsent(entity, collectionTrie::read);
+      if (values.containsKey(jsonPath))
+        return values.get(jsonPath);
+    }
+    return JsonPath.read(entity, jsonPath);
+  }
+
+  /**
+   * If the path is a collection with a trie, the entities of the collection
+   * will be read along that trie.
+   */
+  private void registerEntities(String jsonPath, Object value) {
+    JsonPathTrie collectionTrie = pathTrie.getCollectionTrie(jsonPath);
+    if (collectionTrie == null)
+      return;
+    if (entityTries == null) {
+      entityTries = new IdentityHashMap<>();
+      entityValues = new IdentityHashMap<>();
+    }
+    if (value instanceof List) {
+      for (Object entity : (List<?>) value)
+        if (entity instanceof Map)
+          entityTries.put(entity, collectionTrie);
+    } else if (value instanceof Map) {
+      entityTries.put(value, collectionTrie);
+    }
+  }
+
+  protected Object getDocument() {
+    return document;
+  }
+
+  public JsonPathTrie getPathTrie() {
+    return pathTrie;
+  }
+
+  /**
+   * Set the trie of the paths. The first root level read walks the document
+   * along the trie, and the other root level paths of the trie are answered
+   * from that walk. The entities of the collections are walked the same way
+   * along the tries of their collections.
+   * @param pathTrie The compiled paths
+   */
+  public void setPathTrie(JsonPathTrie pathTrie) {
+    this.pathTrie = pathTrie;
+    this.trieValues = null;
+    this.entityTries = null;
+    this.entityValues = null;
+  }
+
   public Object getFragment(String jsonPath) {
     Object jsonFragment = null;
     if (!fragmentCache.containsKey(jsonPath)) {
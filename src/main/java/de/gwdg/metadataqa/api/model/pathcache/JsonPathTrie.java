@@ -0,0 +1,421 @@
+package de.gwdg.metadataqa.api.model.pathcache;
+
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+import de.gwdg.metadataqa.api.json.JsonBranch;
+import de.gwdg.metadataqa.api.schema.Schema;
+import net.minidev.json.JSONArray;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The JSON paths of a schema compiled into a trie of path segments. Paths
+ * sharing a prefix share the nodes of that prefix, so when a record is
+ * evaluated, the document is walked only once and every intermediate node (a
+ * property lookup, an array expansion or a filter) is resolved only once for
+ * all the paths below it.
+ *
+ * The root level paths are in this trie. The child paths of a collection are
+ * relative to the entities of the collection, so they are compiled into a
+ * separate trie of the collection (see getCollectionTrie()), which is walked
+ * once per entity.
+ *
+ * The supported segments are properties (<code>.name</code>,
+ * <code>['name']</code>), wildcards, array indices and filters. Paths with any
+ * other syntax (deep scan, slices, unions, functions) are not part of the
+ * trie, they are read by JsonPath as before.
+ */
+public class JsonPathTrie implements Serializable {
+
+  private static final long serialVersionUID = 4172087531905470268L;
+
+  /**
+   * The values of a node below which JsonPath throws PathNotFoundException.
+   */
+  private static final List<Object> NOT_FOUND = Collections.unmodifiableList(new ArrayList<>());
+
+  private final Node root = new Node(null);
+  private final Map<String, Node> terminals = new HashMap<>();
+  private final Map<String, JsonPathTrie> collections = new HashMap<>();
+
+  private JsonPathTrie() {
+  }
+
+  /**
+   * Compile the paths of a schema: the root level paths (the paths without a
+   * parent and the extractable fields), and the child paths of the collections.
+   * @param schema The schema
+   * @return The trie
+   */
+  public static JsonPathTrie compile(Schema schema) {
+    return compile(schema, path -> true);
+  }
+
+  /**
+   * Compile the paths of a schema which the filter accepts.
+   * @param schema The schema
+   * @param filter Selects the paths to compile, the others are read by JsonPath
+   * @return The trie
+   */
+  public static JsonPathTrie compile(Schema schema, Predicate<String> filter) {
+    Collection<String> paths = new LinkedHashSet<>();
+    for (JsonBranch branch : schema.getPaths())
+      if (branch.getParent() == null)
+        paths.add(branch.getJsonPath());
+    if (schema.getExtractableFields() != null)
+      paths.addAll(schema.getExtractableFields().values());
+    paths.removeIf(filter.negate());
+    var trie = of(paths);
+
+    for (JsonBranch branch : schema.getPaths()) {
+      if (!branch.isCollection() || branch.getChildren() == null)
+        continue;
+      Collection<String> childPaths = new LinkedHashSet<>();
+      for (JsonBranch child : branch.getChildren())
+        if (filter.test(child.getJsonPath()))
+          childPaths.add(child.getJsonPath());
+      JsonPathTrie collectionTrie = of(childPaths);
+      if (collectionTrie.size() > 0)
+        trie.collections.put(branch.getJsonPath(), collectionTrie);
+    }
+    return trie;
+  }
+
+  /**
+   * Compile a list of JSON paths.
+   * @param paths The paths
+   * @return The trie
+   */
+  public static JsonPathTrie of(Collection<String> paths) {
+    var trie = new JsonPathTrie();
+    for (String path : paths)
+      trie.add(path);
+    return trie;
+  }
+
+  private void add(String path) {
+    if (path == null || terminals.containsKey(path))
+      return;
+    List<Segment> segments = parse(path);
+    if (segments == null)
+      return;
+    var node = root;
+    for (Segment segment : segments)
+      node = node.children.computeIfAbsent(segment.key, key -> new Node(segment));
+    node.paths.add(path);
+    terminals.put(path, node);
+  }
+
+  /**
+   * @param path A JSON path
+   * @return True if the path is evaluated by this trie
+   */
+  public boolean contains(String path) {
+    return terminals.containsKey(path);
+  }
+
+  /**
+   * @return The number of root level paths in the trie
+   */
+  public int size() {
+    return terminals.size();
+  }
+
+  /**
+   * @param collectionPath The JSON path of a collection
+   * @return The trie of the child paths of the collection, relative to its
+   *   entities, or null if the collection has no compiled child paths
+   */
+  public JsonPathTrie getCollectionTrie(String collectionPath) {
+    return collections.get(collectionPath);
+  }
+
+  /**
+   * @return The number of the root level and the child paths in the trie
+   */
+  public int getPathCount() {
+    var count = terminals.size();
+    for (JsonPathTrie collectionTrie : collections.values())
+      count += collectionTrie.getPathCount();
+    return count;
+  }
+
+  /**
+   * Walk the document once along the trie. The result has the same value for
+   * each path as JsonPath.read would return: the value itself for definite
+   * paths (null if it is missing), a JSONArray for the others. Paths which
+   * could not be evaluated are not in the result.
+   * @param document The parsed JSON document
+   * @return The values by path
+   */
+  public Map<String, Object> read(Object document) {
+    Map<String, Object> results = new HashMap<>(terminals.size() * 2);
+    walk(root, Collections.singletonList(document), true, results);
+    return results;
+  }
+
+  private void walk(Node node, List<Object> values, boolean definite, Map<String, Object> results) {
+    if (!node.paths.isEmpty()) {
+      Object result;
+      if (values == NOT_FOUND) {
+        result = null;
+      } else if (definite) {
+        result = values.isEmpty() ? null : values.get(0);
+      } else {
+        var array = new JSONArray();
+        array.addAll(values);
+        result = array;
+      }
+      for (String path : node.paths)
+        results.put(path, result);
+    }
+
+    for (Node child : node.children.values()) {
+      List<Object> childValues = values == NOT_FOUND
+        ? NOT_FOUND
+        : child.segment.apply(values, definite);
+      if (childValues != null)
+        walk(child, childValues, definite && child.segment.isDefinite(), results);
+    }
+  }
+
+  static List<Segment> parse(String path) {
+    if (!path.startsWith("$"))
+      return null;
+    List<Segment> segments = new ArrayList<>();
+    var length = path.length();
+    var i = 1;
+    while (i < length) {
+      char c = path.charAt(i);
+      if (c == '.') {
+        i++;
+        if (i < length && path.charAt(i) == '[')
+          continue;
+        var end = i;
+        while (end < length && path.charAt(end) != '.' && path.charAt(end) != '[')
+          end++;
+        String name = path.substring(i, end);
+        if (name.isEmpty() || name.indexOf('(') != -1 || name.indexOf(')') != -1)
+          return null;
+        segments.add(name.equals("*") ? Segment.wildcard() : Segment.property(name));
+        i = end;
+      } else if (c == '[') {
+        var end = parseBracket(path, i, segments);
+        if (end == -1)
+          return null;
+        i = end;
+      } else {
+        return null;
+      }
+    }
+    return segments;
+  }
+
+  /**
+   * Parse a bracket segment.
+   * @return The position after the segment or -1 if it is not supported
+   */
+  private static int parseBracket(String path, int start, List<Segment> segments) {
+    var length = path.length();
+    var i = start + 1;
+    if (i >= length)
+      return -1;
+    char c = path.charAt(i);
+    if (c == '\'' || c == '"') {
+      var name = new StringBuilder();
+      i++;
+      while (i < length && path.charAt(i) != c) {
+        if (path.charAt(i) == '\\' && i + 1 < length)
+          i++;
+        name.append(path.charAt(i));
+        i++;
+      }
+      if (i + 1 >= length || path.charAt(i + 1) != ']')
+        return -1;
+      segments.add(Segment.property(name.toString()));
+      return i + 2;
+    }
+    if (c == '*') {
+      if (i + 1 >= length || path.charAt(i + 1) != ']')
+        return -1;
+      segments.add(Segment.wildcard());
+      return i + 2;
+    }
+    if (c == '?') {
+      var end = findFilterEnd(path, i + 1);
+      if (end == -1)
+        return -1;
+      String filter = path.substring(start, end);
+      // a filter referring to the document root can not be evaluated on a node
+      if (filter.indexOf('$') != -1)
+        return -1;
+      var segment = Segment.filter(filter);
+      try {
+        segment.getCompiledFilter();
+      } catch (InvalidPathException e) {
+        return -1;
+      }
+      segments.add(segment);
+      return end;
+    }
+    var end = i;
+    if (end < length && path.charAt(end) == '-')
+      end++;
+    while (end < length && Character.isDigit(path.charAt(end)))
+      end++;
+    if (end == i || end >= length || path.charAt(end) != ']')
+      return -1;
+    try {
+      segments.add(Segment.index(Integer.parseInt(path.substring(i, end))));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+    return end + 1;
+  }
+
+  private static int findFilterEnd(String path, int start) {
+    var length = path.length();
+    if (start >= length || path.charAt(start) != '(')
+      return -1;
+    var depth = 0;
+    char quote = 0;
+    for (int i = start; i < length; i++) {
+      char c = path.charAt(i);
+      if (quote != 0) {
+        if (c == '\\')
+          i++;
+        else if (c == quote)
+          quote = 0;
+      } else if (c == '\'' || c == '"') {
+        quote = c;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+        if (depth == 0)
+          return i + 1 < length && path.charAt(i + 1) == ']' ? i + 2 : -1;
+      }
+    }
+    return -1;
+  }
+
+  private static class Node implements Serializable {
+    private static final long serialVersionUID = -1850137744400235719L;
+
+    private final Segment segment;
+    private final Map<String, Node> children = new LinkedHashMap<>();
+    private final List<String> paths = new ArrayList<>(1);
+
+    Node(Segment segment) {
+      this.segment = segment;
+    }
+  }
+
+  static final class Segment implements Serializable {
+    private static final long serialVersionUID = 2609151637484231875L;
+
+    enum Type {
+      PROPERTY, WILDCARD, INDEX, FILTER
+    }
+
+    private final Type type;
+    private final String key;
+    private final String name;
+    private final int index;
+    private transient JsonPath compiledFilter;
+
+    private Segment(Type type, String key, String name, int index) {
+      this.type = type;
+      this.key = key;
+      this.name = name;
+      this.index = index;
+    }
+
+    static Segment property(String name) {
+      return new Segment(Type.PROPERTY, "['" + name + "']", name, 0);
+    }
+
+    static Segment wildcard() {
+      return new Segment(Type.WILDCARD, "[*]", null, 0);
+    }
+
+    static Segment index(int index) {
+      return new Segment(Type.INDEX, "[" + index + "]", null, index);
+    }
+
+    static Segment filter(String filter) {
+      return new Segment(Type.FILTER, filter, filter, 0);
+    }
+
+    boolean isDefinite() {
+      return type == Type.PROPERTY || type == Type.INDEX;
+    }
+
+    /**
+     * Apply the segment on the values of the parent node. Within the definite
+     * prefix of a path it fails the same way as JsonPath does.
+     * @return The values, NOT_FOUND or null if the segment could not be evaluated
+     */
+    List<Object> apply(List<Object> values, boolean upstreamDefinite) {
+      List<Object> result = new ArrayList<>();
+      for (Object value : values) {
+        switch (type) {
+          case PROPERTY:
+            if (value instanceof Map) {
+              var map = (Map<?, ?>) value;
+              Object child = map.get(name);
+              if (child != null || map.containsKey(name))
+                result.add(child);
+              else if (upstreamDefinite)
+                return NOT_FOUND;
+            } else if (upstreamDefinite) {
+              return NOT_FOUND;
+            }
+            break;
+          case WILDCARD:
+            if (value instanceof List)
+              result.addAll((List<?>) value);
+            else if (value instanceof Map)
+              result.addAll(((Map<?, ?>) value).values());
+            break;
+          case INDEX:
+            if (value instanceof List) {
+              var list = (List<?>) value;
+              int effective = index < 0 ? list.size() + index : index;
+              if (effective >= 0 && effective < list.size())
+                result.add(list.get(effective));
+            } else if (upstreamDefinite) {
+              return NOT_FOUND;
+            }
+            break;
+          case FILTER:
+            if (value instanceof Map || value instanceof List) {
+              result.addAll((List<?>) getCompiledFilter().read(value));
+            } else if (upstreamDefinite) {
+              // JsonPath reports this as an invalid path, leave it to JsonPath
+              return null;
+            }
+            break;
+          default:
+            break;
+        }
+      }
+      return result;
+    }
+
+    private JsonPath getCompiledFilter() {
+      if (compiledFilter == null)
+        compiledFilter = JsonPath.compile("$" + name);
+      return compiledFilter;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package de.gwdg.metadataqa.api.model.pathcache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A control or data field of a MARC record read from a native format. These
+ * are the fragments of the data field paths of MarcJsonSchema in the native
+ * MARC path caches.
+ */
+public final class MarcField implements Serializable {
+
+  private static final long serialVersionUID = -4826152731695591043L;
+
+  private final String tag;
+  private final String content;
+  private final String ind1;
+  private final String ind2;
+  private final String[] codes;
+  private final String[] values;
+
+  private MarcField(String tag, String content, String ind1, String ind2, String[] codes, String[] values) {
+    this.tag = tag;
+    this.content = content;
+    this.ind1 = ind1;
+    this.ind2 = ind2;
+    this.codes = codes;
+    this.values = values;
+  }
+
+  public static MarcField controlField(String tag, String content) {
+    return new MarcField(tag, content, null, null, null, null);
+  }
+
+  /**
+   * @param tag The tag
+   * @param ind1 The first indicator
+   * @param ind2 The second indicator
+   * @param codes The codes of the subfields
+   * @param values The values of the subfields, in the same order as the codes
+   * @return The data field
+   */
+  public static MarcField dataField(String tag, String ind1, String ind2, List<String> codes, List<String> values) {
+    return new MarcField(tag, null, ind1, ind2,
+      codes.toArray(new String[0]), values.toArray(new String[0]));
+  }
+
+  public String getTag() {
+    return tag;
+  }
+
+  public boolean isControlField() {
+    return codes == null;
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+  public String getInd1() {
+    return ind1;
+  }
+
+  public String getInd2() {
+    return ind2;
+  }
+
+  /**
+   * @param code The subfield code
+   * @return The values of the subfields with the code, in the order of the field
+   */
+  public List<String> getSubfields(String code) {
+    List<String> subfields = new ArrayList<>();
+    if (codes != null)
+      for (var i = 0; i < codes.length; i++)
+        if (codes[i].equals(code))
+          subfields.add(values[i]);
+    return subfields;
+  }
+
+  public int getNumberOfSubfields() {
+    return codes == null ? 0 : codes.length;
+  }
+
+  @Override
+  public String toString() {
+    if (isControlField())
+      return tag + " " + content;
+    var sb = new StringBuilder(tag).append(' ').append(ind1).append(ind2);
+    for (var i = 0; i < codes.length; i++)
+      sb.append('$').append(codes[i]).append(values[i]);
+    return sb.toString();
+  }
+}
@@ -0,0 +1,155 @@
+package de.gwdg.metadataqa.api.model.pathcache;
+
+import com.jayway.jsonpath.InvalidJsonException;
+import de.gwdg.metadataqa.api.model.XmlFieldInstance;
+import de.gwdg.metadataqa.api.schema.Schema;
+import net.minidev.json.JSONArray;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Path cache of MARC JSON records. The paths of MarcJsonSchema select the
+ * fields by tag and the subfields by code with filters, and JsonPath scans
+ * all the fields (and subfields) for each of these paths. This cache indexes
+ * the control and data fields by tag once per record, and the subfields of a
+ * data field by code at the first request, and answers the tag, code and
+ * indicator paths from the indices. The other paths are read along the trie
+ * of compilePathTrie(), or by JsonPath.
+ *
+ * @param <T> the type of elements held in this object.
+ */
+public class MarcJsonPathCache<T extends XmlFieldInstance> extends JsonPathCache<T> {
+
+  private static final long serialVersionUID = 2917530346618006617L;
+
+  private static final Map<String, List<Object>> NO_FIELDS = Collections.emptyMap();
+
+  private transient Map<String, List<Object>> datafields;
+  private transient Map<String, List<Object>> controlfields;
+  private transient Map<Object, Map<String, List<Object>>> subfields;
+
+  public MarcJsonPathCache(String content) throws InvalidJsonException {
+    super(content);
+  }
+
+  public MarcJsonPathCache(Object jsonDocument) {
+    super(jsonDocument);
+  }
+
+  /**
+   * Compile the paths of the schema which the indices do not answer.
+   * @param schema The MARC JSON schema
+   * @return The trie
+   */
+  public static JsonPathTrie compilePathTrie(Schema schema) {
+    return JsonPathTrie.compile(schema, path -> MarcPathQuery.of(path) == MarcPathQuery.NOT_INDEXED);
+  }
+
+  @Override
+  public Object read(String jsonPath, Object jsonFragment) {
+    MarcPathQuery query = MarcPathQuery.of(jsonPath);
+    if (query == MarcPathQuery.NOT_INDEXED || (jsonFragment == null) != query.isAbsolute())
+      return super.read(jsonPath, jsonFragment);
+
+    if (jsonFragment != null) {
+      if (!(jsonFragment instanceof Map))
+        return null;
+      var field = (Map<?, ?>) jsonFragment;
+      if (query.property != null)
+        return field.get(query.property);
+      Object subfield = field.get("subfield");
+      if (!(subfield instanceof List || subfield instanceof Map))
+        return null;
+      var result = new JSONArray();
+      addContents(field, query.code, result);
+      return result;
+    }
+
+    List<Object> fields = getFieldIndex(query.field).get(query.tag);
+    if (fields == null)
+      return getFieldIndex(query.field) == NO_FIELDS ? null : new JSONArray();
+
+    var result = new JSONArray();
+    for (Object field : fields) {
+      var map = (Map<?, ?>) field;
+      if (query.code != null)
+        addContents(map, query.code, result);
+      else if (query.property == null)
+        result.add(field);
+      else if (map.containsKey(query.property))
+        result.add(map.get(query.property));
+    }
+    return result;
+  }
+
+  /**
+   * The fields of the record by tag. If the record has no such array, the
+   * index is NO_FIELDS: JsonPath does not find (or can not filter) the path
+   * at all then.
+   */
+  private Map<String, List<Object>> getFieldIndex(String name) {
+    boolean isDatafield = name.equals(MarcPathQuery.DATAFIELD);
+    Map<String, List<Object>> index = isDatafield ? datafields : controlfields;
+    if (index == null) {
+      index = createFieldIndex(name);
+      if (isDatafield)
+        datafields = index;
+      else
+        controlfields = index;
+    }
+    return index;
+  }
+
+  private Map<String, List<Object>> createFieldIndex(String name) {
+    Object root = getDocument();
+    Object fields = root instanceof Map ? ((Map<?, ?>) root).get(name) : null;
+    if (!(fields instanceof List || fields instanceof Map))
+      return NO_FIELDS;
+    Map<String, List<Object>> index = new HashMap<>();
+    for (Object field : asElements(fields)) {
+      if (field instanceof Map) {
+        Object tag = ((Map<?, ?>) field).get("tag");
+        if (tag instanceof String)
+          index.computeIfAbsent((String) tag, key -> new ArrayList<>(1)).add(field);
+      }
+    }
+    return index;
+  }
+
+  private void addContents(Map<?, ?> field, String code, List<Object> result) {
+    if (subfields == null)
+      subfields = new IdentityHashMap<>();
+    Map<String, List<Object>> index = subfields.get(field);
+    if (index == null) {
+      index = new HashMap<>();
+      for (Object subfield : asElements(field.get("subfield"))) {
+        if (subfield instanceof Map) {
+          var map = (Map<?, ?>) subfield;
+          Object subfieldCode = map.get("code");
+          if (subfieldCode instanceof String && map.containsKey("content"))
+            index.computeIfAbsent((String) subfieldCode, key -> new ArrayList<>(1)).add(map.get("content"));
+        }
+      }
+      subfields.put(field, index);
+    }
+    List<Object> contents = index.get(code);
+    if (contents != null)
+      result.addAll(contents);
+  }
+
+  /**
+   * The elements a filter is applied to: the array elements or the object itself.
+   */
+  private static List<?> asElements(Object value) {
+    if (value instanceof List)
+      return (List<?>) value;
+    if (value instanceof Map)
+      return Collections.singletonList(value);
+    return Collections.emptyList();
+  }
+}
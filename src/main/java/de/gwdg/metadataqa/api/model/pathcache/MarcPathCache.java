@@ -0,0 +1,125 @@
+package de.gwdg.metadataqa.api.model.pathcache;
+
+import de.gwdg.metadataqa.api.json.JsonUtils;
+import de.gwdg.metadataqa.api.model.XmlFieldInstance;
+import net.minidev.json.JSONArray;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Base of the path caches of MARC records read from native formats. They
+ * answer the paths of MarcJsonSchema (the leader, the fields by tag, the
+ * subfields by code, the indicators) from the record itself, without
+ * converting it to JSON. The values are the same as JsonPath would return
+ * for the MARC JSON version of the record, except that the data field
+ * fragments are MarcField objects.
+ *
+ * @param <T> the type of elements held in this object.
+ */
+public abstract class MarcPathCache<T extends XmlFieldInstance> extends BasePathCache<T> {
+
+  private static final Logger LOGGER = Logger.getLogger(MarcPathCache.class.getCanonicalName());
+  private static final long serialVersionUID = 6107125913716271946L;
+
+  static final String LEADER_PATH = "$.leader";
+
+  /**
+   * @return The leader of the record
+   */
+  public abstract String getLeader();
+
+  /**
+   * @param tag The tag
+   * @return The control and data fields with the tag, in the order of the record
+   */
+  public abstract List<MarcField> getFields(String tag);
+
+  @Override
+  protected void set(String address, String jsonPath, Object jsonFragment, Class clazz) {
+    List<T> instances = null;
+    Object value = read(jsonPath, jsonFragment);
+    if (value != null) {
+      if (clazz == null) {
+        instances = (List<T>) JsonUtils.extractFieldInstanceList(toPlainValue(value), recordId, jsonPath);
+      } else {
+        if (value instanceof JSONArray) {
+          typedCache.put(address, ((JSONArray) value).isEmpty() ? null : clazz.cast(((JSONArray) value).get(0)));
+        } else {
+          typedCache.put(address, value);
+        }
+      }
+    }
+    cache.put(address, instances);
+  }
+
+  /**
+   * Fields are measured by their text representation.
+   */
+  private static Object toPlainValue(Object value) {
+    if (!(value instanceof JSONArray))
+      return value;
+    var array = (JSONArray) value;
+    var plain = new JSONArray();
+    for (Object item : array)
+      plain.add(item instanceof MarcField ? item.toString() : item);
+    return plain;
+  }
+
+  @Override
+  public Object read(String path, Object fragment) {
+    if (fragment == null && LEADER_PATH.equals(path))
+      return getLeader();
+
+    MarcPathQuery query = MarcPathQuery.of(path);
+    if (query == MarcPathQuery.NOT_INDEXED || (fragment == null) != query.isAbsolute()) {
+      LOGGER.log(Level.FINE, "Unsupported MARC path: {0}", path);
+      return null;
+    }
+
+    if (fragment != null) {
+      if (!(fragment instanceof MarcField) || ((MarcField) fragment).isControlField())
+        return null;
+      var field = (MarcField) fragment;
+      if (query.property != null)
+        return getProperty(field, query.property);
+      var result = new JSONArray();
+      result.addAll(field.getSubfields(query.code));
+      return result;
+    }
+
+    var result = new JSONArray();
+    for (MarcField field : getFields(query.tag)) {
+      if (field.isControlField() == query.isDatafield())
+        continue;
+      if (query.code != null)
+        result.addAll(field.getSubfields(query.code));
+      else if (query.property == null)
+        result.add(field);
+      else if (getProperty(field, query.property) != null)
+        result.add(getProperty(field, query.property));
+    }
+    return result;
+  }
+
+  private static String getProperty(MarcField field, String property) {
+    switch (property) {
+      case "content": return field.getContent();
+      case "ind1": return field.getInd1();
+      case "ind2": return field.getInd2();
+      default: return null;
+    }
+  }
+
+  public Object getFragment(String path) {
+    Object fragment;
+    if (!fragmentCache.containsKey(path)) {
+      fragment = read(path, null);
+      fragmentCache.put(path, fragment);
+    } else {
+      fragment = fragmentCache.get(path);
+    }
+    return fragment;
+  }
+}
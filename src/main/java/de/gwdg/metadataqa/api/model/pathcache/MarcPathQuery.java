@@ -0,0 +1,83 @@
+package de.gwdg.metadataqa.api.model.pathcache;
+
+import de.gwdg.metadataqa.api.schema.MarcJsonSchema;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A path of MarcJsonSchema which selects fields by tag, subfields by code or
+ * an indicator of a data field. The absolute paths select fields by tag, the
+ * relative ones are applied on a data field. The parsed paths are shared by
+ * all the records.
+ */
+final class MarcPathQuery {
+
+  static final String DATAFIELD = "datafield";
+  static final String CONTROLFIELD = "controlfield";
+
+  private static final Pattern FIELD_PATH = Pattern.compile(
+    "^\\$\\.(datafield|controlfield)\\[\\?\\(@\\.tag == '([^']*)'\\)\\]"
+      + "(?:\\.subfield\\[\\?\\(@\\.code == '([^']*)'\\)\\]\\.content|\\.(content|ind1|ind2))?$");
+  private static final Pattern SUBFIELD_PATH = Pattern.compile(
+    "^\\$\\.subfield\\[\\?\\(@\\.code == '([^']*)'\\)\\]\\.content$");
+  private static final Map<String, MarcPathQuery> QUERIES = new ConcurrentHashMap<>();
+
+  /**
+   * Any other path.
+   */
+  static final MarcPathQuery NOT_INDEXED = new MarcPathQuery(null, null, null, null);
+
+  /**
+   * "datafield" or "controlfield" for the absolute paths, null for the relative ones.
+   */
+  final String field;
+  final String tag;
+  final String code;
+  /**
+   * The property of the field: content, ind1 or ind2
+   */
+  final String property;
+
+  private MarcPathQuery(String field, String tag, String code, String property) {
+    this.field = field;
+    this.tag = tag;
+    this.code = code;
+    this.property = property;
+  }
+
+  static MarcPathQuery of(String jsonPath) {
+    return QUERIES.computeIfAbsent(jsonPath, MarcPathQuery::parse);
+  }
+
+  boolean isAbsolute() {
+    return field != null;
+  }
+
+  boolean isDatafield() {
+    return DATAFIELD.equals(field);
+  }
+
+  private static MarcPathQuery parse(String jsonPath) {
+    if (jsonPath.equals(MarcJsonSchema.DATAFIELD_IND1_PATTERN))
+      return new MarcPathQuery(null, null, null, "ind1");
+    if (jsonPath.equals(MarcJsonSchema.DATAFIELD_IND2_PATTERN))
+      return new MarcPathQuery(null, null, null, "ind2");
+
+    Matcher matcher = SUBFIELD_PATH.matcher(jsonPath);
+    if (matcher.matches())
+      return new MarcPathQuery(null, null, matcher.group(1), null);
+
+    matcher = FIELD_PATH.matcher(jsonPath);
+    if (matcher.matches()) {
+      String field = matcher.group(1);
+      String code = matcher.group(3);
+      if (code != null && field.equals(CONTROLFIELD))
+        return NOT_INDEXED;
+      return new MarcPathQuery(field, matcher.group(2), code, matcher.group(4));
+    }
+    return NOT_INDEXED;
+  }
+}
@@ -0,0 +1,148 @@
+package de.gwdg.metadataqa.api.model.pathcache;
+
+import de.gwdg.metadataqa.api.model.XmlFieldInstance;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Path cache of a MARCXML record. The record is read in one pass with a
+ * streaming (StAX) parser into MarcField objects indexed by tag, no DOM tree
+ * is built. The elements are recognized by their local names, so the
+ * record might be in the MARC21 slim namespace or in none, and it might be
+ * wrapped into a collection (then the first record is read).
+ *
+ * @param <T> the type of elements held in this object.
+ */
+public class MarcXmlPathCache<T extends XmlFieldInstance> extends MarcPathCache<T> {
+
+  private static final long serialVersionUID = 8265010187307145386L;
+  private static final XMLInputFactory FACTORY = createFactory();
+
+  private String leader;
+  private final Map<String, List<MarcField>> fieldsByTag = new HashMap<>();
+  private int size = 0;
+
+  /**
+   * @param content The MARCXML record
+   * @throws IllegalArgumentException If the XML is not well-formed
+   */
+  public MarcXmlPathCache(String content) {
+    this.content = content;
+    try {
+      parse(FACTORY.createXMLStreamReader(new StringReader(content)));
+    } catch (XMLStreamException e) {
+      throw new IllegalArgumentException("Invalid MARCXML record: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * @param content The MARCXML record, the encoding is detected from the XML declaration
+   * @throws IllegalArgumentException If the XML is not well-formed
+   */
+  public MarcXmlPathCache(InputStream content) {
+    try {
+      parse(FACTORY.createXMLStreamReader(content));
+    } catch (XMLStreamException e) {
+      throw new IllegalArgumentException("Invalid MARCXML record: " + e.getMessage(), e);
+    }
+  }
+
+  private static XMLInputFactory createFactory() {
+    var factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return factory;
+  }
+
+  private void parse(XMLStreamReader reader) throws XMLStreamException {
+    try {
+      String tag = null;
+      String ind1 = null;
+      String ind2 = null;
+      String code = null;
+      List<String> codes = new ArrayList<>();
+      List<String> values = new ArrayList<>();
+      var text = new StringBuilder();
+      var inRecord = false;
+
+      while (reader.hasNext()) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          String name = reader.getLocalName();
+          text.setLength(0);
+          if (name.equals("record")) {
+            inRecord = true;
+          } else if (inRecord && name.equals("controlfield")) {
+            tag = reader.getAttributeValue(null, "tag");
+          } else if (inRecord && name.equals("datafield")) {
+            tag = reader.getAttributeValue(null, "tag");
+            ind1 = indicator(reader.getAttributeValue(null, "ind1"));
+            ind2 = indicator(reader.getAttributeValue(null, "ind2"));
+            codes.clear();
+            values.clear();
+          } else if (inRecord && name.equals("subfield")) {
+            code = reader.getAttributeValue(null, "code");
+          }
+        } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+          text.append(reader.getText());
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          String name = reader.getLocalName();
+          if (!inRecord)
+            continue;
+          if (name.equals("leader")) {
+            leader = text.toString();
+          } else if (name.equals("controlfield")) {
+            add(MarcField.controlField(tag, text.toString()));
+          } else if (name.equals("subfield")) {
+            codes.add(code == null ? "" : code);
+            values.add(text.toString());
+          } else if (name.equals("datafield")) {
+            add(MarcField.dataField(tag, ind1, ind2, codes, values));
+          } else if (name.equals("record")) {
+            break;
+          }
+          text.setLength(0);
+        }
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  private static String indicator(String value) {
+    return value == null || value.isEmpty() ? " " : value;
+  }
+
+  private void add(MarcField field) {
+    fieldsByTag.computeIfAbsent(field.getTag(), key -> new ArrayList<>(1)).add(field);
+    size++;
+  }
+
+  @Override
+  public String getLeader() {
+    return leader;
+  }
+
+  @Override
+  public List<MarcField> getFields(String tag) {
+    return fieldsByTag.getOrDefault(tag, Collections.emptyList());
+  }
+
+  /**
+   * @return The number of fields in the record
+   */
+  public int size() {
+    return size;
+  }
+}
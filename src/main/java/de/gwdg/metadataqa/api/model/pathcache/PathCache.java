@@ -5,6 +5,8 @@ import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public interface PathCache<T extends XmlFieldInstance> extends Serializable {
 
@@ -24,4 +26,34 @@ public interface PathCache<T extends XmlFieldInstance> extends Serializable {
   Map<String, Object> getFragmentCache();
 
   String getContent();
+
+  /**
+   * Returns a value derived from the record, computed at the first call and
+   * shared by all the later callers of the same record. The key is the
+   * identity of the function, so it should be a constant. The default
+   * implementation does not memoize: it computes the value at every call.
+   *
+   * @param function The function computing the value
+   * @param <V> The type of the value
+   * @return The value
+   */
+  default <V> V memo(Function<PathCache, V> function) {
+    return function.apply(this);
+  }
+
+  /**
+   * Returns a value derived from the record and an argument, computed once per
+   * record for every distinct (function, argument) pair. The function is
+   * identified by its identity, the argument by equals(). The default
+   * implementation does not memoize: it computes the value at every call.
+   *
+   * @param function The function computing the value
+   * @param argument The argument of the function
+   * @param <A> The type of the argument
+   * @param <V> The type of the value
+   * @return The value
+   */
+  default <A, V> V memo(BiFunction<PathCache, A, V> function, A argument) {
+    return function.apply(this, argument);
+  }
 }
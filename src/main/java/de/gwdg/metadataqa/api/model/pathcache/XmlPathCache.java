@@ -7,6 +7,7 @@ import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.util.ExceptionUtils;
 import de.gwdg.metadataqa.api.xml.OaiPmhXPath;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -31,6 +32,14 @@ public class XmlPathCache<T extends XmlFieldInstance> extends BasePathCache<T> {
     oaiPmhXPath = new OaiPmhXPath(content);
   }
 
+  /**
+   * Create the cache from the bytes of a record.
+   * @param content The record
+   */
+  public XmlPathCache(InputStream content) {
+    oaiPmhXPath = new OaiPmhXPath(content);
+  }
+
   protected void set(String address, String jsonPath, Object jsonFragment, Class clazz) {
     List<T> instances = read(jsonPath, jsonFragment);
     cache.put(address, instances);
@@ -1,18 +1,14 @@
 package de.gwdg.metadataqa.api.problemcatalog;
 
-import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.model.EdmFieldInstance;
-import de.gwdg.metadataqa.api.model.pathcache.PathCache;
-import de.gwdg.metadataqa.api.util.StringDuplicationDetector;
 import java.io.Serializable;
 import java.util.List;
-import org.apache.commons.lang3.StringUtils;
 
 /**
  *
  * @author Péter Király <peter.kiraly at gwdg.de>
  */
-public class DuplicatedStrings extends ProblemDetector implements Serializable {
+public class DuplicatedStrings extends ValueProblemDetector implements Serializable {
 
   private static final String NAME = "DuplicatedStrings";
   private static final long serialVersionUID = -4765488439405459205L;
@@ -23,18 +19,27 @@ public class DuplicatedStrings extends ProblemDetector implements Serializable {
     this.schema = problemCatalog.getSchema();
   }
 
+  private double value;
+
+  @Override
+  public List<String> getPaths() {
+    return schema.getEmptyStringPaths();
+  }
+
+  @Override
+  public void beginRecord() {
+    value = 0;
+  }
+
+  @Override
+  public void visit(String path, EdmFieldInstance instance, ValueScan scan) {
+    if (!scan.isBlank() && scan.isDuplicated())
+      value += 1;
+  }
+
   @Override
-  public void update(PathCache cache, FieldCounter<Double> results) {
-    double value = 0;
-    for (String path : schema.getEmptyStringPaths()) {
-      List<EdmFieldInstance> subjects = cache.get(path);
-      if (subjects != null && !subjects.isEmpty())
-        for (EdmFieldInstance subject : subjects)
-          if (StringUtils.isNotBlank(subject.getValue())
-              && StringDuplicationDetector.isDuplicated(subject.getValue()))
-              value += 1;
-    }
-    results.put(NAME, value);
+  public double endRecord() {
+    return value;
   }
 
   @Override
@@ -1,19 +1,15 @@
 package de.gwdg.metadataqa.api.problemcatalog;
 
-import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.model.EdmFieldInstance;
 import java.io.Serializable;
 import java.util.List;
 import java.util.logging.Logger;
 
-import de.gwdg.metadataqa.api.model.pathcache.PathCache;
-import org.apache.commons.lang3.StringUtils;
-
 /**
  *
  * @author Péter Király <peter.kiraly at gwdg.de>
  */
-public class EmptyStrings extends ProblemDetector implements Serializable {
+public class EmptyStrings extends ValueProblemDetector implements Serializable {
 
   private static final Logger LOGGER = Logger.getLogger(EmptyStrings.class.getCanonicalName());
 
@@ -26,17 +22,27 @@ public class EmptyStrings extends ProblemDetector implements Serializable {
     this.schema = problemCatalog.getSchema();
   }
 
+  private double value;
+
+  @Override
+  public List<String> getPaths() {
+    return schema.getEmptyStringPaths();
+  }
+
+  @Override
+  public void beginRecord() {
+    value = 0;
+  }
+
+  @Override
+  public void visit(String path, EdmFieldInstance instance, ValueScan scan) {
+    if (scan.isBlank())
+      value += 1;
+  }
+
   @Override
-  public void update(PathCache cache, FieldCounter<Double> results) {
-    double value = 0;
-    for (String path : schema.getEmptyStringPaths()) {
-      List<EdmFieldInstance> subjects = cache.get(path);
-      if (subjects != null && !subjects.isEmpty())
-        for (EdmFieldInstance subject : subjects)
-          if (StringUtils.isBlank(subject.getValue()))
-            value += 1;
-    }
-    results.put(NAME, value);
+  public double endRecord() {
+    return value;
   }
 
   @Override
@@ -1,14 +1,10 @@
 package de.gwdg.metadataqa.api.problemcatalog;
 
-import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.model.EdmFieldInstance;
 import java.io.Serializable;
 import java.util.List;
 import java.util.logging.Logger;
 
-import de.gwdg.metadataqa.api.model.pathcache.PathCache;
-import org.apache.commons.lang3.StringUtils;
-
 /**
  * Detect long subjects.
  *
@@ -17,7 +13,7 @@ import org.apache.commons.lang3.StringUtils;
  *
  * @author Péter Király <peter.kiraly at gwdg.de>
  */
-public class LongSubject extends ProblemDetector implements Serializable {
+public class LongSubject extends ValueProblemDetector implements Serializable {
 
   private static final Logger LOGGER = Logger.getLogger(
       LongSubject.class.getCanonicalName()
@@ -33,16 +29,27 @@ public class LongSubject extends ProblemDetector implements Serializable {
     this.schema = problemCatalog.getSchema();
   }
 
+  private double value;
+
+  @Override
+  public List<String> getPaths() {
+    return List.of(schema.getSubjectPath());
+  }
+
+  @Override
+  public void beginRecord() {
+    value = 0;
+  }
+
+  @Override
+  public void visit(String path, EdmFieldInstance instance, ValueScan scan) {
+    if (!scan.isBlank() && scan.length() > MAX_LENGTH)
+      value += 1;
+  }
+
   @Override
-  public void update(PathCache cache, FieldCounter<Double> results) {
-    double value = 0;
-    List<EdmFieldInstance> subjects = cache.get(schema.getSubjectPath());
-    if (subjects != null && !subjects.isEmpty())
-      for (EdmFieldInstance subject : subjects)
-        if (StringUtils.isNotBlank(subject.getValue())
-            && subject.getValue().length() > MAX_LENGTH)
-          value += 1;
-    results.put(NAME, value);
+  public double endRecord() {
+    return value;
   }
 
   @Override
@@ -4,14 +4,22 @@ import de.gwdg.metadataqa.api.interfaces.MetricResult;
 import de.gwdg.metadataqa.api.interfaces.Observer;
 import de.gwdg.metadataqa.api.interfaces.Observable;
 import de.gwdg.metadataqa.api.counter.FieldCounter;
+import de.gwdg.metadataqa.api.model.EdmFieldInstance;
 import de.gwdg.metadataqa.api.model.pathcache.PathCache;
 import de.gwdg.metadataqa.api.schema.ProblemCatalogSchema;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
+ * The problem catalog runs the registered problem detectors. The values of
+ * the paths of the ValueProblemDetector instances are visited once per
+ * record, and every detector interested in a path gets the same ValueScan
+ * of each value. Other observers are notified with the cache.
  *
  * @author Péter Király <peter.kiraly at gwdg.de>
  */
@@ -27,6 +35,8 @@ public class ProblemCatalog extends BaseProblemCatalog<Double> implements Serial
   private Object jsonDocument;
   private PathCache cache;
   private ProblemCatalogSchema schema;
+  private transient Map<String, List<ValueProblemDetector>> detectorsByPath;
+  private transient ValueScan scan;
 
   public ProblemCatalog(ProblemCatalogSchema schema) {
     this.schema = schema;
@@ -48,12 +58,14 @@ public class ProblemCatalog extends BaseProblemCatalog<Double> implements Serial
   @Override
   public void addObserver(Observer observer) {
     problems.add(observer);
+    detectorsByPath = null;
   }
 
   @Override
   public void deleteObserver(Observer observer) {
     if (problems.contains(observer)) {
       problems.remove(observer);
+      detectorsByPath = null;
     }
   }
 
@@ -68,10 +80,51 @@ public class ProblemCatalog extends BaseProblemCatalog<Double> implements Serial
   public List<MetricResult> measure(PathCache cache) {
     this.cache = cache;
     FieldCounter<Double> fieldCounter = new FieldCounter<>();
-    notifyObservers(fieldCounter);
+    scanValues(cache);
+    for (Observer observer : problems) {
+      if (observer instanceof ValueProblemDetector)
+        fieldCounter.put(observer.getHeader(), ((ValueProblemDetector) observer).endRecord());
+      else
+        observer.update(cache, fieldCounter);
+    }
     return List.of(new FieldCounterBasedResult<>(getCalculatorName(), fieldCounter));
   }
 
+  private void scanValues(PathCache cache) {
+    if (detectorsByPath == null)
+      detectorsByPath = indexDetectors();
+    if (scan == null)
+      scan = new ValueScan();
+
+    for (Observer observer : problems)
+      if (observer instanceof ValueProblemDetector)
+        ((ValueProblemDetector) observer).beginRecord();
+
+    for (Map.Entry<String, List<ValueProblemDetector>> entry : detectorsByPath.entrySet()) {
+      String path = entry.getKey();
+      List<EdmFieldInstance> instances = cache.get(path);
+      if (instances == null)
+        continue;
+      for (EdmFieldInstance instance : instances) {
+        scan.reset(instance.getValue());
+        for (ValueProblemDetector detector : entry.getValue())
+          detector.visit(path, instance, scan);
+      }
+    }
+  }
+
+  private Map<String, List<ValueProblemDetector>> indexDetectors() {
+    Map<String, List<ValueProblemDetector>> index = new LinkedHashMap<>();
+    for (Observer observer : problems) {
+      if (observer instanceof ValueProblemDetector) {
+        var detector = (ValueProblemDetector) observer;
+        for (String path : new LinkedHashSet<>(detector.getPaths()))
+          index.computeIfAbsent(path, p -> new ArrayList<>()).add(detector);
+      }
+    }
+    return index;
+  }
+
   @Override
   public List<String> getHeader() {
     List<String> headers = new ArrayList<>();
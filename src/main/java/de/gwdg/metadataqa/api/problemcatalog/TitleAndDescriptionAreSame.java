@@ -1,11 +1,12 @@
 package de.gwdg.metadataqa.api.problemcatalog;
 
-import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.model.EdmFieldInstance;
-import de.gwdg.metadataqa.api.model.pathcache.PathCache;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -14,7 +15,7 @@ import java.util.logging.Logger;
  * example: 2023702/35D943DF60D779EC9EF31F5DFF4E337385AC7C37
  * @author Péter Király <peter.kiraly at gwdg.de>
  */
-public class TitleAndDescriptionAreSame extends ProblemDetector
+public class TitleAndDescriptionAreSame extends ValueProblemDetector
     implements Serializable {
 
   private static final Logger LOGGER = Logger.getLogger(
@@ -30,20 +31,40 @@ public class TitleAndDescriptionAreSame extends ProblemDetector
     this.schema = problemCatalog.getSchema();
   }
 
+  private final List<EdmFieldInstance> titles = new ArrayList<>();
+  private final Set<EdmFieldInstance> descriptions = new HashSet<>();
+
+  @Override
+  public List<String> getPaths() {
+    return List.of(schema.getTitlePath(), schema.getDescriptionPath());
+  }
+
+  @Override
+  public void beginRecord() {
+    titles.clear();
+    descriptions.clear();
+  }
+
+  @Override
+  public void visit(String path, EdmFieldInstance instance, ValueScan scan) {
+    if (path.equals(schema.getTitlePath()))
+      titles.add(instance);
+    if (path.equals(schema.getDescriptionPath()))
+      descriptions.add(instance);
+  }
+
   @Override
-  public void update(PathCache cache, FieldCounter<Double> results) {
+  public double endRecord() {
     double value = 0;
-    List<EdmFieldInstance> titles = cache.get(schema.getTitlePath());
-    if (titles != null && !titles.isEmpty()) {
-      List<EdmFieldInstance> descriptions = cache.get(schema.getDescriptionPath());
-      if (descriptions != null && !descriptions.isEmpty() && !titles.isEmpty())
-        for (EdmFieldInstance title : titles)
-          if (descriptions.contains(title)) {
-            value = 1;
-            break;
-          }
-    }
-    results.put(NAME, value);
+    if (!descriptions.isEmpty())
+      for (EdmFieldInstance title : titles)
+        if (descriptions.contains(title)) {
+          value = 1;
+          break;
+        }
+    titles.clear();
+    descriptions.clear();
+    return value;
   }
 
   @Override
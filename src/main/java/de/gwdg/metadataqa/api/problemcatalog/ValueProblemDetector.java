@@ -0,0 +1,59 @@
+package de.gwdg.metadataqa.api.problemcatalog;
+
+import de.gwdg.metadataqa.api.counter.FieldCounter;
+import de.gwdg.metadataqa.api.model.EdmFieldInstance;
+import de.gwdg.metadataqa.api.model.pathcache.PathCache;
+
+import java.util.List;
+
+/**
+ * A problem detector which does not read the cache itself: the ProblemCatalog
+ * visits the values of all the paths of its detectors once, and passes them
+ * with their shared ValueScan to every detector interested in the path.
+ *
+ * The detector keeps the state of the current record between beginRecord()
+ * and endRecord(), so as the ProblemCatalog, an instance should not be used
+ * by more threads at the same time.
+ */
+public abstract class ValueProblemDetector extends ProblemDetector {
+
+  /**
+   * @return The paths whose values the detector needs
+   */
+  public abstract List<String> getPaths();
+
+  /**
+   * Called before the values of a record are visited.
+   */
+  public abstract void beginRecord();
+
+  /**
+   * Called for each value of the detector's paths.
+   * @param path The path
+   * @param instance The field instance
+   * @param scan The scan of the value
+   */
+  public abstract void visit(String path, EdmFieldInstance instance, ValueScan scan);
+
+  /**
+   * Called after the values of a record were visited.
+   * @return The result of the record
+   */
+  public abstract double endRecord();
+
+  /**
+   * Run the detector alone, without the shared scan of the ProblemCatalog.
+   */
+  @Override
+  public void update(PathCache cache, FieldCounter<Double> results) {
+    var scan = new ValueScan();
+    beginRecord();
+    for (String path : getPaths()) {
+      List<EdmFieldInstance> instances = cache.get(path);
+      if (instances != null)
+        for (EdmFieldInstance instance : instances)
+          visit(path, instance, scan.reset(instance.getValue()));
+    }
+    results.put(getHeader(), endRecord());
+  }
+}
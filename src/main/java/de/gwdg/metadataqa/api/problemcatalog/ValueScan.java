@@ -0,0 +1,67 @@
+package de.gwdg.metadataqa.api.problemcatalog;
+
+import de.gwdg.metadataqa.api.util.StringDuplicationDetector;
+
+/**
+ * The properties of a field value the problem detectors are interested in.
+ * The characters are scanned once, and the more expensive checks are
+ * calculated on request and cached, so the detectors sharing a value share
+ * the work as well. The ProblemCatalog reuses a single instance for all
+ * values of a record.
+ */
+public class ValueScan {
+
+  private String value;
+  private int length;
+  private boolean blank;
+  private Boolean duplicated;
+
+  /**
+   * Scan a new value.
+   * @param value The value (might be null)
+   * @return This object
+   */
+  public ValueScan reset(String value) {
+    this.value = value;
+    this.duplicated = null;
+    if (value == null) {
+      length = 0;
+      blank = true;
+    } else {
+      length = value.length();
+      blank = true;
+      for (var i = 0; i < length; i++) {
+        if (!Character.isWhitespace(value.charAt(i))) {
+          blank = false;
+          break;
+        }
+      }
+    }
+    return this;
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Same as StringUtils.isBlank().
+   * @return True if the value is null, empty or contains only whitespace
+   */
+  public boolean isBlank() {
+    return blank;
+  }
+
+  /**
+   * @return True if the value is the duplication of a substring (see StringDuplicationDetector)
+   */
+  public boolean isDuplicated() {
+    if (duplicated == null)
+      duplicated = value != null && StringDuplicationDetector.isDuplicated(value);
+    return duplicated;
+  }
+}
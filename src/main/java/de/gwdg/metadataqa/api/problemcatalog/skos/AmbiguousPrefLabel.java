@@ -46,7 +46,7 @@ public class AmbiguousPrefLabel extends ProblemDetector implements Serializable
       String parentPath = branch.getParent().getJsonPath();
       Object rawEntityFragment = cache.getFragment(parentPath);
       if (rawEntityFragment != null) {
-        List<Object> entities = Converter.jsonObjectToList(rawEntityFragment, (Schema) schema);
+        List<Object> entities = Converter.getFragmentList(cache, parentPath, (Schema) schema);
         for (var i = 0; i < entities.size(); i++) {
           value += countPerEntity(i, branch, cache);
         }
@@ -1,11 +1,19 @@
 package de.gwdg.metadataqa.api.rule;
 
+import de.gwdg.metadataqa.api.counter.FieldCounter;
+import de.gwdg.metadataqa.api.model.pathcache.PathCache;
+
 public abstract class BaseRuleChecker implements RuleChecker {
   protected String id;
   protected Integer failureScore;
   protected Integer successScore;
   protected String header;
 
+  @Override
+  public void update(PathCache cache, FieldCounter<RuleCheckerOutput> results) {
+    results.put(getHeader(), new RuleCheckerOutput(this, check(cache)));
+  }
+
   @Override
   public String getId() {
     return id == null ? String.valueOf(0) : id;
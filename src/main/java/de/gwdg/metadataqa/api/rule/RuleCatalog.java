@@ -1,12 +1,16 @@
 package de.gwdg.metadataqa.api.rule;
 
+import de.gwdg.metadataqa.api.calculator.FieldExtractor;
 import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.interfaces.Calculator;
 import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.model.pathcache.PathCache;
 import de.gwdg.metadataqa.api.problemcatalog.FieldCounterBasedResult;
 import de.gwdg.metadataqa.api.schema.Schema;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -18,9 +22,19 @@ public class RuleCatalog implements Calculator, Serializable {
 
   private static final String CALCULATOR_NAME = "ruleCatalog";
   private Schema schema;
+  private final int[] successScores;
+  private final int[] failureScores;
 
   public RuleCatalog(Schema schema) {
     this.schema = schema;
+    List<RuleChecker> ruleCheckers = schema.getRuleCheckers();
+    successScores = new int[ruleCheckers.size()];
+    failureScores = new int[ruleCheckers.size()];
+    for (var i = 0; i < ruleCheckers.size(); i++) {
+      RuleChecker ruleChecker = ruleCheckers.get(i);
+      successScores[i] = ruleChecker.getSuccessScore() == null ? RuleOutcomeVector.NO_SCORE : ruleChecker.getSuccessScore();
+      failureScores[i] = ruleChecker.getFailureScore() == null ? RuleOutcomeVector.NO_SCORE : ruleChecker.getFailureScore();
+    }
   }
 
   @Override
@@ -37,12 +51,92 @@ public class RuleCatalog implements Calculator, Serializable {
     return List.of(new FieldCounterBasedResult<>(getCalculatorName(), fieldCounter));
   }
 
-  @Override
-  public List<String> getHeader() {
+  /**
+   * Measure the record into a reusable compact vector. Unlike measure(PathCache)
+   * it does not create any per-rule objects.
+   * @param cache The JSON cache object
+   * @param vector A vector created by createOutcomeVector()
+   * @return The same vector
+   */
+  public RuleOutcomeVector measure(PathCache cache, RuleOutcomeVector vector) {
+    vector.clear();
+    var i = 0;
+    for (RuleChecker ruleChecker : schema.getRuleCheckers())
+      vector.set(i++, ruleChecker.check(cache));
+    return vector;
+  }
+
+  /**
+   * Measure the record into a reusable compact vector, and add the outcomes
+   * to the violation aggregator. The record identifier is taken from the
+   * recordId extractable field of the schema.
+   * @param cache The JSON cache object
+   * @param vector A vector created by createOutcomeVector()
+   * @param aggregator An aggregator created by createViolationAggregator(),
+   *   owned by the calling worker
+   * @return The same vector
+   */
+  public RuleOutcomeVector measure(PathCache cache, RuleOutcomeVector vector, RuleViolationAggregator aggregator) {
+    measure(cache, vector);
+    aggregator.add(extractRecordId(cache), vector, cache);
+    return vector;
+  }
+
+  private String extractRecordId(PathCache cache) {
+    String idPath = schema.getExtractableFields().get(FieldExtractor.FIELD_NAME);
+    if (idPath == null)
+      return null;
+
+    List<XmlFieldInstance> values = cache.get(idPath);
+    if (values == null || values.isEmpty() || values.get(0) == null)
+      return null;
+    return values.get(0).getValue();
+  }
+
+  /**
+   * Create an aggregator, which collects the violations of the records measured
+   * with measure(cache, vector, aggregator). Every worker should have its own
+   * aggregator, the partial results can be merged at the end.
+   * @param topK The number of most frequent failing values to keep per rule
+   * @param sampleSize The number of failing record identifiers to keep per rule
+   * @return The aggregator
+   */
+  public RuleViolationAggregator createViolationAggregator(int topK, int sampleSize) {
+    return new RuleViolationAggregator(schema.getRuleCheckers(), topK, sampleSize);
+  }
+
+  /**
+   * Create an empty vector which fits to the rules of this catalog.
+   * @return The vector
+   */
+  public RuleOutcomeVector createOutcomeVector() {
+    return new RuleOutcomeVector(successScores.length, successScores, failureScores);
+  }
+
+  /**
+   * Create a writer of binary results file, which keeps the scores of the rules.
+   * @param outputStream The target stream
+   * @return The writer
+   * @throws IOException
+   */
+  public RuleOutcomeWriter createOutcomeWriter(OutputStream outputStream) throws IOException {
+    return new RuleOutcomeWriter(outputStream, getRuleHeaders(), successScores, failureScores);
+  }
+
+  /**
+   * Get the headers of the rules without the score header.
+   * @return The list of rule headers
+   */
+  public List<String> getRuleHeaders() {
     List<String> headers = new ArrayList<>();
-    for (RuleChecker ruleChecker : schema.getRuleCheckers()) {
+    for (RuleChecker ruleChecker : schema.getRuleCheckers())
       headers.add(ruleChecker.getHeader());
-    }
+    return headers;
+  }
+
+  @Override
+  public List<String> getHeader() {
+    List<String> headers = getRuleHeaders();
     headers.add(CALCULATOR_NAME + ":score");
     return headers;
   }
@@ -4,6 +4,7 @@ import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.model.pathcache.PathCache;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Implementation of the Observer design pattern
@@ -21,6 +22,14 @@ public interface RuleChecker extends Serializable {
    */
   void update(PathCache cache, FieldCounter<RuleCheckerOutput> results);
 
+  /**
+   * Run the check without creating any output object.
+   * @param cache
+   *   The JSON cache object
+   * @return The outcome of the check
+   */
+  RuleCheckingOutputType check(PathCache cache);
+
   /**
    * Get a header, which is the name of metric, the observer measures.
    * @return The header (name of metric).
@@ -29,6 +38,12 @@ public interface RuleChecker extends Serializable {
 
   String getHeader();
 
+  /**
+   * Get the paths of the values the rule reads from the cache.
+   * @return The list of paths
+   */
+  List<String> getValuePaths();
+
   Integer getFailureScore();
 
   void setFailureScore(Integer failureScore);
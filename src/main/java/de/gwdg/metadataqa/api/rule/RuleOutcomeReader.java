@@ -0,0 +1,83 @@
+package de.gwdg.metadataqa.api.rule;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the binary results file written by RuleOutcomeWriter.
+ * @see RuleOutcomeWriter
+ */
+public class RuleOutcomeReader implements Closeable {
+
+  private final BufferedInputStream buffered;
+  private final DataInputStream in;
+  private final List<String> headers;
+  private final int[] successScores;
+  private final int[] failureScores;
+
+  public RuleOutcomeReader(InputStream inputStream) throws IOException {
+    this.buffered = new BufferedInputStream(inputStream, 1 << 16);
+    this.in = new DataInputStream(buffered);
+    if (in.readInt() != RuleOutcomeWriter.MAGIC)
+      throw new IOException("Not a rule outcome file");
+    var version = in.readInt();
+    if (version != RuleOutcomeWriter.VERSION)
+      throw new IOException("Unsupported rule outcome file version: " + version);
+
+    var size = in.readInt();
+    headers = new ArrayList<>(size);
+    successScores = new int[size];
+    failureScores = new int[size];
+    for (var i = 0; i < size; i++) {
+      headers.add(in.readUTF());
+      successScores[i] = in.readInt();
+      failureScores[i] = in.readInt();
+    }
+  }
+
+  /**
+   * The headers of the rules (without the score header).
+   * @return The list of headers
+   */
+  public List<String> getHeaders() {
+    return headers;
+  }
+
+  /**
+   * Create a vector which fits to the records of this file. It renders the
+   * outcomes with the scores stored in the header.
+   * @return An empty vector
+   */
+  public RuleOutcomeVector createVector() {
+    return new RuleOutcomeVector(headers.size(), successScores, failureScores);
+  }
+
+  /**
+   * Read the next record into the vector.
+   * @param vector A vector created by createVector()
+   * @return false if there are no more records
+   * @throws EOFException if the file ends within a record
+   * @throws IOException
+   */
+  public boolean next(RuleOutcomeVector vector) throws IOException {
+    if (vector.size() != headers.size())
+      throw new IllegalArgumentException("The vector has " + vector.size() + " rules instead of " + headers.size());
+    buffered.mark(1);
+    if (buffered.read() == -1)
+      return false;
+    buffered.reset();
+    vector.readFrom(in);
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
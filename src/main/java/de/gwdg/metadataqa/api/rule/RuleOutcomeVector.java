@@ -0,0 +1,238 @@
+package de.gwdg.metadataqa.api.rule;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact representation of the outcome of all rules of a RuleCatalog for a
+ * single record. Every rule occupies two bits in a long array (00: NA,
+ * 01: failed, 10: passed), and the total score is kept as a primitive int.
+ *
+ * The object is designed to be reused: call {@link #clear()} between records,
+ * and render it with {@link #appendCsv(StringBuilder)} or
+ * {@link #appendJson(StringBuilder, List)}, which do not allocate anything
+ * beyond the growth of the builder.
+ */
+public class RuleOutcomeVector implements Serializable {
+
+  private static final long serialVersionUID = 4311263358140418342L;
+
+  /**
+   * Marker for rules without success or failure score.
+   */
+  public static final int NO_SCORE = Integer.MIN_VALUE;
+
+  private static final int RULES_PER_WORD = Long.SIZE / 2;
+  private static final long MASK = 0b11L;
+  private static final long FAILED_BITS = 0x5555555555555555L;
+  private static final long PASSED_BITS = 0xAAAAAAAAAAAAAAAAL;
+  private static final RuleCheckingOutputType[] TYPES = RuleCheckingOutputType.values();
+
+  private final int size;
+  private final long[] words;
+  private final int[] successScores;
+  private final int[] failureScores;
+  private int score;
+
+  /**
+   * Create a vector for rules without scores.
+   * @param size The number of rules
+   */
+  public RuleOutcomeVector(int size) {
+    this(size, null, null);
+  }
+
+  /**
+   * Create a vector for rules with scores.
+   * @param size The number of rules
+   * @param successScores The success score of each rule, or NO_SCORE
+   * @param failureScores The failure score of each rule, or NO_SCORE
+   */
+  public RuleOutcomeVector(int size, int[] successScores, int[] failureScores) {
+    if (successScores != null && successScores.length != size)
+      throw new IllegalArgumentException("successScores should have " + size + " elements");
+    if (failureScores != null && failureScores.length != size)
+      throw new IllegalArgumentException("failureScores should have " + size + " elements");
+
+    this.size = size;
+    this.words = new long[wordCount(size)];
+    this.successScores = successScores;
+    this.failureScores = failureScores;
+  }
+
+  public static int wordCount(int size) {
+    return (size + RULES_PER_WORD - 1) / RULES_PER_WORD;
+  }
+
+  public void set(int index, RuleCheckingOutputType type) {
+    checkIndex(index);
+    var previous = getScore(index);
+    if (previous != NO_SCORE)
+      score -= previous;
+
+    int word = index / RULES_PER_WORD;
+    int shift = (index % RULES_PER_WORD) * 2;
+    words[word] = (words[word] & ~(MASK << shift)) | ((long) type.ordinal() << shift);
+
+    var current = getScore(index);
+    if (current != NO_SCORE)
+      score += current;
+  }
+
+  public RuleCheckingOutputType get(int index) {
+    checkIndex(index);
+    return TYPES[code(index)];
+  }
+
+  /**
+   * Get the score of a single rule based on its current outcome.
+   * @param index The index of the rule
+   * @return The score or NO_SCORE if the rule has no score for its outcome
+   */
+  public int getScore(int index) {
+    int code = code(index);
+    if (code == RuleCheckingOutputType.PASSED.ordinal() && successScores != null)
+      return successScores[index];
+    if (code == RuleCheckingOutputType.FAILED.ordinal() && failureScores != null)
+      return failureScores[index];
+    return NO_SCORE;
+  }
+
+  public int getScore() {
+    return score;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * The raw two-bit encoded outcomes. The array is not copied.
+   * @return The words
+   */
+  public long[] getWords() {
+    return words;
+  }
+
+  /**
+   * Count the rules with a given outcome.
+   * @param type The outcome type
+   * @return Number of rules
+   */
+  public int count(RuleCheckingOutputType type) {
+    if (type.equals(RuleCheckingOutputType.NA))
+      return size - count(RuleCheckingOutputType.PASSED) - count(RuleCheckingOutputType.FAILED);
+
+    long mask = type.equals(RuleCheckingOutputType.PASSED) ? PASSED_BITS : FAILED_BITS;
+    var count = 0;
+    for (long word : words)
+      count += Long.bitCount(word & mask);
+    return count;
+  }
+
+  public void clear() {
+    Arrays.fill(words, 0L);
+    score = 0;
+  }
+
+  public void copyFrom(RuleOutcomeVector other) {
+    if (other.size != size)
+      throw new IllegalArgumentException("Vector sizes differ: " + other.size + " vs " + size);
+    System.arraycopy(other.words, 0, words, 0, words.length);
+    score = other.score;
+  }
+
+  /**
+   * Append the outcomes and the total score as comma separated values.
+   * Each rule is rendered as its score if it has one, otherwise as NA, 0 or 1.
+   * @param sb The builder to append to
+   * @return The same builder
+   */
+  public StringBuilder appendCsv(StringBuilder sb) {
+    for (var i = 0; i < size; i++) {
+      appendValue(sb, i, false);
+      sb.append(',');
+    }
+    sb.append(score);
+    return sb;
+  }
+
+  /**
+   * Append the outcomes as a JSON object.
+   * @param sb The builder to append to
+   * @param headers The names of the rules followed by the name of the score
+   * @return The same builder
+   */
+  public StringBuilder appendJson(StringBuilder sb, List<String> headers) {
+    if (headers.size() != size + 1)
+      throw new IllegalArgumentException("headers should have " + (size + 1) + " elements");
+
+    sb.append('{');
+    for (var i = 0; i < size; i++) {
+      appendJsonKey(sb, headers.get(i));
+      appendValue(sb, i, true);
+      sb.append(',');
+    }
+    appendJsonKey(sb, headers.get(size));
+    sb.append(score).append('}');
+    return sb;
+  }
+
+  public void writeTo(DataOutput out) throws IOException {
+    for (long word : words)
+      out.writeLong(word);
+    out.writeInt(score);
+  }
+
+  public void readFrom(DataInput in) throws IOException {
+    for (var i = 0; i < words.length; i++)
+      words[i] = in.readLong();
+    score = in.readInt();
+  }
+
+  @Override
+  public String toString() {
+    return appendCsv(new StringBuilder()).toString();
+  }
+
+  private void appendValue(StringBuilder sb, int index, boolean quoteNA) {
+    int ruleScore = getScore(index);
+    if (ruleScore != NO_SCORE) {
+      sb.append(ruleScore);
+    } else {
+      int code = code(index);
+      if (code == RuleCheckingOutputType.NA.ordinal()) {
+        if (quoteNA)
+          sb.append("\"NA\"");
+        else
+          sb.append("NA");
+      } else {
+        sb.append(code == RuleCheckingOutputType.PASSED.ordinal() ? '1' : '0');
+      }
+    }
+  }
+
+  private static void appendJsonKey(StringBuilder sb, String key) {
+    sb.append('"');
+    for (var i = 0; i < key.length(); i++) {
+      char c = key.charAt(i);
+      if (c == '"' || c == '\\')
+        sb.append('\\');
+      sb.append(c);
+    }
+    sb.append("\":");
+  }
+
+  private int code(int index) {
+    return (int) ((words[index / RULES_PER_WORD] >>> ((index % RULES_PER_WORD) * 2)) & MASK);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+  }
+}
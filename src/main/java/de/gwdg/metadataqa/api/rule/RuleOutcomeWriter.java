@@ -0,0 +1,84 @@
+package de.gwdg.metadataqa.api.rule;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes RuleOutcomeVector objects into a binary results file.
+ *
+ * The file starts with a header (magic number, version, number of rules and
+ * the rule headers with their success and failure scores), followed by fixed
+ * size records: the two-bit encoded outcomes as longs and the total score as
+ * an int.
+ * @see RuleOutcomeReader
+ */
+public class RuleOutcomeWriter implements Closeable {
+
+  static final int MAGIC = 0x4D51524F;
+  static final int VERSION = 1;
+
+  private final DataOutputStream out;
+  private final int size;
+  private long recordCount = 0;
+
+  /**
+   * @param outputStream The target stream
+   * @param headers The headers of the rules (without the score header)
+   * @throws IOException
+   */
+  public RuleOutcomeWriter(OutputStream outputStream, List<String> headers) throws IOException {
+    this(outputStream, headers, null, null);
+  }
+
+  /**
+   * @param outputStream The target stream
+   * @param headers The headers of the rules (without the score header)
+   * @param successScores The success score of each rule, or NO_SCORE (might be null)
+   * @param failureScores The failure score of each rule, or NO_SCORE (might be null)
+   * @throws IOException
+   */
+  public RuleOutcomeWriter(OutputStream outputStream,
+                           List<String> headers,
+                           int[] successScores,
+                           int[] failureScores) throws IOException {
+    this.size = headers.size();
+    if (successScores != null && successScores.length != size)
+      throw new IllegalArgumentException("successScores should have " + size + " elements");
+    if (failureScores != null && failureScores.length != size)
+      throw new IllegalArgumentException("failureScores should have " + size + " elements");
+
+    this.out = new DataOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(size);
+    for (var i = 0; i < size; i++) {
+      out.writeUTF(headers.get(i));
+      out.writeInt(successScores == null ? RuleOutcomeVector.NO_SCORE : successScores[i]);
+      out.writeInt(failureScores == null ? RuleOutcomeVector.NO_SCORE : failureScores[i]);
+    }
+  }
+
+  public void write(RuleOutcomeVector vector) throws IOException {
+    if (vector.size() != size)
+      throw new IllegalArgumentException("The vector has " + vector.size() + " rules instead of " + size);
+    vector.writeTo(out);
+    recordCount++;
+  }
+
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
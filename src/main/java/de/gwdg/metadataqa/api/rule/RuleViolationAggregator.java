@@ -0,0 +1,152 @@
+package de.gwdg.metadataqa.api.rule;
+
+import de.gwdg.metadataqa.api.counter.ReservoirSample;
+import de.gwdg.metadataqa.api.counter.TopKCounter;
+import de.gwdg.metadataqa.api.model.XmlFieldInstance;
+import de.gwdg.metadataqa.api.model.pathcache.PathCache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming summary of rule violations. For every rule it keeps the exact
+ * number of passed, failed and NA outcomes, the most frequent values the rule
+ * reads (see {@link RuleChecker#getValuePaths()}) in failing records, and a
+ * random sample of failing record identifiers.
+ *
+ * The memory footprint is bounded by the number of rules, topK and sampleSize.
+ * The object is not thread-safe: every worker should have its own instance,
+ * and the partial results can be combined with {@link #merge(RuleViolationAggregator)}.
+ */
+public class RuleViolationAggregator implements Serializable {
+
+  private static final long serialVersionUID = -3170542480125287043L;
+
+  /**
+   * Offending values longer than this are truncated to keep the memory bounded.
+   */
+  public static final int MAX_VALUE_LENGTH = 256;
+
+  private final List<String> headers;
+  private final String[][] paths;
+  private final long[] passed;
+  private final long[] failed;
+  private final long[] na;
+  private final TopKCounter[] topValues;
+  private final List<ReservoirSample<String>> recordIds;
+  private long recordCount = 0;
+
+  /**
+   * @param ruleCheckers The rule checkers in the order of the outcome vectors
+   * @param topK The number of most frequent failing values to keep per rule
+   * @param sampleSize The number of failing record identifiers to keep per rule
+   */
+  public RuleViolationAggregator(List<RuleChecker> ruleCheckers, int topK, int sampleSize) {
+    int size = ruleCheckers.size();
+    headers = new ArrayList<>(size);
+    paths = new String[size][];
+    passed = new long[size];
+    failed = new long[size];
+    na = new long[size];
+    topValues = new TopKCounter[size];
+    recordIds = new ArrayList<>(size);
+    for (var i = 0; i < size; i++) {
+      RuleChecker ruleChecker = ruleCheckers.get(i);
+      headers.add(ruleChecker.getHeader());
+      paths[i] = ruleChecker.getValuePaths().toArray(new String[0]);
+      topValues[i] = new TopKCounter(topK);
+      recordIds.add(new ReservoirSample<>(sampleSize));
+    }
+  }
+
+  /**
+   * Add the outcomes of a record.
+   * @param recordId The identifier of the record. If it is null, the record
+   *   is counted, but it is not added to the samples.
+   * @param vector The outcomes of the rules
+   * @param cache The cache of the same record, used to retrieve the offending values
+   */
+  public void add(String recordId, RuleOutcomeVector vector, PathCache cache) {
+    if (vector.size() != headers.size())
+      throw new IllegalArgumentException("The vector has " + vector.size() + " rules instead of " + headers.size());
+
+    recordCount++;
+    for (var i = 0; i < headers.size(); i++) {
+      RuleCheckingOutputType type = vector.get(i);
+      if (type.equals(RuleCheckingOutputType.PASSED)) {
+        passed[i]++;
+      } else if (type.equals(RuleCheckingOutputType.NA)) {
+        na[i]++;
+      } else {
+        failed[i]++;
+        if (recordId != null)
+          recordIds.get(i).add(recordId);
+        addValues(i, cache);
+      }
+    }
+  }
+
+  private void addValues(int index, PathCache cache) {
+    if (cache == null)
+      return;
+
+    for (String path : paths[index]) {
+      List<XmlFieldInstance> instances = cache.get(path);
+      if (instances != null)
+        for (XmlFieldInstance instance : instances)
+          if (instance.hasValue())
+            topValues[index].add(truncate(instance.getValue()));
+    }
+  }
+
+  private static String truncate(String value) {
+    return value.length() > MAX_VALUE_LENGTH ? value.substring(0, MAX_VALUE_LENGTH) : value;
+  }
+
+  /**
+   * Merge the partial result of another worker into this one.
+   * @param other An aggregator created for the same rules
+   */
+  public void merge(RuleViolationAggregator other) {
+    if (!headers.equals(other.headers))
+      throw new IllegalArgumentException("The aggregators belong to different rules");
+
+    recordCount += other.recordCount;
+    for (var i = 0; i < headers.size(); i++) {
+      passed[i] += other.passed[i];
+      failed[i] += other.failed[i];
+      na[i] += other.na[i];
+      topValues[i].merge(other.topValues[i]);
+      recordIds.get(i).merge(other.recordIds.get(i));
+    }
+  }
+
+  public List<String> getHeaders() {
+    return headers;
+  }
+
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  public long getPassedCount(int index) {
+    return passed[index];
+  }
+
+  public long getFailureCount(int index) {
+    return failed[index];
+  }
+
+  public long getNACount(int index) {
+    return na[index];
+  }
+
+  public List<TopKCounter.Entry> getTopValues(int index) {
+    return topValues[index].getTop();
+  }
+
+  public List<String> getSampleRecordIds(int index) {
+    return recordIds.get(index).getSample();
+  }
+}
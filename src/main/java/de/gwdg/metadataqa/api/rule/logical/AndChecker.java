@@ -1,10 +1,8 @@
 package de.gwdg.metadataqa.api.rule.logical;
 
-import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.json.JsonBranch;
 import de.gwdg.metadataqa.api.model.pathcache.PathCache;
 import de.gwdg.metadataqa.api.rule.RuleChecker;
-import de.gwdg.metadataqa.api.rule.RuleCheckerOutput;
 import de.gwdg.metadataqa.api.rule.RuleCheckingOutputType;
 
 import java.util.List;
@@ -29,17 +27,15 @@ public class AndChecker extends LogicalChecker {
   }
 
   @Override
-  public void update(PathCache cache, FieldCounter<RuleCheckerOutput> results) {
+  public RuleCheckingOutputType check(PathCache cache) {
     var allPassed = true;
     var isNA = false;
-    FieldCounter<RuleCheckerOutput> localResults = new FieldCounter<>();
     for (RuleChecker checker : checkers) {
-      checker.update(cache, localResults);
-      if (!localResults.get(checker.getHeader()).getType().equals(RuleCheckingOutputType.PASSED)) {
+      if (!checker.check(cache).equals(RuleCheckingOutputType.PASSED)) {
         allPassed = false;
         break;
       }
     }
-    results.put(getHeader(), new RuleCheckerOutput(this, isNA, allPassed));
+    return RuleCheckingOutputType.create(isNA, allPassed);
   }
 }
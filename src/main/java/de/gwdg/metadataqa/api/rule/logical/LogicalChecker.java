@@ -6,7 +6,9 @@ import de.gwdg.metadataqa.api.rule.RuleChecker;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public abstract class LogicalChecker extends BaseRuleChecker {
 
@@ -18,6 +20,18 @@ public abstract class LogicalChecker extends BaseRuleChecker {
     this.header = header;
   }
 
+  /**
+   * The paths read by the child checkers.
+   * @return The list of distinct paths
+   */
+  @Override
+  public List<String> getValuePaths() {
+    Set<String> paths = new LinkedHashSet<>();
+    for (RuleChecker checker : checkers)
+      paths.addAll(checker.getValuePaths());
+    return new ArrayList<>(paths);
+  }
+
   public List<RuleChecker> getCheckers() {
     return checkers;
   }
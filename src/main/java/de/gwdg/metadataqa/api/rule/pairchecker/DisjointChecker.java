@@ -1,10 +1,9 @@
 package de.gwdg.metadataqa.api.rule.pairchecker;
 
-import de.gwdg.metadataqa.api.counter.FieldCounter;
 import de.gwdg.metadataqa.api.json.JsonBranch;
 import de.gwdg.metadataqa.api.model.XmlFieldInstance;
 import de.gwdg.metadataqa.api.model.pathcache.PathCache;
-import de.gwdg.metadataqa.api.rule.RuleCheckerOutput;
+import de.gwdg.metadataqa.api.rule.RuleCheckingOutputType;
 
 import java.util.List;
 
@@ -18,11 +17,11 @@ public class DisjointChecker extends PropertyPairChecker {
   }
 
   @Override
-  public void update(PathCache cache, FieldCounter<RuleCheckerOutput> results) {
+  public RuleCheckingOutputType check(PathCache cache) {
     var allPassed = true;
     var isNA = false;
-    List<XmlFieldInstance> instances1 = cache.get(field1.getAbsoluteJsonPath().replace("[*]", ""));
-    List<XmlFieldInstance> instances2 = cache.get(field2.getAbsoluteJsonPath().replace("[*]", ""));
+    List<XmlFieldInstance> instances1 = cache.get(getValuePath(field1));
+    List<XmlFieldInstance> instances2 = cache.get(getValuePath(field2));
     if (instances1 != null && !instances1.isEmpty() && instances2 != null && !instances2.isEmpty()) {
       for (XmlFieldInstance instance1 : instances1) {
         if (instance1.hasValue()) {
@@ -35,6 +34,6 @@ public class DisjointChecker extends PropertyPairChecker {
         }
       }
     }
-    results.put(getHeader(), new RuleCheckerOutput(this, isNA, allPassed));
+    return RuleCheckingOutputType.create(isNA, allPassed);
   }
 }
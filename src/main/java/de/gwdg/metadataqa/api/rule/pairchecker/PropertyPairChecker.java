@@ -3,6 +3,8 @@ package de.gwdg.metadataqa.api.rule.pairchecker;
 import de.gwdg.metadataqa.api.json.JsonBranch;
 import de.gwdg.metadataqa.api.rule.BaseRuleChecker;
 
+import java.util.List;
+
 public abstract class PropertyPairChecker extends BaseRuleChecker {
 
   private static final long serialVersionUID = -6579708841667005135L;
@@ -19,4 +21,13 @@ public abstract class PropertyPairChecker extends BaseRuleChecker {
     this.field2 = field2;
     this.header = String.format("%s:%s:%s", field1.getLabel(), prefix, field2.getLabel());
   }
+
+  @Override
+  public List<String> getValuePaths() {
+    return List.of(getValuePath(field1), getValuePath(field2));
+  }
+
+  protected static String getValuePath(JsonBranch field) {
+    return field.getAbsoluteJsonPath().replace("[*]", "");
+  }
 }
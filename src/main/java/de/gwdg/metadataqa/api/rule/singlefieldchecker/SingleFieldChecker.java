@@ -3,6 +3,8 @@ package de.gwdg.metadataqa.api.rule.singlefieldchecker;
 import de.gwdg.metadataqa.api.json.JsonBranch;
 import de.gwdg.metadataqa.api.rule.BaseRuleChecker;
 
+import java.util.List;
+
 public abstract class SingleFieldChecker extends BaseRuleChecker {
 
   protected JsonBranch field;
@@ -11,4 +13,9 @@ public abstract class SingleFieldChecker extends BaseRuleChecker {
     this.field = field;
     this.header = header;
   }
+
+  @Override
+  public List<String> getValuePaths() {
+    return List.of(field.getJsonPath());
+  }
 }
@@ -3,5 +3,10 @@ package de.gwdg.metadataqa.api.schema;
 public enum Format {
   JSON,
   XML,
-  CSV;
+  CSV,
+  /**
+   * MARC21 records in the binary ISO 2709 format
+   */
+  ISO_2709,
+  MARCXML;
 }
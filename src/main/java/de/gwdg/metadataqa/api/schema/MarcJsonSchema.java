@@ -25,6 +25,7 @@ public class MarcJsonSchema implements Schema, ProblemCatalogSchema, Serializabl
   private static Map<String, String> extractableFields = new LinkedHashMap<>();
   private static List<String> categories = null;
   private static List<RuleChecker> ruleCheckers = null;
+  private Format format = Format.JSON;
 
   public static final String DATAFIELD_PATTERN = "$.datafield[?(@.tag == '%s')].subfield[?(@.code == '%s')].content";
   public static final String DATAFIELD_PARENT_PATTERN = "$.datafield[?(@.tag == '%s')]";
@@ -390,7 +391,20 @@ public class MarcJsonSchema implements Schema, ProblemCatalogSchema, Serializabl
 
   @Override
   public Format getFormat() {
-    return Format.JSON;
+    return format;
+  }
+
+  /**
+   * Set the format of the records. Besides MARC JSON the records might be
+   * measured in the native ISO 2709 and MARCXML formats.
+   * @param format JSON, ISO_2709 or MARCXML
+   * @return The schema
+   */
+  public MarcJsonSchema setFormat(Format format) {
+    if (format != Format.JSON && format != Format.ISO_2709 && format != Format.MARCXML)
+      throw new IllegalArgumentException("MARC records can not be read in format " + format);
+    this.format = format;
+    return this;
   }
 
   @Override
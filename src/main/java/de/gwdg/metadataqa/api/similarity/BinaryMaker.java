@@ -1,10 +1,9 @@
 package de.gwdg.metadataqa.api.similarity;
 
-import org.apache.commons.lang3.StringUtils;
-
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class BinaryMaker {
 
@@ -28,23 +27,78 @@ public class BinaryMaker {
       "Aggregation/edm:hasView", "Aggregation/edm:object"
   );
 
+  public static final int MANDATORY_WEIGHT = 3;
+  public static final int FUNCTIONAL_WEIGHT = 2;
+  public static final int DEFAULT_WEIGHT = 1;
+
+  private final int[] offsets;
+  private final int[] weights;
+  private final int length;
+
   public BinaryMaker(List<String> canonicalFieldList) {
     this.canonicalFieldList = canonicalFieldList;
+    offsets = new int[canonicalFieldList.size()];
+    weights = new int[canonicalFieldList.size()];
+    var offset = 0;
+    for (var i = 0; i < canonicalFieldList.size(); i++) {
+      offsets[i] = offset;
+      weights[i] = getWeight(canonicalFieldList.get(i));
+      offset += weights[i];
+    }
+    length = offset;
+  }
+
+  /**
+   * The number of bits a field occupies in the pattern.
+   * @param field The field name
+   * @return The weight
+   */
+  public static int getWeight(String field) {
+    if (MANDATORY_FIELDS.contains(field))
+      return MANDATORY_WEIGHT;
+    if (FUNCTIONAL_FIELDS.contains(field))
+      return FUNCTIONAL_WEIGHT;
+    return DEFAULT_WEIGHT;
   }
 
   public String fieldListToBinary(List<String> actual) {
-    List<String> binary = new ArrayList<>();
-    for (String field : canonicalFieldList) {
-      String bit = actual.contains(field) ? "1" : "0";
-      if (MANDATORY_FIELDS.contains(field)) {
-        bit = bit + bit + bit;
-      } else if (FUNCTIONAL_FIELDS.contains(field)) {
-        bit = bit + bit;
-      }
-      binary.add(bit);
-    }
-    return StringUtils.join(binary, "");
+    return fieldListToBitPattern(actual).toBinaryString();
   }
 
+  /**
+   * Create the weighted bit pattern of a field list: every field of the
+   * canonical list occupies as many bits as its weight.
+   * @param actual The existing fields
+   * @return The pattern
+   */
+  public BitPattern fieldListToBitPattern(List<String> actual) {
+    var pattern = new BitPattern(length);
+    Set<String> existing = new HashSet<>(actual);
+    for (var i = 0; i < offsets.length; i++)
+      if (existing.contains(canonicalFieldList.get(i)))
+        setField(pattern, i);
+    return pattern;
+  }
+
+  /**
+   * Set the bits of a field of the canonical list.
+   * @param pattern The pattern
+   * @param fieldIndex The index of the field in the canonical list
+   */
+  public void setField(BitPattern pattern, int fieldIndex) {
+    for (var bit = 0; bit < weights[fieldIndex]; bit++)
+      pattern.set(offsets[fieldIndex] + bit);
+  }
 
+  public List<String> getCanonicalFieldList() {
+    return canonicalFieldList;
+  }
+
+  /**
+   * The length of the patterns in bits.
+   * @return The length
+   */
+  public int getLength() {
+    return length;
+  }
 }
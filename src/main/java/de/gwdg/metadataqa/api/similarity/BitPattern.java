@@ -0,0 +1,147 @@
+package de.gwdg.metadataqa.api.similarity;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Field existence pattern stored as a bitset. A field might occupy more than
+ * one bit (see BinaryMaker), so important fields weigh more in the
+ * similarity calculations. The bit order is the same as in the binary string
+ * representation.
+ */
+public class BitPattern implements Serializable {
+
+  private static final long serialVersionUID = -2917408734115093376L;
+
+  private final long[] words;
+  private final int length;
+
+  public BitPattern(int length) {
+    this.length = length;
+    this.words = new long[(length + Long.SIZE - 1) / Long.SIZE];
+  }
+
+  /**
+   * Create a pattern from a string of '0' and '1' characters.
+   * @param binary The binary string
+   * @return The pattern
+   */
+  public static BitPattern fromBinaryString(String binary) {
+    var pattern = new BitPattern(binary.length());
+    for (var i = 0; i < binary.length(); i++)
+      if (binary.charAt(i) == '1')
+        pattern.set(i);
+    return pattern;
+  }
+
+  public void set(int index) {
+    words[index / Long.SIZE] |= 1L << (index % Long.SIZE);
+  }
+
+  public boolean get(int index) {
+    return (words[index / Long.SIZE] & (1L << (index % Long.SIZE))) != 0;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  /**
+   * The raw words. The array is not copied.
+   * @return The words
+   */
+  public long[] getWords() {
+    return words;
+  }
+
+  public int cardinality() {
+    var count = 0;
+    for (long word : words)
+      count += Long.bitCount(word);
+    return count;
+  }
+
+  /**
+   * The number of positions where the two patterns differ.
+   * @param other A pattern of the same length
+   * @return The Hamming distance
+   */
+  public int hamming(BitPattern other) {
+    checkLength(other);
+    var distance = 0;
+    for (var i = 0; i < words.length; i++)
+      distance += Long.bitCount(words[i] ^ other.words[i]);
+    return distance;
+  }
+
+  /**
+   * The Hamming distance turned into a similarity between 0.0 and 1.0.
+   * @param other A pattern of the same length
+   * @return The similarity
+   */
+  public double hammingSimilarity(BitPattern other) {
+    if (length == 0)
+      return 1.0;
+    return 1.0 - ((double) hamming(other) / length);
+  }
+
+  /**
+   * The size of the intersection of set bits divided by the size of their union.
+   * @param other A pattern of the same length
+   * @return The Jaccard similarity, 1.0 if both patterns are empty
+   */
+  public double jaccard(BitPattern other) {
+    checkLength(other);
+    var intersection = 0;
+    var union = 0;
+    for (var i = 0; i < words.length; i++) {
+      intersection += Long.bitCount(words[i] & other.words[i]);
+      union += Long.bitCount(words[i] | other.words[i]);
+    }
+    return union == 0 ? 1.0 : (double) intersection / union;
+  }
+
+  public double similarity(BitPattern other, SimilarityMeasure measure) {
+    switch (measure) {
+      case JACCARD:
+        return jaccard(other);
+      case HAMMING:
+        return hammingSimilarity(other);
+      case JARO_WINKLER:
+      default:
+        throw new IllegalArgumentException("Unsupported measure for bit patterns: " + measure);
+    }
+  }
+
+  public String toBinaryString() {
+    var sb = new StringBuilder(length);
+    for (var i = 0; i < length; i++)
+      sb.append(get(i) ? '1' : '0');
+    return sb.toString();
+  }
+
+  private void checkLength(BitPattern other) {
+    if (other.length != length)
+      throw new IllegalArgumentException("Pattern lengths differ: " + length + " vs " + other.length);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o)
+      return true;
+    if (!(o instanceof BitPattern))
+      return false;
+    var other = (BitPattern) o;
+    return length == other.length && Arrays.equals(words, other.words);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * length + Arrays.hashCode(words);
+  }
+
+  @Override
+  public String toString() {
+    return toBinaryString();
+  }
+}
@@ -2,6 +2,7 @@ package de.gwdg.metadataqa.api.similarity;
 
 import org.apache.commons.text.similarity.JaroWinklerDistance;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -52,12 +53,21 @@ public class Clustering {
     }
   }
 
+  /**
+   * Merge clusters whose all term pairs are similar. A cluster can only
+   * absorb a later cluster whose term is a neighbour of the cluster's first
+   * term, so only those are checked instead of every later cluster.
+   */
   private void makeClusters() {
     List<Cluster> clusts = new ArrayList<>(clusterIndex.values());
+    Map<String, Integer> positions = new HashMap<>();
+    for (var i = 0; i < clusts.size(); i++)
+      positions.put(clusts.get(i).getTerms().get(0).getValue(), i);
+
     for (var i = 0; i < clusts.size(); i++) {
       Cluster a = clusts.get(i);
       if (a.isActive()) {
-        for (int j = i + 1; j < clusts.size(); j++) {
+        for (int j : getLaterNeighbours(a.getTerms().get(0), positions, i)) {
           Cluster b = clusts.get(j);
           if (b.isActive() && a.isSimilarTo(b, treshold)) {
             a.merge(b);
@@ -69,6 +79,19 @@ public class Clustering {
     removePassiveClusters();
   }
 
+  private int[] getLaterNeighbours(Term term, Map<String, Integer> positions, int position) {
+    var neighbours = new int[term.getNeighbours().size()];
+    var size = 0;
+    for (String neighbour : term.getNeighbours()) {
+      int neighbourPosition = positions.get(neighbour);
+      if (neighbourPosition > position)
+        neighbours[size++] = neighbourPosition;
+    }
+    neighbours = Arrays.copyOf(neighbours, size);
+    Arrays.sort(neighbours);
+    return neighbours;
+  }
+
   private void removePassiveClusters() {
     List<String> removableIds = new ArrayList<>();
     for (Map.Entry<String, Cluster> cluster : clusterIndex.entrySet()) {
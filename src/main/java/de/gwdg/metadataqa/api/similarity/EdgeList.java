@@ -0,0 +1,71 @@
+package de.gwdg.metadataqa.api.similarity;
+
+import java.util.Arrays;
+
+/**
+ * Compact list of weighted, undirected edges between pattern indices, stored
+ * in parallel primitive arrays.
+ */
+public class EdgeList {
+
+  private int[] left;
+  private int[] right;
+  private double[] similarities;
+  private int size = 0;
+
+  public EdgeList() {
+    this(16);
+  }
+
+  public EdgeList(int capacity) {
+    capacity = Math.max(capacity, 1);
+    left = new int[capacity];
+    right = new int[capacity];
+    similarities = new double[capacity];
+  }
+
+  public void add(int i, int j, double similarity) {
+    ensureCapacity(size + 1);
+    left[size] = i;
+    right[size] = j;
+    similarities[size] = similarity;
+    size++;
+  }
+
+  /**
+   * Append all edges of another list.
+   * @param other The other list
+   */
+  public void addAll(EdgeList other) {
+    ensureCapacity(size + other.size);
+    System.arraycopy(other.left, 0, left, size, other.size);
+    System.arraycopy(other.right, 0, right, size, other.size);
+    System.arraycopy(other.similarities, 0, similarities, size, other.size);
+    size += other.size;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int getLeft(int edge) {
+    return left[edge];
+  }
+
+  public int getRight(int edge) {
+    return right[edge];
+  }
+
+  public double getSimilarity(int edge) {
+    return similarities[edge];
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > left.length) {
+      int newCapacity = Math.max(capacity, left.length * 2);
+      left = Arrays.copyOf(left, newCapacity);
+      right = Arrays.copyOf(right, newCapacity);
+      similarities = Arrays.copyOf(similarities, newCapacity);
+    }
+  }
+}
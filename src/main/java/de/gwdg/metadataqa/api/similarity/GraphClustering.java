@@ -0,0 +1,143 @@
+package de.gwdg.metadataqa.api.similarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Clustering of items connected by an edge list.
+ *
+ * The edges are split into connected components with union-find. Within a
+ * component the items are processed in index order, and an item absorbs every
+ * later neighbour that is more similar than the treshold to all members of
+ * its cluster. This is the same complete linkage rule as in Clustering, but
+ * the similarities are kept in compact adjacency arrays instead of per-term
+ * maps, and the components are processed in parallel.
+ */
+public class GraphClustering {
+
+  private final double treshold;
+  private final int[] offsets;
+  private final int[] neighbours;
+  private final double[] similarities;
+  private final List<int[]> clusters;
+
+  /**
+   * @param size The number of items
+   * @param edges The edges between the items (with similarity &gt;= treshold)
+   * @param treshold Two items belong to the same cluster if their similarity is above this
+   */
+  public GraphClustering(int size, EdgeList edges, double treshold) {
+    this.treshold = treshold;
+    offsets = new int[size + 1];
+    neighbours = new int[edges.size() * 2];
+    similarities = new double[edges.size() * 2];
+    buildAdjacency(size, edges);
+
+    var unionFind = new UnionFind(size);
+    for (var e = 0; e < edges.size(); e++)
+      unionFind.union(edges.getLeft(e), edges.getRight(e));
+
+    clusters = unionFind.getComponents()
+      .parallelStream()
+      .map(this::clusterComponent)
+      .flatMap(List::stream)
+      .sorted(Comparator.comparingInt(cluster -> cluster[0]))
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * The clusters, each in ascending item order, ordered by their first item.
+   * @return The clusters
+   */
+  public List<int[]> getClusters() {
+    return clusters;
+  }
+
+  private void buildAdjacency(int size, EdgeList edges) {
+    for (var e = 0; e < edges.size(); e++) {
+      offsets[edges.getLeft(e) + 1]++;
+      offsets[edges.getRight(e) + 1]++;
+    }
+    for (var i = 0; i < size; i++)
+      offsets[i + 1] += offsets[i];
+
+    int[] next = Arrays.copyOf(offsets, size);
+    for (var e = 0; e < edges.size(); e++) {
+      int left = edges.getLeft(e);
+      int right = edges.getRight(e);
+      double similarity = edges.getSimilarity(e);
+      neighbours[next[left]] = right;
+      similarities[next[left]++] = similarity;
+      neighbours[next[right]] = left;
+      similarities[next[right]++] = similarity;
+    }
+
+    // sort every row by neighbour index, so lookups can use binary search
+    for (var i = 0; i < size; i++)
+      sortRow(offsets[i], offsets[i + 1]);
+  }
+
+  private void sortRow(int from, int to) {
+    for (int i = from + 1; i < to; i++) {
+      int neighbour = neighbours[i];
+      double similarity = similarities[i];
+      int j = i - 1;
+      while (j >= from && neighbours[j] > neighbour) {
+        neighbours[j + 1] = neighbours[j];
+        similarities[j + 1] = similarities[j];
+        j--;
+      }
+      neighbours[j + 1] = neighbour;
+      similarities[j + 1] = similarity;
+    }
+  }
+
+  private List<int[]> clusterComponent(int[] component) {
+    List<int[]> result = new ArrayList<>();
+    if (component.length == 1) {
+      result.add(component);
+      return result;
+    }
+
+    var absorbed = new boolean[component.length];
+    for (var p = 0; p < component.length; p++) {
+      if (absorbed[p])
+        continue;
+
+      int item = component[p];
+      var members = new int[]{item};
+      var memberCount = 1;
+      for (int n = offsets[item]; n < offsets[item + 1]; n++) {
+        int candidate = neighbours[n];
+        if (candidate <= item)
+          continue;
+        int position = Arrays.binarySearch(component, candidate);
+        if (absorbed[position])
+          continue;
+        if (isSimilarToAll(candidate, members, memberCount)) {
+          if (memberCount == members.length)
+            members = Arrays.copyOf(members, memberCount * 2);
+          members[memberCount++] = candidate;
+          absorbed[position] = true;
+        }
+      }
+      int[] cluster = Arrays.copyOf(members, memberCount);
+      Arrays.sort(cluster);
+      result.add(cluster);
+    }
+    return result;
+  }
+
+  private boolean isSimilarToAll(int candidate, int[] members, int memberCount) {
+    for (var m = 0; m < memberCount; m++) {
+      int member = members[m];
+      int position = Arrays.binarySearch(neighbours, offsets[member], offsets[member + 1], candidate);
+      if (position < 0 || similarities[position] <= treshold)
+        return false;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,236 @@
+package de.gwdg.metadataqa.api.similarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Locality sensitive hashing of bit patterns with MinHash signatures and
+ * banding. Patterns which share all the MinHash values of at least one band
+ * fall into the same bucket, and only the patterns of the same bucket are
+ * compared, so the number of comparisons grows nearly linearly with the
+ * number of patterns. The probability that a pair with Jaccard similarity s
+ * shares a bucket is 1 - (1 - s^rows)^bands, an S-curve, whose steep part
+ * should be at the clustering treshold: forTreshold() chooses the bands and
+ * rows accordingly. It gives no such guarantee for other measures, e.g.
+ * sparse patterns can be close in Hamming distance without sharing any set
+ * bit.
+ */
+public class MinHashLsh {
+
+  /**
+   * The maximal number of MinHash values of a signature (bands * rows).
+   */
+  public static final int MAX_HASHES = 128;
+  public static final long DEFAULT_SEED = 42L;
+  private static final int INTEGRATION_STEPS = 100;
+
+  private final int bands;
+  private final int rows;
+  private final long[] seeds;
+
+  /**
+   * The hashing for the default treshold of the clustering.
+   */
+  public MinHashLsh() {
+    this(ProfileReader.DEFAULT_TRESHOLD);
+  }
+
+  /**
+   * @param treshold The Jaccard similarity of the clustering, see forTreshold()
+   */
+  public MinHashLsh(double treshold) {
+    this(optimize(treshold), DEFAULT_SEED);
+  }
+
+  private MinHashLsh(int[] bandsAndRows, long seed) {
+    this(bandsAndRows[0], bandsAndRows[1], seed);
+  }
+
+  public MinHashLsh(int bands, int rows, long seed) {
+    if (bands < 1 || rows < 1)
+      throw new IllegalArgumentException("bands and rows should be positive");
+    this.bands = bands;
+    this.rows = rows;
+    var random = new Random(seed);
+    seeds = new long[bands * rows];
+    for (var i = 0; i < seeds.length; i++)
+      seeds[i] = random.nextLong();
+  }
+
+  /**
+   * Choose the bands and rows (at most MAX_HASHES values) which minimize the
+   * probability of false candidates (similarity below the treshold) plus
+   * the probability of missed pairs (similarity at or above the treshold),
+   * integrated over the similarities.
+   * @param treshold The Jaccard similarity of the clustering, between 0 and 1
+   * @return The hashing
+   */
+  public static MinHashLsh forTreshold(double treshold) {
+    return new MinHashLsh(treshold);
+  }
+
+  private static int[] optimize(double treshold) {
+    if (!(treshold > 0 && treshold <= 1))
+      throw new IllegalArgumentException("The treshold should be in (0, 1]: " + treshold);
+    var best = new int[]{1, 1};
+    var minError = Double.MAX_VALUE;
+    for (var b = 1; b <= MAX_HASHES; b++) {
+      for (var r = 1; b * r <= MAX_HASHES; r++) {
+        double error = integrate(b, r, 0, treshold, true) + integrate(b, r, treshold, 1, false);
+        if (error < minError) {
+          minError = error;
+          best = new int[]{b, r};
+        }
+      }
+    }
+    return best;
+  }
+
+  /**
+   * The integral of the candidate probability (or of its complement) by the
+   * trapezoidal rule.
+   */
+  private static double integrate(int bands, int rows, double from, double to, boolean candidate) {
+    double step = (to - from) / INTEGRATION_STEPS;
+    var sum = 0.0;
+    for (var i = 0; i <= INTEGRATION_STEPS; i++) {
+      double s = from + i * step;
+      double probability = 1 - Math.pow(1 - Math.pow(s, rows), bands);
+      double value = candidate ? probability : 1 - probability;
+      sum += (i == 0 || i == INTEGRATION_STEPS) ? value / 2 : value;
+    }
+    return sum * step;
+  }
+
+  /**
+   * Calculate the MinHash signature of a pattern.
+   * @param pattern The pattern
+   * @return The signature with bands * rows values
+   */
+  public int[] signature(BitPattern pattern) {
+    return signature(pattern.getWords(), 0, pattern.getWords().length);
+  }
+
+  /**
+   * Calculate the MinHash signature of a pattern stored in a range of words.
+   * @param words The words
+   * @param from The first word of the pattern
+   * @param length The number of words of the pattern
+   * @return The signature with bands * rows values
+   */
+  public int[] signature(long[] words, int from, int length) {
+    var signature = new int[seeds.length];
+    Arrays.fill(signature, Integer.MAX_VALUE);
+    for (var w = 0; w < length; w++) {
+      long word = words[from + w];
+      while (word != 0) {
+        int bit = w * Long.SIZE + Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+        for (var i = 0; i < seeds.length; i++) {
+          var hash = (int) (mix(seeds[i] + bit) >>> 33);
+          if (hash < signature[i])
+            signature[i] = hash;
+        }
+      }
+    }
+    return signature;
+  }
+
+  /**
+   * Join the patterns of the same buckets which are similar enough. The
+   * pairs are not collected: a pair is compared only if its patterns are
+   * not yet in the same set, so the pairs found in several bands, or already
+   * connected through other patterns, are not compared again.
+   * @param patterns The patterns
+   * @param scorer The similarity of two patterns by their indices
+   * @param treshold The minimal similarity of the joined pairs
+   * @return The sets of the patterns connected by similar pairs
+   */
+  public UnionFind join(List<BitPattern> patterns, PairwiseSimilarity.PairScorer scorer, double treshold) {
+    return join(patterns.size(), i -> signature(patterns.get(i)), scorer, treshold);
+  }
+
+  /**
+   * Join the items of the same buckets which are similar enough, see
+   * join(List, PairScorer, double).
+   * @param size The number of items
+   * @param signer The signature of an item by its index
+   * @param scorer The similarity of two items by their indices
+   * @param treshold The minimal similarity of the joined pairs
+   * @return The sets of the items connected by similar pairs
+   */
+  public UnionFind join(int size, IntFunction<int[]> signer,
+                        PairwiseSimilarity.PairScorer scorer, double treshold) {
+    List<int[]> signatures = new ArrayList<>(size);
+    for (var i = 0; i < size; i++)
+      signatures.add(signer.apply(i));
+
+    var sets = new UnionFind(size);
+    for (var band = 0; band < bands; band++) {
+      Map<BandKey, List<Integer>> buckets = new HashMap<>();
+      for (var i = 0; i < signatures.size(); i++)
+        buckets.computeIfAbsent(new BandKey(signatures.get(i), band * rows, rows), k -> new ArrayList<>(1)).add(i);
+
+      for (List<Integer> bucket : buckets.values())
+        for (var x = 0; x < bucket.size(); x++)
+          for (int y = x + 1; y < bucket.size(); y++)
+            if (sets.find(bucket.get(x)) != sets.find(bucket.get(y))
+                && scorer.score(bucket.get(x), bucket.get(y)) >= treshold)
+              sets.union(bucket.get(x), bucket.get(y));
+    }
+    return sets;
+  }
+
+  /**
+   * The finalizer of SplitMix64. Linear hash functions are not random enough
+   * on the small, consecutive bit positions.
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  public int getBands() {
+    return bands;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  private static class BandKey {
+    private final int[] signature;
+    private final int from;
+    private final int length;
+    private final int hash;
+
+    BandKey(int[] signature, int from, int length) {
+      this.signature = signature;
+      this.from = from;
+      this.length = length;
+      var h = 1;
+      for (int i = from; i < from + length; i++)
+        h = 31 * h + signature[i];
+      this.hash = h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof BandKey))
+        return false;
+      var other = (BandKey) o;
+      return Arrays.equals(signature, from, from + length, other.signature, other.from, other.from + other.length);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
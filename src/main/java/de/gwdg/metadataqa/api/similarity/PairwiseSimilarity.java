@@ -0,0 +1,110 @@
+package de.gwdg.metadataqa.api.similarity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Calculates the similarity of all pairs of n items in parallel. The upper
+ * triangle of the pair matrix is cut into square tiles, the tiles are
+ * processed by a fork-join pool, and only the pairs reaching the treshold are
+ * kept, in a compact edge list. The edges are returned in tile order, so the
+ * result does not depend on the scheduling.
+ */
+public class PairwiseSimilarity {
+
+  public static final int DEFAULT_TILE_SIZE = 256;
+
+  /**
+   * The similarity function of two items. It should be thread-safe.
+   */
+  @FunctionalInterface
+  public interface PairScorer {
+    double score(int i, int j);
+  }
+
+  private final int tileSize;
+  private final ForkJoinPool pool;
+
+  public PairwiseSimilarity() {
+    this(DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+  }
+
+  public PairwiseSimilarity(int tileSize, ForkJoinPool pool) {
+    if (tileSize < 1)
+      throw new IllegalArgumentException("tileSize should be positive");
+    this.tileSize = tileSize;
+    this.pool = pool;
+  }
+
+  /**
+   * Score all pairs (i, j), i &lt; j.
+   * @param size The number of items
+   * @param scorer The similarity function
+   * @param treshold The minimal similarity of the kept pairs
+   * @return The pairs with similarity &gt;= treshold
+   */
+  public EdgeList compute(int size, PairScorer scorer, double treshold) {
+    List<int[]> tiles = new ArrayList<>();
+    for (var rowStart = 0; rowStart < size; rowStart += tileSize)
+      for (int columnStart = rowStart; columnStart < size; columnStart += tileSize)
+        tiles.add(new int[]{rowStart, columnStart});
+
+    if (tiles.isEmpty())
+      return new EdgeList();
+
+    return pool.invoke(new TileTask(tiles, 0, tiles.size(), tileSize, size, scorer, treshold));
+  }
+
+  private static class TileTask extends RecursiveTask<EdgeList> {
+    private static final long serialVersionUID = 6637546589951837641L;
+
+    private final transient List<int[]> tiles;
+    private final int from;
+    private final int to;
+    private final int tileSize;
+    private final int size;
+    private final transient PairScorer scorer;
+    private final double treshold;
+
+    TileTask(List<int[]> tiles, int from, int to, int tileSize, int size, PairScorer scorer, double treshold) {
+      this.tiles = tiles;
+      this.from = from;
+      this.to = to;
+      this.tileSize = tileSize;
+      this.size = size;
+      this.scorer = scorer;
+      this.treshold = treshold;
+    }
+
+    @Override
+    protected EdgeList compute() {
+      if (to - from == 1)
+        return computeTile(tiles.get(from));
+
+      int middle = (from + to) >>> 1;
+      var first = new TileTask(tiles, from, middle, tileSize, size, scorer, treshold);
+      var second = new TileTask(tiles, middle, to, tileSize, size, scorer, treshold);
+      first.fork();
+      EdgeList edges = second.compute();
+      EdgeList result = first.join();
+      result.addAll(edges);
+      return result;
+    }
+
+    private EdgeList computeTile(int[] tile) {
+      var edges = new EdgeList();
+      int rowEnd = Math.min(tile[0] + tileSize, size);
+      int columnEnd = Math.min(tile[1] + tileSize, size);
+      for (int i = tile[0]; i < rowEnd; i++) {
+        for (int j = Math.max(tile[1], i + 1); j < columnEnd; j++) {
+          double similarity = scorer.score(i, j);
+          if (similarity >= treshold)
+            edges.add(i, j, similarity);
+        }
+      }
+      return edges;
+    }
+  }
+}
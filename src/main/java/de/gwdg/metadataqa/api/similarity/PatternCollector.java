@@ -0,0 +1,202 @@
+package de.gwdg.metadataqa.api.similarity;
+
+import de.gwdg.metadataqa.api.json.JsonBranch;
+import de.gwdg.metadataqa.api.schema.Schema;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the distinct field existence patterns of the measured records, so
+ * the profile files read by ProfileReader can be created in the same pass as
+ * the measurement. Every record is represented by a bitset with one bit per
+ * field, and the patterns are counted in a concurrent map, so a single
+ * collector can be shared by the calculators of several threads.
+ */
+public class PatternCollector implements Serializable {
+
+  private static final long serialVersionUID = 6015283761946170741L;
+
+  private final List<String> fields;
+  private final Map<BitPattern, LongAdder> patterns = new ConcurrentHashMap<>();
+  private final LongAdder total = new LongAdder();
+
+  /**
+   * @param fields The names of the fields in the order of the bits
+   */
+  public PatternCollector(List<String> fields) {
+    this.fields = new ArrayList<>(fields);
+  }
+
+  /**
+   * Create a collector for the fields reported by the existence measurement.
+   * @param schema The schema
+   */
+  public PatternCollector(Schema schema) {
+    this(getFields(schema));
+  }
+
+  private static List<String> getFields(Schema schema) {
+    List<String> fields = new ArrayList<>();
+    for (JsonBranch jsonBranch : schema.getPaths())
+      if (!jsonBranch.isCollection() && jsonBranch.isActive())
+        fields.add(jsonBranch.getLabel());
+    return fields;
+  }
+
+  /**
+   * Add the existence vector of a record.
+   * @param existence Field name to existence map
+   */
+  public void add(Map<String, Boolean> existence) {
+    var pattern = new BitPattern(fields.size());
+    for (var i = 0; i < fields.size(); i++)
+      if (Boolean.TRUE.equals(existence.get(fields.get(i))))
+        pattern.set(i);
+    add(pattern);
+  }
+
+  /**
+   * Add a pattern. It should not be modified afterwards.
+   * @param pattern The pattern, one bit per field
+   */
+  public void add(BitPattern pattern) {
+    if (pattern.length() != fields.size())
+      throw new IllegalArgumentException("The pattern should have " + fields.size() + " bits");
+    patterns.computeIfAbsent(pattern, k -> new LongAdder()).increment();
+    total.increment();
+  }
+
+  /**
+   * Merge the patterns of another collector created for the same fields.
+   * @param other The other collector
+   */
+  public void merge(PatternCollector other) {
+    if (!fields.equals(other.fields))
+      throw new IllegalArgumentException("The collectors have different fields");
+    for (Map.Entry<BitPattern, LongAdder> entry : other.patterns.entrySet())
+      patterns.computeIfAbsent(entry.getKey(), k -> new LongAdder()).add(entry.getValue().sum());
+    total.add(other.total.sum());
+  }
+
+  public List<String> getFields() {
+    return fields;
+  }
+
+  public long getTotal() {
+    return total.sum();
+  }
+
+  public int getNumberOfPatterns() {
+    return patterns.size();
+  }
+
+  public long getCount(BitPattern pattern) {
+    LongAdder count = patterns.get(pattern);
+    return count == null ? 0 : count.sum();
+  }
+
+  /**
+   * The lines of the profile file: "id,fields,nr-of-fields,occurrence,percent",
+   * the most frequent pattern first.
+   * @param id The identifier of the dataset
+   * @return The lines
+   */
+  public List<String> getProfileLines(String id) {
+    List<Map.Entry<BitPattern, Long>> entries = getSortedPatterns();
+    long sum = getTotal();
+    List<String> lines = new ArrayList<>(entries.size());
+    for (Map.Entry<BitPattern, Long> entry : entries) {
+      BitPattern pattern = entry.getKey();
+      lines.add(String.format("%s,%s,%d,%d,%s",
+        id,
+        String.join(";", getFieldList(pattern)),
+        pattern.cardinality(),
+        entry.getValue(),
+        (entry.getValue() * 100.0) / sum
+      ));
+    }
+    return lines;
+  }
+
+  /**
+   * The line of the field count file: id,"field=count,field=count,...".
+   * @param id The identifier of the dataset
+   * @return The line
+   */
+  public String getFieldCountLine(String id) {
+    var counts = new long[fields.size()];
+    for (Map.Entry<BitPattern, LongAdder> entry : patterns.entrySet()) {
+      long count = entry.getValue().sum();
+      for (var i = 0; i < fields.size(); i++)
+        if (entry.getKey().get(i))
+          counts[i] += count;
+    }
+
+    List<String> fieldCounts = new ArrayList<>();
+    for (var i = 0; i < fields.size(); i++)
+      if (counts[i] > 0)
+        fieldCounts.add(fields.get(i) + "=" + counts[i]);
+    return id + ",\"" + String.join(",", fieldCounts) + "\"";
+  }
+
+  /**
+   * Create RecordPattern objects, e.g. for clustering without writing files.
+   * @param id The identifier of the dataset
+   * @param binaryMaker The binary maker (usually created with the fields of the field count line)
+   * @return The patterns, the most frequent first
+   */
+  public List<RecordPattern> getRecordPatterns(String id, BinaryMaker binaryMaker) {
+    List<RecordPattern> recordPatterns = new ArrayList<>();
+    for (String line : getProfileLines(id))
+      recordPatterns.add(new RecordPattern(binaryMaker, Arrays.asList(line.split(","))));
+    return recordPatterns;
+  }
+
+  /**
+   * Write the profile file and the field count file.
+   * @param id The identifier of the dataset
+   * @param profileFile The profile file
+   * @param fieldCountFile The field count file
+   * @throws IOException If the files can not be written
+   */
+  public void write(String id, Path profileFile, Path fieldCountFile) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(profileFile, StandardCharsets.UTF_8)) {
+      for (String line : getProfileLines(id))
+        writer.write(line + "\n");
+    }
+    try (Writer writer = Files.newBufferedWriter(fieldCountFile, StandardCharsets.UTF_8)) {
+      writer.write(getFieldCountLine(id) + "\n");
+    }
+  }
+
+  private List<String> getFieldList(BitPattern pattern) {
+    List<String> existing = new ArrayList<>();
+    for (var i = 0; i < fields.size(); i++)
+      if (pattern.get(i))
+        existing.add(fields.get(i));
+    return existing;
+  }
+
+  private List<Map.Entry<BitPattern, Long>> getSortedPatterns() {
+    List<Map.Entry<BitPattern, Long>> entries = new ArrayList<>(patterns.size());
+    for (Map.Entry<BitPattern, LongAdder> entry : patterns.entrySet())
+      entries.add(Map.entry(entry.getKey(), entry.getValue().sum()));
+    entries.sort(
+      Comparator.comparing((Map.Entry<BitPattern, Long> e) -> e.getValue()).reversed()
+        .thenComparing(e -> e.getKey().toBinaryString())
+    );
+    return entries;
+  }
+}
@@ -1,13 +1,11 @@
 package de.gwdg.metadataqa.api.similarity;
 
 import de.gwdg.metadataqa.api.util.FileUtils;
+import org.apache.commons.text.similarity.JaroWinklerDistance;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -24,34 +22,132 @@ public class ProfileReader {
 
   public static final double DEFAULT_TRESHOLD = 0.97;
   private List<String> profiles;
-  private Map<String, RecordPattern> rowIndex;
+  private ProfileTable table;
   private int i = 0;
   private BinaryMaker binaryMaker;
+  private PairwiseSimilarity pairwiseSimilarity = new PairwiseSimilarity();
 
   public ProfileReader(List<String> canonicalFieldList, List<String> profiles) {
     binaryMaker = new BinaryMaker(canonicalFieldList);
     this.profiles = profiles;
-    rowIndex = new HashMap<>();
   }
 
+  /**
+   * Create a reader of an already parsed profile, e.g. the one of a
+   * memory-mapped file (see ProfileTable.read()).
+   * @param table The profile table
+   */
+  public ProfileReader(ProfileTable table) {
+    binaryMaker = table.getBinaryMaker();
+    this.table = table;
+  }
+
+  /**
+   * Build clusters with the Jaccard similarity of the default treshold, see
+   * buildCluster(double).
+   * @return The clusters sorted by their total percent
+   */
   public Map<List<RecordPattern>, Double> buildCluster() {
     return buildCluster(DEFAULT_TRESHOLD);
   }
 
+  /**
+   * Build clusters with the Jaccard similarity of the patterns. Only the
+   * patterns sharing a bucket of the MinHash locality sensitive hashing are
+   * compared, so the number of comparisons grows nearly linearly with the
+   * number of patterns.
+   * @param treshold The minimal similarity
+   * @return The clusters sorted by their total percent
+   */
   public Map<List<RecordPattern>, Double> buildCluster(double treshold) {
-    List<String> binaryPatterns = createBinaryPatternList();
+    return buildCluster(treshold, SimilarityMeasure.JACCARD, MinHashLsh.forTreshold(treshold));
+  }
+
+  /**
+   * Build clusters with the given similarity measure. JACCARD uses the
+   * locality sensitive hashing of buildCluster(double). MinHash approximates
+   * only the Jaccard similarity, so JARO_WINKLER and HAMMING compare all the
+   * pairs (in parallel): they are exact, but quadratic in the number of
+   * patterns. The JARO_WINKLER clusters are the same as the ones of
+   * Clustering.
+   * @param treshold The minimal similarity
+   * @param measure The similarity measure
+   * @return The clusters sorted by their total percent
+   */
+  public Map<List<RecordPattern>, Double> buildCluster(double treshold, SimilarityMeasure measure) {
+    switch (measure) {
+      case JARO_WINKLER:
+        return buildJaroWinklerCluster(treshold);
+      case HAMMING:
+        int[] rows = getTable().distinctRows();
+        return buildAllPairsCluster(rows, (i, j) -> table.hammingSimilarity(rows[i], rows[j]), treshold);
+      case JACCARD:
+      default:
+        return buildCluster(treshold);
+    }
+  }
+
+  /**
+   * Jaro-Winkler compares the binary strings of the patterns. They are
+   * visited in the order of Clustering (the iteration order of its HashMap),
+   * which determines which clusters absorb which.
+   */
+  private Map<List<RecordPattern>, Double> buildJaroWinklerCluster(double treshold) {
+    getTable();
+    Map<String, Integer> rowIndex = new HashMap<>();
+    for (var row = 0; row < table.size(); row++)
+      rowIndex.put(table.getBinary(row), row);
+    List<String> binaryPatterns = new ArrayList<>(rowIndex.keySet());
+    int[] rows = binaryPatterns.stream().mapToInt(rowIndex::get).toArray();
+
+    var jaroWinkler = new JaroWinklerDistance();
+    return buildAllPairsCluster(rows,
+      (i, j) -> jaroWinkler.apply(binaryPatterns.get(i), binaryPatterns.get(j)), treshold);
+  }
+
+  private Map<List<RecordPattern>, Double> buildAllPairsCluster(int[] rows,
+                                                               PairwiseSimilarity.PairScorer scorer,
+                                                               double treshold) {
+    EdgeList edges = pairwiseSimilarity.compute(rows.length, scorer, treshold);
+    return toSortedClusters(rows, new GraphClustering(rows.length, edges, treshold).getClusters());
+  }
 
-    var clustering = new Clustering(binaryPatterns, treshold);
-    List<List<String>> clusters = clustering.getClusters();
+  /**
+   * Build clusters with Jaccard similarity, comparing the patterns of the
+   * same buckets of the locality sensitive hashing. A cluster is a set of
+   * patterns connected by similar pairs (single linkage).
+   * @param treshold The minimal similarity
+   * @param measure JACCARD, the only measure MinHash is sensitive to
+   * @param lsh The locality sensitive hashing
+   * @return The clusters sorted by their total percent
+   */
+  public Map<List<RecordPattern>, Double> buildCluster(double treshold,
+                                                      SimilarityMeasure measure,
+                                                      MinHashLsh lsh) {
+    if (!measure.equals(SimilarityMeasure.JACCARD))
+      throw new IllegalArgumentException("MinHash LSH supports only the JACCARD measure, not " + measure);
 
+    int[] rows = getTable().distinctRows();
+    UnionFind sets = lsh.join(rows.length,
+      i -> table.signature(lsh, rows[i]),
+      (i, j) -> table.jaccard(rows[i], rows[j]),
+      treshold);
+    return toSortedClusters(rows, sets.getComponents());
+  }
+
+  /**
+   * @param rows The rows of the clustered items
+   * @param clusters The clusters of item indices
+   */
+  private Map<List<RecordPattern>, Double> toSortedClusters(int[] rows, List<int[]> clusters) {
     Map<List<RecordPattern>, Double> sortableClusters = new HashMap<>();
-    for (List<String> terms : clusters) {
+    for (int[] cluster : clusters) {
       var sum = 0.0;
-      Map<String, RecordPattern> sortableTerms = new HashMap<>();
-      for (String term : terms) {
-        RecordPattern row = rowIndex.get(term);
+      List<RecordPattern> sortableTerms = new ArrayList<>(cluster.length);
+      for (int index : cluster) {
+        RecordPattern row = table.getRecordPattern(rows[index]);
         sum += row.getPercent();
-        sortableTerms.put(term, row);
+        sortableTerms.add(row);
       }
 
       List<RecordPattern> sortedTerms = sortTerms(sortableTerms);
@@ -76,18 +172,24 @@ public class ProfileReader {
       );
   }
 
+  /**
+   * Set the parallel similarity calculator, e.g. to use a dedicated pool.
+   * @param pairwiseSimilarity The calculator
+   */
+  public void setPairwiseSimilarity(PairwiseSimilarity pairwiseSimilarity) {
+    this.pairwiseSimilarity = pairwiseSimilarity;
+  }
+
   public int getNext() {
     return i++;
   }
 
-  private List<RecordPattern> sortTerms(Map<String, RecordPattern> sortableTerms) {
+  private List<RecordPattern> sortTerms(List<RecordPattern> sortableTerms) {
     return sortableTerms.
-          entrySet().
           stream().
           sorted(
-            (e1, e2) -> e2.getValue().getPercent().compareTo(e1.getValue().getPercent())
+            (e1, e2) -> e2.getPercent().compareTo(e1.getPercent())
           ).
-          map(Map.Entry::getValue).
           collect(Collectors.toList());
   }
 
@@ -98,37 +200,46 @@ public class ProfileReader {
     return sum;
   }
 
+  /**
+   * The binary strings of the patterns, in the order of the profile.
+   * @return The binary strings
+   */
   public List<String> createBinaryPatternList() {
-    List<String> binaryPatterns = new ArrayList<>();
-    for (String line : profiles) {
-      var row = new RecordPattern(binaryMaker, Arrays.asList(line.split(",")));
-      binaryPatterns.add(row.getBinary());
-      rowIndex.put(row.getBinary(), row);
-    }
+    getTable();
+    List<String> binaryPatterns = new ArrayList<>(table.size());
+    for (var row = 0; row < table.size(); row++)
+      binaryPatterns.add(table.getBinary(row));
     return binaryPatterns;
   }
 
+  private ProfileTable getTable() {
+    if (table == null)
+      table = ProfileTable.of(profiles, binaryMaker);
+    return table;
+  }
+
   public static void main(String[] args) throws IOException {
     String fieldListFile = args[0];
     String profileFile = args[1];
 
-    boolean produceList = (args.length > 2 && args[2].equals("list"));
+    String mode = args.length > 2 ? args[2] : null;
+    boolean produceList = "list".equals(mode);
 
     List<String> canonicalFieldList = ProfileReader.parseFieldCountLine(
       FileUtils.readFirstLineFromFile(fieldListFile));
+    var binaryMaker = new BinaryMaker(canonicalFieldList);
 
-    List<String> profiles = Files.readAllLines(
-      Paths.get(profileFile), Charset.defaultCharset()
-    );
-
-    var profileReader = new ProfileReader(canonicalFieldList, profiles);
     if (produceList) {
-      List<String> binaryPatterns = profileReader.createBinaryPatternList();
-      for (String binaryPattern : binaryPatterns) {
-        System.out.println(binaryPattern);
-      }
+      ProfileTable.scan(Paths.get(profileFile), binaryMaker,
+        (pattern, numberOfFields, count, percent, buffer, lineStart, lineLength) ->
+          System.out.println(pattern.toBinaryString())
+      );
     } else {
-      Map<List<RecordPattern>, Double> sortedClusters = profileReader.buildCluster();
+      var profileReader = new ProfileReader(ProfileTable.read(Paths.get(profileFile), binaryMaker));
+      Map<List<RecordPattern>, Double> sortedClusters = mode == null
+        ? profileReader.buildCluster()
+        : profileReader.buildCluster(DEFAULT_TRESHOLD,
+            SimilarityMeasure.valueOf(mode.toUpperCase().replace('-', '_')));
       sortedClusters.
         entrySet().
         stream().
@@ -0,0 +1,443 @@
+package de.gwdg.metadataqa.api.similarity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact, column oriented representation of a profile file (lines of
+ * "id,fields,nr-of-fields,occurrence,percent").
+ *
+ * The field lists are encoded straight into the words of the weighted bit
+ * patterns, and only the numbers needed for the clustering are kept. The
+ * lines themselves are not copied into the heap: when the table is read from
+ * a file, the file is memory-mapped and a line is decoded only if a
+ * RecordPattern is requested for it.
+ */
+public class ProfileTable {
+
+  /**
+   * The maximal size of a mapped window. A line should not be longer than this.
+   */
+  static final int WINDOW_SIZE = 1 << 30;
+
+  private final BinaryMaker binaryMaker;
+  private final int wordsPerRow;
+  private int size = 0;
+  private long[] words;
+  private int[] numberOfFields;
+  private int[] counts;
+  private double[] percents;
+
+  // line locations: either in the mapped windows or in a list of lines
+  private final List<ByteBuffer> windows = new ArrayList<>();
+  private int[] lineWindows;
+  private int[] lineStarts;
+  private int[] lineLengths;
+  private List<String> lines;
+  private int[] lineIndices;
+
+  private ProfileTable(BinaryMaker binaryMaker) {
+    this.binaryMaker = binaryMaker;
+    wordsPerRow = (binaryMaker.getLength() + Long.SIZE - 1) / Long.SIZE;
+    int capacity = 16;
+    words = new long[capacity * wordsPerRow];
+    numberOfFields = new int[capacity];
+    counts = new int[capacity];
+    percents = new double[capacity];
+    lineWindows = new int[capacity];
+    lineStarts = new int[capacity];
+    lineLengths = new int[capacity];
+  }
+
+  /**
+   * Read a profile file.
+   * @param file The profile file (UTF-8)
+   * @param binaryMaker The binary maker of the canonical field list
+   * @return The table
+   * @throws IOException If the file can not be read
+   */
+  public static ProfileTable read(Path file, BinaryMaker binaryMaker) throws IOException {
+    var table = new ProfileTable(binaryMaker);
+    scan(file, binaryMaker, table::add);
+    return table;
+  }
+
+  /**
+   * Create a table from profile lines already in memory.
+   * @param lines The lines
+   * @param binaryMaker The binary maker of the canonical field list
+   * @return The table
+   */
+  public static ProfileTable of(List<String> lines, BinaryMaker binaryMaker) {
+    var table = new ProfileTable(binaryMaker);
+    table.lines = lines;
+    table.lineIndices = new int[lines.size()];
+    var parser = new LineParser(binaryMaker);
+    for (var i = 0; i < lines.size(); i++) {
+      if (lines.get(i).isEmpty())
+        continue;
+      var line = ByteBuffer.wrap(lines.get(i).getBytes(StandardCharsets.UTF_8));
+      BitPattern pattern = parser.parse(line, 0, line.limit());
+      table.lineIndices[table.size] = i;
+      table.add(pattern, parser.numberOfFields, parser.count, parser.percent, null, 0, 0);
+    }
+    return table;
+  }
+
+  /**
+   * Visit the lines of a profile file without keeping them. The pattern
+   * passed to the consumer is reused between the calls.
+   * @param file The profile file (UTF-8)
+   * @param binaryMaker The binary maker of the canonical field list
+   * @param consumer The consumer of the parsed lines
+   * @throws IOException If the file can not be read
+   */
+  public static void scan(Path file, BinaryMaker binaryMaker, RowConsumer consumer) throws IOException {
+    var parser = new LineParser(binaryMaker);
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long fileSize = channel.size();
+      long position = 0;
+      while (position < fileSize) {
+        long windowSize = Math.min(WINDOW_SIZE, fileSize - position);
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+        boolean last = position + windowSize == fileSize;
+        int start = 0;
+        int limit = (int) windowSize;
+        while (start < limit) {
+          int end = start;
+          while (end < limit && window.get(end) != '\n')
+            end++;
+          if (end == limit && !last)
+            break;
+          int lineEnd = (end > start && window.get(end - 1) == '\r') ? end - 1 : end;
+          if (lineEnd > start) {
+            BitPattern pattern = parser.parse(window, start, lineEnd);
+            consumer.accept(pattern, parser.numberOfFields, parser.count, parser.percent, window, start, lineEnd - start);
+          }
+          start = end + 1;
+        }
+        if (start == 0 && !last)
+          throw new IOException("Line is longer than " + WINDOW_SIZE + " bytes at position " + position);
+        position += Math.min(start, limit);
+      }
+    }
+  }
+
+  private void add(BitPattern pattern, int fieldCount, int count, double percent,
+                   ByteBuffer window, int lineStart, int lineLength) {
+    if (size == counts.length)
+      grow();
+    System.arraycopy(pattern.getWords(), 0, words, size * wordsPerRow, wordsPerRow);
+    numberOfFields[size] = fieldCount;
+    counts[size] = count;
+    percents[size] = percent;
+    if (window != null) {
+      if (windows.isEmpty() || windows.get(windows.size() - 1) != window)
+        windows.add(window);
+      lineWindows[size] = windows.size() - 1;
+    }
+    lineStarts[size] = lineStart;
+    lineLengths[size] = lineLength;
+    size++;
+  }
+
+  private void grow() {
+    int capacity = counts.length * 2;
+    words = Arrays.copyOf(words, capacity * wordsPerRow);
+    numberOfFields = Arrays.copyOf(numberOfFields, capacity);
+    counts = Arrays.copyOf(counts, capacity);
+    percents = Arrays.copyOf(percents, capacity);
+    lineWindows = Arrays.copyOf(lineWindows, capacity);
+    lineStarts = Arrays.copyOf(lineStarts, capacity);
+    lineLengths = Arrays.copyOf(lineLengths, capacity);
+  }
+
+  public BinaryMaker getBinaryMaker() {
+    return binaryMaker;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public BitPattern getBitPattern(int row) {
+    var pattern = new BitPattern(binaryMaker.getLength());
+    System.arraycopy(words, row * wordsPerRow, pattern.getWords(), 0, wordsPerRow);
+    return pattern;
+  }
+
+  /**
+   * The rows of the distinct patterns. If a pattern occurs in more rows, the
+   * last one is kept.
+   * @return The rows in ascending order
+   */
+  public int[] distinctRows() {
+    var slots = new int[Integer.highestOneBit(Math.max(1, size) * 2) * 2];
+    Arrays.fill(slots, -1);
+    var distinct = new boolean[size];
+    for (var row = 0; row < size; row++) {
+      int slot = hashRow(row) & (slots.length - 1);
+      while (slots[slot] != -1 && !equalRows(slots[slot], row))
+        slot = (slot + 1) & (slots.length - 1);
+      if (slots[slot] != -1)
+        distinct[slots[slot]] = false;
+      slots[slot] = row;
+      distinct[row] = true;
+    }
+    var rows = new int[size];
+    var count = 0;
+    for (var row = 0; row < size; row++)
+      if (distinct[row])
+        rows[count++] = row;
+    return Arrays.copyOf(rows, count);
+  }
+
+  private int hashRow(int row) {
+    var h = 1L;
+    for (int i = row * wordsPerRow; i < (row + 1) * wordsPerRow; i++)
+      h = 31 * h + words[i];
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private boolean equalRows(int a, int b) {
+    return Arrays.equals(words, a * wordsPerRow, (a + 1) * wordsPerRow,
+                         words, b * wordsPerRow, (b + 1) * wordsPerRow);
+  }
+
+  /**
+   * The Jaccard similarity of the patterns of two rows, see BitPattern.jaccard().
+   */
+  public double jaccard(int a, int b) {
+    int intersection = 0;
+    int union = 0;
+    for (var i = 0; i < wordsPerRow; i++) {
+      long wordA = words[a * wordsPerRow + i];
+      long wordB = words[b * wordsPerRow + i];
+      intersection += Long.bitCount(wordA & wordB);
+      union += Long.bitCount(wordA | wordB);
+    }
+    return union == 0 ? 1.0 : (double) intersection / union;
+  }
+
+  /**
+   * The Hamming similarity of the patterns of two rows, see BitPattern.hammingSimilarity().
+   */
+  public double hammingSimilarity(int a, int b) {
+    if (binaryMaker.getLength() == 0)
+      return 1.0;
+    var distance = 0;
+    for (var i = 0; i < wordsPerRow; i++)
+      distance += Long.bitCount(words[a * wordsPerRow + i] ^ words[b * wordsPerRow + i]);
+    return 1.0 - ((double) distance / binaryMaker.getLength());
+  }
+
+  /**
+   * The MinHash signature of the pattern of a row, without copying it.
+   */
+  int[] signature(MinHashLsh lsh, int row) {
+    return lsh.signature(words, row * wordsPerRow, wordsPerRow);
+  }
+
+  public String getBinary(int row) {
+    var sb = new StringBuilder(binaryMaker.getLength());
+    int offset = row * wordsPerRow;
+    for (var i = 0; i < binaryMaker.getLength(); i++)
+      sb.append((words[offset + i / Long.SIZE] & (1L << (i % Long.SIZE))) != 0 ? '1' : '0');
+    return sb.toString();
+  }
+
+  public int getNumberOfFields(int row) {
+    return numberOfFields[row];
+  }
+
+  public int getCount(int row) {
+    return counts[row];
+  }
+
+  public double getPercent(int row) {
+    return percents[row];
+  }
+
+  /**
+   * The original line, decoded on request.
+   * @param row The row
+   * @return The line
+   */
+  public String getLine(int row) {
+    if (lines != null)
+      return lines.get(lineIndices[row]);
+    var bytes = new byte[lineLengths[row]];
+    windows.get(lineWindows[row]).duplicate().position(lineStarts[row]).get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  public RecordPattern getRecordPattern(int row) {
+    return new RecordPattern(binaryMaker, Arrays.asList(getLine(row).split(",")));
+  }
+
+  /**
+   * Consumer of the parsed profile lines.
+   */
+  public interface RowConsumer {
+    void accept(BitPattern pattern, int numberOfFields, int count, double percent,
+                ByteBuffer buffer, int lineStart, int lineLength) throws IOException;
+  }
+
+  /**
+   * Parses a line directly from the bytes. The field names are looked up in
+   * an open addressing table of their UTF-8 bytes, so no String is created for
+   * them.
+   */
+  private static class LineParser {
+    private static final long MAX_EXACT_MANTISSA = 100_000_000_000_000L;
+    private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final BinaryMaker binaryMaker;
+    private final byte[][] names;
+    private final int[] slots;
+    private final BitPattern pattern;
+    private int numberOfFields;
+    private int count;
+    private double percent;
+
+    LineParser(BinaryMaker binaryMaker) {
+      this.binaryMaker = binaryMaker;
+      this.pattern = new BitPattern(binaryMaker.getLength());
+      List<String> fields = binaryMaker.getCanonicalFieldList();
+      names = new byte[fields.size()][];
+      slots = new int[Integer.highestOneBit(Math.max(1, fields.size()) * 4) * 2];
+      Arrays.fill(slots, -1);
+      for (var i = 0; i < fields.size(); i++) {
+        names[i] = fields.get(i).getBytes(StandardCharsets.UTF_8);
+        var buffer = ByteBuffer.wrap(names[i]);
+        int slot = hash(buffer, 0, names[i].length) & (slots.length - 1);
+        while (slots[slot] != -1 && !matches(slots[slot], buffer, 0, names[i].length))
+          slot = (slot + 1) & (slots.length - 1);
+        if (slots[slot] == -1)
+          slots[slot] = i;
+      }
+    }
+
+    BitPattern parse(ByteBuffer line, int start, int end) {
+      Arrays.fill(pattern.getWords(), 0L);
+      int idEnd = indexOf(line, start, end, (byte) ',');
+      int fieldsEnd = indexOf(line, idEnd + 1, end, (byte) ',');
+      int nrEnd = indexOf(line, fieldsEnd + 1, end, (byte) ',');
+      int countEnd = indexOf(line, nrEnd + 1, end, (byte) ',');
+      if (countEnd == end)
+        throw new IllegalArgumentException("Invalid profile line: " + decode(line, start, end));
+
+      int fieldStart = idEnd + 1;
+      while (fieldStart <= fieldsEnd) {
+        int fieldEnd = indexOf(line, fieldStart, fieldsEnd, (byte) ';');
+        int field = lookup(line, fieldStart, fieldEnd);
+        if (field != -1)
+          binaryMaker.setField(pattern, field);
+        fieldStart = fieldEnd + 1;
+      }
+      numberOfFields = parseInt(line, fieldsEnd + 1, nrEnd);
+      count = parseInt(line, nrEnd + 1, countEnd);
+      percent = parseDouble(line, countEnd + 1, end);
+      return pattern;
+    }
+
+    private int lookup(ByteBuffer buffer, int from, int to) {
+      int slot = hash(buffer, from, to) & (slots.length - 1);
+      while (slots[slot] != -1) {
+        if (matches(slots[slot], buffer, from, to))
+          return slots[slot];
+        slot = (slot + 1) & (slots.length - 1);
+      }
+      return -1;
+    }
+
+    private boolean matches(int field, ByteBuffer buffer, int from, int to) {
+      byte[] name = names[field];
+      if (name.length != to - from)
+        return false;
+      for (var i = 0; i < name.length; i++)
+        if (name[i] != buffer.get(from + i))
+          return false;
+      return true;
+    }
+
+    private static int hash(ByteBuffer buffer, int from, int to) {
+      var h = 1;
+      for (int i = from; i < to; i++)
+        h = 31 * h + buffer.get(i);
+      return h ^ (h >>> 16);
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to, byte b) {
+      for (int i = from; i < to; i++)
+        if (buffer.get(i) == b)
+          return i;
+      return to;
+    }
+
+    private static int parseInt(ByteBuffer buffer, int from, int to) {
+      if (from >= to)
+        throw new NumberFormatException("Empty number");
+      var value = 0;
+      for (int i = from; i < to; i++) {
+        int digit = buffer.get(i) - '0';
+        if (digit < 0 || digit > 9)
+          throw new NumberFormatException("Invalid number: " + decode(buffer, from, to));
+        value = value * 10 + digit;
+      }
+      return value;
+    }
+
+    /**
+     * Parse a plain decimal number. If it has at most 15 significant digits
+     * (and at most 22 decimals), the quotient of the digits and a power of ten
+     * is exact, and the single division rounds it the same way as
+     * Double.parseDouble(). Anything else is passed to Double.parseDouble().
+     */
+    private static double parseDouble(ByteBuffer buffer, int from, int to) {
+      int i = from;
+      boolean negative = i < to && buffer.get(i) == '-';
+      if (negative)
+        i++;
+      long mantissa = 0;
+      var scale = 0;
+      var digits = 0;
+      var point = false;
+      for (; i < to; i++) {
+        byte b = buffer.get(i);
+        if (b == '.' && !point) {
+          point = true;
+          continue;
+        }
+        int digit = b - '0';
+        if (digit < 0 || digit > 9 || mantissa >= MAX_EXACT_MANTISSA)
+          return Double.parseDouble(decode(buffer, from, to));
+        mantissa = mantissa * 10 + digit;
+        digits++;
+        if (point)
+          scale++;
+      }
+      if (digits == 0 || scale >= POWERS_OF_TEN.length)
+        return Double.parseDouble(decode(buffer, from, to));
+      double value = mantissa / POWERS_OF_TEN[scale];
+      return negative ? -value : value;
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to) {
+      var bytes = new byte[to - from];
+      buffer.duplicate().position(from).get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -14,6 +14,7 @@ public class RecordPattern {
   private String fields;
   private List<String> fieldList;
   private String binary;
+  private BitPattern bitPattern;
   private String id;
   private Integer length;
   private Integer count;
@@ -33,7 +34,8 @@ public class RecordPattern {
     percent = Double.parseDouble(rec.get(4));
 
     fieldList = Arrays.asList(fields.split(";"));
-    binary = binaryMaker.fieldListToBinary(fieldList);
+    bitPattern = binaryMaker.fieldListToBitPattern(fieldList);
+    binary = bitPattern.toBinaryString();
   }
 
   public String asCsv() {
@@ -48,6 +50,10 @@ public class RecordPattern {
     return binary;
   }
 
+  public BitPattern getBitPattern() {
+    return bitPattern;
+  }
+
   public List<String> getFieldList() {
     return fieldList;
   }
@@ -0,0 +1,19 @@
+package de.gwdg.metadataqa.api.similarity;
+
+/**
+ * The similarity measures of the record pattern clustering.
+ */
+public enum SimilarityMeasure {
+  /**
+   * Jaro-Winkler similarity of the binary strings (the original behaviour).
+   */
+  JARO_WINKLER,
+  /**
+   * One minus the normalized Hamming distance of the weighted bit patterns.
+   */
+  HAMMING,
+  /**
+   * Jaccard similarity of the set bits of the weighted bit patterns.
+   */
+  JACCARD
+}
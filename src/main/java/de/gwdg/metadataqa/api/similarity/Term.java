@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Term object.
@@ -39,6 +40,14 @@ public class Term {
     return distances.containsKey(other.value);
   }
 
+  /**
+   * The values of the terms this term has a distance to.
+   * @return The neighbour terms
+   */
+  public Set<String> getNeighbours() {
+    return distances.keySet();
+  }
+
   public String formatDistances() {
     List<String> formattedDistances = new ArrayList<>();
     for (Map.Entry<String, Double> distance : distances.entrySet())
@@ -0,0 +1,72 @@
+package de.gwdg.metadataqa.api.similarity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Disjoint set forest with union by rank and path halving.
+ */
+public class UnionFind {
+
+  private final int[] parent;
+  private final byte[] rank;
+
+  public UnionFind(int size) {
+    parent = new int[size];
+    rank = new byte[size];
+    for (var i = 0; i < size; i++)
+      parent[i] = i;
+  }
+
+  public int find(int element) {
+    while (parent[element] != element) {
+      parent[element] = parent[parent[element]];
+      element = parent[element];
+    }
+    return element;
+  }
+
+  /**
+   * Join the sets of two elements.
+   * @return true if they were in different sets
+   */
+  public boolean union(int a, int b) {
+    int rootA = find(a);
+    int rootB = find(b);
+    if (rootA == rootB)
+      return false;
+
+    if (rank[rootA] < rank[rootB]) {
+      parent[rootA] = rootB;
+    } else if (rank[rootA] > rank[rootB]) {
+      parent[rootB] = rootA;
+    } else {
+      parent[rootB] = rootA;
+      rank[rootA]++;
+    }
+    return true;
+  }
+
+  /**
+   * The sets, each in ascending element order, ordered by their smallest element.
+   * @return The components
+   */
+  public List<int[]> getComponents() {
+    var sizes = new int[parent.length];
+    for (var i = 0; i < parent.length; i++)
+      sizes[find(i)]++;
+
+    var members = new int[parent.length][];
+    List<int[]> components = new ArrayList<>();
+    var filled = new int[parent.length];
+    for (var i = 0; i < parent.length; i++) {
+      int root = find(i);
+      if (members[root] == null) {
+        members[root] = new int[sizes[root]];
+        components.add(members[root]);
+      }
+      members[root][filled[root]++] = i;
+    }
+    return components;
+  }
+}
@@ -0,0 +1,63 @@
+package de.gwdg.metadataqa.api.util;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream reading the remaining bytes of a buffer, without copying
+ * them. It reads a duplicate, so the position of the original buffer is not
+ * changed.
+ */
+public final class ByteBufferInputStream extends InputStream {
+
+  private final ByteBuffer buffer;
+
+  public ByteBufferInputStream(ByteBuffer buffer) {
+    this.buffer = buffer.duplicate();
+  }
+
+  @Override
+  public int read() {
+    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) {
+    if (length == 0)
+      return 0;
+    if (!buffer.hasRemaining())
+      return -1;
+    int count = Math.min(length, buffer.remaining());
+    buffer.get(bytes, offset, count);
+    return count;
+  }
+
+  @Override
+  public long skip(long n) {
+    int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+    buffer.position(buffer.position() + count);
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+
+  /**
+   * Returns the remaining bytes of a buffer as an array. If the buffer wraps
+   * an array which holds exactly these bytes, that array is returned, and the
+   * bytes are copied only otherwise.
+   * @param buffer The buffer
+   * @return The bytes
+   */
+  public static byte[] toByteArray(ByteBuffer buffer) {
+    if (buffer.hasArray()
+        && buffer.arrayOffset() + buffer.position() == 0
+        && buffer.remaining() == buffer.array().length)
+      return buffer.array();
+    var bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,85 @@
+package de.gwdg.metadataqa.api.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A bounded concurrent cache with approximate LRU eviction (CLOCK, or second
+ * chance). The entries are kept in a ConcurrentHashMap, so a lookup takes no
+ * lock, it only marks the entry as referenced. When the cache is full, one
+ * thread moves the hand of the clock over the entries: it removes the entries
+ * which were not referenced since its last visit, and clears the mark of the
+ * others, until the cache is within its capacity. While a thread evicts, the
+ * others do not wait, so the cache can be over its capacity by the number of
+ * concurrent insertions.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+class ClockCache<K, V> {
+
+  private final int capacity;
+  private final Map<K, Entry<V>> entries;
+  private final AtomicBoolean evicting = new AtomicBoolean(false);
+  private Iterator<Map.Entry<K, Entry<V>>> hand;
+
+  ClockCache(int capacity) {
+    if (capacity < 1)
+      throw new IllegalArgumentException("The capacity should be positive");
+    this.capacity = capacity;
+    this.entries = new ConcurrentHashMap<>(Math.min(capacity, 1 << 10));
+  }
+
+  /**
+   * @return The value, or null if the key is not cached
+   */
+  V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null)
+      return null;
+    if (!entry.referenced)
+      entry.referenced = true;
+    return entry.value;
+  }
+
+  void put(K key, V value) {
+    if (entries.putIfAbsent(key, new Entry<>(value)) == null && entries.size() > capacity)
+      evict();
+  }
+
+  private void evict() {
+    if (!evicting.compareAndSet(false, true))
+      return;
+    try {
+      while (entries.size() > capacity) {
+        if (hand == null || !hand.hasNext())
+          hand = entries.entrySet().iterator();
+        if (!hand.hasNext())
+          break;
+        Map.Entry<K, Entry<V>> next = hand.next();
+        Entry<V> entry = next.getValue();
+        if (entry.referenced)
+          entry.referenced = false;
+        else
+          entries.remove(next.getKey(), entry);
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private static class Entry<V> {
+    private final V value;
+    private volatile boolean referenced = false;
+
+    Entry(V value) {
+      this.value = value;
+    }
+  }
+}
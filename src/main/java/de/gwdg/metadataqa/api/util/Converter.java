@@ -3,9 +3,14 @@ package de.gwdg.metadataqa.api.util;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
 
+import de.gwdg.metadataqa.api.model.pathcache.PathCache;
 import de.gwdg.metadataqa.api.rule.RuleCheckerOutput;
 import de.gwdg.metadataqa.api.rule.RuleCheckingOutputType;
 import de.gwdg.metadataqa.api.schema.Format;
@@ -19,6 +24,19 @@ import org.apache.commons.lang3.StringUtils;
  */
 public interface Converter {
 
+  /**
+   * The memo functions of getFragmentList() per format. The map is
+   * unmodifiable: the functions are the keys of the memoized values.
+   */
+  Map<Format, BiFunction<PathCache, String, List<Object>>> FRAGMENT_LISTS = createFragmentListFunctions();
+
+  private static Map<Format, BiFunction<PathCache, String, List<Object>>> createFragmentListFunctions() {
+    Map<Format, BiFunction<PathCache, String, List<Object>>> functions = new EnumMap<>(Format.class);
+    for (Format format : Format.values())
+      functions.put(format, (cache, jsonPath) -> jsonObjectToList(cache.getFragment(jsonPath), format));
+    return Collections.unmodifiableMap(functions);
+  }
+
   /**
    * Transforms different objects (BigDecimal, Integer) to Double.
    *
@@ -130,14 +148,32 @@ public interface Converter {
   }
 
   public static List<Object> jsonObjectToList(Object jsonFragment, Schema schema) {
+    return jsonObjectToList(jsonFragment, schema.getFormat());
+  }
+
+  public static List<Object> jsonObjectToList(Object jsonFragment, Format format) {
     List<Object> list = null;
-    if (schema.getFormat().equals(Format.JSON))
+    if (format.equals(Format.JSON))
       list = Converter.jsonObjectToList(jsonFragment);
     else
       list = (List<Object>) jsonFragment;
     return list;
   }
 
+  /**
+   * The list of the fragments found at a path of the record. It is computed
+   * once per record, and shared by all the callers, so it should not be
+   * modified.
+   *
+   * @param cache The record
+   * @param jsonPath The path of the fragments (usually a collection path)
+   * @param schema The schema
+   * @return The list of fragments
+   */
+  public static List<Object> getFragmentList(PathCache cache, String jsonPath, Schema schema) {
+    return (List<Object>) cache.memo(FRAGMENT_LISTS.get(schema.getFormat()), jsonPath);
+  }
+
   public static List<Object> jsonObjectToList(Object jsonFragment) {
     List<Object> list = new ArrayList<>();
     if (jsonFragment != null) {
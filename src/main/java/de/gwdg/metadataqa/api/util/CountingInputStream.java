@@ -0,0 +1,48 @@
+package de.gwdg.metadataqa.api.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream which counts the bytes read from the underlying stream,
+ * so the progress of reading can be reported from another thread.
+ */
+public class CountingInputStream extends FilterInputStream {
+
+  private volatile long count = 0;
+
+  public CountingInputStream(InputStream in) {
+    super(in);
+  }
+
+  @Override
+  public int read() throws IOException {
+    int b = super.read();
+    if (b >= 0)
+      count++;
+    return b;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    int read = super.read(bytes, offset, length);
+    if (read > 0)
+      count += read;
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = super.skip(n);
+    count += skipped;
+    return skipped;
+  }
+
+  /**
+   * @return The number of bytes read or skipped
+   */
+  public long getCount() {
+    return count;
+  }
+}
@@ -5,33 +5,191 @@ import com.github.pemistahl.lingua.api.Language;
 import com.github.pemistahl.lingua.api.LanguageDetector;
 import com.github.pemistahl.lingua.api.LanguageDetectorBuilder;
 
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.SortedMap;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
 
 /**
+ * Thread-safe wrapper around the Lingua language detector.
+ *
+ * Loading the language models is expensive, so the detector is built lazily
+ * on the first detection (or in the background via {@link #warmUp()}), and
+ * the instances are shared: {@link #getInstance(Collection, boolean)} returns
+ * the same object for the same configuration. The detected languages of short
+ * texts are kept in a bounded cache keyed by the normalized text. The cache
+ * is a ConcurrentHashMap with approximate LRU eviction (see ClockCache), so
+ * the threads sharing a detector do not wait for each other on lookups.
  *
  * @author Péter Király <peter.kiraly at gwdg.de>
  */
-class QALanguageDetector {
+public class QALanguageDetector {
+
+  private static final Logger LOGGER = Logger.getLogger(QALanguageDetector.class.getCanonicalName());
+
+  /**
+   * Texts longer than this are not cached.
+   */
+  public static final int MAX_CACHED_TEXT_LENGTH = 200;
+  public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+  /**
+   * In low accuracy mode only this many characters of the text are analysed.
+   */
+  public static final int LOW_ACCURACY_TEXT_LENGTH = 120;
+
+  private static final Map<String, QALanguageDetector> INSTANCES = new ConcurrentHashMap<>();
+
+  private final Set<String> isoCodes;
+  private final boolean lowAccuracy;
+  private final ClockCache<String, Language> cache;
+  private volatile LanguageDetector languageDetector;
+  private volatile CompletableFuture<Void> warmUpFuture;
+
+  /**
+   * Create a detector for all spoken languages.
+   */
+  QALanguageDetector() {
+    this(Collections.emptySet(), false, DEFAULT_CACHE_SIZE);
+  }
 
-  private LanguageDetector languageDetector;
+  private QALanguageDetector(Set<String> isoCodes, boolean lowAccuracy, int cacheSize) {
+    this.isoCodes = isoCodes;
+    this.lowAccuracy = lowAccuracy;
+    this.cache = new ClockCache<>(cacheSize);
+  }
+
+  /**
+   * Get the shared detector for all spoken languages.
+   * @return The detector
+   */
+  public static QALanguageDetector getInstance() {
+    return getInstance(Collections.emptySet(), false);
+  }
+
+  /**
+   * Get the shared detector for a configuration.
+   * @param isoCodes ISO 639-1 codes of the languages to detect. If empty, all
+   *                 spoken languages are used.
+   * @param lowAccuracy Whether to trade accuracy for speed by analysing only
+   *                    the beginning of the texts.
+   * @return The detector
+   */
+  public static QALanguageDetector getInstance(Collection<String> isoCodes, boolean lowAccuracy) {
+    Set<String> normalizedCodes = new TreeSet<>();
+    if (isoCodes != null)
+      for (String isoCode : isoCodes)
+        normalizedCodes.add(isoCode.trim().toLowerCase());
+    String key = normalizedCodes + (lowAccuracy ? ":low" : ":high");
+    return INSTANCES.computeIfAbsent(key,
+      k -> new QALanguageDetector(Collections.unmodifiableSet(normalizedCodes), lowAccuracy, DEFAULT_CACHE_SIZE));
+  }
+
+  /**
+   * Load the language models on a background thread, so the first detection
+   * will not be delayed.
+   * @return A future which completes when the models are loaded.
+   */
+  public CompletableFuture<Void> warmUp() {
+    if (warmUpFuture == null) {
+      synchronized (this) {
+        if (warmUpFuture == null)
+          warmUpFuture = CompletableFuture.runAsync(() -> getDetector(true));
+      }
+    }
+    return warmUpFuture;
+  }
 
-  QALanguageDetector() throws IOException {
-    languageDetector = LanguageDetectorBuilder
-            .fromAllSpokenLanguages()
-            .build();
+  public boolean isLoaded() {
+    return languageDetector != null;
+  }
+
+  public Set<String> getIsoCodes() {
+    return isoCodes;
+  }
+
+  public boolean isLowAccuracy() {
+    return lowAccuracy;
   }
 
   public Language detect(String text) {
-    final Language detectedLanguage = languageDetector.detectLanguageOf(text);
-    return detectedLanguage;
+    String normalized = normalize(text);
+    if (normalized.length() > MAX_CACHED_TEXT_LENGTH)
+      return getDetector(false).detectLanguageOf(normalized);
+
+    Language language = cache.get(normalized);
+    if (language == null) {
+      language = getDetector(false).detectLanguageOf(normalized);
+      cache.put(normalized, language);
+    }
+    return language;
   }
 
   public SortedMap<Language, Double> detectWithConfidence(String text) {
-    final SortedMap<Language, Double> detectedLanguages = languageDetector.computeLanguageConfidenceValues(text);
-    return detectedLanguages;
+    return getDetector(false).computeLanguageConfidenceValues(normalize(text));
+  }
+
+  public int getCacheSize() {
+    return cache.size();
+  }
+
+  /**
+   * Normalize the text for detection and caching: trim it, collapse the
+   * whitespaces and lowercase it. In low accuracy mode the text is truncated.
+   * @param text The text
+   * @return The normalized text
+   */
+  String normalize(String text) {
+    Objects.requireNonNull(text, "text should not be null");
+    int limit = lowAccuracy ? LOW_ACCURACY_TEXT_LENGTH : Integer.MAX_VALUE;
+    var sb = new StringBuilder(Math.min(text.length(), limit));
+    var inWhitespace = false;
+    for (var i = 0; i < text.length() && sb.length() < limit; i++) {
+      char c = text.charAt(i);
+      if (Character.isWhitespace(c)) {
+        inWhitespace = true;
+      } else {
+        if (inWhitespace && sb.length() > 0)
+          sb.append(' ');
+        inWhitespace = false;
+        sb.append(Character.toLowerCase(c));
+      }
+    }
+    if (sb.length() > limit)
+      sb.setLength(limit);
+    return sb.toString();
+  }
+
+  private LanguageDetector getDetector(boolean preload) {
+    if (languageDetector == null) {
+      synchronized (this) {
+        if (languageDetector == null) {
+          LOGGER.info(String.format("loading language models (languages: %s)",
+            isoCodes.isEmpty() ? "all spoken" : isoCodes));
+          LanguageDetectorBuilder builder = createBuilder();
+          if (preload)
+            builder = builder.withPreloadedLanguageModels();
+          languageDetector = builder.build();
+        }
+      }
+    }
+    return languageDetector;
+  }
+
+  private LanguageDetectorBuilder createBuilder() {
+    if (isoCodes.isEmpty())
+      return LanguageDetectorBuilder.fromAllSpokenLanguages();
+
+    var codes = new IsoCode639_1[isoCodes.size()];
+    var i = 0;
+    for (String isoCode : isoCodes)
+      codes[i++] = IsoCode639_1.valueOf(isoCode.toUpperCase());
+    return LanguageDetectorBuilder.fromIsoCodes639_1(codes);
   }
 }
@@ -35,7 +35,7 @@ public class SkippedEntitySelector<T extends XmlFieldInstance> implements Serial
     var skippable = false;
     JsonBranch identifierPath = collectionBranch.getIdentifier();
     if (!skippableIds.isEmpty() && identifierPath != null) {
-      var address = String.format("%s/%d/%s", collectionBranch.getJsonPath(), i, identifierPath.getJsonPath());
+      var address = identifierPath.getAddress(collectionBranch, i);
       List<T> values = cache.get(address, identifierPath.getJsonPath(), jsonFragment);
       var id = (skippedEntryChecker != null)
             ? skippedEntryChecker.extractId(values.get(0))
@@ -1,6 +1,10 @@
 package de.gwdg.metadataqa.api.util;
 
 /**
+ * Detects strings which consist of the same text twice, optionally separated
+ * by a line break, a comma or a semicolon (with or without spaces around it),
+ * e.g. "1890 ; 1890". It works on character sequence regions, so it neither
+ * creates substrings nor compiles regular expressions.
  *
  * @author Péter Király <peter.kiraly at gwdg.de>
  */
@@ -9,66 +13,57 @@ public final class StringDuplicationDetector {
   private StringDuplicationDetector() {
   }
 
-  /**
-   * Checks if is there a line break in a string.
-   *
-   * @param middlePart The middle part of the input string.
-   * @return
-   *   True if there is a line break inside.
-   */
-  private static boolean isLineBreakInTheMiddle(final String middlePart) {
-    return middlePart.substring(1, 2).matches("\n");
+  private static boolean isSeparator(char c) {
+    return c == ',' || c == ';';
   }
 
   /**
-   * Checks is the string has a comma.
+   * Checks if the string is a duplication is a substring.
    *
-   * @param middlePart The middle part of the input string.
+   * @param input The input string
    * @return
-   *   True if there is a comma inside.
+   *   True is the string is a duplication.
    */
-  private static boolean isCommaInTheMiddle(final String middlePart) {
-    return middlePart.substring(1, 2).matches("[,;]");
+  public static boolean isDuplicated(final String input) {
+    return isDuplicated((CharSequence) input);
   }
 
   /**
-   * Checks if the string has space - comma - space sequence.
+   * Checks if the character sequence is a duplication of a substring.
    *
-   * @param middlePart The middle part of the input string.
+   * @param input The input
    * @return
-   *   True if there is a space - comma - space inside.
+   *   True is the input is a duplication.
    */
-  private static boolean isSpaceCommaSpace(final String middlePart) {
-    return middlePart.matches(" [,;] ");
+  public static boolean isDuplicated(final CharSequence input) {
+    return isDuplicated(input, 0, input.length());
   }
 
   /**
-   * Checks if the string is a duplication is a substring.
+   * Checks if a region of a character sequence is a duplication of a substring.
    *
-   * @param input The input string
+   * @param input The input
+   * @param from The start of the region (inclusive)
+   * @param to The end of the region (exclusive)
    * @return
-   *   True is the string is a duplication.
+   *   True is the region is a duplication.
    */
-  public static boolean isDuplicated(final String input) {
-    var len = input.length();
+  public static boolean isDuplicated(final CharSequence input, final int from, final int to) {
+    var len = to - from;
+    var half = from + len / 2;
     if (isEven(len)) {
-      var half = len / 2;
-      if (hasEqualParts(input, half, half)) {
+      if (hasEqualParts(input, from, half, half, to))
         return true;
-      }
-      if (input.substring(half, half + 1).equals(" ")
-          && input.substring(half - 1, half).matches("[;,]")) {
-        return hasEqualParts(input, half - 1, half + 1);
-      }
-    } else {
-      var half = len / 2;
-      var middlePart = input.substring(half - 1, half + 2);
-      if (isSpaceCommaSpace(middlePart)) {
-        return hasEqualParts(input, half - 1, half + 2);
-      } else if (isCommaInTheMiddle(middlePart)
-                 || isLineBreakInTheMiddle(middlePart)) {
-        return hasEqualParts(input, half, half + 1);
-      }
+      if (len >= 2
+          && input.charAt(half) == ' '
+          && isSeparator(input.charAt(half - 1)))
+        return hasEqualParts(input, from, half - 1, half + 1, to);
+    } else if (len >= 3) {
+      char middle = input.charAt(half);
+      if (input.charAt(half - 1) == ' ' && isSeparator(middle) && input.charAt(half + 1) == ' ')
+        return hasEqualParts(input, from, half - 1, half + 2, to);
+      else if (isSeparator(middle) || middle == '\n')
+        return hasEqualParts(input, from, half, half + 1, to);
     }
     return false;
   }
@@ -78,19 +73,26 @@ public final class StringDuplicationDetector {
   }
 
   /**
-   * Checks if a string's beginning and end are equal.
+   * Checks if a region's beginning and end are equal.
    *
-   * @param input The input string
-   * @param beginTo The beginning string ends at this point.
-   * @param endFrom The ending string starts from this point.
+   * @param input The input
+   * @param beginFrom The beginning part starts at this point.
+   * @param beginTo The beginning part ends at this point.
+   * @param endFrom The ending part starts from this point.
+   * @param endTo The ending part ends at this point.
    * @return
    *   True if the two parts are equals, otherwise false.
    */
-  private static boolean hasEqualParts(final String input,
+  private static boolean hasEqualParts(final CharSequence input,
+                                       final int beginFrom,
                                        final int beginTo,
-                                       final int endFrom) {
-    var begin = input.substring(0, beginTo);
-    var end = input.substring(endFrom);
-    return begin.equals(end);
+                                       final int endFrom,
+                                       final int endTo) {
+    if (beginTo - beginFrom != endTo - endFrom)
+      return false;
+    for (int i = beginFrom, j = endFrom; i < beginTo; i++, j++)
+      if (input.charAt(i) != input.charAt(j))
+        return false;
+    return true;
   }
 }
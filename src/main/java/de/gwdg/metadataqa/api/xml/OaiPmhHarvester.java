@@ -0,0 +1,297 @@
+package de.gwdg.metadataqa.api.xml;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Harvests the records of an OAI-PMH repository with ListRecords requests,
+ * and measures them while harvesting. A downloader thread issues the
+ * requests (following the resumption tokens) and splits each response into
+ * records as it arrives, putting them into a bounded queue. The calling
+ * thread takes the records from the queue and measures them, so the next
+ * page is downloaded while the current one is measured. When the queue is
+ * full, the downloader waits.
+ *
+ * If the repository answers with HTTP 503 (the flow control of OAI-PMH), the
+ * request is repeated after the time of the Retry-After header.
+ */
+public class OaiPmhHarvester {
+
+  private static final Logger LOGGER = Logger.getLogger(OaiPmhHarvester.class.getCanonicalName());
+
+  private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+  private static final int DEFAULT_TIMEOUT = 60_000;
+  private static final int DEFAULT_MAX_RETRIES = 5;
+  private static final long DEFAULT_RETRY_DELAY = 10_000;
+  private static final long MAX_RETRY_DELAY = 600_000;
+  private static final String USER_AGENT = "metadata-qa-api";
+  private static final String NO_RECORDS_MATCH = "noRecordsMatch";
+  private static final OaiPmhRecord END = new OaiPmhRecord();
+
+  private final String baseUrl;
+  private String metadataPrefix = "edm";
+  private String set;
+  private String from;
+  private String until;
+  private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+  private int timeout = DEFAULT_TIMEOUT;
+  private int maxRetries = DEFAULT_MAX_RETRIES;
+
+  private volatile int pages = 0;
+  private volatile int retries = 0;
+  private volatile long deletedRecords = 0;
+  private long measuredRecords = 0;
+  private volatile IOException failure;
+
+  /**
+   * @param baseUrl The base URL of the OAI-PMH repository
+   */
+  public OaiPmhHarvester(String baseUrl) {
+    this.baseUrl = baseUrl;
+  }
+
+  public OaiPmhHarvester setMetadataPrefix(String metadataPrefix) {
+    this.metadataPrefix = metadataPrefix;
+    return this;
+  }
+
+  public OaiPmhHarvester setSet(String set) {
+    this.set = set;
+    return this;
+  }
+
+  public OaiPmhHarvester setFrom(String from) {
+    this.from = from;
+    return this;
+  }
+
+  public OaiPmhHarvester setUntil(String until) {
+    this.until = until;
+    return this;
+  }
+
+  /**
+   * @param queueCapacity The number of harvested records which might wait for the measurement
+   * @return The harvester
+   */
+  public OaiPmhHarvester setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+    return this;
+  }
+
+  /**
+   * @param timeout The connect and read timeout of the requests in milliseconds
+   * @return The harvester
+   */
+  public OaiPmhHarvester setTimeout(int timeout) {
+    this.timeout = timeout;
+    return this;
+  }
+
+  /**
+   * @param maxRetries The number of times a request is repeated when the
+   *   repository is unavailable (HTTP 503)
+   * @return The harvester
+   */
+  public OaiPmhHarvester setMaxRetries(int maxRetries) {
+    this.maxRetries = maxRetries;
+    return this;
+  }
+
+  /**
+   * Harvests and measures all the records. The deleted records are skipped.
+   * @param calculatorFacade The facade, which measures the metadata of the records
+   * @param output Receives the records and the results of the measurement
+   * @return The number of measured records
+   * @throws IOException If a request fails or the repository returns an error
+   */
+  public long run(CalculatorFacade calculatorFacade, BiConsumer<OaiPmhRecord, String> output) throws IOException {
+    pages = 0;
+    retries = 0;
+    deletedRecords = 0;
+    measuredRecords = 0;
+    failure = null;
+
+    BlockingQueue<OaiPmhRecord> queue = new ArrayBlockingQueue<>(queueCapacity);
+    var downloader = new Thread(() -> download(queue), "oai-pmh-harvester");
+    downloader.setDaemon(true);
+    downloader.start();
+    try {
+      while (true) {
+        OaiPmhRecord record = queue.take();
+        if (record == END)
+          break;
+        output.accept(record, calculatorFacade.measure(record.getMetadata()));
+        measuredRecords++;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while harvesting " + baseUrl);
+    } finally {
+      downloader.interrupt();
+    }
+    if (failure != null)
+      throw failure;
+    return measuredRecords;
+  }
+
+  private void download(BlockingQueue<OaiPmhRecord> queue) {
+    try {
+      String resumptionToken = null;
+      do {
+        resumptionToken = downloadPage(buildUrl(resumptionToken), queue);
+        pages++;
+      } while (resumptionToken != null);
+    } catch (IOException e) {
+      failure = e;
+    } catch (RuntimeException | Error e) {
+      // e.g. a malformed page the parser could not handle
+      failure = new IOException("Failed to harvest " + baseUrl + ": " + e, e);
+    } catch (InterruptedException e) {
+      // the measurement stopped
+      Thread.currentThread().interrupt();
+    } finally {
+      if (!Thread.currentThread().isInterrupted()) {
+        try {
+          queue.put(END);
+        } catch (InterruptedException e) {
+          // the measurement stopped
+        }
+      }
+    }
+  }
+
+  /**
+   * Downloads a response and puts its records into the queue as they are
+   * parsed. While the repository is unavailable, the request is repeated.
+   * @return The resumption token
+   */
+  private String downloadPage(String url, BlockingQueue<OaiPmhRecord> queue)
+      throws IOException, InterruptedException {
+    var attempt = 0;
+    while (true) {
+      LOGGER.log(Level.INFO, "harvesting {0}", url);
+      var connection = (HttpURLConnection) new URL(url).openConnection();
+      long retryDelay;
+      try {
+        connection.setRequestMethod("GET");
+        connection.setRequestProperty("User-Agent", USER_AGENT);
+        connection.setConnectTimeout(timeout);
+        connection.setReadTimeout(timeout);
+        int status = connection.getResponseCode();
+        if (status == HttpURLConnection.HTTP_OK)
+          return readPage(url, connection, queue);
+        if (status != HttpURLConnection.HTTP_UNAVAILABLE || attempt >= maxRetries)
+          throw new IOException(String.format("%s returned HTTP status %d", url, status));
+        retryDelay = getRetryDelay(connection.getHeaderField("Retry-After"));
+      } finally {
+        connection.disconnect();
+      }
+      attempt++;
+      retries++;
+      LOGGER.log(Level.INFO, "{0} is unavailable, retrying in {1} ms", new Object[]{url, retryDelay});
+      TimeUnit.MILLISECONDS.sleep(retryDelay);
+    }
+  }
+
+  private String readPage(String url, HttpURLConnection connection, BlockingQueue<OaiPmhRecord> queue)
+      throws IOException, InterruptedException {
+    try (InputStream input = new BufferedInputStream(connection.getInputStream());
+         var splitter = new OaiPmhRecordSplitter(input)) {
+      OaiPmhRecord record;
+      while ((record = splitter.nextRecord()) != null) {
+        if (record.hasMetadata())
+          queue.put(record);
+        else
+          deletedRecords++;
+      }
+      if (splitter.getErrorCode() != null && !splitter.getErrorCode().equals(NO_RECORDS_MATCH))
+        throw new IOException(String.format("%s returned OAI-PMH error %s: %s",
+          url, splitter.getErrorCode(), splitter.getErrorMessage()));
+      return splitter.getResumptionToken();
+    }
+  }
+
+  /**
+   * @param retryAfter The Retry-After header: a number of seconds or an HTTP date
+   * @return The time to wait in milliseconds, at most MAX_RETRY_DELAY
+   */
+  static long getRetryDelay(String retryAfter) {
+    long delay = DEFAULT_RETRY_DELAY;
+    if (retryAfter != null) {
+      String value = retryAfter.trim();
+      try {
+        if (!value.isEmpty() && value.chars().allMatch(Character::isDigit))
+          delay = TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+        else
+          delay = Math.max(0, Duration.between(ZonedDateTime.now(),
+            ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME)).toMillis());
+      } catch (NumberFormatException | DateTimeParseException e) {
+        LOGGER.log(Level.WARNING, "Invalid Retry-After header: {0}", retryAfter);
+      }
+    }
+    return Math.min(delay, MAX_RETRY_DELAY);
+  }
+
+  String buildUrl(String resumptionToken) {
+    var url = new StringBuilder(baseUrl).append("?verb=ListRecords");
+    if (resumptionToken != null) {
+      appendParameter(url, "resumptionToken", resumptionToken);
+    } else {
+      appendParameter(url, "metadataPrefix", metadataPrefix);
+      appendParameter(url, "set", set);
+      appendParameter(url, "from", from);
+      appendParameter(url, "until", until);
+    }
+    return url.toString();
+  }
+
+  private static void appendParameter(StringBuilder url, String name, String value) {
+    if (value != null)
+      url.append('&').append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @return The number of responses downloaded in the last run
+   */
+  public int getPages() {
+    return pages;
+  }
+
+  /**
+   * @return The number of requests repeated in the last run, because the
+   *   repository was unavailable
+   */
+  public int getRetries() {
+    return retries;
+  }
+
+  /**
+   * @return The number of deleted records skipped in the last run
+   */
+  public long getDeletedRecords() {
+    return deletedRecords;
+  }
+
+  public long getMeasuredRecords() {
+    return measuredRecords;
+  }
+}
@@ -0,0 +1,85 @@
+package de.gwdg.metadataqa.api.xml;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A record of an OAI-PMH response: the header and the metadata as a
+ * standalone UTF-8 XML document.
+ */
+public class OaiPmhRecord implements Serializable {
+
+  private static final long serialVersionUID = -1920568337613862651L;
+
+  private String identifier;
+  private String datestamp;
+  private final List<String> setSpecs = new ArrayList<>();
+  private boolean deleted = false;
+  private byte[] metadata;
+
+  public String getIdentifier() {
+    return identifier;
+  }
+
+  void setIdentifier(String identifier) {
+    this.identifier = identifier;
+  }
+
+  public String getDatestamp() {
+    return datestamp;
+  }
+
+  void setDatestamp(String datestamp) {
+    this.datestamp = datestamp;
+  }
+
+  public List<String> getSetSpecs() {
+    return Collections.unmodifiableList(setSpecs);
+  }
+
+  void addSetSpec(String setSpec) {
+    setSpecs.add(setSpec);
+  }
+
+  /**
+   * @return If the header has the deleted status. Deleted records have no metadata.
+   */
+  public boolean isDeleted() {
+    return deleted;
+  }
+
+  void setDeleted(boolean deleted) {
+    this.deleted = deleted;
+  }
+
+  /**
+   * @return The metadata as an UTF-8 XML document, or null if the record has none
+   */
+  public byte[] getMetadata() {
+    return metadata;
+  }
+
+  void setMetadata(byte[] metadata) {
+    this.metadata = metadata;
+  }
+
+  public boolean hasMetadata() {
+    return metadata != null;
+  }
+
+  public String getMetadataAsString() {
+    return metadata == null ? null : new String(metadata, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public String toString() {
+    return "OaiPmhRecord{"
+      + "identifier='" + identifier + '\''
+      + ", datestamp='" + datestamp + '\''
+      + ", deleted=" + deleted
+      + '}';
+  }
+}
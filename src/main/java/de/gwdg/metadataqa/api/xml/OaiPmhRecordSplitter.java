@@ -0,0 +1,340 @@
+package de.gwdg.metadataqa.api.xml;
+
+import de.gwdg.metadataqa.api.input.RecordSource;
+import de.gwdg.metadataqa.api.util.CountingInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the records out of OAI-PMH responses (ListRecords, GetRecord) with
+ * a StAX parser, so the size of the file does not matter, only one metadata
+ * subtree is in memory at a time. The input might be several concatenated
+ * responses. The metadata of a record is copied into a standalone UTF-8 XML
+ * document, which declares the namespaces it inherits from the envelope, so
+ * it can be measured with XmlPathCache and EdmOaiPmhXmlSchema.
+ *
+ * As a RecordSource it returns the metadata of the records which are not
+ * deleted. The resumption token and the error of every response are kept,
+ * see getResponses().
+ */
+public class OaiPmhRecordSplitter implements RecordSource {
+
+  private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+  private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+  private final CountingInputStream input;
+  private final XmlDocumentStream documents;
+  private final long length;
+  private XMLStreamReader reader;
+  private final Deque<Map<String, String>> namespaces = new ArrayDeque<>();
+  private final List<OaiPmhResponse> responses = new ArrayList<>();
+  private OaiPmhResponse response;
+
+  /**
+   * @param input The OAI-PMH response(s). The stream is closed by close().
+   */
+  public OaiPmhRecordSplitter(InputStream input) {
+    this(input, -1);
+  }
+
+  public OaiPmhRecordSplitter(Path file) throws IOException {
+    this(Files.newInputStream(file), Files.size(file));
+  }
+
+  private OaiPmhRecordSplitter(InputStream input, long length) {
+    this.input = new CountingInputStream(input);
+    this.documents = new XmlDocumentStream(this.input);
+    this.length = length;
+  }
+
+  private static XMLInputFactory createInputFactory() {
+    var factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return factory;
+  }
+
+  /**
+   * @return The next record, or null if there are no more records
+   * @throws IOException If the input can not be read or it is not well-formed XML
+   */
+  public OaiPmhRecord nextRecord() throws IOException {
+    try {
+      while (true) {
+        if (reader == null) {
+          InputStream document = documents.nextDocument();
+          if (document == null)
+            return null;
+          reader = INPUT_FACTORY.createXMLStreamReader(document);
+          namespaces.clear();
+          response = new OaiPmhResponse();
+          responses.add(response);
+        }
+        OaiPmhRecord record = readRecord();
+        if (record != null) {
+          response.addRecord();
+          return record;
+        }
+        reader.close();
+        reader = null;
+      }
+    } catch (XMLStreamException e) {
+      throw new IOException("Invalid OAI-PMH response: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * @return The metadata of the next record which is not deleted
+   * @throws IOException If the input can not be read or it is not well-formed XML
+   */
+  @Override
+  public ByteBuffer next() throws IOException {
+    OaiPmhRecord record;
+    do {
+      record = nextRecord();
+    } while (record != null && !record.hasMetadata());
+    return record == null ? null : ByteBuffer.wrap(record.getMetadata());
+  }
+
+  /**
+   * Reads the current document until the end of the next record.
+   * @return The record, or null at the end of the document
+   */
+  private OaiPmhRecord readRecord() throws XMLStreamException {
+    OaiPmhRecord record = null;
+    var inHeader = false;
+    var inMetadata = false;
+    while (reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        if (inMetadata) {
+          if (record.getMetadata() == null)
+            record.setMetadata(copySubtree());
+          else
+            skipSubtree();
+          continue;
+        }
+        pushNamespaces();
+        String name = reader.getLocalName();
+        if (name.equals("record")) {
+          record = new OaiPmhRecord();
+        } else if (record != null && name.equals("header")) {
+          inHeader = true;
+          record.setDeleted("deleted".equals(reader.getAttributeValue(null, "status")));
+        } else if (inHeader && name.equals("identifier")) {
+          record.setIdentifier(readText());
+        } else if (inHeader && name.equals("datestamp")) {
+          record.setDatestamp(readText());
+        } else if (inHeader && name.equals("setSpec")) {
+          record.addSetSpec(readText());
+        } else if (record != null && name.equals("metadata")) {
+          inMetadata = true;
+        } else if (record == null && name.equals("error")) {
+          String errorCode = reader.getAttributeValue(null, "code");
+          response.setError(errorCode, readText().trim());
+        } else if (name.equals("resumptionToken")) {
+          String token = readText().trim();
+          response.setResumptionToken(token.isEmpty() ? null : token);
+        }
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        namespaces.pop();
+        String name = reader.getLocalName();
+        if (name.equals("header"))
+          inHeader = false;
+        else if (name.equals("metadata"))
+          inMetadata = false;
+        else if (record != null && name.equals("record"))
+          return record;
+      }
+    }
+    return null;
+  }
+
+  private void pushNamespaces() {
+    Map<String, String> declared = new LinkedHashMap<>();
+    for (var i = 0; i < reader.getNamespaceCount(); i++)
+      declared.put(nullToEmpty(reader.getNamespacePrefix(i)), nullToEmpty(reader.getNamespaceURI(i)));
+    namespaces.push(declared);
+  }
+
+  /**
+   * Reads the text of the current element, and leaves its scope.
+   */
+  private String readText() throws XMLStreamException {
+    String text = reader.getElementText();
+    namespaces.pop();
+    return text;
+  }
+
+  /**
+   * The namespaces declared by the ancestors of the current element.
+   */
+  private Map<String, String> getInheritedNamespaces() {
+    Map<String, String> inherited = new LinkedHashMap<>();
+    Iterator<Map<String, String>> outerFirst = namespaces.descendingIterator();
+    while (outerFirst.hasNext())
+      inherited.putAll(outerFirst.next());
+    return inherited;
+  }
+
+  /**
+   * Copies the element at the reader's position, with its descendants, to a
+   * new document. The reader stops at the end tag of the element.
+   */
+  private byte[] copySubtree() throws XMLStreamException {
+    var output = new ByteArrayOutputStream();
+    XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(output, "UTF-8");
+    writer.writeStartDocument("UTF-8", "1.0");
+    var depth = 0;
+    do {
+      switch (reader.getEventType()) {
+        case XMLStreamConstants.START_ELEMENT:
+          writeStartElement(writer, depth == 0);
+          depth++;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          writer.writeEndElement();
+          depth--;
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.SPACE:
+          writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+          break;
+        case XMLStreamConstants.CDATA:
+          writer.writeCData(reader.getText());
+          break;
+        case XMLStreamConstants.COMMENT:
+          writer.writeComment(reader.getText());
+          break;
+        case XMLStreamConstants.PROCESSING_INSTRUCTION:
+          writer.writeProcessingInstruction(reader.getPITarget(), reader.getPIData());
+          break;
+        default:
+          break;
+      }
+      if (depth > 0)
+        reader.next();
+    } while (depth > 0);
+    writer.writeEndDocument();
+    writer.close();
+    return output.toByteArray();
+  }
+
+  private void writeStartElement(XMLStreamWriter writer, boolean isRoot) throws XMLStreamException {
+    String prefix = nullToEmpty(reader.getPrefix());
+    String namespaceUri = nullToEmpty(reader.getNamespaceURI());
+    if (namespaceUri.isEmpty())
+      writer.writeStartElement(reader.getLocalName());
+    else
+      writer.writeStartElement(prefix, reader.getLocalName(), namespaceUri);
+
+    Map<String, String> declarations = isRoot ? getInheritedNamespaces() : new LinkedHashMap<>();
+    for (var i = 0; i < reader.getNamespaceCount(); i++)
+      declarations.put(nullToEmpty(reader.getNamespacePrefix(i)), nullToEmpty(reader.getNamespaceURI(i)));
+    for (Map.Entry<String, String> declaration : declarations.entrySet()) {
+      if (declaration.getKey().isEmpty())
+        writer.writeDefaultNamespace(declaration.getValue());
+      else
+        writer.writeNamespace(declaration.getKey(), declaration.getValue());
+    }
+
+    for (var i = 0; i < reader.getAttributeCount(); i++) {
+      String attributeNamespace = nullToEmpty(reader.getAttributeNamespace(i));
+      if (attributeNamespace.isEmpty())
+        writer.writeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+      else
+        writer.writeAttribute(nullToEmpty(reader.getAttributePrefix(i)), attributeNamespace,
+          reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+    }
+  }
+
+  private void skipSubtree() throws XMLStreamException {
+    var depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT)
+        depth++;
+      else if (event == XMLStreamConstants.END_ELEMENT)
+        depth--;
+    }
+  }
+
+  private static String nullToEmpty(String value) {
+    return value == null ? "" : value;
+  }
+
+  /**
+   * @return The responses read so far, in the order of the input. The last
+   *   one is the current response.
+   */
+  public List<OaiPmhResponse> getResponses() {
+    return Collections.unmodifiableList(responses);
+  }
+
+  /**
+   * @return The resumption token of the current response, or null if it has
+   *   none (or it is empty: the list is complete). The token follows the
+   *   records, so it is known when nextRecord() returned null.
+   */
+  public String getResumptionToken() {
+    return response == null ? null : response.getResumptionToken();
+  }
+
+  /**
+   * @return The code of the OAI-PMH error of the current response (e.g.
+   *   noRecordsMatch, badResumptionToken), or null if it has no error
+   */
+  public String getErrorCode() {
+    return response == null ? null : response.getErrorCode();
+  }
+
+  public String getErrorMessage() {
+    return response == null ? null : response.getErrorMessage();
+  }
+
+  @Override
+  public long getBytesRead() {
+    return input.getCount();
+  }
+
+  /**
+   * @return The size of the file, or -1 if the input is a stream
+   */
+  @Override
+  public long getLength() {
+    return length;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (reader != null)
+        reader.close();
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    } finally {
+      documents.close();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package de.gwdg.metadataqa.api.xml;
+
+import java.io.Serializable;
+
+/**
+ * The envelope of an OAI-PMH response: the resumption token, the error and
+ * the number of records. The token and the error follow the records, so they
+ * are known when the records of the response have been read.
+ */
+public class OaiPmhResponse implements Serializable {
+
+  private static final long serialVersionUID = 4150187322095376154L;
+
+  private String resumptionToken;
+  private String errorCode;
+  private String errorMessage;
+  private long recordCount = 0;
+
+  /**
+   * @return The resumption token, or null if the response has none (or it is
+   *   empty: the list is complete)
+   */
+  public String getResumptionToken() {
+    return resumptionToken;
+  }
+
+  void setResumptionToken(String resumptionToken) {
+    this.resumptionToken = resumptionToken;
+  }
+
+  /**
+   * @return The code of the OAI-PMH error (e.g. noRecordsMatch,
+   *   badResumptionToken), or null if the response has no error
+   */
+  public String getErrorCode() {
+    return errorCode;
+  }
+
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  void setError(String errorCode, String errorMessage) {
+    this.errorCode = errorCode;
+    this.errorMessage = errorMessage;
+  }
+
+  /**
+   * @return The number of records (including the deleted ones) read from the response
+   */
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  void addRecord() {
+    recordCount++;
+  }
+
+  @Override
+  public String toString() {
+    return "OaiPmhResponse{"
+      + "resumptionToken='" + resumptionToken + '\''
+      + ", errorCode='" + errorCode + '\''
+      + ", recordCount=" + recordCount
+      + '}';
+  }
+}
@@ -5,6 +5,7 @@ import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -15,11 +16,11 @@ import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +53,16 @@ public class OaiPmhXPath implements Serializable {
     parseContent(input);
   }
 
+  /**
+   * Parse the record from bytes. The parser detects the encoding from the
+   * XML declaration.
+   * @param input The record
+   */
+  public OaiPmhXPath(InputStream input) {
+    initialize();
+    parseContent(input);
+  }
+
   public OaiPmhXPath(File input) {
     parseFile(input.getPath());
   }
@@ -82,10 +93,15 @@ public class OaiPmhXPath implements Serializable {
 
   public void parseContent(String content) {
     initialize();
-    parseContent(new ByteArrayInputStream(content.getBytes()));
+    // the characters are already decoded, they should not be encoded again with the default charset
+    parseContent(new InputSource(new StringReader(content)));
   }
 
   private void parseContent(InputStream content) {
+    parseContent(new InputSource(content));
+  }
+
+  private void parseContent(InputSource content) {
     try {
       document = builder.parse(content);
     } catch (SAXException e) {
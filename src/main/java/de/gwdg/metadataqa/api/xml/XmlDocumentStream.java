@@ -0,0 +1,139 @@
+package de.gwdg.metadataqa.api.xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Splits a stream of concatenated XML documents (e.g. harvested responses
+ * appended to one file) into documents, because an XML parser stops at the
+ * end of the first one. A document ends where the XML declaration of the
+ * next one starts: "<?xml" followed by whitespace, so processing instructions
+ * like <?xml-stylesheet ...?> stay in the document. The declaration is
+ * searched as bytes, so it works for the ASCII compatible encodings (UTF-8,
+ * ISO-8859-*), and a declaration inside a comment or CDATA section would be
+ * taken for a document boundary.
+ */
+class XmlDocumentStream {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final byte[] DECLARATION = {'<', '?', 'x', 'm', 'l'};
+  private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+  private final InputStream input;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int position = 0;
+  private int limit = 0;
+  private boolean exhausted = false;
+  private Document current;
+
+  XmlDocumentStream(InputStream input) {
+    this.input = input;
+  }
+
+  /**
+   * @return The next document, or null if only whitespace remained. The
+   *   remaining bytes of the previous document are skipped.
+   * @throws IOException If the input can not be read
+   */
+  InputStream nextDocument() throws IOException {
+    if (current != null)
+      current.skipRest();
+    current = null;
+    while (fill(1) && isWhitespace(buffer[position]))
+      position++;
+    if (fill(BOM.length) && startsWith(BOM))
+      position += BOM.length;
+    if (!fill(1))
+      return null;
+    current = new Document();
+    return current;
+  }
+
+  void close() throws IOException {
+    input.close();
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+
+  private boolean startsWith(byte[] bytes) {
+    if (limit - position < bytes.length)
+      return false;
+    for (var i = 0; i < bytes.length; i++)
+      if (buffer[position + i] != bytes[i])
+        return false;
+    return true;
+  }
+
+  /**
+   * Reads the input until at least the given number of bytes are in the
+   * buffer, or the input is exhausted.
+   * @return true if there are enough bytes
+   */
+  private boolean fill(int count) throws IOException {
+    if (limit - position >= count)
+      return true;
+    if (position > 0) {
+      System.arraycopy(buffer, position, buffer, 0, limit - position);
+      limit -= position;
+      position = 0;
+    }
+    while (!exhausted && limit < count) {
+      int read = input.read(buffer, limit, buffer.length - limit);
+      if (read < 0)
+        exhausted = true;
+      else
+        limit += read;
+    }
+    return limit - position >= count;
+  }
+
+  private class Document extends InputStream {
+
+    private boolean started = false;
+    private boolean ended = false;
+
+    @Override
+    public int read() throws IOException {
+      var bytes = new byte[1];
+      return read(bytes, 0, 1) < 0 ? -1 : bytes[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      if (length == 0)
+        return 0;
+      var count = 0;
+      while (count < length && !ended) {
+        if (!fill(1)) {
+          ended = true;
+          break;
+        }
+        if (buffer[position] == '<' && started) {
+          fill(DECLARATION.length + 1);
+          if (startsWith(DECLARATION) && limit - position > DECLARATION.length
+              && isWhitespace(buffer[position + DECLARATION.length])) {
+            ended = true;
+            break;
+          }
+        }
+        bytes[offset + count++] = buffer[position++];
+        started = true;
+      }
+      return count == 0 && ended ? -1 : count;
+    }
+
+    void skipRest() throws IOException {
+      var bytes = new byte[BUFFER_SIZE];
+      while (read(bytes, 0, bytes.length) >= 0) {
+        // skip
+      }
+    }
+
+    @Override
+    public void close() {
+      // the underlying stream is closed by the splitter
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package de.gwdg.metadataqa.api.abbreviation;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AbbreviationDictionaryTest {
+
+  @Test
+  public void bothDirections() {
+    var dictionary = new AbbreviationDictionary();
+    dictionary.put("Dummy value", 263);
+    assertEquals(2, dictionary.add("Bavarian State Library"));
+    assertEquals(263, (int) dictionary.get("Dummy value"));
+    assertEquals("Dummy value", dictionary.getText(263));
+    assertEquals("Bavarian State Library", dictionary.getText(2));
+    assertNull(dictionary.getText(1));
+    assertNull(dictionary.getText(100000));
+  }
+
+  @Test
+  public void add_skipsTakenId() {
+    var dictionary = new AbbreviationDictionary();
+    dictionary.put("a", 2);
+    assertEquals(3, dictionary.add("b"));
+    assertEquals(4, dictionary.add("c"));
+    assertEquals(3, dictionary.add("b"));
+    assertEquals(3, dictionary.size());
+  }
+
+  @Test
+  public void add_concurrently() {
+    var dictionary = new AbbreviationDictionary();
+    Set<Integer> ids = ConcurrentHashMap.newKeySet();
+    IntStream.range(0, 20000).parallel()
+      .forEach(i -> ids.add(dictionary.add("entry " + (i % 5000))));
+
+    assertEquals(5000, dictionary.size());
+    assertEquals(5000, ids.size());
+    for (var i = 0; i < 5000; i++) {
+      int id = dictionary.get("entry " + i);
+      assertEquals("entry " + i, dictionary.getText(id));
+    }
+  }
+
+  @Test
+  public void flushAndLoad() throws IOException {
+    Path file = Files.createTempFile("abbreviations", ".bin");
+    Files.delete(file);
+    try {
+      var dictionary = new AbbreviationDictionary();
+      dictionary.put("Österreichische Nationalbibliothek", 264);
+      dictionary.add("National Library of France");
+      dictionary.flush(file);
+      long size = Files.size(file);
+      assertEquals(0, dictionary.getPendingSize());
+
+      dictionary.add("National Library of the Netherlands");
+      assertEquals(1, dictionary.getPendingSize());
+      dictionary.flush(file);
+      assertEquals(size + 8 + "National Library of the Netherlands".length(), Files.size(file));
+
+      var reloaded = new AbbreviationDictionary();
+      reloaded.load(file);
+      assertEquals(0, reloaded.getPendingSize());
+      List<String> entries = new ArrayList<>();
+      reloaded.forEach((text, id) -> entries.add(id + ";" + text));
+      assertEquals(
+        List.of("264;Österreichische Nationalbibliothek", "2;National Library of France",
+          "3;National Library of the Netherlands"),
+        entries);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void put_changedId() throws IOException {
+    Path file = Files.createTempFile("abbreviations", ".bin");
+    Files.delete(file);
+    try {
+      var dictionary = new AbbreviationDictionary();
+      dictionary.put("a", 1);
+      dictionary.put("b", 2);
+      dictionary.put("a", 3);
+      assertNull(dictionary.getText(1));
+      assertEquals("a", dictionary.getText(3));
+      assertEquals(2, dictionary.getPendingSize());
+      List<String> entries = new ArrayList<>();
+      dictionary.forEach((text, id) -> entries.add(id + ";" + text));
+      assertEquals(List.of("2;b", "3;a"), entries);
+
+      dictionary.flush(file);
+      dictionary.put("b", 4);
+      assertEquals(1, dictionary.getPendingSize());
+      dictionary.flush(file);
+
+      var reloaded = new AbbreviationDictionary();
+      reloaded.load(file);
+      List<String> reloadedEntries = new ArrayList<>();
+      reloaded.forEach((text, id) -> reloadedEntries.add(id + ";" + text));
+      assertEquals(List.of("3;a", "4;b"), reloadedEntries);
+      assertNull(reloaded.getText(2));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void load_notDictionary() throws IOException {
+    Path file = Files.createTempFile("abbreviations", ".txt");
+    try {
+      Files.writeString(file, "1;National Library of France\n");
+      new AbbreviationDictionary().load(file);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void manager_store() throws IOException {
+    Path file = Files.createTempFile("abbreviations", ".bin");
+    Files.delete(file);
+    try {
+      var manager = new AbbreviationManager();
+      manager.setStore(file.toString());
+      manager.setBatchSize(2);
+      manager.lookup("a");
+      assertEquals(false, Files.exists(file));
+      manager.lookup("b");
+      assertEquals(true, Files.exists(file));
+      manager.lookup("c");
+      manager.flush();
+
+      var reloaded = new AbbreviationManager();
+      reloaded.setStore(file.toString());
+      assertEquals(3, reloaded.getData().size());
+      assertEquals("c", reloaded.searchById(3));
+      assertEquals(4, (int) reloaded.lookup("d"));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
@@ -12,9 +12,12 @@ import de.gwdg.metadataqa.api.util.CsvReader;
 import de.gwdg.metadataqa.api.util.FileUtils;
 import de.gwdg.metadataqa.api.interfaces.Calculator;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -63,6 +66,29 @@ public class CalculatorFacadeTest {
     assertEquals(expected, calculatorFacade.measure(FileUtils.readFirstLineFromResource("general/test.json")));
   }
 
+  @Test
+  public void measure_bytes() throws URISyntaxException, IOException {
+    CalculatorFacade calculatorFacade = new CalculatorFacade(new MeasurementConfiguration(true, true, true, false, true));
+    calculatorFacade.setSchema(new EdmOaiPmhJsonSchema());
+    calculatorFacade.configure();
+    String record = FileUtils.readFirstLineFromResource("general/test.json");
+    byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+    String expected = calculatorFacade.measure(record);
+
+    assertEquals(expected, calculatorFacade.measure(bytes));
+    assertEquals(expected, calculatorFacade.measure(new ByteArrayInputStream(bytes)));
+
+    // a slice of a larger, direct buffer
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 20);
+    buffer.put("garbage\n".getBytes(StandardCharsets.UTF_8)).put(bytes).put("\nmore".getBytes(StandardCharsets.UTF_8));
+    buffer.position(8).limit(8 + bytes.length);
+    assertEquals(expected, calculatorFacade.measure(buffer.slice()));
+    assertEquals(8, buffer.position());
+
+    assertEquals(calculatorFacade.measureAsJson(record), calculatorFacade.measureAsJson(ByteBuffer.wrap(bytes)));
+    assertEquals(calculatorFacade.measureAsMap(record), calculatorFacade.measureAsMap(new ByteArrayInputStream(bytes)));
+  }
+
   @Test
   public void testNoAbbreviate_map() throws URISyntaxException, IOException {
     MeasurementConfiguration configuration = new MeasurementConfiguration(true, true, true, false, true);
@@ -0,0 +1,212 @@
+package de.gwdg.metadataqa.api.calculator;
+
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.json.JsonBranch;
+import de.gwdg.metadataqa.api.model.pathcache.JsonPathCache;
+import de.gwdg.metadataqa.api.schema.BaseSchema;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.util.CompressionLevel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LanguageDetectionCalculatorTest {
+
+  Schema schema;
+  LanguageDetectionCalculator calculator;
+
+  @After
+  public void tearDown() {
+    calculator.close();
+  }
+
+  @Before
+  public void setUp() {
+    schema = new BaseSchema()
+      .setFormat(Format.JSON)
+      .addField(new JsonBranch("title", "$.title"))
+      .addField(new JsonBranch("description", "$.description"))
+      .addField(new JsonBranch("subject", "$.subject"));
+    calculator = new LanguageDetectionCalculator(schema)
+      .setLanguages(Arrays.asList("de", "en", "fr"));
+  }
+
+  private static final String RECORD = "{"
+    + "\"title\":[{\"#value\":\"The quick brown fox jumps over the lazy dog\",\"@lang\":\"en\"}],"
+    + "\"description\":["
+    + "{\"#value\":\"Der schnelle braune Fuchs springt über den faulen Hund\",\"@lang\":\"en\"},"
+    + "{\"#value\":\"Le renard brun rapide saute par-dessus le chien paresseux\"},"
+    + "{\"#value\":\"short\",\"@lang\":\"en\"}"
+    + "]}";
+
+  private static final String OTHER_RECORD = "{"
+    + "\"title\":[{\"#value\":\"Der schnelle braune Fuchs springt über den faulen Hund\",\"@lang\":\"de\"}]"
+    + "}";
+
+  /**
+   * Runs the tasks in the calling thread, and fails all of them.
+   */
+  private static class FailingExecutor extends AbstractExecutorService {
+    private boolean shutdown = false;
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+      return new FutureTask<>(() -> {
+        throw new IllegalArgumentException("detection failed");
+      });
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      command.run();
+    }
+
+    @Override
+    public void shutdown() {
+      shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      shutdown = true;
+      return List.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return shutdown;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+      return true;
+    }
+  }
+
+  @Test
+  public void getHeader() {
+    assertEquals(
+      List.of("detectedLanguage:title", "detectedLanguage:description", "detectedLanguage:subject",
+        "detectedLanguage:match", "detectedLanguage:mismatch", "detectedLanguage:undeclared"),
+      calculator.getHeader());
+  }
+
+  @Test
+  public void measure() {
+    List<MetricResult> results = calculator.measure(new JsonPathCache(RECORD));
+    assertEquals(1, results.size());
+    assertEquals("en:1,_0:1;de:1;fr:1,_1:1,1,1,1", results.get(0).getCsv(false, CompressionLevel.NORMAL));
+  }
+
+  @Test
+  public void measure_afterPrepare() {
+    JsonPathCache cache = new JsonPathCache(RECORD);
+    calculator.prepare(cache);
+    List<MetricResult> results = calculator.measure(cache);
+    Map<String, ?> counter = results.get(0).getResultMap();
+    assertEquals("en:1", counter.get("title"));
+    assertEquals(1, counter.get("match"));
+    assertEquals(1, counter.get("mismatch"));
+  }
+
+  @Test
+  public void prepareSeveralRecords() {
+    JsonPathCache first = new JsonPathCache(RECORD);
+    JsonPathCache second = new JsonPathCache(OTHER_RECORD);
+    calculator.prepare(first);
+    calculator.prepare(second);
+    assertEquals("de:1", calculator.measure(second).get(0).getResultMap().get("title"));
+    assertEquals("en:1", calculator.measure(first).get(0).getResultMap().get("title"));
+  }
+
+  @Test
+  public void sharedBetweenThreads() throws InterruptedException, ExecutionException {
+    ExecutorService workers = Executors.newFixedThreadPool(2);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (var i = 0; i < 20; i++) {
+        String record = i % 2 == 0 ? RECORD : OTHER_RECORD;
+        String expected = i % 2 == 0 ? "en:1" : "de:1";
+        results.add(workers.submit(() -> {
+          JsonPathCache cache = new JsonPathCache(record);
+          calculator.prepare(cache);
+          return expected.equals(calculator.measure(cache).get(0).getResultMap().get("title"));
+        }));
+      }
+      for (Future<Boolean> result : results)
+        assertTrue(result.get());
+    } finally {
+      workers.shutdown();
+    }
+  }
+
+  @Test
+  public void failedDetection() {
+    calculator.setExecutor(new FailingExecutor());
+    List<MetricResult> results = calculator.measure(new JsonPathCache(RECORD));
+    assertEquals("_0:1,_0:3,_1:1,0,0,0", results.get(0).getCsv(false, CompressionLevel.NORMAL));
+  }
+
+  @Test
+  public void close_dropsPreparedRecords() throws InterruptedException, ExecutionException {
+    JsonPathCache cache = new JsonPathCache(RECORD);
+    ExecutorService worker = Executors.newSingleThreadExecutor();
+    try {
+      worker.submit(() -> calculator.prepare(cache)).get();
+      calculator.close();
+      assertEquals("en:1",
+        worker.submit(() -> calculator.measure(cache).get(0).getResultMap().get("title")).get());
+    } finally {
+      worker.shutdown();
+    }
+  }
+
+  @Test
+  public void close() {
+    ExecutorService external = Executors.newSingleThreadExecutor();
+    try {
+      calculator.setExecutor(external);
+      calculator.measure(new JsonPathCache(RECORD));
+      calculator.close();
+      assertFalse(external.isShutdown());
+    } finally {
+      external.shutdown();
+    }
+
+    calculator.measure(new JsonPathCache(RECORD));
+    calculator.close();
+    assertEquals("en:1", calculator.measure(new JsonPathCache(RECORD)).get(0).getResultMap().get("title"));
+    calculator.close();
+  }
+
+  @Test
+  public void minTextLength() {
+    calculator.setMinTextLength(100);
+    List<MetricResult> results = calculator.measure(new JsonPathCache(RECORD));
+    assertEquals("_0:1,_0:3,_1:1,0,0,0", results.get(0).getCsv(false, CompressionLevel.NORMAL));
+  }
+}
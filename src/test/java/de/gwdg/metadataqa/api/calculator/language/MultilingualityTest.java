@@ -0,0 +1,53 @@
+package de.gwdg.metadataqa.api.calculator.language;
+
+import de.gwdg.metadataqa.api.calculator.MultilingualitySaturationCalculator.ResultTypes;
+import de.gwdg.metadataqa.api.counter.FieldCounter;
+import de.gwdg.metadataqa.api.model.pathcache.JsonPathCache;
+import de.gwdg.metadataqa.api.schema.edm.EdmOaiPmhJsonSchema;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import de.gwdg.metadataqa.api.util.SkippedEntitySelector;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class MultilingualityTest {
+
+  private Multilinguality create(ResultTypes resultType) throws URISyntaxException, IOException {
+    JsonPathCache cache = new JsonPathCache(FileUtils.readFirstLineFromResource("general/test.json"));
+    return new Multilinguality(new EdmOaiPmhJsonSchema(), cache, resultType, null, new SkippedEntitySelector());
+  }
+
+  @Test
+  public void normal_hasNoExtendedResult() throws URISyntaxException, IOException {
+    Multilinguality multilinguality = create(ResultTypes.NORMAL);
+    FieldCounter<Double> result = multilinguality.measure();
+    assertEquals(0.666667, result.get("Proxy/dc:subject"), 0.000001);
+    assertNull(multilinguality.getExtendedResult());
+  }
+
+  @Test
+  public void extended() throws URISyntaxException, IOException {
+    Multilinguality multilinguality = create(ResultTypes.EXTENDED);
+    FieldCounter<Double> result = multilinguality.measure();
+    assertEquals(2.0, result.get("Proxy/dc:subject:sum"), 0.000001);
+
+    Map<String, Map<String, Object>> extended = multilinguality.getExtendedResult();
+    assertNotNull(extended);
+    Map<String, Double> score = (Map<String, Double>) extended.get("Proxy/dc:subject").get("score");
+    assertEquals(2.0, score.get("sum"), 0.000001);
+    assertEquals("[{NA=-1.0}]", extended.get("Proxy/dc:description").get("instances").toString());
+  }
+
+  @Test
+  public void intern() {
+    String code = new String("hu");
+    assertSame(LanguageCodes.intern("hu"), LanguageCodes.intern(code));
+  }
+}
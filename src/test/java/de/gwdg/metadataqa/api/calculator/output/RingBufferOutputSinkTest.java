@@ -0,0 +1,189 @@
+package de.gwdg.metadataqa.api.calculator.output;
+
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RingBufferOutputSinkTest {
+
+  @Test
+  public void publish_parallel() throws Exception {
+    var output = new StringWriter();
+    int threads = 4;
+    int records = 10_000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try (var sink = new RingBufferOutputSink(output, 64, 16)) {
+      List<Future<?>> futures = new ArrayList<>();
+      for (var thread = 0; thread < threads; thread++) {
+        final int id = thread;
+        futures.add(executor.submit(() -> {
+          for (var i = 0; i < records; i++)
+            sink.publish(id + "," + i);
+          return null;
+        }));
+      }
+      for (Future<?> future : futures)
+        future.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    List<String> lines = Arrays.asList(output.toString().split("\n"));
+    assertEquals(threads * records, lines.size());
+    // the results of a thread keep their order
+    Map<String, Integer> last = new HashMap<>();
+    for (String line : lines) {
+      String[] parts = line.split(",");
+      int i = Integer.parseInt(parts[1]);
+      assertEquals(line, last.getOrDefault(parts[0], -1) + 1, i);
+      last.put(parts[0], i);
+    }
+  }
+
+  @Test
+  public void backpressure() throws Exception {
+    var release = new CountDownLatch(1);
+    var output = new StringWriter();
+    Writer slowWriter = new Writer() {
+      @Override
+      public void write(char[] chars, int offset, int length) throws IOException {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+        output.write(chars, offset, length);
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+
+    var sink = new RingBufferOutputSink(slowWriter, 4, 4);
+    var publisher = new Thread(() -> {
+      try {
+        for (var i = 0; i < 100_000; i++)
+          sink.publish("record " + i);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    publisher.start();
+    // the buffered writer and the slots are full, the publisher waits
+    TimeUnit.MILLISECONDS.sleep(100);
+    release.countDown();
+    publisher.join();
+    sink.close();
+
+    assertEquals(4, sink.getCapacity());
+    assertTrue(sink.getBlockedPublishes() > 0);
+    assertTrue(sink.getBlockedNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+    assertEquals(100_000, sink.getWrittenRecords());
+    assertTrue(sink.getBatches() >= 25_000);
+    assertEquals("record 99999", output.toString().substring(output.toString().lastIndexOf("record ")).trim());
+  }
+
+  @Test
+  public void failure() throws InterruptedException {
+    Writer failingWriter = new Writer() {
+      @Override
+      public void write(char[] chars, int offset, int length) throws IOException {
+        throw new IOException("disk full");
+      }
+
+      @Override
+      public void flush() throws IOException {
+        throw new IOException("disk full");
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+
+    var sink = new RingBufferOutputSink(new BufferedWriter(failingWriter, 1), 2, 1);
+    try {
+      for (var i = 0; i < 1000; i++)
+        sink.publish("record " + i);
+      sink.close();
+      fail("IOException expected");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("disk full"));
+    }
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void publish_null() throws IOException {
+    try (var sink = new RingBufferOutputSink(new StringWriter(), 2, 1)) {
+      sink.publish(null);
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void uncheckedFailure() {
+    Writer failingWriter = new Writer() {
+      @Override
+      public void write(char[] chars, int offset, int length) {
+        throw new IllegalStateException("broken writer");
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+
+    var sink = new RingBufferOutputSink(new BufferedWriter(failingWriter, 1), 2, 1);
+    try {
+      for (var i = 0; i < 1000; i++)
+        sink.publish("record " + i);
+      sink.close();
+      fail("IOException expected");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("broken writer"));
+      assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void open() throws IOException {
+    Path file = Files.createTempFile("results", ".csv");
+    try {
+      try (var sink = RingBufferOutputSink.open(file)) {
+        sink.publish("0.5,1,Göttingen");
+        sink.publish("0.25,2,Zürich");
+      }
+      assertEquals(Arrays.asList("0.5,1,Göttingen", "0.25,2,Zürich"), Files.readAllLines(file, StandardCharsets.UTF_8));
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
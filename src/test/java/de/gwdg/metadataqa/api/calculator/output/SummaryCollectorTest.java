@@ -0,0 +1,154 @@
+package de.gwdg.metadataqa.api.calculator.output;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.interfaces.Calculator;
+import de.gwdg.metadataqa.api.schema.edm.EdmOaiPmhJsonSchema;
+import de.gwdg.metadataqa.api.util.CompressionLevel;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class SummaryCollectorTest {
+
+  private CalculatorFacade calculatorFacade;
+  private String record;
+
+  @Before
+  public void setUp() throws IOException, URISyntaxException {
+    calculatorFacade = new CalculatorFacade(new MeasurementConfiguration(true, true, true, false, true));
+    calculatorFacade.setSchema(new EdmOaiPmhJsonSchema());
+    calculatorFacade.configure();
+    record = FileUtils.readFirstLineFromResource("general/test.json");
+  }
+
+  @Test
+  public void collect() {
+    var collector = new SummaryCollector();
+    for (var i = 0; i < 3; i++)
+      calculatorFacade.measure(record, collector);
+    calculatorFacade.measure(ByteBuffer.wrap(record.getBytes(StandardCharsets.UTF_8)), collector);
+    assertEquals(4, collector.getRecordCount());
+
+    Map<String, Object> result = calculatorFacade.measureAsMap(record);
+    assertEquals(result.keySet(), collector.getSummaries().keySet());
+    for (Map.Entry<String, Object> entry : result.entrySet()) {
+      MetricSummary summary = collector.getSummary(entry.getKey());
+      assertEquals(entry.getKey(), 4, summary.getCount() + summary.getMissingCount());
+      double value = MetricSummary.toDouble(entry.getValue());
+      if (!Double.isNaN(value)) {
+        assertEquals(entry.getKey(), value, summary.getMean(), 1e-9);
+        assertEquals(value, summary.getMin(), 0.0);
+        assertEquals(value, summary.getMax(), 0.0);
+        assertEquals(0.0, summary.getVariance(), 1e-12);
+        assertEquals(4, summary.getHistogram().getTotalCount());
+      }
+    }
+  }
+
+  @Test
+  public void recordCount_withoutResults() {
+    var collector = new SummaryCollector();
+    // a record whose calculators produce no results
+    collector.startRecord();
+    for (Calculator calculator : calculatorFacade.getCalculators())
+      collector.addResult(calculator, List.of(), CompressionLevel.ZERO);
+    calculatorFacade.measure(record, collector);
+    assertEquals(2, collector.getRecordCount());
+
+    // a collector which saw only the results of the last calculator
+    var other = new SummaryCollector();
+    List<Calculator> calculators = calculatorFacade.getCalculators();
+    Calculator last = calculators.get(calculators.size() - 1);
+    other.startRecord();
+    other.addResult(last, List.of(), CompressionLevel.ZERO);
+    assertEquals(3, collector.merge(other).getRecordCount());
+  }
+
+  @Test
+  public void summary() {
+    var summary = new MetricSummary();
+    for (Object value : new Object[]{1, 2, 3, 4, true, false, "NA", null, 0.5})
+      summary.add(value);
+    assertEquals(7, summary.getCount());
+    assertEquals(2, summary.getMissingCount());
+    assertEquals(11.5 / 7, summary.getMean(), 1e-12);
+    assertEquals(0.0, summary.getMin(), 0.0);
+    assertEquals(4.0, summary.getMax(), 0.0);
+    // the sample variance of 1, 2, 3, 4, 1, 0, 0.5
+    assertEquals(2.0595238095, summary.getVariance(), 1e-9);
+    assertEquals(1.0, summary.getMedian(), 0.0);
+    assertEquals(3.0, summary.getQuantile(0.8), 0.0);
+  }
+
+  @Test
+  public void mergeAndSerialize() throws IOException, ClassNotFoundException {
+    var whole = new SummaryCollector();
+    var first = new SummaryCollector();
+    var second = new SummaryCollector();
+    for (var i = 0; i < 5; i++) {
+      calculatorFacade.measure(record, whole);
+      calculatorFacade.measure(record, i < 2 ? first : second);
+    }
+
+    SummaryCollector merged = new SummaryCollector().merge(copy(first)).merge(copy(second));
+    assertEquals(5, merged.getRecordCount());
+    assertEquals(whole.getSummaries().keySet(), merged.getSummaries().keySet());
+    for (Map.Entry<String, MetricSummary> entry : whole.getSummaries().entrySet()) {
+      MetricSummary expected = entry.getValue();
+      MetricSummary actual = merged.getSummary(entry.getKey());
+      assertNotNull(actual);
+      assertEquals(expected.getCount(), actual.getCount());
+      assertEquals(expected.getMissingCount(), actual.getMissingCount());
+      assertEquals(expected.getMean(), actual.getMean(), 1e-12);
+      assertEquals(expected.getVariance(), actual.getVariance(), 1e-12);
+      assertEquals(expected.getMin(), actual.getMin(), 0.0);
+      assertEquals(expected.getMax(), actual.getMax(), 0.0);
+      assertEquals(expected.getHistogram(), actual.getHistogram());
+      assertEquals(expected.getMedian(), actual.getMedian(), 0.0);
+    }
+  }
+
+  @Test
+  public void mergeDifferentValues() {
+    var whole = new MetricSummary();
+    var parts = new MetricSummary[]{new MetricSummary(), new MetricSummary(), new MetricSummary()};
+    for (var i = 0; i < 1000; i++) {
+      double value = (i * 37 % 101) / 10.0;
+      whole.add(value);
+      parts[i % 3].add(value);
+    }
+    MetricSummary merged = parts[0].merge(parts[1]).merge(parts[2]);
+    assertEquals(whole.getCount(), merged.getCount());
+    assertEquals(whole.getMean(), merged.getMean(), 1e-9);
+    assertEquals(whole.getVariance(), merged.getVariance(), 1e-9);
+    assertEquals(whole.getHistogram(), merged.getHistogram());
+    assertEquals(whole.getMedian(), merged.getMedian(), 0.1);
+    assertTrue(merged.getHistogram().getTotalCount() == 1000);
+  }
+
+  private static SummaryCollector copy(SummaryCollector collector) throws IOException, ClassNotFoundException {
+    var bytes = new ByteArrayOutputStream();
+    try (var output = new ObjectOutputStream(bytes)) {
+      output.writeObject(collector);
+    }
+    try (var input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return (SummaryCollector) input.readObject();
+    }
+  }
+}
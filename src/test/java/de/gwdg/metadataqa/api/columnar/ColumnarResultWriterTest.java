@@ -0,0 +1,213 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.configuration.ConfigurationReader;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.schema.edm.EdmOaiPmhJsonSchema;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnarResultWriterTest {
+
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("results", ".mqc");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    List<String> header = Arrays.asList("exists", "rule", "cardinality", "completeness", "provider", "empty");
+    List<List<Object>> rows = new ArrayList<>();
+    for (var i = 0; i < 1000; i++) {
+      rows.add(Arrays.asList(
+        i % 3 == 0,
+        i % 10 == 0 ? "NA" : (i % 2),
+        i % 7 == 0 ? null : i * 5 - 100,
+        i / 1000.0,
+        i % 50 == 0 ? null : "provider" + (i % 4),
+        null));
+    }
+
+    try (var writer = new ColumnarResultWriter(Files.newOutputStream(file), header, 300)) {
+      for (List<Object> row : rows)
+        writer.write(row);
+      assertEquals(3, writer.getRowGroupCount());
+    }
+
+    try (var reader = new ColumnarResultReader(file)) {
+      assertEquals(header, reader.getHeader());
+      assertEquals(1000, reader.getRowCount());
+      assertEquals(4, reader.getRowGroupCount());
+      assertEquals(100, reader.getRowCount(3));
+      assertEquals(ColumnType.BOOLEAN, reader.getColumnType("exists"));
+      assertEquals(ColumnType.RULE_OUTCOME, reader.getColumnType("rule"));
+      assertEquals(ColumnType.INT, reader.getColumnType("cardinality"));
+      assertEquals(ColumnType.DOUBLE, reader.getColumnType("completeness"));
+      assertEquals(ColumnType.STRING, reader.getColumnType("provider"));
+      assertNull(reader.getColumnType("empty"));
+
+      for (var c = 0; c < header.size(); c++) {
+        ResultColumn column = reader.readColumn(header.get(c));
+        assertEquals(1000, column.size());
+        for (var i = 0; i < rows.size(); i++)
+          assertEquals(header.get(c) + " " + i, rows.get(i).get(c), column.getValue(i));
+      }
+
+      ResultColumn lastGroup = reader.readColumn("cardinality", 3);
+      assertEquals(100, lastGroup.size());
+      assertEquals(900 * 5 - 100, lastGroup.getInt(0));
+    }
+  }
+
+  @Test
+  public void statistics() throws IOException {
+    try (var writer = new ColumnarResultWriter(Files.newOutputStream(file), Arrays.asList("a", "b"), 10)) {
+      for (var i = 0; i < 25; i++)
+        writer.write(Arrays.asList(i == 3 ? null : i * 0.1, i % 5 == 0 ? "NA" : 1));
+    }
+
+    try (var reader = new ColumnarResultReader(file)) {
+      ColumnStatistics statistics = reader.getStatistics("a");
+      assertEquals(25, statistics.getRowCount());
+      assertEquals(1, statistics.getNullCount());
+      assertEquals(0.0, statistics.getMin(), 0.0);
+      assertEquals(2.4, statistics.getMax(), 1e-9);
+
+      ColumnStatistics second = reader.getStatistics("a", 1);
+      assertEquals(1.0, second.getMin(), 1e-9);
+      assertEquals(1.9, second.getMax(), 1e-9);
+      assertTrue(second.mightContain(1.5, 3.0));
+      assertFalse(second.mightContain(2.0, 3.0));
+
+      ColumnStatistics outcomes = reader.getStatistics("b");
+      assertEquals(1.0, outcomes.getMin(), 0.0);
+      assertEquals(1.0, outcomes.getMax(), 0.0);
+    }
+  }
+
+  @Test
+  public void declaredRuleColumn() throws IOException {
+    Map<String, ColumnType> types = Map.of("rule", ColumnType.RULE_OUTCOME);
+    List<Object> values = new ArrayList<>();
+    try (var writer = new ColumnarResultWriter(Files.newOutputStream(file), Arrays.asList("rule"), types, 10)) {
+      for (var i = 0; i < 25; i++) {
+        Object value = i == 15 ? "NA" : i % 2;
+        values.add(value);
+        writer.write(Arrays.asList(value));
+      }
+    }
+
+    try (var reader = new ColumnarResultReader(file)) {
+      for (var group = 0; group < reader.getRowGroupCount(); group++) {
+        assertEquals(ColumnType.RULE_OUTCOME, reader.getStatistics("rule", group).getType());
+        assertEquals(ColumnType.RULE_OUTCOME, reader.readColumn("rule", group).getType());
+      }
+      ResultColumn column = reader.readColumn("rule");
+      for (var i = 0; i < values.size(); i++)
+        assertEquals(values.get(i), column.getValue(i));
+    }
+  }
+
+  @Test
+  public void columnTypeAsRead() throws IOException {
+    List<String> header = Arrays.asList("outcomes", "numbers", "widened");
+    try (var writer = new ColumnarResultWriter(Files.newOutputStream(file), header, 10)) {
+      for (var i = 0; i < 30; i++)
+        writer.write(Arrays.asList(
+          i < 10 ? i % 2 : "NA",
+          i < 10 ? i : "NA",
+          i < 20 ? i % 2 : (i < 25 ? "NA" : 5)));
+    }
+
+    try (var reader = new ColumnarResultReader(file)) {
+      assertEquals(ColumnType.RULE_OUTCOME, reader.getColumnType("outcomes"));
+      assertEquals(ColumnType.STRING, reader.getColumnType("numbers"));
+      assertEquals(ColumnType.STRING, reader.getColumnType("widened"));
+      for (String name : header)
+        assertEquals(name, reader.getColumnType(name), reader.readColumn(name).getType());
+    }
+  }
+
+  @Test
+  public void getColumnTypes() throws IOException {
+    Schema schema = ConfigurationReader
+      .readSchemaYaml("src/test/resources/configuration/schema/meemoo.yaml")
+      .asSchema();
+    CalculatorFacade facade = new CalculatorFacade(
+      new MeasurementConfiguration()
+        .enableCompletenessMeasurement()
+        .enableRuleCatalogMeasurement())
+      .setSchema(schema);
+    facade.configure();
+    assertEquals(
+      Map.of("url:pattern:1", ColumnType.RULE_OUTCOME,
+        "url:minCount:2", ColumnType.RULE_OUTCOME,
+        "alternateName:pattern:3", ColumnType.RULE_OUTCOME),
+      ColumnarResultWriter.getColumnTypes(facade));
+  }
+
+  @Test
+  public void measuredRecords() throws IOException, URISyntaxException {
+    var calculatorFacade = new CalculatorFacade(new MeasurementConfiguration(true, true, true, false, true));
+    calculatorFacade.setSchema(new EdmOaiPmhJsonSchema());
+    calculatorFacade.configure();
+    List<String> header = calculatorFacade.getHeader();
+    String record = FileUtils.readFirstLineFromResource("general/test.json");
+
+    List<List<Object>> results = new ArrayList<>();
+    long csvLength = 0;
+    try (var writer = ColumnarResultWriter.open(file, header)) {
+      for (var i = 0; i < 100; i++) {
+        List<Object> result = calculatorFacade.measureAsListOfObjects(record);
+        results.add(result);
+        writer.write(result);
+        csvLength += calculatorFacade.measure(record).length() + 1;
+      }
+    }
+    assertTrue(Files.size(file) < csvLength);
+
+    try (var reader = new ColumnarResultReader(file)) {
+      assertEquals(header, reader.getHeader());
+      assertEquals(results.size(), reader.getRowCount());
+
+      List<String> selected = Arrays.asList(header.get(0), header.get(header.size() - 1));
+      Map<String, ResultColumn> columns = reader.readColumns(selected);
+      assertEquals(selected, new ArrayList<>(columns.keySet()));
+      for (var i = 0; i < results.size(); i++) {
+        assertEquals(results.get(i).get(0), columns.get(selected.get(0)).getValue(i));
+        assertEquals(results.get(i).get(header.size() - 1), columns.get(selected.get(1)).getValue(i));
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void notAColumnarFile() throws IOException {
+    Files.write(file, "completeness,existence\n0.5,1\n".getBytes(StandardCharsets.UTF_8));
+    new ColumnarResultReader(file).close();
+  }
+}
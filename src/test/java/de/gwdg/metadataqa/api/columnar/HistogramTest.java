@@ -0,0 +1,50 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+  @Test
+  public void bins() {
+    assertEquals(0, Histogram.binOf(-3));
+    assertEquals(1, Histogram.binOf(0.0));
+    assertEquals(1, Histogram.binOf(0.049));
+    assertEquals(2, Histogram.binOf(0.05));
+    assertEquals(20, Histogram.binOf(0.999));
+    assertEquals(21, Histogram.binOf(1.0));
+    assertEquals(22, Histogram.binOf(1.1));
+    assertEquals(25, Histogram.binOf(1.9));
+    assertEquals(26, Histogram.binOf(2));
+    assertEquals(28, Histogram.binOf(3));
+    assertEquals(Histogram.SIZE - 1, Histogram.binOf(Double.POSITIVE_INFINITY));
+    assertEquals(Histogram.SIZE - 1, Histogram.binOf(Double.MAX_VALUE));
+  }
+
+  @Test
+  public void bounds() {
+    for (double value : new double[]{-1, 0, 0.3, 0.95, 1, 1.3, 2, 7, 100, 1e6, 1e30}) {
+      int bin = Histogram.binOf(value);
+      assertTrue(value + " >= lower bound", value >= Histogram.getLowerBound(bin));
+      assertTrue(value + " <= upper bound", value <= Histogram.getUpperBound(bin));
+    }
+    assertEquals(0.3, Histogram.getLowerBound(Histogram.binOf(0.3)), 1e-12);
+    assertEquals(2.5, Histogram.getUpperBound(Histogram.binOf(2)), 0.0);
+  }
+
+  @Test
+  public void addAndMerge() {
+    var first = new Histogram();
+    var second = new Histogram();
+    first.add(0.5);
+    first.add(Double.NaN);
+    second.add(0.5);
+    second.add(1);
+    first.merge(second);
+    assertEquals(3, first.getTotalCount());
+    assertEquals(2, first.getCount(Histogram.binOf(0.5)));
+    assertEquals(1, first.getCount(Histogram.binOf(1)));
+  }
+}
@@ -0,0 +1,143 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuantileSketchTest {
+
+  @Test
+  public void exactBelowK() {
+    var sketch = new QuantileSketch();
+    for (var i = 100; i >= 1; i--)
+      sketch.add(i);
+    sketch.add(Double.NaN);
+    assertEquals(100, sketch.getCount());
+    assertEquals(50.0, sketch.getMedian(), 0.0);
+    assertArrayEquals(new double[]{1.0, 25.0, 75.0, 99.0, 100.0},
+      sketch.getQuantiles(0, 0.25, 0.75, 0.99, 1), 0.0);
+    assertEquals(0.0, sketch.getCdf(0.5), 0.0);
+    assertEquals(0.3, sketch.getCdf(30), 0.0);
+    assertEquals(1.0, sketch.getCdf(100), 0.0);
+  }
+
+  @Test
+  public void empty() {
+    var sketch = new QuantileSketch();
+    assertTrue(Double.isNaN(sketch.getMedian()));
+    assertTrue(Double.isNaN(sketch.getCdf(1)));
+  }
+
+  @Test
+  public void boundedAndAccurate() {
+    var random = new Random(42);
+    var sketch = new QuantileSketch();
+    var values = new double[200_000];
+    for (var i = 0; i < values.length; i++) {
+      values[i] = random.nextDouble();
+      sketch.add(values[i]);
+    }
+    Arrays.sort(values);
+    assertEquals(values.length, sketch.getCount());
+    assertTrue(sketch.getRetainedItems() < 4 * QuantileSketch.DEFAULT_K);
+    assertEquals(values[0], sketch.getMin(), 0.0);
+    assertEquals(values[values.length - 1], sketch.getMax(), 0.0);
+    for (double fraction : new double[]{0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99}) {
+      double quantile = sketch.getQuantile(fraction);
+      assertEquals(fraction, rank(values, quantile), 0.02);
+      assertEquals(rank(values, quantile), sketch.getCdf(quantile), 0.02);
+    }
+  }
+
+  @Test
+  public void merge() throws IOException, ClassNotFoundException {
+    var random = new Random(7);
+    var whole = new QuantileSketch();
+    var parts = new QuantileSketch[4];
+    for (var i = 0; i < parts.length; i++)
+      parts[i] = new QuantileSketch();
+    var values = new double[100_000];
+    for (var i = 0; i < values.length; i++) {
+      // skewed, like the cardinalities
+      values[i] = Math.floor(Math.exp(random.nextGaussian() * 2));
+      whole.add(values[i]);
+      parts[i % parts.length].add(values[i]);
+    }
+    Arrays.sort(values);
+
+    QuantileSketch merged = copy(parts[0]);
+    for (var i = 1; i < parts.length; i++)
+      merged.merge(copy(parts[i]));
+    assertEquals(values.length, merged.getCount());
+    assertTrue(merged.getRetainedItems() < 4 * QuantileSketch.DEFAULT_K);
+    for (double fraction : new double[]{0.1, 0.5, 0.9, 0.95}) {
+      double quantile = merged.getQuantile(fraction);
+      assertTrue(fraction + ": " + quantile,
+        lowerRank(values, quantile) - 0.02 <= fraction && fraction <= rank(values, quantile) + 0.02);
+    }
+    assertEquals(whole.getCdf(3), merged.getCdf(3), 0.03);
+  }
+
+  @Test(timeout = 10_000)
+  public void mergeItself() {
+    var sketch = new QuantileSketch();
+    for (var i = 1; i <= 1000; i++)
+      sketch.add(i);
+    double median = sketch.getMedian();
+    int retained = sketch.getRetainedItems();
+
+    sketch.merge(sketch);
+    assertEquals(2000, sketch.getCount());
+    assertEquals(1.0, sketch.getMin(), 0.0);
+    assertEquals(1000.0, sketch.getMax(), 0.0);
+    assertEquals(median, sketch.getMedian(), 20);
+    assertTrue(sketch.getRetainedItems() <= 2 * retained);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void differentK() {
+    new QuantileSketch(100).merge(new QuantileSketch(200));
+  }
+
+  /**
+   * The fraction of the values less than or equal to the value.
+   */
+  private static double rank(double[] sorted, double value) {
+    var index = Arrays.binarySearch(sorted, value);
+    if (index < 0)
+      return (double) (-index - 1) / sorted.length;
+    while (index + 1 < sorted.length && sorted[index + 1] == value)
+      index++;
+    return (double) (index + 1) / sorted.length;
+  }
+
+  /**
+   * The fraction of the values less than the value.
+   */
+  private static double lowerRank(double[] sorted, double value) {
+    var count = 0;
+    while (count < sorted.length && sorted[count] < value)
+      count++;
+    return (double) count / sorted.length;
+  }
+
+  private static QuantileSketch copy(QuantileSketch sketch) throws IOException, ClassNotFoundException {
+    var bytes = new ByteArrayOutputStream();
+    try (var output = new ObjectOutputStream(bytes)) {
+      output.writeObject(sketch);
+    }
+    try (var input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return (QuantileSketch) input.readObject();
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import de.gwdg.metadataqa.api.rule.RuleCheckingOutputType;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResultColumnTest {
+
+  @Test
+  public void types() {
+    assertEquals(ColumnType.BOOLEAN, column(true, false).getType());
+    assertEquals(ColumnType.INT, column(1, 2, 3).getType());
+    assertEquals(ColumnType.DOUBLE, column(0.5, 1.0).getType());
+    assertEquals(ColumnType.RULE_OUTCOME, column("NA", 1, 0).getType());
+    assertEquals(ColumnType.STRING, column("a", "b").getType());
+    assertNull(column(null, null).getType());
+  }
+
+  @Test
+  public void widening() {
+    ResultColumn doubles = column(1, 2, 0.5);
+    assertEquals(ColumnType.DOUBLE, doubles.getType());
+    assertEquals(2.0, doubles.getDouble(1), 0.0);
+
+    ResultColumn outcomes = column(1, 0, null, "NA");
+    assertEquals(ColumnType.RULE_OUTCOME, outcomes.getType());
+    assertEquals(RuleCheckingOutputType.PASSED, outcomes.getOutcome(0));
+    assertEquals(RuleCheckingOutputType.FAILED, outcomes.getOutcome(1));
+    assertNull(outcomes.getValue(2));
+    assertEquals("NA", outcomes.getValue(3));
+    assertTrue(Double.isNaN(outcomes.getDouble(3)));
+
+    ResultColumn texts = column(5, "NA");
+    assertEquals(ColumnType.STRING, texts.getType());
+    assertEquals("5", texts.getValue(0));
+
+    ResultColumn mixed = column(true, 1);
+    assertEquals(ColumnType.STRING, mixed.getType());
+    assertEquals(Arrays.asList("true", "1"), Arrays.asList(mixed.getValue(0), mixed.getValue(1)));
+  }
+
+  @Test
+  public void nulls() {
+    ResultColumn column = column(null, 3, null, 4);
+    assertEquals(4, column.size());
+    assertEquals(2, column.getNullCount());
+    assertNull(column.getValue(0));
+    assertEquals(3, column.getValue(1));
+    assertTrue(Double.isNaN(column.getDouble(2)));
+    assertEquals(4, column.getInt(3));
+  }
+
+  @Test
+  public void growth() {
+    var column = new ResultColumn("cardinality");
+    for (var i = 0; i < 1000; i++)
+      column.append(i);
+    assertEquals(1000, column.size());
+    assertEquals(999, column.getInt(999));
+    assertTrue(column.getIntArray().length >= 1000);
+  }
+
+  @Test
+  public void appendAll() {
+    ResultColumn column = column(1, null);
+    column.appendAll(column(2, 3));
+    column.appendAll(column(null, 4));
+    assertEquals(Arrays.asList(1, null, 2, 3, null, 4), values(column));
+
+    column.appendAll(column(0.5));
+    assertEquals(ColumnType.DOUBLE, column.getType());
+    assertEquals(Arrays.asList(1.0, null, 2.0, 3.0, null, 4.0, 0.5), values(column));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void wrongType() {
+    column(0.5).getInt(0);
+  }
+
+  static ResultColumn column(Object... values) {
+    var column = new ResultColumn("test");
+    for (Object value : values)
+      column.append(value);
+    return column;
+  }
+
+  static java.util.List<Object> values(ResultColumn column) {
+    Object[] values = new Object[column.size()];
+    for (var i = 0; i < column.size(); i++)
+      values[i] = column.getValue(i);
+    return Arrays.asList(values);
+  }
+}
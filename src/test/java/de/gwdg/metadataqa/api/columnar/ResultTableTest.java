@@ -0,0 +1,175 @@
+package de.gwdg.metadataqa.api.columnar;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.schema.edm.EdmOaiPmhJsonSchema;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ResultTableTest {
+
+  private static final List<String> HEADER = Arrays.asList("provider", "completeness", "cardinality", "rule");
+
+  private static ResultTable createTable(int size) {
+    var table = new ResultTable(HEADER);
+    for (var i = 0; i < size; i++)
+      table.addRow(Arrays.asList(
+        "provider" + (i % 3),
+        (i % 10) / 10.0,
+        i % 4 == 0 ? null : i % 5,
+        i % 2 == 0 ? "NA" : (i % 3 == 0 ? 1 : 0)));
+    return table;
+  }
+
+  @Test
+  public void summarize() {
+    ResultTable table = createTable(1000);
+    assertEquals(1000, table.getRowCount());
+    assertEquals(HEADER, table.getHeader());
+
+    ColumnSummary completeness = table.summarize("completeness");
+    assertEquals(1000, completeness.getCount());
+    assertEquals(0.45, completeness.getMean(), 1e-9);
+    assertEquals(0.0, completeness.getMin(), 0.0);
+    assertEquals(0.9, completeness.getMax(), 1e-9);
+    assertEquals(0.0826, completeness.getVariance(), 1e-4);
+
+    ColumnSummary cardinality = table.summarize("cardinality");
+    assertEquals(750, cardinality.getCount());
+    assertEquals(250, cardinality.getNullCount());
+
+    ColumnSummary rule = table.summarize("rule");
+    assertEquals(500, rule.getCount());
+    assertEquals(500, rule.getNullCount());
+    assertEquals(167, rule.getSum(), 0.0);
+
+    ColumnSummary provider = table.summarize("provider");
+    assertEquals(0, provider.getCount());
+  }
+
+  @Test
+  public void parallelScansGiveTheSameResults() {
+    ResultTable table = createTable(10_000);
+    ColumnSummary sequential = table.summarize("completeness");
+    BitSet sequentialFilter = table.filter("completeness", v -> v < 0.3);
+
+    table.setSegmentSize(100).setPool(new ForkJoinPool(4));
+    ColumnSummary parallel = table.summarize("completeness");
+    assertEquals(sequential.getCount(), parallel.getCount());
+    assertEquals(sequential.getMean(), parallel.getMean(), 1e-12);
+    assertEquals(sequential.getVariance(), parallel.getVariance(), 1e-12);
+    assertEquals(sequentialFilter, table.filter("completeness", v -> v < 0.3));
+
+    Map<String, ColumnSummary> all = table.summarizeAll();
+    assertEquals(HEADER, Arrays.asList(all.keySet().toArray()));
+    assertEquals(sequential.getSum(), all.get("completeness").getSum(), 1e-9);
+  }
+
+  @Test
+  public void filterAndGroupBy() {
+    ResultTable table = createTable(1000).setSegmentSize(64);
+    BitSet incomplete = table.filter("completeness", v -> v < 0.3);
+    assertEquals(300, incomplete.cardinality());
+    assertTrue(incomplete.get(0));
+    assertTrue(incomplete.get(12));
+    assertEquals(false, incomplete.get(13));
+
+    BitSet passed = table.filter("rule", v -> v == 1.0);
+    assertEquals(167, passed.cardinality());
+
+    BitSet provider1 = table.filterValues("provider", "provider1"::equals);
+    assertEquals(333, provider1.cardinality());
+
+    Map<Object, ColumnSummary> byProvider = table.groupBy("provider", "completeness");
+    assertEquals(Arrays.asList("provider0", "provider1", "provider2"), Arrays.asList(byProvider.keySet().toArray()));
+    assertEquals(334, byProvider.get("provider0").getCount());
+    assertEquals(333, byProvider.get("provider1").getCount());
+    double total = 0;
+    for (ColumnSummary summary : byProvider.values())
+      total += summary.getSum();
+    assertEquals(table.summarize("completeness").getSum(), total, 1e-9);
+
+    Map<Object, ColumnSummary> incompleteByProvider = table.groupBy("provider", "completeness", incomplete);
+    assertEquals(300, incompleteByProvider.values().stream().mapToLong(ColumnSummary::getCount).sum());
+    assertEquals(table.summarize("completeness", incomplete).getMax(),
+      incompleteByProvider.get("provider0").getMax(), 1e-9);
+  }
+
+  @Test
+  public void sketches() {
+    ResultTable table = createTable(1000).setSegmentSize(64);
+    QuantileSketch completeness = table.sketch("completeness");
+    assertEquals(1000, completeness.getCount());
+    assertEquals(0.4, completeness.getMedian(), 0.1);
+    assertEquals(0.3, completeness.getCdf(0.2), 0.02);
+
+    QuantileSketch cardinality = table.sketch("cardinality");
+    assertEquals(750, cardinality.getCount());
+
+    BitSet incomplete = table.filter("completeness", v -> v < 0.3);
+    assertEquals(0.2, table.sketch("completeness", incomplete).getMax(), 1e-9);
+
+    Map<Object, QuantileSketch> byProvider = table.groupSketches("provider", "completeness", null);
+    assertEquals(3, byProvider.size());
+    assertEquals(334, byProvider.get("provider0").getCount());
+    assertEquals(0.4, byProvider.get("provider1").getMedian(), 0.1);
+  }
+
+  @Test
+  public void fromMeasurementAndFiles() throws IOException, URISyntaxException {
+    var calculatorFacade = new CalculatorFacade(new MeasurementConfiguration(true, true, true, false, true));
+    calculatorFacade.setSchema(new EdmOaiPmhJsonSchema());
+    calculatorFacade.configure();
+    List<String> header = calculatorFacade.getHeader();
+    String record = FileUtils.readFirstLineFromResource("general/test.json");
+
+    var table = new ResultTable(header);
+    table.addRecord(calculatorFacade.measureAsMetricResult(record));
+    table.addRow(calculatorFacade.measureAsListOfObjects(record));
+    List<Object> expected = calculatorFacade.measureAsListOfObjects(record);
+    for (var i = 0; i < header.size(); i++) {
+      assertEquals(expected.get(i), table.getColumn(header.get(i)).getValue(0));
+      assertEquals(expected.get(i), table.getColumn(header.get(i)).getValue(1));
+    }
+
+    Path columnar = Files.createTempFile("results", ".mqc");
+    Path csv = Files.createTempFile("results", ".csv");
+    try {
+      try (var writer = ColumnarResultWriter.open(columnar, header)) {
+        writer.write(expected);
+        writer.write(expected);
+      }
+      try (var reader = new ColumnarResultReader(columnar)) {
+        ResultTable stored = ResultTable.read(reader, Arrays.asList(header.get(0), header.get(5)));
+        assertEquals(2, stored.getRowCount());
+        assertEquals(Arrays.asList(header.get(0), header.get(5)), stored.getHeader());
+        assertEquals(expected.get(5), stored.getColumn(header.get(5)).getValue(1));
+      }
+
+      String line = calculatorFacade.measure(record);
+      Files.write(csv, Arrays.asList(String.join(",", header), line, line), StandardCharsets.UTF_8);
+      ResultTable fromCsv = ResultTable.readCsv(csv);
+      assertEquals(2, fromCsv.getRowCount());
+      assertEquals(header, fromCsv.getHeader());
+      String total = header.get(1);
+      assertEquals(table.summarize(total).getMean(), fromCsv.summarize(total).getMean(), 1e-6);
+    } finally {
+      Files.deleteIfExists(columnar);
+      Files.deleteIfExists(csv);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package de.gwdg.metadataqa.api.counter;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReservoirSampleTest {
+
+  @Test
+  public void add() {
+    ReservoirSample<String> sample = new ReservoirSample<>(3, new Random(42));
+    for (int i = 0; i < 100; i++)
+      sample.add("r" + i);
+
+    assertEquals(100, sample.getSeen());
+    assertEquals(3, sample.getSample().size());
+  }
+
+  @Test
+  public void merge() {
+    ReservoirSample<String> sample1 = new ReservoirSample<>(5, new Random(1));
+    sample1.add("a");
+    sample1.add("b");
+    ReservoirSample<String> sample2 = new ReservoirSample<>(5, new Random(2));
+    for (int i = 0; i < 10; i++)
+      sample2.add("x" + i);
+
+    sample1.merge(sample2);
+    assertEquals(12, sample1.getSeen());
+    assertEquals(5, sample1.getSample().size());
+    for (String value : sample1.getSample())
+      assertTrue(value.equals("a") || value.equals("b") || value.startsWith("x"));
+  }
+}
@@ -0,0 +1,76 @@
+package de.gwdg.metadataqa.api.counter;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TopKCounterTest {
+
+  @Test
+  public void add() {
+    TopKCounter counter = new TopKCounter(2);
+    counter.add("a");
+    counter.add("a");
+    counter.add("b");
+    counter.add("a");
+    counter.add("c");
+
+    assertEquals(2, counter.size());
+    List<TopKCounter.Entry> top = counter.getTop();
+    assertEquals("a", top.get(0).getValue());
+    assertEquals(3, top.get(0).getCount());
+    assertEquals(0, top.get(0).getError());
+    assertEquals("c", top.get(1).getValue());
+    assertEquals(2, top.get(1).getCount());
+    assertEquals(1, top.get(1).getError());
+  }
+
+  @Test
+  public void merge() {
+    TopKCounter counter1 = new TopKCounter(3);
+    counter1.add("a", 5);
+    counter1.add("b", 2);
+
+    TopKCounter counter2 = new TopKCounter(3);
+    counter2.add("a", 1);
+    counter2.add("c", 4);
+
+    counter1.merge(counter2);
+    List<TopKCounter.Entry> top = counter1.getTop();
+    assertEquals(3, top.size());
+    assertEquals("a", top.get(0).getValue());
+    assertEquals(6, top.get(0).getCount());
+    assertEquals("c", top.get(1).getValue());
+    assertEquals(4, top.get(1).getCount());
+    assertEquals("b", top.get(2).getValue());
+    assertEquals(2, top.get(2).getCount());
+  }
+
+  @Test
+  public void heavyHitters() {
+    TopKCounter counter = new TopKCounter(10);
+    var singleton = 0;
+    for (var round = 0; round < 1000; round++) {
+      for (var i = 0; i < 5; i++)
+        counter.add("heavy" + i);
+      for (var i = 0; i < 3; i++)
+        counter.add("single" + singleton++);
+    }
+
+    assertEquals(10, counter.size());
+    List<TopKCounter.Entry> top = counter.getTop();
+    for (var i = 0; i < 5; i++) {
+      TopKCounter.Entry entry = top.get(i);
+      assertTrue(entry.getValue().startsWith("heavy"));
+      assertTrue(entry.getCount() >= 1000);
+      assertTrue(entry.getCount() - entry.getError() <= 1000);
+    }
+    long total = 0;
+    for (TopKCounter.Entry entry : top)
+      total += entry.getCount();
+    assertEquals(8000, total);
+  }
+}
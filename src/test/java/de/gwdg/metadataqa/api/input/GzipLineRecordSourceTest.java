@@ -0,0 +1,97 @@
+package de.gwdg.metadataqa.api.input;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GzipLineRecordSourceTest {
+
+  private Path file;
+  private List<String> records;
+
+  @Before
+  public void setUp() throws IOException {
+    records = new ArrayList<>();
+    for (var i = 0; i < 1000; i++)
+      records.add(String.format("{\"id\":%d,\"title\":\"%s\"}", i, "Göttingen ".repeat(i % 7)));
+    file = Files.createTempFile("records", ".ndjson.gz");
+    try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(file))) {
+      output.write(String.join("\r\n", records).getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.delete(file);
+  }
+
+  @Test
+  public void next() throws IOException {
+    try (var source = new GzipLineRecordSource(file)) {
+      assertEquals(records, MappedLineRecordSourceTest.readAll(source));
+      assertNull(source.next());
+      assertEquals(Files.size(file), source.getBytesRead());
+      assertEquals(Files.size(file), source.getLength());
+    }
+  }
+
+  @Test
+  public void next_smallChunks() throws IOException {
+    // the chunks are smaller than some of the lines
+    try (var source = new GzipLineRecordSource(file, 32, 2)) {
+      assertEquals(records, MappedLineRecordSourceTest.readAll(source));
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void next_uncheckedFailure() throws IOException {
+    var source = new GzipLineRecordSource(file, 64, 2) {
+      @Override
+      InputStream openDecompressed() {
+        return new InputStream() {
+          @Override
+          public int read() {
+            throw new IllegalStateException("corrupt");
+          }
+        };
+      }
+    };
+    try {
+      source.next();
+      fail("the failure of the decompressor should be reported");
+    } catch (IOException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    } finally {
+      source.close();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void next_corrupt() throws IOException {
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+    try (var source = new GzipLineRecordSource(file, 64, 2)) {
+      ByteBuffer record;
+      do {
+        record = source.next();
+      } while (record != null);
+    }
+  }
+}
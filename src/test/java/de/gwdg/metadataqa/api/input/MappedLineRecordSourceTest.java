@@ -0,0 +1,108 @@
+package de.gwdg.metadataqa.api.input;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedLineRecordSourceTest {
+
+  private static final String CONTENT = "{\"id\":1}\n"
+    + "{\"id\":2,\"title\":\"Göttingen\"}\r\n"
+    + "\n"
+    + "{\"id\":3,\"description\":\"a line which is longer than the mapped window\"}\n"
+    + "{\"id\":4}";
+  private static final List<String> RECORDS = Arrays.asList(
+    "{\"id\":1}",
+    "{\"id\":2,\"title\":\"Göttingen\"}",
+    "{\"id\":3,\"description\":\"a line which is longer than the mapped window\"}",
+    "{\"id\":4}"
+  );
+
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = Files.createTempFile("records", ".ndjson");
+    Files.write(file, CONTENT.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.delete(file);
+  }
+
+  @Test
+  public void next() throws IOException {
+    try (var source = new MappedLineRecordSource(file)) {
+      assertEquals(RECORDS, readAll(source));
+      assertNull(source.next());
+      assertEquals(source.getLength(), source.getBytesRead());
+      assertEquals(1.0, source.getProgress(), 0.0);
+    }
+  }
+
+  @Test
+  public void next_smallWindow() throws IOException {
+    try (var source = new MappedLineRecordSource(file, 0, -1, 16)) {
+      assertEquals(RECORDS, readAll(source));
+    }
+  }
+
+  @Test
+  public void next_isSlice() throws IOException {
+    try (var source = new MappedLineRecordSource(file)) {
+      ByteBuffer record = source.next();
+      assertTrue(record.isDirect());
+      assertEquals(0, record.position());
+      assertEquals(8, record.remaining());
+    }
+  }
+
+  @Test
+  public void split() throws IOException {
+    for (var parts = 1; parts <= 10; parts++) {
+      List<MappedLineRecordSource> sources = MappedLineRecordSource.split(file, parts);
+      assertTrue(sources.size() <= parts);
+      List<String> records = new ArrayList<>();
+      long expectedStart = 0;
+      for (MappedLineRecordSource source : sources) {
+        assertEquals(expectedStart, source.getStart());
+        expectedStart = source.getEnd();
+        records.addAll(readAll(source));
+        source.close();
+      }
+      assertEquals(Files.size(file), expectedStart);
+      assertEquals("parts: " + parts, RECORDS, records);
+    }
+  }
+
+  @Test
+  public void empty() throws IOException {
+    Files.write(file, new byte[0]);
+    try (var source = new MappedLineRecordSource(file)) {
+      assertNull(source.next());
+    }
+    assertEquals(1, MappedLineRecordSource.split(file, 4).size());
+  }
+
+  static List<String> readAll(RecordSource source) throws IOException {
+    List<String> records = new ArrayList<>();
+    ByteBuffer record;
+    while ((record = source.next()) != null)
+      records.add(StandardCharsets.UTF_8.decode(record).toString());
+    return records;
+  }
+}
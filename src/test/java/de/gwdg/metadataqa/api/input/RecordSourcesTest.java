@@ -0,0 +1,133 @@
+package de.gwdg.metadataqa.api.input;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.schema.MarcJsonSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RecordSourcesTest {
+
+  private final Path input = Paths.get("src/test/resources/general/marc.json");
+  private Path gzip;
+
+  @Before
+  public void setUp() throws IOException {
+    gzip = Files.createTempFile("marc", ".json.gz");
+    try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+      Files.copy(input, output);
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.delete(gzip);
+  }
+
+  @Test
+  public void isGzip() throws IOException {
+    assertTrue(RecordSources.isGzip(gzip));
+    assertFalse(RecordSources.isGzip(input));
+    try (RecordSource source = RecordSources.open(gzip)) {
+      assertTrue(source instanceof GzipLineRecordSource);
+    }
+    try (RecordSource source = RecordSources.open(input)) {
+      assertTrue(source instanceof MappedLineRecordSource);
+    }
+  }
+
+  @Test
+  public void forEach() throws IOException {
+    var facade = createFacade();
+    List<String> expected = Files.readAllLines(input).stream()
+      .filter(line -> !line.isEmpty())
+      .map(facade::measure)
+      .sorted()
+      .collect(Collectors.toList());
+
+    assertEquals(expected, measure(input, 4));
+    assertEquals(expected, measure(gzip, 4));
+  }
+
+  @Test
+  public void forEach_progress() throws IOException {
+    for (Path file : List.of(input, gzip)) {
+      var last = new long[3];
+      long records = RecordSources.forEach(file, 3, () -> record -> { }, (bytesRead, length, count) -> {
+        synchronized (last) {
+          last[0] = bytesRead;
+          last[1] = length;
+          last[2] = count;
+        }
+      });
+      assertEquals(674, records);
+      assertEquals(Files.size(file), last[0]);
+      assertEquals(Files.size(file), last[1]);
+      assertEquals(674, last[2]);
+    }
+  }
+
+  @Test
+  public void forEach_moreThreadsThanLines() throws IOException {
+    Path small = Files.createTempFile("records", ".ndjson");
+    Path smallGzip = Files.createTempFile("records", ".ndjson.gz");
+    try {
+      byte[] lines = "{\"id\":1}\n{\"id\":2}\n{\"id\":3}\n".getBytes(StandardCharsets.UTF_8);
+      Files.write(small, lines);
+      try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(smallGzip))) {
+        output.write(lines);
+      }
+      for (var i = 0; i < 1000; i++) {
+        assertEquals(3, RecordSources.forEach(small, 8, () -> record -> { }, null));
+        assertEquals(3, RecordSources.forEach(smallGzip, 8, () -> record -> { }, null));
+      }
+    } finally {
+      Files.delete(small);
+      Files.delete(smallGzip);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void forEach_failure() throws IOException {
+    var count = new AtomicLong();
+    RecordSources.forEach(input, 2, () -> record -> {
+      if (count.incrementAndGet() == 100)
+        throw new IllegalStateException("failed");
+    }, null);
+  }
+
+  private List<String> measure(Path file, int threads) throws IOException {
+    var results = new ConcurrentLinkedQueue<String>();
+    RecordSources.forEach(file, threads, () -> {
+      var facade = createFacade();
+      return record -> results.add(facade.measure(record));
+    }, null);
+    List<String> sorted = new ArrayList<>(results);
+    Collections.sort(sorted);
+    return sorted;
+  }
+
+  private static CalculatorFacade createFacade() {
+    return new CalculatorFacade(new MeasurementConfiguration().enableCompletenessMeasurement())
+      .setSchema(new MarcJsonSchema());
+  }
+}
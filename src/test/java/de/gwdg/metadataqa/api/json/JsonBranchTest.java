@@ -170,4 +170,21 @@ public class JsonBranchTest {
     assertEquals("date", path.getChildren().get(1).getLabel());
   }
 
-}
\ No newline at end of file
+  @Test
+  public void getAddress() {
+    JsonBranch collection = new JsonBranch("Proxy", "$.['ore:Proxy']");
+    JsonBranch child = new JsonBranch("dc:title", collection, "$.['dc:title']");
+    for (int i : new int[]{0, 7, 8, 100, 3, AddressTable.MAX_SIZE - 1, AddressTable.MAX_SIZE, 100000})
+      assertEquals(String.format("%s/%d/%s", collection.getJsonPath(), i, child.getJsonPath()),
+        child.getAddress(collection, i));
+    assertSame(child.getAddress(collection, 100), child.getAddress(collection, 100));
+    // the addresses above the bound are not kept
+    assertNotSame(child.getAddress(collection, 100000), child.getAddress(collection, 100000));
+
+    child.setJsonPath("$.['dc:description']");
+    assertEquals("$.['ore:Proxy']/2/$.['dc:description']", child.getAddress(collection, 2));
+
+    JsonBranch other = new JsonBranch("Aggregation", "$.['ore:Aggregation']");
+    assertEquals("$.['ore:Aggregation']/2/$.['dc:description']", child.getAddress(other, 2));
+  }
+}
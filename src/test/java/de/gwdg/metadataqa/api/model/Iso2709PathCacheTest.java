@@ -0,0 +1,129 @@
+package de.gwdg.metadataqa.api.model;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.json.JsonBranch;
+import de.gwdg.metadataqa.api.model.pathcache.Iso2709PathCache;
+import de.gwdg.metadataqa.api.model.pathcache.MarcField;
+import de.gwdg.metadataqa.api.model.pathcache.MarcJsonPathCache;
+import de.gwdg.metadataqa.api.model.pathcache.PathCache;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.MarcJsonSchema;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class Iso2709PathCacheTest {
+
+  private byte[] record;
+  private MarcJsonPathCache<XmlFieldInstance> expected;
+
+  @Before
+  public void setUp() throws IOException, URISyntaxException {
+    record = Files.readAllBytes(Paths.get(getClass().getClassLoader().getResource("general/marc.mrc").toURI()));
+    expected = new MarcJsonPathCache<>(FileUtils.readFirstLineFromResource("general/marc.json"));
+  }
+
+  @Test
+  public void sameAsMarcJson() {
+    assertSameAsMarcJson(expected, new Iso2709PathCache<>(record));
+  }
+
+  @Test
+  public void fromString() {
+    var cache = new Iso2709PathCache<>(new String(record, StandardCharsets.UTF_8));
+    assertEquals(34 + 5, cache.size());
+    assertEquals(List.of("Quarck, Max"), cache.read(MarcJsonSchema.createDatafieldPath("100", "a"), null));
+  }
+
+  @Test
+  public void leader() {
+    var cache = new Iso2709PathCache<>(record);
+    assertEquals("01944cam a2200493   4500", cache.getLeader());
+    assertEquals(cache.getLeader(), cache.read("$.leader", null));
+  }
+
+  @Test
+  public void utf8() {
+    String field = "  \u001FaÁrvíztűrő tükörfúrógép\u001E";
+    byte[] data = field.getBytes(StandardCharsets.UTF_8);
+    String directory = String.format("245%04d%05d", data.length, 0) + "\u001E";
+    int base = 24 + directory.length();
+    String leader = String.format("%05dnam a22%05d   4500", base + data.length + 1, base);
+    byte[] bytes = (leader + directory + field + "\u001D").getBytes(StandardCharsets.UTF_8);
+
+    var cache = new Iso2709PathCache<>(bytes);
+    MarcField title = cache.getFields("245").get(0);
+    assertEquals(List.of("Árvíztűrő tükörfúrógép"), title.getSubfields("a"));
+    assertEquals(" ", title.getInd1());
+    assertEquals("Árvíztűrő tükörfúrógép", cache.get(MarcJsonSchema.createDatafieldPath("245", "a")).get(0).getValue());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalid() {
+    new Iso2709PathCache<>("not a MARC record".getBytes(StandardCharsets.US_ASCII));
+  }
+
+  @Test
+  public void facade() {
+    var configuration = new MeasurementConfiguration().enableCompletenessMeasurement();
+    String json = new CalculatorFacade(configuration)
+      .setSchema(new MarcJsonSchema())
+      .measureAsJson(expected.getContent());
+    String iso = new CalculatorFacade(configuration)
+      .setSchema(new MarcJsonSchema().setFormat(Format.ISO_2709))
+      .measureAsJson(new String(record, StandardCharsets.UTF_8));
+    assertEquals(json, iso);
+
+    String fromBytes = new CalculatorFacade(configuration)
+      .setSchema(new MarcJsonSchema().setFormat(Format.ISO_2709))
+      .measureAsJson(ByteBuffer.wrap(record));
+    assertEquals(json, fromBytes);
+  }
+
+  /**
+   * Compare all the paths of the schema except the leader, which has different
+   * length and base address values in the different formats.
+   */
+  static void assertSameAsMarcJson(PathCache expected, PathCache actual) {
+    var schema = new MarcJsonSchema();
+    var checked = 0;
+    for (JsonBranch collection : schema.getCollectionPaths()) {
+      String path = collection.getJsonPath();
+      var expectedFields = (List<Object>) expected.getFragment(path);
+      var actualFields = (List<Object>) actual.getFragment(path);
+      assertEquals(path, expectedFields.size(), actualFields.size());
+      for (var i = 0; i < expectedFields.size(); i++) {
+        assertTrue(actualFields.get(i) instanceof MarcField);
+        for (JsonBranch child : collection.getChildren()) {
+          assertEquals(child.getJsonPath(),
+            expected.read(child.getJsonPath(), expectedFields.get(i)),
+            actual.read(child.getJsonPath(), actualFields.get(i)));
+          checked++;
+        }
+      }
+    }
+    assertTrue(checked > 0);
+
+    for (JsonBranch branch : schema.getPaths())
+      if (branch.getParent() == null && !branch.isCollection() && !branch.getJsonPath().equals("$.leader"))
+        assertEquals(branch.getJsonPath(),
+          expected.read(branch.getJsonPath(), null),
+          actual.read(branch.getJsonPath(), null));
+
+    for (String path : schema.getExtractableFields().values())
+      if (!path.equals("$.leader"))
+        assertEquals(path, expected.read(path, null), actual.read(path, null));
+  }
+}
@@ -1,14 +1,23 @@
 package de.gwdg.metadataqa.api.model;
 
 import de.gwdg.metadataqa.api.model.pathcache.JsonPathCache;
+import de.gwdg.metadataqa.api.model.pathcache.PathCache;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.schema.edm.EdmOaiPmhJsonSchema;
+import de.gwdg.metadataqa.api.util.Converter;
 import de.gwdg.metadataqa.api.util.FileUtils;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -139,4 +148,79 @@ public class JsonPathCacheTest {
     assertEquals("el", instances.get(0).getLanguage());
     assertNull(instances.get(0).getResource());
   }
+
+  @Test
+  public void memo() {
+    JsonPathCache cache = new JsonPathCache<EdmFieldInstance>(jsonString);
+    AtomicInteger calls = new AtomicInteger();
+    Function<PathCache, Integer> function = c -> calls.incrementAndGet();
+
+    assertEquals(1, (int) cache.memo(function));
+    assertEquals(1, (int) cache.memo(function));
+    assertEquals(1, calls.get());
+
+    JsonPathCache otherRecord = new JsonPathCache<EdmFieldInstance>(jsonString);
+    assertEquals(2, (int) otherRecord.memo(function));
+  }
+
+  @Test
+  public void memo_withArgument() {
+    JsonPathCache cache = new JsonPathCache<EdmFieldInstance>(jsonString);
+    AtomicInteger calls = new AtomicInteger();
+    BiFunction<PathCache, String, String> function = (c, argument) -> argument + calls.incrementAndGet();
+
+    assertEquals("a1", cache.memo(function, "a"));
+    assertEquals("b2", cache.memo(function, "b"));
+    assertEquals("a1", cache.memo(function, "a"));
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void getFragmentList_shared() {
+    JsonPathCache cache = new JsonPathCache<EdmFieldInstance>(jsonString);
+    Schema schema = new EdmOaiPmhJsonSchema();
+    String path = schema.getPathByLabel("Proxy").getJsonPath();
+    List<Object> proxies = Converter.getFragmentList(cache, path, schema);
+    assertEquals(1, proxies.size());
+    assertSame(proxies, Converter.getFragmentList(cache, path, schema));
+  }
+
+  @Test
+  public void parseDocument_asUtf8() throws IOException, InterruptedException {
+    // the default charset of the forked JVM can not decode the non-ASCII characters as UTF-8
+    String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    Process process = new ProcessBuilder(java, "-Dfile.encoding=ISO-8859-1",
+      "-cp", System.getProperty("java.class.path"), Utf8Check.class.getName())
+      .redirectErrorStream(true)
+      .start();
+    String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    assertEquals(output, 0, process.waitFor());
+    assertTrue(Utf8Check.parsesAsString());
+  }
+
+  /**
+   * Compares the documents parsed from bytes and from a String.
+   */
+  public static class Utf8Check {
+    static final String JSON = "{\"title\":\"Erdős Pál – Ελληνικά – 日本語\"}";
+
+    static boolean parsesAsString() {
+      Object expected = new JsonPathCache<>(JSON).read("$.title", null);
+      byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+      var padded = new byte[bytes.length + 2];
+      System.arraycopy(bytes, 0, padded, 1, bytes.length);
+      return expected.equals(read(JsonPathCache.parseDocument(bytes)))
+        && expected.equals(read(JsonPathCache.parseDocument(ByteBuffer.wrap(bytes))))
+        && expected.equals(read(JsonPathCache.parseDocument(ByteBuffer.wrap(padded, 1, bytes.length).slice())))
+        && expected.equals(read(JsonPathCache.parseDocument(ByteBuffer.wrap(padded, 1, bytes.length))));
+    }
+
+    private static Object read(Object document) {
+      return new JsonPathCache<>(document).read("$.title", null);
+    }
+
+    public static void main(String[] args) {
+      System.exit(parsesAsString() ? 0 : 1);
+    }
+  }
 }
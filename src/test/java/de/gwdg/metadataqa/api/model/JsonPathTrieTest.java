@@ -0,0 +1,185 @@
+package de.gwdg.metadataqa.api.model;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.json.JsonBranch;
+import de.gwdg.metadataqa.api.model.pathcache.JsonPathCache;
+import de.gwdg.metadataqa.api.model.pathcache.JsonPathTrie;
+import de.gwdg.metadataqa.api.schema.MarcJsonSchema;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.schema.edm.EdmFullBeanSchema;
+import de.gwdg.metadataqa.api.util.Converter;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JsonPathTrieTest {
+
+  private static final String DOCUMENT = "{\"a\":{\"b\":[{\"c\":1,\"d\":\"x\"},{\"c\":2},{\"c\":null}]},"
+    + "\"e\":\"f\",\"n\":null,\"dc:title\":[\"t1\",\"t2\"]}";
+
+  @Test
+  public void sameAsJsonPath_marc() throws IOException, URISyntaxException {
+    assertSameAsJsonPath(new MarcJsonSchema(), FileUtils.readFirstLineFromResource("general/marc.json"));
+  }
+
+  @Test
+  public void sameAsJsonPath_edm() throws IOException, URISyntaxException {
+    assertSameAsJsonPath(new EdmFullBeanSchema(), FileUtils.readFirstLineFromResource("general/edm-fullbean.json"));
+  }
+
+  @Test
+  public void sameAsJsonPath_syntax() {
+    List<String> paths = List.of(
+      "$", "$.e", "$.a.b", "$.a.b[*].c", "$.a.b[1].c", "$.a.b[-1].c", "$.a.b[5].c",
+      "$.a.b[?(@.c == 2)]", "$.a.b[?(@.c == 1)].d", "$.a.b[*].d", "$.['dc:title']",
+      "$['dc:title'][0]", "$.a.*", "$.missing", "$.missing[*].x", "$.e.x", "$.e[*]",
+      "$.e[0]", "$.a.b[5][*]", "$.n", "$.n[*]", "$.n.x", "$.n[0]", "$.a.x[*]", "$.a.b[*].x[*]");
+    JsonPathTrie trie = JsonPathTrie.of(paths);
+    assertEquals(paths.size(), trie.size());
+    Object document = Configuration.defaultConfiguration().jsonProvider().parse(DOCUMENT);
+    Map<String, Object> values = trie.read(document);
+    for (String path : paths)
+      assertEquals(path, jsonPath(document, path), values.get(path));
+  }
+
+  @Test
+  public void unsupportedPaths() {
+    JsonPathTrie trie = JsonPathTrie.of(List.of(
+      "$..c", "$.a.b[0,1]", "$.a.b[0:2]", "$.a.b.length()", "$.a.b[?(@.c == $.x)]", "$['a','e']"));
+    assertEquals(0, trie.size());
+    assertFalse(trie.contains("$..c"));
+  }
+
+  @Test
+  public void sharedPrefix() {
+    var cache = new JsonPathCache<>(DOCUMENT);
+    cache.setPathTrie(JsonPathTrie.of(List.of("$.a.b[*].c", "$.a.b[*].d", "$..c")));
+    assertEquals(3, ((List) cache.read("$.a.b[*].c", null)).size());
+    assertEquals(List.of("x"), cache.read("$.a.b[*].d", null));
+    // paths outside of the trie are read as before
+    assertEquals(3, ((List) cache.read("$..c", null)).size());
+    assertNull(cache.read("$.e.x", null));
+  }
+
+  @Test
+  public void collectionPaths_edm() throws IOException, URISyntaxException {
+    String record = FileUtils.readFirstLineFromResource("general/edm-fullbean.json");
+    var schema = new EdmFullBeanSchema();
+    JsonPathTrie trie = JsonPathTrie.compile(schema);
+    // the child paths of the collections are compiled as well
+    assertTrue(trie.getPathCount() > 100);
+
+    var withTrie = new JsonPathCache<>(record);
+    withTrie.setPathTrie(trie);
+    var withoutTrie = new JsonPathCache<>(record);
+    var entities = 0;
+    for (JsonBranch collection : schema.getCollectionPaths()) {
+      assertTrue(collection.getLabel(), trie.getCollectionTrie(collection.getJsonPath()) != null);
+      List<Object> expected = Converter.jsonObjectToList(withoutTrie.getFragment(collection.getJsonPath()));
+      List<Object> actual = Converter.jsonObjectToList(withTrie.getFragment(collection.getJsonPath()));
+      assertEquals(collection.getLabel(), expected.size(), actual.size());
+      for (var i = 0; i < actual.size(); i++) {
+        entities++;
+        for (JsonBranch child : collection.getChildren()) {
+          String path = child.getJsonPath();
+          assertEquals(child.getLabel(), withoutTrie.read(path, expected.get(i)), withTrie.read(path, actual.get(i)));
+          String address = child.getAddress(collection, i);
+          assertEquals(child.getLabel(), String.valueOf(withoutTrie.get(address, path, expected.get(i))),
+            String.valueOf(withTrie.get(address, path, actual.get(i))));
+        }
+      }
+    }
+    assertTrue(entities > 0);
+  }
+
+  @Test
+  public void facade_sameResult_marc() throws IOException, URISyntaxException {
+    String record = FileUtils.readFirstLineFromResource("general/marc.json");
+    var configuration = new MeasurementConfiguration()
+      .enableCompletenessMeasurement()
+      .enableFieldCardinalityMeasurement();
+
+    var facade = new CalculatorFacade(configuration).setSchema(new MarcJsonSchema());
+    facade.configure();
+    String withTrie = facade.measureAsJson(record);
+    assertTrue(((JsonPathCache) facade.getCache()).getPathTrie().contains("$.leader"));
+
+    var withoutTrieFacade = new CalculatorFacade(configuration) {
+      @Override
+      public void configure() {
+        super.configure();
+        pathTrie = null;
+      }
+    }.setSchema(new MarcJsonSchema());
+    withoutTrieFacade.configure();
+    assertEquals(withoutTrieFacade.measureAsJson(record), withTrie);
+  }
+
+  @Test
+  public void facade_sameResult() throws IOException, URISyntaxException {
+    String record = FileUtils.readFirstLineFromResource("general/edm-fullbean.json");
+    var configuration = new MeasurementConfiguration()
+      .enableCompletenessMeasurement()
+      .enableFieldCardinalityMeasurement();
+
+    var facade = new CalculatorFacade(configuration).setSchema(new EdmFullBeanSchema());
+    facade.configure();
+    String withTrie = facade.measureAsJson(record);
+    assertTrue(((JsonPathCache) facade.getCache()).getPathTrie().size() > 0);
+
+    var withoutTrieFacade = new CalculatorFacade(configuration) {
+      @Override
+      public void configure() {
+        super.configure();
+        pathTrie = null;
+      }
+    }.setSchema(new EdmFullBeanSchema());
+    withoutTrieFacade.configure();
+    assertEquals(withoutTrieFacade.measureAsJson(record), withTrie);
+    assertNull(((JsonPathCache) withoutTrieFacade.getCache()).getPathTrie());
+  }
+
+  private void assertSameAsJsonPath(Schema schema, String json) {
+    JsonPathTrie trie = JsonPathTrie.compile(schema);
+    assertTrue(trie.size() > 0);
+    Object document = Configuration.defaultConfiguration().jsonProvider().parse(json);
+    Map<String, Object> values = trie.read(document);
+    for (var branch : schema.getPaths()) {
+      if (branch.getParent() != null || !trie.contains(branch.getJsonPath()))
+        continue;
+      String path = branch.getJsonPath();
+      assertEquals(path, jsonPath(document, path), values.get(path));
+
+      JsonPathTrie collectionTrie = trie.getCollectionTrie(path);
+      if (collectionTrie == null)
+        continue;
+      for (Object entity : Converter.jsonObjectToList(values.get(path))) {
+        Map<String, Object> entityValues = collectionTrie.read(entity);
+        for (JsonBranch child : branch.getChildren())
+          if (collectionTrie.contains(child.getJsonPath()))
+            assertEquals(child.getLabel(), jsonPath(entity, child.getJsonPath()), entityValues.get(child.getJsonPath()));
+      }
+    }
+  }
+
+  private static Object jsonPath(Object document, String path) {
+    try {
+      return JsonPath.read(document, path);
+    } catch (PathNotFoundException e) {
+      return null;
+    }
+  }
+}
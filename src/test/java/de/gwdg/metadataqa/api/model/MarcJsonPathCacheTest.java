@@ -0,0 +1,82 @@
+package de.gwdg.metadataqa.api.model;
+
+import de.gwdg.metadataqa.api.json.JsonBranch;
+import de.gwdg.metadataqa.api.model.pathcache.JsonPathCache;
+import de.gwdg.metadataqa.api.model.pathcache.MarcJsonPathCache;
+import de.gwdg.metadataqa.api.schema.MarcJsonSchema;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import net.minidev.json.JSONArray;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MarcJsonPathCacheTest {
+
+  private String record;
+  private JsonPathCache<XmlFieldInstance> expected;
+  private MarcJsonPathCache<XmlFieldInstance> actual;
+
+  @Before
+  public void setUp() throws IOException, URISyntaxException {
+    record = FileUtils.readFirstLineFromResource("general/marc.json");
+    expected = new JsonPathCache<>(record);
+    actual = new MarcJsonPathCache<>(record);
+  }
+
+  @Test
+  public void sameAsJsonPath_schemaPaths() {
+    Schema schema = new MarcJsonSchema();
+    for (JsonBranch branch : schema.getPaths())
+      if (branch.getParent() == null)
+        assertEquals(branch.getJsonPath(),
+          expected.read(branch.getJsonPath(), null),
+          actual.read(branch.getJsonPath(), null));
+
+    for (String path : schema.getExtractableFields().values())
+      assertEquals(path, expected.read(path, null), actual.read(path, null));
+  }
+
+  @Test
+  public void sameAsJsonPath_children() {
+    var checked = 0;
+    for (JsonBranch collection : new MarcJsonSchema().getCollectionPaths()) {
+      var fields = (List<Object>) actual.getFragment(collection.getJsonPath());
+      for (Object field : fields) {
+        for (JsonBranch child : collection.getChildren()) {
+          assertEquals(child.getJsonPath(),
+            expected.read(child.getJsonPath(), field),
+            actual.read(child.getJsonPath(), field));
+          checked++;
+        }
+      }
+    }
+    assertTrue(checked > 0);
+  }
+
+  @Test
+  public void tagIndex() {
+    assertEquals(4, ((JSONArray) actual.read("$.datafield[?(@.tag == '084')]", null)).size());
+    assertEquals(List.of("QV 100", "NK 6805", "NW 8300", "1"),
+      actual.read(MarcJsonSchema.createDatafieldPath("084", "a"), null));
+    assertEquals(List.of("000003999"), actual.read("$.controlfield[?(@.tag == '001')].content", null));
+    assertEquals(List.of(), actual.read("$.datafield[?(@.tag == '999')]", null));
+    assertEquals("02341cam a2200505   4500", actual.read("$.leader", null));
+  }
+
+  @Test
+  public void missingFields() {
+    var cache = new MarcJsonPathCache<>("{\"leader\":\"x\"}");
+    assertNull(cache.read("$.datafield[?(@.tag == '084')]", null));
+    assertNull(cache.read(MarcJsonSchema.createDatafieldPath("084", "a"), null));
+    assertNull(cache.read("$.subfield[?(@.code == 'a')].content", cache.read("$", null)));
+    assertNull(cache.read(MarcJsonSchema.DATAFIELD_IND1_PATTERN, "text"));
+  }
+}
@@ -0,0 +1,68 @@
+package de.gwdg.metadataqa.api.model;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.model.pathcache.MarcJsonPathCache;
+import de.gwdg.metadataqa.api.model.pathcache.MarcXmlPathCache;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.MarcJsonSchema;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class MarcXmlPathCacheTest {
+
+  private String record;
+  private MarcJsonPathCache<XmlFieldInstance> expected;
+
+  @Before
+  public void setUp() throws IOException, URISyntaxException {
+    record = String.join("\n", FileUtils.readLinesFromResource("general/marc.xml"));
+    expected = new MarcJsonPathCache<>(FileUtils.readFirstLineFromResource("general/marc.json"));
+  }
+
+  @Test
+  public void sameAsMarcJson() {
+    var cache = new MarcXmlPathCache<>(record);
+    Iso2709PathCacheTest.assertSameAsMarcJson(expected, cache);
+    assertEquals(expected.read("$.leader", null), cache.read("$.leader", null));
+    assertEquals(34 + 5, cache.size());
+  }
+
+  @Test
+  public void withoutNamespace() {
+    var cache = new MarcXmlPathCache<>("<record><leader>00000nam a2200000   4500</leader>"
+      + "<controlfield tag=\"001\">id1</controlfield>"
+      + "<datafield tag=\"245\" ind1=\"1\" ind2=\"0\">"
+      + "<subfield code=\"a\">Title &amp; more</subfield><subfield code=\"c\"><![CDATA[by <me>]]></subfield>"
+      + "</datafield></record>");
+    assertEquals(List.of("id1"), cache.read("$.controlfield[?(@.tag == '001')].content", null));
+    assertEquals(List.of("Title & more"), cache.read(MarcJsonSchema.createDatafieldPath("245", "a"), null));
+    assertEquals(List.of("by <me>"), cache.read(MarcJsonSchema.createDatafieldPath("245", "c"), null));
+    assertEquals("1", cache.read(MarcJsonSchema.DATAFIELD_IND1_PATTERN, cache.getFields("245").get(0)));
+    assertEquals(List.of(), cache.read(MarcJsonSchema.createDatafieldPath("100", "a"), null));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalid() {
+    new MarcXmlPathCache<>("<record><leader>");
+  }
+
+  @Test
+  public void facade() {
+    var configuration = new MeasurementConfiguration().enableCompletenessMeasurement();
+    String json = new CalculatorFacade(configuration)
+      .setSchema(new MarcJsonSchema())
+      .measureAsJson(expected.getContent());
+    String xml = new CalculatorFacade(configuration)
+      .setSchema(new MarcJsonSchema().setFormat(Format.MARCXML))
+      .measureAsJson(record);
+    assertEquals(json, xml);
+  }
+}
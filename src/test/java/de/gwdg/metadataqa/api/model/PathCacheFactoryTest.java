@@ -2,9 +2,12 @@ package de.gwdg.metadataqa.api.model;
 
 import de.gwdg.metadataqa.api.model.pathcache.CsvPathCache;
 import de.gwdg.metadataqa.api.model.pathcache.JsonPathCache;
+import de.gwdg.metadataqa.api.model.pathcache.MarcJsonPathCache;
 import de.gwdg.metadataqa.api.model.pathcache.PathCache;
 import de.gwdg.metadataqa.api.model.pathcache.XmlPathCache;
 import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.MarcJsonSchema;
+import de.gwdg.metadataqa.api.schema.edm.EdmFullBeanSchema;
 import org.junit.Test;
 
 import static org.junit.Assert.assertTrue;
@@ -17,6 +20,13 @@ public class PathCacheFactoryTest {
     assertTrue(cache instanceof JsonPathCache);
   }
 
+  @Test
+  public void marcJson() {
+    assertTrue(PathCacheFactory.getInstanceForSchema(new MarcJsonSchema(), "{}") instanceof MarcJsonPathCache);
+    PathCache<? extends XmlFieldInstance> cache = PathCacheFactory.getInstanceForSchema(new EdmFullBeanSchema(), "{}");
+    assertTrue(cache instanceof JsonPathCache && !(cache instanceof MarcJsonPathCache));
+  }
+
   @Test
   public void xml() {
     PathCache<? extends XmlFieldInstance> cache = PathCacheFactory.getInstance(Format.XML, "<a/>");
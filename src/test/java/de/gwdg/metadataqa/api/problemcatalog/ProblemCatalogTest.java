@@ -0,0 +1,77 @@
+package de.gwdg.metadataqa.api.problemcatalog;
+
+import de.gwdg.metadataqa.api.counter.FieldCounter;
+import de.gwdg.metadataqa.api.interfaces.MetricResult;
+import de.gwdg.metadataqa.api.interfaces.Observer;
+import de.gwdg.metadataqa.api.model.pathcache.JsonPathCache;
+import de.gwdg.metadataqa.api.model.pathcache.PathCache;
+import de.gwdg.metadataqa.api.schema.edm.EdmOaiPmhJsonSchema;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProblemCatalogTest {
+
+  private static final List<String> FILES = List.of(
+    "problem-catalog/duplicated-string.json",
+    "problem-catalog/empty-string.json",
+    "problem-catalog/long-subject.json",
+    "problem-catalog/same-title-and-description.json"
+  );
+
+  @Test
+  public void measure_sameAsSeparateDetectors() throws IOException, URISyntaxException {
+    var catalog = new ProblemCatalog(new EdmOaiPmhJsonSchema());
+    new LongSubject(catalog);
+    new TitleAndDescriptionAreSame(catalog);
+    new EmptyStrings(catalog);
+    new DuplicatedStrings(catalog);
+    new ConstantObserver(catalog);
+
+    for (String file : FILES) {
+      var cache = new JsonPathCache(FileUtils.readFirstLineFromResource(file));
+      List<MetricResult> results = catalog.measure(cache);
+      Map<String, ?> actual = results.get(0).getResultMap();
+
+      // the observers reading the cache themselves
+      FieldCounter<Double> expected = new FieldCounter<>();
+      catalog.notifyObservers(expected);
+      assertEquals(catalog.getHeader(), List.copyOf(actual.keySet()));
+      for (String header : catalog.getHeader())
+        assertEquals(file + " " + header, expected.get(header), actual.get(header));
+    }
+  }
+
+  @Test
+  public void measure_values() throws IOException, URISyntaxException {
+    var catalog = new ProblemCatalog(new EdmOaiPmhJsonSchema());
+    new LongSubject(catalog);
+    new DuplicatedStrings(catalog);
+    var cache = new JsonPathCache(FileUtils.readFirstLineFromResource("problem-catalog/duplicated-string.json"));
+    Map<String, ?> actual = catalog.measure(cache).get(0).getResultMap();
+    assertEquals(8.0, actual.get("DuplicatedStrings"));
+  }
+
+  private static class ConstantObserver implements Observer {
+
+    ConstantObserver(ProblemCatalog catalog) {
+      catalog.addObserver(this);
+    }
+
+    @Override
+    public void update(PathCache cache, FieldCounter<Double> results) {
+      results.put(getHeader(), 7.0);
+    }
+
+    @Override
+    public String getHeader() {
+      return "Constant";
+    }
+  }
+}
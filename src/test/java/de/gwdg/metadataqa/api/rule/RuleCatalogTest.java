@@ -43,6 +43,19 @@ public class RuleCatalogTest {
     assertEquals("1,0", results.get(0).getCsv(false, CompressionLevel.ZERO));
   }
 
+  @Test
+  public void measure_intoVector() {
+    CsvPathCache cache = (CsvPathCache) PathCacheFactory.getInstance(schema.getFormat(), "a,b,c");
+    cache.setCsvReader(new CsvReader().setHeader( ((CsvAwareSchema) schema).getHeader() ));
+
+    RuleCatalog catalog = new RuleCatalog(schema);
+    RuleOutcomeVector vector = catalog.measure(cache, catalog.createOutcomeVector());
+    assertEquals(RuleCheckingOutputType.PASSED, vector.get(0));
+    assertEquals("1,0", vector.toString());
+    assertEquals("{\"name:and:name:minCount:name:maxCount:3\":1,\"ruleCatalog:score\":0}",
+      vector.appendJson(new StringBuilder(), catalog.getHeader()).toString());
+  }
+
   @Test
   public void getHeader() {
     RuleCatalog catalog = new RuleCatalog(schema);
@@ -0,0 +1,138 @@
+package de.gwdg.metadataqa.api.rule;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RuleOutcomeVectorTest {
+
+  @Test
+  public void setAndGet() {
+    RuleOutcomeVector vector = new RuleOutcomeVector(70);
+    assertEquals(3, vector.getWords().length);
+    vector.set(0, RuleCheckingOutputType.PASSED);
+    vector.set(33, RuleCheckingOutputType.FAILED);
+    vector.set(69, RuleCheckingOutputType.PASSED);
+
+    assertEquals(RuleCheckingOutputType.PASSED, vector.get(0));
+    assertEquals(RuleCheckingOutputType.NA, vector.get(1));
+    assertEquals(RuleCheckingOutputType.FAILED, vector.get(33));
+    assertEquals(RuleCheckingOutputType.PASSED, vector.get(69));
+
+    vector.set(69, RuleCheckingOutputType.NA);
+    assertEquals(RuleCheckingOutputType.NA, vector.get(69));
+  }
+
+  @Test
+  public void count() {
+    RuleOutcomeVector vector = new RuleOutcomeVector(40);
+    vector.set(1, RuleCheckingOutputType.PASSED);
+    vector.set(2, RuleCheckingOutputType.PASSED);
+    vector.set(35, RuleCheckingOutputType.FAILED);
+
+    assertEquals(2, vector.count(RuleCheckingOutputType.PASSED));
+    assertEquals(1, vector.count(RuleCheckingOutputType.FAILED));
+    assertEquals(37, vector.count(RuleCheckingOutputType.NA));
+  }
+
+  @Test
+  public void score() {
+    RuleOutcomeVector vector = new RuleOutcomeVector(3,
+      new int[]{5, RuleOutcomeVector.NO_SCORE, 2},
+      new int[]{-3, RuleOutcomeVector.NO_SCORE, RuleOutcomeVector.NO_SCORE});
+    vector.set(0, RuleCheckingOutputType.FAILED);
+    vector.set(1, RuleCheckingOutputType.PASSED);
+    vector.set(2, RuleCheckingOutputType.PASSED);
+    assertEquals(-1, vector.getScore());
+
+    vector.set(0, RuleCheckingOutputType.PASSED);
+    assertEquals(7, vector.getScore());
+    assertEquals("5,1,2,7", vector.toString());
+
+    vector.clear();
+    assertEquals(0, vector.getScore());
+    assertEquals("NA,NA,NA,0", vector.toString());
+  }
+
+  @Test
+  public void appendJson() {
+    RuleOutcomeVector vector = new RuleOutcomeVector(2);
+    vector.set(0, RuleCheckingOutputType.FAILED);
+    assertEquals("{\"a\":0,\"b\":\"NA\",\"score\":0}",
+      vector.appendJson(new StringBuilder(), List.of("a", "b", "score")).toString());
+  }
+
+  @Test
+  public void writeAndRead() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int[] successScores = {1, 5};
+    int[] failureScores = {0, -2};
+    RuleOutcomeVector vector = new RuleOutcomeVector(2, successScores, failureScores);
+    try (RuleOutcomeWriter writer = new RuleOutcomeWriter(out, List.of("a:1", "b:2"), successScores, failureScores)) {
+      vector.set(0, RuleCheckingOutputType.PASSED);
+      writer.write(vector);
+      vector.clear();
+      vector.set(1, RuleCheckingOutputType.FAILED);
+      writer.write(vector);
+      assertEquals(2, writer.getRecordCount());
+    }
+
+    try (RuleOutcomeReader reader = new RuleOutcomeReader(new ByteArrayInputStream(out.toByteArray()))) {
+      assertEquals(List.of("a:1", "b:2"), reader.getHeaders());
+      RuleOutcomeVector read = reader.createVector();
+      assertTrue(reader.next(read));
+      assertEquals(RuleCheckingOutputType.PASSED, read.get(0));
+      assertEquals(RuleCheckingOutputType.NA, read.get(1));
+      assertEquals(1, read.getScore());
+      assertEquals("1,NA,1", read.toString());
+      assertTrue(reader.next(read));
+      assertEquals(RuleCheckingOutputType.NA, read.get(0));
+      assertEquals(RuleCheckingOutputType.FAILED, read.get(1));
+      assertEquals(-2, read.getScore());
+      assertEquals("NA,-2,-2", read.toString());
+      assertFalse(reader.next(read));
+    }
+  }
+
+  @Test(expected = EOFException.class)
+  public void truncatedRecord() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (RuleOutcomeWriter writer = new RuleOutcomeWriter(out, List.of("a:1", "b:2"))) {
+      writer.write(new RuleOutcomeVector(2));
+      writer.write(new RuleOutcomeVector(2));
+    }
+    byte[] bytes = out.toByteArray();
+
+    try (RuleOutcomeReader reader = new RuleOutcomeReader(new ByteArrayInputStream(bytes, 0, bytes.length - 1))) {
+      RuleOutcomeVector read = reader.createVector();
+      assertTrue(reader.next(read));
+      reader.next(read);
+    }
+  }
+
+  @Test
+  public void writeAndReadWithoutScores() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    RuleOutcomeVector vector = new RuleOutcomeVector(2);
+    try (RuleOutcomeWriter writer = new RuleOutcomeWriter(out, List.of("a:1", "b:2"))) {
+      vector.set(0, RuleCheckingOutputType.PASSED);
+      vector.set(1, RuleCheckingOutputType.FAILED);
+      writer.write(vector);
+    }
+
+    try (RuleOutcomeReader reader = new RuleOutcomeReader(new ByteArrayInputStream(out.toByteArray()))) {
+      RuleOutcomeVector read = reader.createVector();
+      assertTrue(reader.next(read));
+      assertEquals("1,0,0", read.toString());
+      assertFalse(reader.next(read));
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package de.gwdg.metadataqa.api.rule;
+
+import de.gwdg.metadataqa.api.configuration.schema.Rule;
+import de.gwdg.metadataqa.api.counter.TopKCounter;
+import de.gwdg.metadataqa.api.json.JsonBranch;
+import de.gwdg.metadataqa.api.model.pathcache.CsvPathCache;
+import de.gwdg.metadataqa.api.schema.BaseSchema;
+import de.gwdg.metadataqa.api.schema.CsvAwareSchema;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.Schema;
+import de.gwdg.metadataqa.api.util.CsvReader;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RuleViolationAggregatorTest {
+
+  Schema schema;
+  CsvReader csvReader;
+
+  @Before
+  public void setUp() throws Exception {
+    schema = new BaseSchema()
+      .setFormat(Format.CSV)
+      .addField(new JsonBranch("id").setExtractable())
+      .addField("name");
+    schema.getPathByLabel("name").setRule(Arrays.asList(new Rule().withPattern("^a.*$")));
+    csvReader = new CsvReader().setHeader(((CsvAwareSchema) schema).getHeader());
+  }
+
+  private CsvPathCache cache(String... values) {
+    return new CsvPathCache(csvReader, Arrays.asList(values));
+  }
+
+  @Test
+  public void measure() {
+    RuleCatalog catalog = new RuleCatalog(schema);
+    schema.getExtractableFields().put("recordId", "id");
+    RuleViolationAggregator aggregator = catalog.createViolationAggregator(10, 10);
+
+    RuleOutcomeVector vector = catalog.createOutcomeVector();
+    catalog.measure(cache("1", "alpha"), vector, aggregator);
+    catalog.measure(cache("2", "beta"), vector, aggregator);
+    catalog.measure(cache("3", "beta"), vector, aggregator);
+    catalog.measure(cache("4", "gamma"), vector, aggregator);
+
+    assertEquals(4, aggregator.getRecordCount());
+    assertEquals(1, aggregator.getPassedCount(0));
+    assertEquals(3, aggregator.getFailureCount(0));
+    assertEquals(0, aggregator.getNACount(0));
+    assertEquals("beta", aggregator.getTopValues(0).get(0).getValue());
+    assertEquals(2, aggregator.getTopValues(0).get(0).getCount());
+    assertEquals(List.of("2", "3", "4"), aggregator.getSampleRecordIds(0));
+  }
+
+  @Test
+  public void withoutRecordId() {
+    RuleCatalog catalog = new RuleCatalog(schema);
+    RuleViolationAggregator aggregator = catalog.createViolationAggregator(10, 10);
+    catalog.measure(cache("1", "beta"), catalog.createOutcomeVector(), aggregator);
+
+    assertEquals(1, aggregator.getFailureCount(0));
+    assertEquals("beta", aggregator.getTopValues(0).get(0).getValue());
+    assertTrue(aggregator.getSampleRecordIds(0).isEmpty());
+  }
+
+  @Test
+  public void pairChecker() {
+    Schema pairSchema = new BaseSchema()
+      .setFormat(Format.CSV)
+      .addField(new JsonBranch("id").setExtractable())
+      .addField("name")
+      .addField("alt");
+    pairSchema.getPathByLabel("name").setRule(Arrays.asList(new Rule().withEquals("alt")));
+    pairSchema.getExtractableFields().put("recordId", "id");
+    var pairReader = new CsvReader().setHeader(((CsvAwareSchema) pairSchema).getHeader());
+
+    RuleCatalog catalog = new RuleCatalog(pairSchema);
+    RuleViolationAggregator aggregator = catalog.createViolationAggregator(10, 10);
+    RuleOutcomeVector vector = catalog.createOutcomeVector();
+    catalog.measure(new CsvPathCache(pairReader, Arrays.asList("1", "a", "a")), vector, aggregator);
+    catalog.measure(new CsvPathCache(pairReader, Arrays.asList("2", "a", "b")), vector, aggregator);
+
+    assertEquals(1, aggregator.getFailureCount(0));
+    assertEquals(List.of("2"), aggregator.getSampleRecordIds(0));
+    Set<String> values = new HashSet<>();
+    for (TopKCounter.Entry entry : aggregator.getTopValues(0))
+      values.add(entry.getValue());
+    assertEquals(Set.of("a", "b"), values);
+  }
+
+  @Test
+  public void merge() {
+    RuleCatalog catalog = new RuleCatalog(schema);
+    schema.getExtractableFields().put("recordId", "id");
+    RuleOutcomeVector vector = catalog.createOutcomeVector();
+
+    RuleViolationAggregator aggregator1 = catalog.createViolationAggregator(10, 10);
+    catalog.measure(cache("1", "beta"), vector, aggregator1);
+
+    RuleViolationAggregator aggregator2 = catalog.createViolationAggregator(10, 10);
+    catalog.measure(cache("2", "beta"), vector, aggregator2);
+    catalog.measure(cache("3", "alpha"), vector, aggregator2);
+
+    aggregator1.merge(aggregator2);
+    assertEquals(3, aggregator1.getRecordCount());
+    assertEquals(2, aggregator1.getFailureCount(0));
+    assertEquals(1, aggregator1.getPassedCount(0));
+    assertEquals(2, aggregator1.getTopValues(0).get(0).getCount());
+    // the merged sample is shuffled
+    assertEquals(Set.of("1", "2"), new HashSet<>(aggregator1.getSampleRecordIds(0)));
+  }
+}
@@ -0,0 +1,93 @@
+package de.gwdg.metadataqa.api.similarity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BitPatternTest {
+
+  @Test
+  public void fromBinaryString() {
+    BitPattern pattern = BitPattern.fromBinaryString("1011");
+    assertEquals(4, pattern.length());
+    assertTrue(pattern.get(0));
+    assertFalse(pattern.get(1));
+    assertEquals(3, pattern.cardinality());
+    assertEquals("1011", pattern.toBinaryString());
+  }
+
+  @Test
+  public void longPattern() {
+    String binary = "1".repeat(70) + "0".repeat(30);
+    BitPattern pattern = BitPattern.fromBinaryString(binary);
+    assertEquals(70, pattern.cardinality());
+    assertEquals(binary, pattern.toBinaryString());
+  }
+
+  @Test
+  public void hamming() {
+    BitPattern a = BitPattern.fromBinaryString("11110000");
+    BitPattern b = BitPattern.fromBinaryString("11100001");
+    assertEquals(2, a.hamming(b));
+    assertEquals(0.75, a.hammingSimilarity(b), 0.00001);
+    assertEquals(0.75, a.similarity(b, SimilarityMeasure.HAMMING), 0.00001);
+  }
+
+  @Test
+  public void jaccard() {
+    BitPattern a = BitPattern.fromBinaryString("11110000");
+    BitPattern b = BitPattern.fromBinaryString("11100001");
+    assertEquals(3.0 / 5.0, a.jaccard(b), 0.00001);
+    assertEquals(1.0, new BitPattern(8).jaccard(new BitPattern(8)), 0.00001);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void differentLength() {
+    new BitPattern(8).hamming(new BitPattern(9));
+  }
+
+  @Test
+  public void binaryMaker_weights() {
+    BinaryMaker binaryMaker = new BinaryMaker(Arrays.asList("dc:title", "dc:creator", "edm:year"));
+    assertEquals(6, binaryMaker.getLength());
+    List<String> fields = Arrays.asList("dc:title", "edm:year");
+    assertEquals("111001", binaryMaker.fieldListToBinary(fields));
+    assertEquals(BitPattern.fromBinaryString("111001"), binaryMaker.fieldListToBitPattern(fields));
+  }
+
+  @Test
+  public void lsh_candidates() {
+    List<BitPattern> patterns = Arrays.asList(
+      BitPattern.fromBinaryString("1111111111111111"),
+      BitPattern.fromBinaryString("0000000000000011"),
+      BitPattern.fromBinaryString("1111111111111111")
+    );
+    List<int[]> scored = new ArrayList<>();
+    UnionFind sets = new MinHashLsh().join(patterns, (i, j) -> {
+      scored.add(new int[]{i, j});
+      return patterns.get(i).jaccard(patterns.get(j));
+    }, 0.97);
+    assertEquals(1, scored.size());
+    assertArrayEquals(new int[]{0, 2}, scored.get(0));
+    assertEquals(2, sets.getComponents().size());
+    assertEquals(sets.find(0), sets.find(2));
+  }
+
+  @Test
+  public void lsh_forTreshold() {
+    for (double treshold : new double[]{0.5, 0.8, 0.97}) {
+      MinHashLsh lsh = MinHashLsh.forTreshold(treshold);
+      assertTrue(lsh.getBands() * lsh.getRows() <= MinHashLsh.MAX_HASHES);
+      // the steepest part of the S-curve, (1/b)^(1/r), is close to the treshold
+      double midpoint = Math.pow(1.0 / lsh.getBands(), 1.0 / lsh.getRows());
+      assertEquals(treshold, midpoint, 0.1);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package de.gwdg.metadataqa.api.similarity;
+
+import org.apache.commons.text.similarity.JaroWinklerDistance;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GraphClusteringTest {
+
+  @Test
+  public void unionFind() {
+    UnionFind unionFind = new UnionFind(5);
+    assertTrue(unionFind.union(0, 3));
+    assertTrue(unionFind.union(4, 3));
+    assertFalse(unionFind.union(0, 4));
+    List<int[]> components = unionFind.getComponents();
+    assertEquals(3, components.size());
+    assertEquals("[0, 3, 4]", Arrays.toString(components.get(0)));
+    assertEquals("[1]", Arrays.toString(components.get(1)));
+    assertEquals("[2]", Arrays.toString(components.get(2)));
+  }
+
+  @Test
+  public void pairwiseSimilarity_tilesDoNotChangeTheResult() {
+    List<String> patterns = randomPatterns(50, 24, 7L);
+    JaroWinklerDistance jaroWinkler = new JaroWinklerDistance();
+    PairwiseSimilarity.PairScorer scorer = (i, j) -> jaroWinkler.apply(patterns.get(i), patterns.get(j));
+
+    EdgeList single = new PairwiseSimilarity(1000, ForkJoinPool.commonPool()).compute(patterns.size(), scorer, 0.9);
+    EdgeList tiled = new PairwiseSimilarity(7, ForkJoinPool.commonPool()).compute(patterns.size(), scorer, 0.9);
+    assertEquals(asSet(single), asSet(tiled));
+    assertTrue(single.size() > 0);
+  }
+
+  @Test
+  public void sameAsClustering() {
+    for (long seed = 1; seed <= 5; seed++) {
+      List<String> patterns = randomPatterns(120, 30, seed);
+      double treshold = 0.93;
+
+      Set<Set<String>> expected = new HashSet<>();
+      for (List<String> cluster : new Clustering(patterns, treshold).getClusters())
+        expected.add(new HashSet<>(cluster));
+
+      List<String> ordered = new ArrayList<>(new Clustering(patterns, 2.0).getClusterIndex().keySet());
+      JaroWinklerDistance jaroWinkler = new JaroWinklerDistance();
+      EdgeList edges = new PairwiseSimilarity(16, ForkJoinPool.commonPool()).compute(
+        ordered.size(), (i, j) -> jaroWinkler.apply(ordered.get(i), ordered.get(j)), treshold);
+
+      Set<Set<String>> actual = new HashSet<>();
+      for (int[] cluster : new GraphClustering(ordered.size(), edges, treshold).getClusters()) {
+        Set<String> members = new HashSet<>();
+        for (int index : cluster)
+          members.add(ordered.get(index));
+        actual.add(members);
+      }
+      assertEquals(expected, actual);
+    }
+  }
+
+  private static Set<String> asSet(EdgeList edges) {
+    Set<String> set = new HashSet<>();
+    for (int e = 0; e < edges.size(); e++)
+      set.add(edges.getLeft(e) + "-" + edges.getRight(e) + "=" + edges.getSimilarity(e));
+    return set;
+  }
+
+  /**
+   * Patterns derived from a few prototypes by flipping some bits.
+   */
+  private static List<String> randomPatterns(int count, int length, long seed) {
+    Random random = new Random(seed);
+    List<char[]> prototypes = new ArrayList<>();
+    for (int p = 0; p < 4; p++) {
+      char[] prototype = new char[length];
+      for (int i = 0; i < length; i++)
+        prototype[i] = random.nextBoolean() ? '1' : '0';
+      prototypes.add(prototype);
+    }
+    List<String> patterns = new ArrayList<>();
+    for (int c = 0; c < count; c++) {
+      char[] pattern = prototypes.get(random.nextInt(prototypes.size())).clone();
+      for (int flip = random.nextInt(4); flip > 0; flip--) {
+        int i = random.nextInt(length);
+        pattern[i] = pattern[i] == '1' ? '0' : '1';
+      }
+      patterns.add(new String(pattern));
+    }
+    return patterns;
+  }
+}
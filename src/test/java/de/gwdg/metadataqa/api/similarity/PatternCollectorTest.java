@@ -0,0 +1,97 @@
+package de.gwdg.metadataqa.api.similarity;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.json.JsonBranch;
+import de.gwdg.metadataqa.api.schema.BaseSchema;
+import de.gwdg.metadataqa.api.schema.Format;
+import de.gwdg.metadataqa.api.schema.Schema;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PatternCollectorTest {
+
+  Schema schema;
+
+  @Before
+  public void setUp() {
+    schema = new BaseSchema()
+      .setFormat(Format.JSON)
+      .addField(new JsonBranch("title", "$.title"))
+      .addField(new JsonBranch("description", "$.description"))
+      .addField(new JsonBranch("subject", "$.subject"));
+  }
+
+  @Test
+  public void collectFromFacade() {
+    var facade = new CalculatorFacade(
+      new MeasurementConfiguration()
+        .enableCompletenessMeasurement()
+        .enableFieldPatternCollecting())
+      .setSchema(schema);
+    facade.configure();
+
+    facade.measure("{\"title\":\"a\",\"subject\":\"b\"}");
+    facade.measure("{\"title\":\"a\"}");
+    facade.measure("{\"subject\":\"c\",\"title\":\"d\"}");
+
+    PatternCollector collector = facade.getPatternCollector();
+    assertEquals(List.of("title", "description", "subject"), collector.getFields());
+    assertEquals(3, collector.getTotal());
+    assertEquals(2, collector.getNumberOfPatterns());
+    assertEquals(
+      List.of("d,title;subject,2,2,66.66666666666667", "d,title,1,1,33.333333333333336"),
+      collector.getProfileLines("d"));
+    assertEquals("d,\"title=3,subject=2\"", collector.getFieldCountLine("d"));
+  }
+
+  @Test
+  public void disabledByDefault() {
+    var facade = new CalculatorFacade(new MeasurementConfiguration().enableCompletenessMeasurement())
+      .setSchema(schema);
+    facade.configure();
+    assertNull(facade.getPatternCollector());
+  }
+
+  @Test
+  public void merge() {
+    var first = new PatternCollector(schema);
+    first.add(Map.of("title", true, "description", false, "subject", true));
+    var second = new PatternCollector(schema);
+    second.add(Map.of("title", true, "description", false, "subject", true));
+    second.add(Map.of("title", false, "description", true, "subject", false));
+
+    first.merge(second);
+    assertEquals(3, first.getTotal());
+    assertEquals(2, first.getCount(BitPattern.fromBinaryString("101")));
+    assertEquals(1, first.getCount(BitPattern.fromBinaryString("010")));
+    assertEquals(0, first.getCount(BitPattern.fromBinaryString("111")));
+  }
+
+  @Test
+  public void recordPatterns() {
+    var collector = new PatternCollector(schema);
+    collector.add(Map.of("title", true, "description", true));
+    collector.add(Map.of("title", true, "description", true));
+    collector.add(Map.of("subject", true));
+
+    List<String> fields = ProfileReader.parseFieldCountLine(collector.getFieldCountLine("d"));
+    List<RecordPattern> patterns = collector.getRecordPatterns("d", new BinaryMaker(fields));
+    assertEquals(2, patterns.size());
+    assertEquals("title;description", patterns.get(0).getFields());
+    assertEquals(2, (int) patterns.get(0).getCount());
+    assertEquals("subject", patterns.get(1).getFields());
+    assertEquals(1, (int) patterns.get(1).getNumberOfFields());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void add_wrongLength() {
+    new PatternCollector(schema).add(new BitPattern(4));
+  }
+}
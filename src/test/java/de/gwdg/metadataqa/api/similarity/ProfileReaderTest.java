@@ -38,7 +38,8 @@ public class ProfileReaderTest {
   @Test
   public void testExtraction() {
     var profileReader = new ProfileReader(canonicalFieldList, profiles);
-    Map<List<RecordPattern>, Double> sortedClusters = profileReader.buildCluster();
+    Map<List<RecordPattern>, Double> sortedClusters =
+      profileReader.buildCluster(ProfileReader.DEFAULT_TRESHOLD, SimilarityMeasure.JARO_WINKLER);
     assertEquals(5, sortedClusters.size());
     List<Map.Entry<List<RecordPattern>, Double>> clusters =
         new ArrayList(sortedClusters.entrySet());
@@ -78,6 +79,59 @@ public class ProfileReaderTest {
       });
   }
 
+  @Test
+  public void buildCluster_lshByDefault() {
+    var profileReader = new ProfileReader(canonicalFieldList, profiles);
+    Map<List<RecordPattern>, Double> clusters = profileReader.buildCluster();
+    int total = 0;
+    int patterns = 0;
+    for (List<RecordPattern> cluster : clusters.keySet()) {
+      total += getSum(cluster);
+      patterns += cluster.size();
+    }
+    assertEquals(9, patterns);
+    assertEquals(7836, total);
+    assertEquals(
+      new ArrayList<>(clusters.values()),
+      new ArrayList<>(new ProfileReader(canonicalFieldList, profiles)
+        .buildCluster(ProfileReader.DEFAULT_TRESHOLD, SimilarityMeasure.JACCARD).values()));
+  }
+
+  @Test
+  public void buildCluster_hamming() {
+    var profileReader = new ProfileReader(canonicalFieldList, profiles);
+    Map<List<RecordPattern>, Double> clusters = profileReader.buildCluster(0.9, SimilarityMeasure.HAMMING);
+    int total = 0;
+    int patterns = 0;
+    for (List<RecordPattern> cluster : clusters.keySet()) {
+      total += getSum(cluster);
+      patterns += cluster.size();
+    }
+    assertEquals(9, patterns);
+    assertEquals(7836, total);
+    assertEquals(5, clusters.size());
+    assertEquals(49.91066870852475, clusters.values().iterator().next(), 0.0001);
+  }
+
+  @Test
+  public void buildCluster_hammingOfDisjointPatterns() {
+    List<String> fields = new ArrayList<>();
+    for (int i = 0; i < 40; i++)
+      fields.add("f" + i);
+    List<String> disjoint = new ArrayList<>();
+    for (int i = 0; i < 4; i++)
+      disjoint.add(String.format("d,f%d,1,10,25.0", i));
+
+    // the Hamming similarity of every pair is above 0.9, the Jaccard similarity is 0
+    assertEquals(1, new ProfileReader(fields, disjoint).buildCluster(0.9, SimilarityMeasure.HAMMING).size());
+    assertEquals(4, new ProfileReader(fields, disjoint).buildCluster(0.9, SimilarityMeasure.JACCARD).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void buildCluster_lshWithHamming() {
+    new ProfileReader(canonicalFieldList, profiles).buildCluster(0.9, SimilarityMeasure.HAMMING, new MinHashLsh());
+  }
+
   private int getSum(List<RecordPattern> patterns) {
     int sum = 0;
     for (RecordPattern pattern : patterns) {
@@ -108,7 +162,7 @@ public class ProfileReaderTest {
     ByteArrayOutputStream outContent = new ByteArrayOutputStream();
     System.setOut(new PrintStream(outContent));
 
-    ProfileReader.main(new String[]{fieldsFile, profileFile});
+    ProfileReader.main(new String[]{fieldsFile, profileFile, "jaro-winkler"});
     String common = ",d-989,dc:title;dc:description;dc:creator;dc:contributor;dc:type;dc:identifier;dc:language;";
     String expected =
       "0" + common + "dc:coverage;dc:subject;dcterms:extent;dcterms:medium;dcterms:isPartOf;dc:format;edm:type,14,2555,32.6059213884635\n" +
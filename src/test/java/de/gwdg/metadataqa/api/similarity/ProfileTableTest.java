@@ -0,0 +1,123 @@
+package de.gwdg.metadataqa.api.similarity;
+
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProfileTableTest {
+
+  String fieldsFile = "profiles/d-989.profile-field-counts.csv";
+  String profileFile = "profiles/d-989.profile-patterns.csv";
+  private BinaryMaker binaryMaker;
+  private List<String> profiles;
+  private Path profilePath;
+
+  @Before
+  public void setUp() throws IOException, URISyntaxException {
+    binaryMaker = new BinaryMaker(
+      ProfileReader.parseFieldCountLine(FileUtils.readFirstLineFromResource(fieldsFile)));
+    profiles = FileUtils.readLinesFromResource(profileFile);
+    profilePath = Paths.get(getClass().getClassLoader().getResource(profileFile).toURI());
+  }
+
+  @Test
+  public void read_sameAsRecordPatterns() throws IOException {
+    ProfileTable table = ProfileTable.read(profilePath, binaryMaker);
+    assertEquals(profiles.size(), table.size());
+    for (var row = 0; row < table.size(); row++) {
+      var expected = new RecordPattern(binaryMaker, Arrays.asList(profiles.get(row).split(",")));
+      assertEquals(expected.getBinary(), table.getBinary(row));
+      assertEquals(expected.getBitPattern(), table.getBitPattern(row));
+      assertEquals((int) expected.getCount(), table.getCount(row));
+      assertEquals((int) expected.getNumberOfFields(), table.getNumberOfFields(row));
+      assertEquals(expected.getPercent(), table.getPercent(row), 0.0);
+      assertEquals(profiles.get(row), table.getLine(row));
+    }
+  }
+
+  @Test
+  public void read_windowsLineEndings() throws IOException {
+    Path file = Files.createTempFile("profile", ".csv");
+    try {
+      Files.write(file, String.join("\r\n", profiles.subList(0, 3)).getBytes(StandardCharsets.UTF_8));
+      ProfileTable table = ProfileTable.read(file, binaryMaker);
+      assertEquals(3, table.size());
+      assertEquals(profiles.get(2), table.getLine(2));
+      assertEquals(profiles.get(0), table.getRecordPattern(0).asCsv());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void of_skipsEmptyLines() {
+    List<String> lines = Arrays.asList(profiles.get(0), "", profiles.get(1));
+    ProfileTable table = ProfileTable.of(lines, binaryMaker);
+    assertEquals(2, table.size());
+    assertEquals(profiles.get(0), table.getLine(0));
+    assertEquals(profiles.get(1), table.getLine(1));
+  }
+
+  @Test
+  public void of_percents() {
+    var maker = new BinaryMaker(Arrays.asList("a", "b"));
+    List<String> percents = Arrays.asList(
+      "0", "25.0", "0.000123", "32.6059213884635", "17.304747320061256",
+      "1.5E-4", "-2.5", "12345678901234567890.5");
+    List<String> lines = new ArrayList<>();
+    for (String percent : percents)
+      lines.add("d,a;b,2,10," + percent);
+    ProfileTable table = ProfileTable.of(lines, maker);
+    for (var row = 0; row < percents.size(); row++)
+      assertEquals(Double.parseDouble(percents.get(row)), table.getPercent(row), 0.0);
+  }
+
+  @Test
+  public void distinctRows_andSimilarities() {
+    var maker = new BinaryMaker(Arrays.asList("a", "b", "c"));
+    ProfileTable table = ProfileTable.of(Arrays.asList(
+      "d,a;b,2,10,50.0",
+      "d,c,1,5,25.0",
+      "d,b;a,2,5,25.0"
+    ), maker);
+    assertEquals(Arrays.toString(new int[]{1, 2}), Arrays.toString(table.distinctRows()));
+    for (var a = 0; a < table.size(); a++) {
+      for (var b = 0; b < table.size(); b++) {
+        assertEquals(table.getBitPattern(a).jaccard(table.getBitPattern(b)), table.jaccard(a, b), 0.0);
+        assertEquals(table.getBitPattern(a).hammingSimilarity(table.getBitPattern(b)),
+          table.hammingSimilarity(a, b), 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void scan() throws IOException {
+    List<String> binaries = new ArrayList<>();
+    ProfileTable.scan(profilePath, binaryMaker,
+      (pattern, numberOfFields, count, percent, buffer, lineStart, lineLength) ->
+        binaries.add(pattern.toBinaryString()));
+    assertEquals(new ProfileReader(binaryMaker.getCanonicalFieldList(), profiles).createBinaryPatternList(), binaries);
+  }
+
+  @Test
+  public void cluster_sameAsFromLines() throws IOException {
+    Map<List<RecordPattern>, Double> expected =
+      new ProfileReader(binaryMaker.getCanonicalFieldList(), profiles).buildCluster();
+    Map<List<RecordPattern>, Double> actual =
+      new ProfileReader(ProfileTable.read(profilePath, binaryMaker)).buildCluster();
+    assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(actual.values()));
+  }
+}
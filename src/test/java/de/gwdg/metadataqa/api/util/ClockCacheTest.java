@@ -0,0 +1,73 @@
+package de.gwdg.metadataqa.api.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ClockCacheTest {
+
+  @Test
+  public void getAndPut() {
+    ClockCache<String, Integer> cache = new ClockCache<>(10);
+    assertNull(cache.get("a"));
+    cache.put("a", 1);
+    cache.put("a", 2);
+    assertEquals(Integer.valueOf(1), cache.get("a"));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void bounded() {
+    ClockCache<Integer, Integer> cache = new ClockCache<>(100);
+    for (var i = 0; i < 10_000; i++)
+      cache.put(i, i);
+    assertEquals(100, cache.size());
+  }
+
+  @Test
+  public void referencedEntriesSurvive() {
+    ClockCache<Integer, Integer> cache = new ClockCache<>(100);
+    for (var i = 0; i < 1_000; i++) {
+      cache.put(i + 1_000, i);
+      cache.put(-1, -1);
+      cache.get(-1);
+    }
+    assertEquals(Integer.valueOf(-1), cache.get(-1));
+  }
+
+  @Test
+  public void concurrent() throws Exception {
+    ClockCache<Integer, Integer> cache = new ClockCache<>(100);
+    ExecutorService workers = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (var t = 0; t < 4; t++) {
+        int offset = t;
+        results.add(workers.submit(() -> {
+          for (var i = 0; i < 20_000; i++) {
+            int key = (i * 4 + offset) % 1_000;
+            Integer value = cache.get(key);
+            if (value == null)
+              cache.put(key, key);
+            else if (value != key)
+              return false;
+          }
+          return true;
+        }));
+      }
+      for (Future<Boolean> result : results)
+        assertTrue(result.get());
+    } finally {
+      workers.shutdown();
+    }
+    assertTrue(cache.size() <= 100 + 4);
+  }
+}
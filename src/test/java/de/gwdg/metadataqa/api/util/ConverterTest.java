@@ -1,5 +1,6 @@
 package de.gwdg.metadataqa.api.util;
 
+import de.gwdg.metadataqa.api.schema.Format;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -137,4 +138,9 @@ ConverterTest {
     fail("Test failed");
   }
 
+  @Test(expected = UnsupportedOperationException.class)
+  public void fragmentLists_unmodifiable() {
+    Converter.FRAGMENT_LISTS.remove(Format.JSON);
+  }
+
 }
@@ -2,8 +2,11 @@ package de.gwdg.metadataqa.api.util;
 
 import com.github.pemistahl.lingua.api.Language;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.TreeSet;
 import java.util.SortedMap;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -60,4 +63,34 @@ public class QALanguageDetectorTest {
     assertEquals("de", confidences.firstKey().getIsoCode639_1().toString());
 
   }
+
+  @Test
+  public void getInstance() {
+    assertSame(QALanguageDetector.getInstance(), QALanguageDetector.getInstance());
+    assertSame(QALanguageDetector.getInstance(Arrays.asList("en", "de"), false),
+      QALanguageDetector.getInstance(Arrays.asList("DE", "en"), false));
+    assertNotSame(QALanguageDetector.getInstance(Arrays.asList("en", "de"), false),
+      QALanguageDetector.getInstance(Arrays.asList("en", "de"), true));
+  }
+
+  @Test
+  public void restricted() throws Exception {
+    QALanguageDetector languageDetector = QALanguageDetector.getInstance(Arrays.asList("en", "de", "hu"), false);
+    assertEquals(new TreeSet<>(Arrays.asList("de", "en", "hu")), languageDetector.getIsoCodes());
+    languageDetector.warmUp().get();
+    assertTrue(languageDetector.isLoaded());
+
+    assertEquals("hu", languageDetector.detect("Ég a napmelegtől a kopár szík sarja.").getIsoCode639_1().toString());
+    assertEquals(1, languageDetector.getCacheSize());
+    assertEquals("hu", languageDetector.detect("  ég a napmelegtől   a kopár szík sarja.").getIsoCode639_1().toString());
+    assertEquals(1, languageDetector.getCacheSize());
+  }
+
+  @Test
+  public void normalize() {
+    QALanguageDetector languageDetector = QALanguageDetector.getInstance(Arrays.asList("en", "de"), true);
+    assertEquals("a b c", languageDetector.normalize("  A \t b\n\nC "));
+    assertEquals(QALanguageDetector.LOW_ACCURACY_TEXT_LENGTH,
+      languageDetector.normalize(StringUtils.repeat("abc ", 100)).length());
+  }
 }
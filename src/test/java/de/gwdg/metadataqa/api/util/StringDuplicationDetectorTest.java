@@ -60,4 +60,18 @@ public class StringDuplicationDetectorTest {
     assertTrue(StringDuplicationDetector.isDuplicated("1890\n1890"));
   }
 
+  @Test
+  public void isDuplicatedStringFunction_notDuplicated() {
+    assertFalse(StringDuplicationDetector.isDuplicated("1890; 1891"));
+    assertFalse(StringDuplicationDetector.isDuplicated("1890 - 1890"));
+    assertFalse(StringDuplicationDetector.isDuplicated("a"));
+    assertFalse(StringDuplicationDetector.isDuplicated("abc"));
+  }
+
+  @Test
+  public void isDuplicatedStringFunction_region() {
+    StringBuilder text = new StringBuilder("[1890 ; 1890]");
+    assertTrue(StringDuplicationDetector.isDuplicated(text, 1, text.length() - 1));
+    assertFalse(StringDuplicationDetector.isDuplicated(text));
+  }
 }
@@ -0,0 +1,213 @@
+package de.gwdg.metadataqa.api.xml;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.schema.edm.EdmOaiPmhXmlSchema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OaiPmhHarvesterTest {
+
+  private static final String ERROR_RESPONSE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+    + "<OAI-PMH xmlns=\"http://www.openarchives.org/OAI/2.0/\">"
+    + "<responseDate>2019-12-06T14:41:06Z</responseDate>"
+    + "<request verb=\"ListRecords\">https://oai-pmh.eanadev.org/oai</request>"
+    + "<error code=\"%s\">%s</error>"
+    + "</OAI-PMH>";
+
+  private HttpServer server;
+  private String baseUrl;
+  private final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+  private final AtomicInteger unavailableResponses = new AtomicInteger();
+  private boolean stylesheet = false;
+
+  /**
+   * A stand-in OAI-PMH repository serving the test responses.
+   */
+  @Before
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/oai", this::handle);
+    server.createContext("/empty", exchange -> send(exchange, 200,
+      String.format(ERROR_RESPONSE, "noRecordsMatch", "No records").getBytes(StandardCharsets.UTF_8)));
+    server.createContext("/broken", exchange -> send(exchange, 500, new byte[0]));
+    server.createContext("/busy", exchange -> {
+      if (unavailableResponses.getAndDecrement() > 0) {
+        exchange.getResponseHeaders().add("Retry-After", "0");
+        send(exchange, 503, new byte[0]);
+      } else {
+        handle(exchange);
+      }
+    });
+    server.start();
+    baseUrl = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    String query = exchange.getRequestURI().getRawQuery();
+    queries.add(query);
+    if (query.equals("verb=ListRecords&metadataPrefix=edm&set=00101"))
+      send(exchange, 200, readPage("list-records-1.xml"));
+    else if (query.equals("verb=ListRecords&resumptionToken=page2"))
+      send(exchange, 200, readPage("list-records-2.xml"));
+    else
+      send(exchange, 200,
+        String.format(ERROR_RESPONSE, "badResumptionToken", "Invalid token").getBytes(StandardCharsets.UTF_8));
+  }
+
+  private byte[] readPage(String page) throws IOException {
+    byte[] response = Files.readAllBytes(Paths.get("src/test/resources/oai-pmh", page));
+    return stylesheet ? OaiPmhRecordSplitterTest.withStylesheet(response) : response;
+  }
+
+  private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+    exchange.getResponseHeaders().add("Content-Type", "text/xml; charset=UTF-8");
+    exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(body);
+    }
+  }
+
+  private static CalculatorFacade createFacade() {
+    var calculatorFacade = new CalculatorFacade(new MeasurementConfiguration(true, true, true, false, true));
+    calculatorFacade.setSchema(new EdmOaiPmhXmlSchema());
+    calculatorFacade.configure();
+    return calculatorFacade;
+  }
+
+  @Test
+  public void run() throws IOException {
+    var calculatorFacade = createFacade();
+    List<String> expected = new ArrayList<>();
+    for (String page : List.of("list-records-1.xml", "list-records-2.xml")) {
+      try (var splitter = new OaiPmhRecordSplitter(Paths.get("src/test/resources/oai-pmh", page))) {
+        ByteBuffer metadata;
+        while ((metadata = splitter.next()) != null)
+          expected.add(calculatorFacade.measure(metadata));
+      }
+    }
+
+    List<String> identifiers = new ArrayList<>();
+    List<String> results = new ArrayList<>();
+    var harvester = new OaiPmhHarvester(baseUrl + "/oai").setSet("00101").setQueueCapacity(1);
+    long measured = harvester.run(createFacade(), (record, result) -> {
+      identifiers.add(record.getIdentifier());
+      results.add(result);
+    });
+
+    assertEquals(3, measured);
+    assertEquals(expected, results);
+    assertEquals("http://data.europeana.eu/item/00101/envelope-namespaces", identifiers.get(2));
+    assertEquals(2, harvester.getPages());
+    assertEquals(1, harvester.getDeletedRecords());
+    assertEquals(List.of("verb=ListRecords&metadataPrefix=edm&set=00101", "verb=ListRecords&resumptionToken=page2"),
+      queries);
+  }
+
+  @Test
+  public void run_noRecordsMatch() throws IOException {
+    var harvester = new OaiPmhHarvester(baseUrl + "/empty");
+    assertEquals(0, harvester.run(createFacade(), (record, result) -> { }));
+    assertEquals(1, harvester.getPages());
+  }
+
+  @Test
+  public void run_oaiPmhError() {
+    var harvester = new OaiPmhHarvester(baseUrl + "/oai").setMetadataPrefix("marc");
+    try {
+      harvester.run(createFacade(), (record, result) -> { });
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("badResumptionToken"));
+      return;
+    }
+    throw new AssertionError("IOException expected");
+  }
+
+  @Test(timeout = 10_000)
+  public void run_uncheckedFailure() {
+    var harvester = new OaiPmhHarvester(baseUrl + "/oai") {
+      @Override
+      String buildUrl(String resumptionToken) {
+        if (resumptionToken != null)
+          throw new IllegalStateException("malformed page");
+        return super.buildUrl(resumptionToken);
+      }
+    }.setSet("00101");
+    List<String> results = new ArrayList<>();
+    try {
+      harvester.run(createFacade(), (record, result) -> results.add(result));
+    } catch (IOException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+      // the records of the first page
+      assertEquals(2, results.size());
+      return;
+    }
+    throw new AssertionError("IOException expected");
+  }
+
+  @Test
+  public void run_stylesheetAndUnavailable() throws IOException {
+    stylesheet = true;
+    unavailableResponses.set(2);
+    var harvester = new OaiPmhHarvester(baseUrl + "/busy").setSet("00101");
+    List<String> identifiers = new ArrayList<>();
+    assertEquals(3, harvester.run(createFacade(), (record, result) -> identifiers.add(record.getIdentifier())));
+    assertEquals("http://data.europeana.eu/item/00101/envelope-namespaces", identifiers.get(2));
+    assertEquals(2, harvester.getPages());
+    assertEquals(2, harvester.getRetries());
+  }
+
+  @Test(expected = IOException.class)
+  public void run_tooManyRetries() throws IOException {
+    unavailableResponses.set(3);
+    new OaiPmhHarvester(baseUrl + "/busy").setSet("00101").setMaxRetries(2)
+      .run(createFacade(), (record, result) -> { });
+  }
+
+  @Test
+  public void getRetryDelay() {
+    assertEquals(120_000, OaiPmhHarvester.getRetryDelay("120"));
+    assertEquals(600_000, OaiPmhHarvester.getRetryDelay("86400"));
+    assertEquals(10_000, OaiPmhHarvester.getRetryDelay(null));
+    assertEquals(10_000, OaiPmhHarvester.getRetryDelay("soon"));
+    assertEquals(0, OaiPmhHarvester.getRetryDelay("Wed, 21 Oct 2015 07:28:00 GMT"));
+  }
+
+  @Test(expected = IOException.class)
+  public void run_httpError() throws IOException {
+    new OaiPmhHarvester(baseUrl + "/broken").run(createFacade(), (record, result) -> { });
+  }
+
+  @Test
+  public void buildUrl() {
+    var harvester = new OaiPmhHarvester("http://example.com/oai")
+      .setMetadataPrefix("oai_dc").setFrom("2019-01-01").setUntil("2019-12-31");
+    assertEquals("http://example.com/oai?verb=ListRecords&metadataPrefix=oai_dc&from=2019-01-01&until=2019-12-31",
+      harvester.buildUrl(null));
+    assertEquals("http://example.com/oai?verb=ListRecords&resumptionToken=a%2Bb%3D%3D",
+      harvester.buildUrl("a+b=="));
+  }
+}
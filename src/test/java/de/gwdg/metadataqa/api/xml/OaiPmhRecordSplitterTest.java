@@ -0,0 +1,177 @@
+package de.gwdg.metadataqa.api.xml;
+
+import de.gwdg.metadataqa.api.calculator.CalculatorFacade;
+import de.gwdg.metadataqa.api.configuration.MeasurementConfiguration;
+import de.gwdg.metadataqa.api.schema.edm.EdmOaiPmhXmlSchema;
+import de.gwdg.metadataqa.api.util.FileUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OaiPmhRecordSplitterTest {
+
+  private final Path page1 = Paths.get("src/test/resources/oai-pmh/list-records-1.xml");
+  private final Path page2 = Paths.get("src/test/resources/oai-pmh/list-records-2.xml");
+
+  @Test
+  public void listRecords() throws IOException {
+    try (var splitter = new OaiPmhRecordSplitter(page1)) {
+      OaiPmhRecord record = splitter.nextRecord();
+      assertEquals("http://data.europeana.eu/item/00101/2F29675EB2C8ADFFA488087DB15C5C479C95A2C3", record.getIdentifier());
+      assertEquals("1970-01-01T00:00:00Z", record.getDatestamp());
+      assertEquals(Arrays.asList("00101"), record.getSetSpecs());
+      assertFalse(record.isDeleted());
+      assertTrue(record.getMetadataAsString().startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?><rdf:RDF"));
+
+      record = splitter.nextRecord();
+      assertEquals("http://data.europeana.eu/item/92062/BibliographicResource_1000126015451", record.getIdentifier());
+      assertNull(splitter.getResumptionToken());
+
+      assertNull(splitter.nextRecord());
+      assertEquals("page2", splitter.getResumptionToken());
+      assertEquals(Files.size(page1), splitter.getBytesRead());
+    }
+  }
+
+  @Test
+  public void measure() throws IOException, URISyntaxException {
+    CalculatorFacade calculatorFacade = new CalculatorFacade(
+      new MeasurementConfiguration(true, true, true, false, true));
+    calculatorFacade.setSchema(new EdmOaiPmhXmlSchema());
+    calculatorFacade.configure();
+
+    List<String> expected = Arrays.asList(
+      calculatorFacade.measure(FileUtils.readContentFromResource("general/europeana-oai-pmh.xml")),
+      calculatorFacade.measure(FileUtils.readContentFromResource(
+        "general/europeana-oai-pmh-92062-BibliographicResource_1000126015451.xml"))
+    );
+
+    List<String> actual = new ArrayList<>();
+    try (var splitter = new OaiPmhRecordSplitter(page1)) {
+      ByteBuffer metadata;
+      while ((metadata = splitter.next()) != null)
+        actual.add(calculatorFacade.measure(metadata));
+    }
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void envelopeNamespaces() throws IOException {
+    try (var splitter = new OaiPmhRecordSplitter(page2)) {
+      OaiPmhRecord deleted = splitter.nextRecord();
+      assertTrue(deleted.isDeleted());
+      assertFalse(deleted.hasMetadata());
+      assertEquals("http://data.europeana.eu/item/00101/deleted", deleted.getIdentifier());
+
+      OaiPmhRecord record = splitter.nextRecord();
+      assertEquals(Arrays.asList("00101", "00102"), record.getSetSpecs());
+      var xpath = new OaiPmhXPath(new ByteArrayInputStream(record.getMetadata()));
+      assertEquals("Göttinger Sieben", xpath.extractFieldInstanceList("//dc:title").get(0).getValue());
+      assertEquals("de", xpath.extractFieldInstanceList("//dc:title").get(0).getLanguage());
+      assertEquals(1, xpath.extractNodes("//edm:ProvidedCHO").size());
+
+      assertNull(splitter.nextRecord());
+      assertNull(splitter.getResumptionToken());
+    }
+  }
+
+  @Test
+  public void concatenatedResponses() throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    bytes.write(Files.readAllBytes(page1));
+    bytes.write("\n".getBytes(StandardCharsets.UTF_8));
+    bytes.write(Files.readAllBytes(page2));
+
+    List<String> identifiers = new ArrayList<>();
+    try (var splitter = new OaiPmhRecordSplitter(new ByteArrayInputStream(bytes.toByteArray()))) {
+      OaiPmhRecord record;
+      while ((record = splitter.nextRecord()) != null)
+        identifiers.add(record.getIdentifier());
+      assertEquals(bytes.size(), splitter.getBytesRead());
+      assertEquals(-1, splitter.getLength());
+    }
+    assertEquals(4, identifiers.size());
+    assertEquals("http://data.europeana.eu/item/00101/envelope-namespaces", identifiers.get(3));
+
+    var count = 0;
+    try (var splitter = new OaiPmhRecordSplitter(new ByteArrayInputStream(bytes.toByteArray()))) {
+      while (splitter.next() != null)
+        count++;
+    }
+    assertEquals(3, count);
+  }
+
+  @Test
+  public void concatenatedResponses_keepTheirTokens() throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    bytes.write(Files.readAllBytes(page1));
+    bytes.write(Files.readAllBytes(page2));
+
+    try (var splitter = new OaiPmhRecordSplitter(new ByteArrayInputStream(bytes.toByteArray()))) {
+      while (splitter.nextRecord() != null) {
+        // read all
+      }
+      List<OaiPmhResponse> responses = splitter.getResponses();
+      assertEquals(2, responses.size());
+      assertEquals("page2", responses.get(0).getResumptionToken());
+      assertEquals(2, responses.get(0).getRecordCount());
+      assertNull(responses.get(1).getResumptionToken());
+      assertEquals(2, responses.get(1).getRecordCount());
+      assertNull(splitter.getResumptionToken());
+    }
+  }
+
+  @Test
+  public void stylesheetInstruction() throws IOException {
+    byte[] page = withStylesheet(Files.readAllBytes(page1));
+    var bytes = new ByteArrayOutputStream();
+    bytes.write(page);
+    bytes.write(page);
+
+    List<String> identifiers = new ArrayList<>();
+    try (var splitter = new OaiPmhRecordSplitter(new ByteArrayInputStream(bytes.toByteArray()))) {
+      OaiPmhRecord record;
+      while ((record = splitter.nextRecord()) != null)
+        identifiers.add(record.getIdentifier());
+      assertEquals(2, splitter.getResponses().size());
+      assertEquals("page2", splitter.getResumptionToken());
+    }
+    assertEquals(4, identifiers.size());
+    assertEquals(identifiers.subList(0, 2), identifiers.subList(2, 4));
+  }
+
+  /**
+   * Adds a stylesheet processing instruction after the XML declaration, as
+   * many OAI-PMH servers do.
+   */
+  static byte[] withStylesheet(byte[] response) {
+    String xml = new String(response, StandardCharsets.UTF_8);
+    int end = xml.indexOf("?>") + 2;
+    return (xml.substring(0, end) + "\n<?xml-stylesheet type=\"text/xsl\" href=\"/oai2.xsl\"?>" + xml.substring(end))
+      .getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test(expected = IOException.class)
+  public void invalid() throws IOException {
+    String xml = "<?xml version=\"1.0\"?><OAI-PMH><ListRecords><record><metadata><a></b>";
+    try (var splitter = new OaiPmhRecordSplitter(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))) {
+      splitter.nextRecord();
+    }
+  }
+}
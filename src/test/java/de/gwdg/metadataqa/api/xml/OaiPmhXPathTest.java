@@ -11,9 +11,11 @@ import org.junit.Test;
 import org.w3c.dom.Node;
 
 import javax.xml.xpath.*;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
@@ -55,6 +57,18 @@ public class OaiPmhXPathTest {
     }
   }
 
+  @Test
+  public void testEncoding() {
+    String xml = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>"
+      + "<record xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><dc:title>Göttingen, Zürich</dc:title></record>";
+
+    OaiPmhXPath fromStream = new OaiPmhXPath(new ByteArrayInputStream(xml.getBytes(StandardCharsets.ISO_8859_1)));
+    assertEquals("Göttingen, Zürich", fromStream.extractFieldInstanceList("//dc:title").get(0).getValue());
+
+    OaiPmhXPath fromString = new OaiPmhXPath(xml, true);
+    assertEquals("Göttingen, Zürich", fromString.extractFieldInstanceList("//dc:title").get(0).getValue());
+  }
+
   @Test
   public void testValueAndLanguage() {
     OaiPmhXPath oaiPmhXPath = new OaiPmhXPath(new File(inputFile));